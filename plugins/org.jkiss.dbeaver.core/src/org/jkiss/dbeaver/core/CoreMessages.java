@@ -300,6 +300,9 @@ public class CoreMessages extends NLS {
     public static String pref_page_database_general_checkbox_disable_extra_metadata_tip;
     public static String pref_page_database_general_checkbox_rollback_on_error;
     public static String pref_page_database_general_checkbox_show_row_count;
+    public static String pref_page_database_general_checkbox_metadata_snapshot;
+    public static String pref_page_database_general_checkbox_metadata_snapshot_tip;
+    public static String pref_page_database_general_label_metadata_snapshot_max_size;
     public static String pref_page_database_general_group_metadata;
     public static String pref_page_database_general_group_ordering;
 
@@ -345,6 +348,9 @@ public class CoreMessages extends NLS {
     public static String pref_page_query_manager_label_days_to_store_log;
     public static String pref_page_query_manager_label_entries_per_page;
     public static String pref_page_query_manager_log_file_hint;
+    public static String pref_page_query_manager_checkbox_store_history;
+    public static String pref_page_query_manager_checkbox_store_history_tip;
+    public static String pref_page_query_manager_label_history_max_size;
 
     public static String pref_page_ui_general_checkbox_automatic_updates;
     public static String pref_page_ui_general_group_browser;
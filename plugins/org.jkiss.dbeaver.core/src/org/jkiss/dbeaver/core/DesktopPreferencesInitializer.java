@@ -75,6 +75,8 @@ public class DesktopPreferencesInitializer extends AbstractPreferenceInitializer
         PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_QUERY_TYPES,
             DBCExecutionPurpose.USER + "," + DBCExecutionPurpose.USER_FILTERED + "," + DBCExecutionPurpose.USER_SCRIPT);
         PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_STORE_LOG_FILE, false);
+        PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_STORE_HISTORY, false);
+        PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_HISTORY_MAX_SIZE, 512);
 
         // Logs
         PrefUtils.setDefaultPreferenceValue(store, DBeaverPreferences.LOGS_DEBUG_ENABLED, true);
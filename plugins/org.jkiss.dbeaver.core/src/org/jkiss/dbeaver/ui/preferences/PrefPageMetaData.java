@@ -46,6 +46,8 @@ public class PrefPageMetaData extends TargetPrefPage
     private Button caseSensitiveNamesCheck;
     private Button serverSideFiltersCheck;
     private Button addExtraDDLInfo;
+    private Button metadataSnapshotCheck;
+    private Spinner metadataSnapshotMaxSizeSpinner;
 
     public PrefPageMetaData()
     {
@@ -61,7 +63,9 @@ public class PrefPageMetaData extends TargetPrefPage
             store.contains(ModelPreferences.META_SEPARATE_CONNECTION) ||
             store.contains(ModelPreferences.META_CASE_SENSITIVE) ||
             store.contains(ModelPreferences.META_DISABLE_EXTRA_READ) ||
-            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS)
+            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS) ||
+            store.contains(ModelPreferences.META_SNAPSHOT_ENABLED) ||
+            store.contains(ModelPreferences.META_SNAPSHOT_MAX_SIZE)
             ;
     }
 
@@ -146,6 +150,18 @@ public class PrefPageMetaData extends TargetPrefPage
                 CoreMessages.pref_page_database_general_checkbox_show_row_count_tip,
                 false,
                 1);
+            metadataSnapshotCheck = UIUtils.createCheckbox(
+                performanceGroup,
+                CoreMessages.pref_page_database_general_checkbox_metadata_snapshot,
+                CoreMessages.pref_page_database_general_checkbox_metadata_snapshot_tip,
+                false,
+                1);
+            metadataSnapshotMaxSizeSpinner = UIUtils.createLabelSpinner(
+                UIUtils.createComposite(performanceGroup, 2),
+                CoreMessages.pref_page_database_general_label_metadata_snapshot_max_size,
+                32,
+                1,
+                Integer.MAX_VALUE);
         }
 
         return composite;
@@ -163,6 +179,8 @@ public class PrefPageMetaData extends TargetPrefPage
             disableExtraMetadataRead.setSelection(store.getBoolean(ModelPreferences.META_DISABLE_EXTRA_READ));
             addExtraDDLInfo.setSelection(store.getBoolean(ModelPreferences.META_EXTRA_DDL_INFO));
             serverSideFiltersCheck.setSelection(store.getBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+            metadataSnapshotCheck.setSelection(store.getBoolean(ModelPreferences.META_SNAPSHOT_ENABLED));
+            metadataSnapshotMaxSizeSpinner.setSelection(store.getInt(ModelPreferences.META_SNAPSHOT_MAX_SIZE));
 
         } catch (Exception e) {
             log.warn(e);
@@ -182,6 +200,8 @@ public class PrefPageMetaData extends TargetPrefPage
             store.setValue(ModelPreferences.META_DISABLE_EXTRA_READ, disableExtraMetadataRead.getSelection());
             store.setValue(ModelPreferences.META_EXTRA_DDL_INFO, addExtraDDLInfo.getSelection());
             store.setValue(ModelPreferences.META_USE_SERVER_SIDE_FILTERS, serverSideFiltersCheck.getSelection());
+            store.setValue(ModelPreferences.META_SNAPSHOT_ENABLED, metadataSnapshotCheck.getSelection());
+            store.setValue(ModelPreferences.META_SNAPSHOT_MAX_SIZE, metadataSnapshotMaxSizeSpinner.getSelection());
 
         } catch (Exception e) {
             log.warn(e);
@@ -198,6 +218,8 @@ public class PrefPageMetaData extends TargetPrefPage
         store.setToDefault(ModelPreferences.META_DISABLE_EXTRA_READ);
         store.setToDefault(ModelPreferences.META_USE_SERVER_SIDE_FILTERS);
         store.setToDefault(ModelPreferences.META_EXTRA_DDL_INFO);
+        store.setToDefault(ModelPreferences.META_SNAPSHOT_ENABLED);
+        store.setToDefault(ModelPreferences.META_SNAPSHOT_MAX_SIZE);
     }
 
     @Override
@@ -211,6 +233,8 @@ public class PrefPageMetaData extends TargetPrefPage
         disableExtraMetadataRead.setSelection(store.getDefaultBoolean(ModelPreferences.META_DISABLE_EXTRA_READ));
         addExtraDDLInfo.setSelection(store.getDefaultBoolean(ModelPreferences.META_EXTRA_DDL_INFO));
         serverSideFiltersCheck.setSelection(store.getDefaultBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+        metadataSnapshotCheck.setSelection(store.getDefaultBoolean(ModelPreferences.META_SNAPSHOT_ENABLED));
+        metadataSnapshotMaxSizeSpinner.setSelection(store.getDefaultInt(ModelPreferences.META_SNAPSHOT_MAX_SIZE));
         super.performDefaults();
     }
 
@@ -62,6 +62,8 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
     private Text textHistoryDays;
     private Text textEntriesPerPage;
     private Button checkStoreLog;
+    private Button checkStoreHistory;
+    private Text textHistoryMaxSize;
     private Text textOutputFolder;
 
 
@@ -107,6 +109,26 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         {
             Group storageSettings = UIUtils.createControlGroup(composite, CoreMessages.pref_page_query_manager_group_storage, 2, GridData.FILL_HORIZONTAL | GridData.VERTICAL_ALIGN_BEGINNING, 0);
+            checkStoreHistory = UIUtils.createCheckbox(
+                storageSettings,
+                CoreMessages.pref_page_query_manager_checkbox_store_history,
+                CoreMessages.pref_page_query_manager_checkbox_store_history_tip,
+                store.getBoolean(QMConstants.PROP_STORE_HISTORY),
+                2);
+            checkStoreHistory.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e)
+                {
+                    updateStorageControls();
+                }
+            });
+            textHistoryMaxSize = UIUtils.createLabelText(
+                storageSettings,
+                CoreMessages.pref_page_query_manager_label_history_max_size,
+                store.getString(QMConstants.PROP_HISTORY_MAX_SIZE),
+                SWT.BORDER,
+                new GridData(50, SWT.DEFAULT));
+
             checkStoreLog = UIUtils.createCheckbox(
                 storageSettings,
                 CoreMessages.pref_page_query_manager_checkbox_store_log_file,
@@ -118,8 +140,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
                 @Override
                 public void widgetSelected(SelectionEvent e)
                 {
-                    UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
-                    UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+                    updateStorageControls();
                 }
             });
             textOutputFolder = DialogUtils.createOutputFolderChooser(storageSettings, CoreMessages.pref_page_query_manager_logs_folder, null, false, null);
@@ -146,8 +167,13 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         Collection<String> queryTypes = CommonUtils.splitString(store.getString(QMConstants.PROP_QUERY_TYPES), ',');
         checkObjectTypes(objectTypes);
         checkQueryTypes(queryTypes);
+        updateStorageControls();
+    }
+
+    private void updateStorageControls() {
         UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
-        UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+        UIUtils.enableWithChildren(textHistoryMaxSize, checkStoreHistory.getSelection());
+        UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection() || checkStoreHistory.getSelection());
     }
 
     private void checkObjectTypes(Collection<QMObjectType> objectTypes) {
@@ -182,8 +208,9 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         checkStoreLog.setSelection(store.getDefaultBoolean(QMConstants.PROP_STORE_LOG_FILE));
         textOutputFolder.setText(store.getDefaultString(QMConstants.PROP_LOG_DIRECTORY));
-        UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
-        UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+        checkStoreHistory.setSelection(store.getDefaultBoolean(QMConstants.PROP_STORE_HISTORY));
+        textHistoryMaxSize.setText(store.getDefaultString(QMConstants.PROP_HISTORY_MAX_SIZE));
+        updateStorageControls();
 
         super.performDefaults();
     }
@@ -206,6 +233,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         Integer historyDays = UIUtils.getTextInteger(textHistoryDays);
         Integer entriesPerPage = UIUtils.getTextInteger(textEntriesPerPage);
+        Integer historyMaxSize = UIUtils.getTextInteger(textHistoryMaxSize);
 
         DBPPreferenceStore store = DBWorkbench.getPlatform().getPreferenceStore();
         store.setValue(QMConstants.PROP_OBJECT_TYPES, QMObjectType.toString(objectTypes));
@@ -218,6 +246,10 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         }
         store.setValue(QMConstants.PROP_STORE_LOG_FILE, checkStoreLog.getSelection());
         store.setValue(QMConstants.PROP_LOG_DIRECTORY, textOutputFolder.getText());
+        store.setValue(QMConstants.PROP_STORE_HISTORY, checkStoreHistory.getSelection());
+        if (historyMaxSize != null) {
+            store.setValue(QMConstants.PROP_HISTORY_MAX_SIZE, Math.max(1, historyMaxSize));
+        }
         PrefUtils.savePreferenceStore(store);
 
         return super.performOk();
@@ -18,6 +18,8 @@ package org.jkiss.dbeaver.ui.gis.panel;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.action.ToolBarManager;
@@ -48,6 +50,8 @@ import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.gis.*;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVEntityAttribute;
@@ -75,7 +79,9 @@ import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.IOUtils;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTWriter;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -114,6 +120,10 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
     private boolean toolsVisible = true;
     private boolean showLabels;
     private boolean flipCoordinates = false;
+    // Tiled rendering of huge result sets
+    private GisTileSession tileSession;
+    private List<String> tileTipValues;
+    private AbstractJob tileIndexJob;
     private final Composite composite;
 
     public GISLeafletViewer(Composite parent, @NotNull DBDAttributeBinding[] bindings, @Nullable SpatialDataProvider spatialDataProvider, @Nullable IResultSetPresentation presentation) {
@@ -153,6 +163,21 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
                 }
             };
 
+            new BrowserFunction(browser, "loadGeometryTiles") {
+                @Override
+                public Object function(Object[] arguments) {
+                    if (tileSession == null || arguments.length < 5) {
+                        return null;
+                    }
+                    Envelope viewport = new Envelope(
+                        CommonUtils.toDouble(arguments[1]),
+                        CommonUtils.toDouble(arguments[3]),
+                        CommonUtils.toDouble(arguments[2]),
+                        CommonUtils.toDouble(arguments[4]));
+                    return loadGeometryTiles(CommonUtils.toInt(arguments[0]), viewport);
+                }
+            };
+
             if (presentation instanceof SpreadsheetPresentation) {
                 new BrowserFunction(browser, "setPresentationSelection") {
                     @Override
@@ -169,6 +194,7 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
             }
 
             browser.addDisposeListener(e -> {
+                cancelTileIndexing();
                 cleanupFiles();
                 GISViewerActivator.getDefault().getPreferences().removePropertyChangeListener(this);
             });
@@ -293,19 +319,18 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
         if (maxObjects <= 0) {
             maxObjects = GeometryViewerConstants.DEFAULT_MAX_OBJECTS_RENDER;
         }
-        if (values != null && values.length > maxObjects) {
-            // Truncate value list
-            DBGeometry[] truncValues = new DBGeometry[maxObjects];
-            System.arraycopy(values, 0, truncValues, 0, maxObjects);
-            values = truncValues;
-        }
+        // Too many objects to render at once: load them by tiles, clustering dense areas
+        boolean tiledMode = values != null && values.length > maxObjects;
+        cancelTileIndexing();
+        tileSession = null;
+        tileTipValues = null;
         if (browser != null) {
             try {
                 if (ArrayUtils.isEmpty(values)) {
                     browser.setUrl("about:blank");
                 } else {
                     final Bounds bounds = recenter ? null : Bounds.tryExtractFromBrowser(browser);
-                    final Path file = generateViewScript(values, bounds);
+                    final Path file = generateViewScript(values, bounds, tiledMode);
                     browser.setUrl(file.toFile().toURI().toURL().toString());
                 }
             } catch (IOException e) {
@@ -316,7 +341,7 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
         populateToolbar();
     }
 
-    private Path generateViewScript(DBGeometry[] values, @Nullable Bounds bounds) throws IOException {
+    private Path generateViewScript(DBGeometry[] values, @Nullable Bounds bounds, boolean tiledMode) throws IOException {
         if (scriptFile == null) {
             Path tempDir = DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), "gis-viewer-files");
             checkIncludesExistence(tempDir);
@@ -336,6 +361,7 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
 
         List<String> geomValues = new ArrayList<>();
         List<String> geomTipValues = new ArrayList<>();
+        List<Geometry> tiledGeometries = new ArrayList<>();
         boolean showMap = false;
         for (int i = 0; i < values.length; i++) {
             DBGeometry value = values[i];
@@ -397,22 +423,45 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
             if (targetValue == null) {
                 continue;
             }
-            geomValues.add("'" + targetValue + "'");
+            if (tiledMode) {
+                Geometry geometry = GisTransformUtils.getJtsGeometry(targetValue);
+                if (geometry == null) {
+                    continue;
+                }
+                tiledGeometries.add(geometry);
+            } else {
+                geomValues.add("'" + targetValue + "'");
+            }
+            String tipValue = "null";
             try {
-                if (CommonUtils.isEmpty(value.getProperties())) {
-                    geomTipValues.add("null");
-                } else {
-                    geomTipValues.add(gson.toJson(value.getProperties()));
+                if (!CommonUtils.isEmpty(value.getProperties())) {
+                    tipValue = gson.toJson(value.getProperties());
                 }
             } catch (Exception e) {
                 log.debug(e);
             }
+            geomTipValues.add(tipValue);
         }
         this.defaultSRID = actualSourceSRID;
+        String geomCRS = actualSourceSRID == GisConstants.SRID_SIMPLE ? GisConstants.LL_CRS_SIMPLE : GisConstants.LL_CRS_3857;
+        String dataBounds = "undefined";
+        if (tiledMode) {
+            Envelope envelope = new Envelope();
+            for (Geometry geometry : tiledGeometries) {
+                if (!geometry.isEmpty()) {
+                    envelope.expandToInclude(geometry.getEnvelopeInternal());
+                }
+            }
+            if (!envelope.isNull()) {
+                dataBounds = "[[" + envelope.getMinY() + "," + envelope.getMinX() + "],[" + envelope.getMaxY() + "," + envelope.getMaxX() + "]]";
+            }
+            startTileIndexing(tiledGeometries, !GisConstants.LL_CRS_SIMPLE.equals(geomCRS), geomTipValues);
+            geomTipValues = List.of();
+        }
         String geomValuesString = String.join(",", geomValues);
         String geomTipValuesString = String.join(",", geomTipValues);
-        String geomCRS = actualSourceSRID == GisConstants.SRID_SIMPLE ? GisConstants.LL_CRS_SIMPLE : GisConstants.LL_CRS_3857;
         boolean isShowMap = showMap;
+        String dataBoundsString = dataBounds;
 
         InputStream fis = GISViewerActivator.getDefault().getResourceStream(GISBrowserViewerConstants.VIEW_TEMPLATE_PATH);
         if (fis == null) {
@@ -430,6 +479,10 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
                         return String.valueOf(defaultSRID);
                     case "showMap":
                         return String.valueOf(isShowMap);
+                    case "tiledMode":
+                        return String.valueOf(tiledMode);
+                    case "dataBounds":
+                        return dataBoundsString;
                     case "showTools":
                         return String.valueOf(toolsVisible);
                     case "showLabels":
@@ -459,6 +512,78 @@ public class GISLeafletViewer implements IGeometryValueEditor, DBPPreferenceList
         return scriptFile;
     }
 
+    /**
+     * Builds feature index of tiled geometries in background.
+     * Tiles are loaded when the index is ready, until then the map shows no features.
+     */
+    private void startTileIndexing(@NotNull List<Geometry> geometries, boolean geographic, @NotNull List<String> tipValues) {
+        tileIndexJob = new AbstractJob("Index geometries") {
+            {
+                setSystem(true);
+            }
+
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                GisFeatureIndex index = new GisFeatureIndex(geometries, geographic);
+                UIUtils.asyncExec(() -> {
+                    if (tileIndexJob != this || browser == null || browser.isDisposed()) {
+                        // Viewer was reloaded or closed
+                        return;
+                    }
+                    tileIndexJob = null;
+                    tileSession = new GisTileSession(index);
+                    tileTipValues = tipValues;
+                    browser.execute("if (typeof loadTiles !== 'undefined') { loadTiles(); }");
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        tileIndexJob.schedule();
+    }
+
+    private void cancelTileIndexing() {
+        if (tileIndexJob != null) {
+            tileIndexJob.cancel();
+            tileIndexJob = null;
+        }
+    }
+
+    /**
+     * Returns JSON with features and clusters of the viewport which weren't rendered yet
+     */
+    @NotNull
+    private String loadGeometryTiles(int zoom, @NotNull Envelope viewport) {
+        GisTileSession.Update update = tileSession.loadViewport(zoom, viewport);
+        GisFeatureIndex index = tileSession.getIndex();
+        WKTWriter wktWriter = new WKTWriter();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"reset\":").append(update.isReset()).append(",\"features\":[");
+        int[] featureIds = update.getFeatureIds();
+        for (int i = 0; i < featureIds.length; i++) {
+            if (i > 0) {
+                json.append(",");
+            }
+            json.append("{\"wkt\":").append(gson.toJson(wktWriter.write(index.getGeometry(featureIds[i], zoom))))
+                .append(",\"tip\":").append(tileTipValues.get(featureIds[i])).append("}");
+        }
+        json.append("],\"clusters\":[");
+        List<GisFeatureIndex.Cluster> clusters = update.getClusters();
+        for (int i = 0; i < clusters.size(); i++) {
+            GisFeatureIndex.Cluster cluster = clusters.get(i);
+            Envelope clusterBounds = cluster.getBounds();
+            if (i > 0) {
+                json.append(",");
+            }
+            json.append("{\"x\":").append(cluster.getX())
+                .append(",\"y\":").append(cluster.getY())
+                .append(",\"count\":").append(cluster.getFeatureCount())
+                .append(",\"bounds\":[[").append(clusterBounds.getMinY()).append(",").append(clusterBounds.getMinX())
+                .append("],[").append(clusterBounds.getMaxY()).append(",").append(clusterBounds.getMaxX()).append("]]}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
     private void checkIncludesExistence(Path scriptDir) throws IOException {
         Path incFolder = scriptDir.resolve("inc");
         if (!Files.exists(incFolder)) {
@@ -0,0 +1,548 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+
+import java.util.*;
+
+/**
+ * Spatial index of geometries prepared for rendering on a tiled map.
+ *
+ * Geometries are queried by map tiles (256x256 pixels at the given zoom level).
+ * Lines and polygons are simplified with the tolerance of the zoom level pixel size.
+ * Dense points (and geometries smaller than a pixel) are grouped into clusters.
+ * Point clusters are computed from a precomputed grid, so tiles of huge point sets are built
+ * without scanning all points.
+ *
+ * Coordinates are either geographic (longitude/latitude, rendered in Web Mercator)
+ * or simple planar coordinates (one unit is one pixel at zoom level 0).
+ */
+public class GisFeatureIndex {
+
+    private static final Log log = Log.getLog(GisFeatureIndex.class);
+
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * Cluster grid cell size in pixels
+     */
+    private static final int CLUSTER_CELL_SIZE = 64;
+    private static final int CELLS_PER_TILE = TILE_SIZE / CLUSTER_CELL_SIZE;
+    private static final int MIN_CLUSTER_SIZE = 3;
+    /**
+     * Geographic points are not clustered at street level zoom
+     */
+    private static final int MAX_GEOGRAPHIC_CLUSTER_ZOOM = 17;
+    private static final double SIMPLIFY_TOLERANCE_PIXELS = 0.75;
+    private static final double MAX_MERCATOR_LATITUDE = 85.0511287798;
+    private static final int MAX_CACHED_ZOOM_LEVELS = 3;
+
+    /**
+     * Points are kept in a grid of cluster cells at the base zoom level, ordered by Morton (Z-order) code.
+     * A cell at any lower zoom level is a continuous range of this order.
+     */
+    private static final int GRID_BITS = 24;
+    private static final long GRID_OFFSET = 1L << (GRID_BITS - 1);
+    private static final int GEOGRAPHIC_GRID_ZOOM = 22;
+
+    /**
+     * Group of features located close to each other at some zoom level
+     */
+    public static class Cluster {
+        private final int featureCount;
+        private final double x;
+        private final double y;
+        private final Envelope bounds;
+
+        Cluster(int featureCount, double x, double y, @NotNull Envelope bounds) {
+            this.featureCount = featureCount;
+            this.x = x;
+            this.y = y;
+            this.bounds = bounds;
+        }
+
+        public int getFeatureCount() {
+            return featureCount;
+        }
+
+        /**
+         * Cluster center X (longitude)
+         */
+        public double getX() {
+            return x;
+        }
+
+        /**
+         * Cluster center Y (latitude)
+         */
+        public double getY() {
+            return y;
+        }
+
+        @NotNull
+        public Envelope getBounds() {
+            return bounds;
+        }
+    }
+
+    /**
+     * Features and clusters of a map tile. Features larger than a pixel are included in all tiles they intersect.
+     */
+    public static class Tile {
+        private final int zoom;
+        private final int x;
+        private final int y;
+        private final int[] featureIds;
+        private final List<Cluster> clusters;
+
+        Tile(int zoom, int x, int y, @NotNull int[] featureIds, @NotNull List<Cluster> clusters) {
+            this.zoom = zoom;
+            this.x = x;
+            this.y = y;
+            this.featureIds = featureIds;
+            this.clusters = clusters;
+        }
+
+        public int getZoom() {
+            return zoom;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        @NotNull
+        public int[] getFeatureIds() {
+            return featureIds;
+        }
+
+        @NotNull
+        public List<Cluster> getClusters() {
+            return clusters;
+        }
+    }
+
+    private final Geometry[] geometries;
+    private final boolean geographic;
+    private final STRtree shapeTree = new STRtree();
+    private final STRtree pointTree = new STRtree();
+    private final Envelope bounds = new Envelope();
+    private final Map<Integer, Map<Integer, Geometry>> simplifiedGeometries = new LinkedHashMap<>(16, 0.75f, true);
+    private int featureCount;
+
+    // Point grid
+    private int gridZoom;
+    private int[] gridPointIds;
+    private long[] gridCodes;
+    private double[] gridSumX;
+    private double[] gridSumY;
+
+    /**
+     * Creates index of geometries. Feature ids are indexes in the geometry list, null geometries are skipped.
+     */
+    public GisFeatureIndex(@NotNull List<? extends Geometry> geometries, boolean geographic) {
+        this.geometries = geometries.toArray(new Geometry[0]);
+        this.geographic = geographic;
+        int[] pointIds = new int[this.geometries.length];
+        int pointCount = 0;
+        for (int i = 0; i < this.geometries.length; i++) {
+            Geometry geometry = this.geometries[i];
+            if (geometry == null || geometry.isEmpty()) {
+                continue;
+            }
+            Envelope envelope = geometry.getEnvelopeInternal();
+            if (geometry instanceof Point) {
+                pointTree.insert(envelope, i);
+                pointIds[pointCount++] = i;
+            } else {
+                shapeTree.insert(envelope, i);
+            }
+            bounds.expandToInclude(envelope);
+            featureCount++;
+        }
+        shapeTree.build();
+        pointTree.build();
+        buildPointGrid(Arrays.copyOf(pointIds, pointCount));
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public boolean isGeographic() {
+        return geographic;
+    }
+
+    /**
+     * Bounds of all indexed geometries
+     */
+    @NotNull
+    public Envelope getBounds() {
+        return new Envelope(bounds);
+    }
+
+    /**
+     * Returns original geometry
+     */
+    @Nullable
+    public Geometry getGeometry(int featureId) {
+        return geometries[featureId];
+    }
+
+    /**
+     * Returns geometry simplified for rendering at the specified zoom level
+     */
+    @NotNull
+    public Geometry getGeometry(int featureId, int zoom) {
+        Geometry geometry = geometries[featureId];
+        if (geometry instanceof Point || geometry.getNumPoints() <= 4) {
+            return geometry;
+        }
+        synchronized (simplifiedGeometries) {
+            Map<Integer, Geometry> zoomGeometries = simplifiedGeometries.get(zoom);
+            if (zoomGeometries == null) {
+                zoomGeometries = new HashMap<>();
+                simplifiedGeometries.put(zoom, zoomGeometries);
+                if (simplifiedGeometries.size() > MAX_CACHED_ZOOM_LEVELS) {
+                    Iterator<Integer> iterator = simplifiedGeometries.keySet().iterator();
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            return zoomGeometries.computeIfAbsent(featureId, id -> simplify(geometry, zoom));
+        }
+    }
+
+    /**
+     * Returns tiles which cover the specified area (in geometry coordinates)
+     */
+    @NotNull
+    public List<Tile> getTiles(int zoom, @NotNull Envelope area) {
+        int[] range = getTileRange(zoom, area);
+        List<Tile> tiles = new ArrayList<>();
+        for (int y = range[1]; y <= range[3]; y++) {
+            for (int x = range[0]; x <= range[2]; x++) {
+                tiles.add(getTile(zoom, x, y));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Returns range of tiles covering the area: {minX, minY, maxX, maxY}
+     */
+    @NotNull
+    public int[] getTileRange(int zoom, @NotNull Envelope area) {
+        double scale = getScale(zoom);
+        // Pixel Y axis is directed down
+        return new int[] {
+            (int) Math.floor(toPixelX(area.getMinX(), scale) / TILE_SIZE),
+            (int) Math.floor(toPixelY(area.getMaxY(), scale) / TILE_SIZE),
+            (int) Math.floor(toPixelX(area.getMaxX(), scale) / TILE_SIZE),
+            (int) Math.floor(toPixelY(area.getMinY(), scale) / TILE_SIZE)
+        };
+    }
+
+    @NotNull
+    public Tile getTile(int zoom, int tileX, int tileY) {
+        double scale = getScale(zoom);
+        Envelope tileEnvelope = new Envelope(
+            fromPixelX((double) tileX * TILE_SIZE, scale),
+            fromPixelX((double) (tileX + 1) * TILE_SIZE, scale),
+            fromPixelY((double) (tileY + 1) * TILE_SIZE, scale),
+            fromPixelY((double) tileY * TILE_SIZE, scale)
+        );
+        boolean clusterPoints = !geographic || zoom < MAX_GEOGRAPHIC_CLUSTER_ZOOM;
+        int gridShift = gridZoom - zoom;
+        boolean useGrid = clusterPoints && gridPointIds.length > 0 && gridShift >= 0 && gridShift < GRID_BITS;
+
+        List<Integer> featureIds = new ArrayList<>();
+        List<Cluster> clusters = new ArrayList<>();
+        List<Integer>[] cells = new List[CELLS_PER_TILE * CELLS_PER_TILE];
+        for (Object item : shapeTree.query(tileEnvelope)) {
+            addTileFeature(tileX, tileY, scale, (Integer) item, clusterPoints, featureIds, cells);
+        }
+        if (useGrid) {
+            addGridPoints(zoom, tileX, tileY, gridShift, featureIds, clusters);
+        } else {
+            for (Object item : pointTree.query(tileEnvelope)) {
+                addTileFeature(tileX, tileY, scale, (Integer) item, clusterPoints, featureIds, cells);
+            }
+        }
+        for (List<Integer> cell : cells) {
+            if (cell == null) {
+                continue;
+            }
+            if (cell.size() < MIN_CLUSTER_SIZE) {
+                featureIds.addAll(cell);
+            } else {
+                clusters.add(makeCluster(cell));
+            }
+        }
+        int[] ids = new int[featureIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = featureIds.get(i);
+        }
+        return new Tile(zoom, tileX, tileY, ids, clusters);
+    }
+
+    private void addTileFeature(
+        int tileX,
+        int tileY,
+        double scale,
+        int featureId,
+        boolean clusterPoints,
+        @NotNull List<Integer> featureIds,
+        @NotNull List<Integer>[] cells
+    ) {
+        Envelope envelope = geometries[featureId].getEnvelopeInternal();
+        if (envelope.getWidth() * scale >= 1 || envelope.getHeight() * scale >= 1) {
+            // Large enough to be rendered
+            featureIds.add(featureId);
+            return;
+        }
+        // Point-like feature belongs to the tile it is located in
+        double pixelX = toPixelX(envelope.centre().x, scale) - (double) tileX * TILE_SIZE;
+        double pixelY = toPixelY(envelope.centre().y, scale) - (double) tileY * TILE_SIZE;
+        if (pixelX < 0 || pixelX >= TILE_SIZE || pixelY < 0 || pixelY >= TILE_SIZE) {
+            return;
+        }
+        if (!clusterPoints) {
+            featureIds.add(featureId);
+            return;
+        }
+        int cell = (int) (pixelY / CLUSTER_CELL_SIZE) * CELLS_PER_TILE + (int) (pixelX / CLUSTER_CELL_SIZE);
+        if (cells[cell] == null) {
+            cells[cell] = new ArrayList<>();
+        }
+        cells[cell].add(featureId);
+    }
+
+    /**
+     * Adds points of tile cells from the point grid
+     */
+    private void addGridPoints(
+        int zoom,
+        int tileX,
+        int tileY,
+        int gridShift,
+        @NotNull List<Integer> featureIds,
+        @NotNull List<Cluster> clusters
+    ) {
+        double scale = getScale(zoom);
+        long levelOffset = geographic ? 0 : GRID_OFFSET >> gridShift;
+        long levelSize = 1L << (GRID_BITS - gridShift);
+        long rangeSize = 1L << (2 * gridShift);
+        for (int cy = 0; cy < CELLS_PER_TILE; cy++) {
+            for (int cx = 0; cx < CELLS_PER_TILE; cx++) {
+                long cellX = (long) tileX * CELLS_PER_TILE + cx;
+                long cellY = (long) tileY * CELLS_PER_TILE + cy;
+                long gridX = cellX + levelOffset;
+                long gridY = cellY + levelOffset;
+                if (gridX < 0 || gridX >= levelSize || gridY < 0 || gridY >= levelSize) {
+                    continue;
+                }
+                long rangeStart = getMortonCode(gridX, gridY) << (2 * gridShift);
+                int from = lowerBound(gridCodes, rangeStart);
+                int to = lowerBound(gridCodes, rangeStart + rangeSize);
+                int count = to - from;
+                if (count == 0) {
+                    continue;
+                }
+                if (count < MIN_CLUSTER_SIZE) {
+                    for (int i = from; i < to; i++) {
+                        featureIds.add(gridPointIds[i]);
+                    }
+                } else {
+                    Envelope cellBounds = new Envelope(
+                        fromPixelX((double) cellX * CLUSTER_CELL_SIZE, scale),
+                        fromPixelX((double) (cellX + 1) * CLUSTER_CELL_SIZE, scale),
+                        fromPixelY((double) (cellY + 1) * CLUSTER_CELL_SIZE, scale),
+                        fromPixelY((double) cellY * CLUSTER_CELL_SIZE, scale)
+                    );
+                    clusters.add(new Cluster(
+                        count,
+                        (gridSumX[to] - gridSumX[from]) / count,
+                        (gridSumY[to] - gridSumY[from]) / count,
+                        cellBounds));
+                }
+            }
+        }
+    }
+
+    private void buildPointGrid(@NotNull int[] pointIds) {
+        if (geographic) {
+            gridZoom = GEOGRAPHIC_GRID_ZOOM;
+        } else {
+            // Grid must cover all coordinates
+            double maxValue = Math.max(
+                Math.max(Math.abs(bounds.getMinX()), Math.abs(bounds.getMaxX())),
+                Math.max(Math.abs(bounds.getMinY()), Math.abs(bounds.getMaxY())));
+            double maxScale = (GRID_OFFSET - 1) * (double) CLUSTER_CELL_SIZE / Math.max(maxValue, 1e-9);
+            gridZoom = (int) Math.floor(Math.log(maxScale) / Math.log(2));
+        }
+        double scale = getScale(gridZoom);
+        long[] codes = new long[pointIds.length];
+        for (int i = 0; i < pointIds.length; i++) {
+            Coordinate coordinate = geometries[pointIds[i]].getCoordinate();
+            codes[i] = getMortonCode(
+                getGridCell(toPixelX(coordinate.x, scale)),
+                getGridCell(toPixelY(coordinate.y, scale)));
+        }
+        sortByCodes(codes, pointIds);
+        gridPointIds = pointIds;
+        gridCodes = codes;
+        gridSumX = new double[pointIds.length + 1];
+        gridSumY = new double[pointIds.length + 1];
+        for (int i = 0; i < pointIds.length; i++) {
+            Coordinate coordinate = geometries[pointIds[i]].getCoordinate();
+            gridSumX[i + 1] = gridSumX[i] + coordinate.x;
+            gridSumY[i + 1] = gridSumY[i] + coordinate.y;
+        }
+    }
+
+    private long getGridCell(double pixel) {
+        long cell = (long) Math.floor(pixel / CLUSTER_CELL_SIZE) + (geographic ? 0 : GRID_OFFSET);
+        return Math.max(0, Math.min((1L << GRID_BITS) - 1, cell));
+    }
+
+    private static long getMortonCode(long x, long y) {
+        return spreadBits(x) | (spreadBits(y) << 1);
+    }
+
+    private static long spreadBits(long value) {
+        value &= 0xFFFFFFFFL;
+        value = (value | (value << 16)) & 0x0000FFFF0000FFFFL;
+        value = (value | (value << 8)) & 0x00FF00FF00FF00FFL;
+        value = (value | (value << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        value = (value | (value << 2)) & 0x3333333333333333L;
+        value = (value | (value << 1)) & 0x5555555555555555L;
+        return value;
+    }
+
+    private static int lowerBound(@NotNull long[] values, long key) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * LSD radix sort of codes with their ids
+     */
+    private static void sortByCodes(@NotNull long[] codes, @NotNull int[] ids) {
+        int count = codes.length;
+        long[] codeBuffer = new long[count];
+        int[] idBuffer = new int[count];
+        for (int shift = 0; shift < GRID_BITS * 2; shift += 8) {
+            int[] offsets = new int[257];
+            for (long code : codes) {
+                offsets[(int) ((code >>> shift) & 0xFF) + 1]++;
+            }
+            for (int i = 0; i < 256; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            for (int i = 0; i < count; i++) {
+                int position = offsets[(int) ((codes[i] >>> shift) & 0xFF)]++;
+                codeBuffer[position] = codes[i];
+                idBuffer[position] = ids[i];
+            }
+            System.arraycopy(codeBuffer, 0, codes, 0, count);
+            System.arraycopy(idBuffer, 0, ids, 0, count);
+        }
+    }
+
+    @NotNull
+    private Cluster makeCluster(@NotNull List<Integer> featureIds) {
+        Envelope clusterBounds = new Envelope();
+        double sumX = 0, sumY = 0;
+        for (int featureId : featureIds) {
+            Envelope envelope = geometries[featureId].getEnvelopeInternal();
+            clusterBounds.expandToInclude(envelope);
+            sumX += envelope.centre().x;
+            sumY += envelope.centre().y;
+        }
+        return new Cluster(featureIds.size(), sumX / featureIds.size(), sumY / featureIds.size(), clusterBounds);
+    }
+
+    @NotNull
+    private Geometry simplify(@NotNull Geometry geometry, int zoom) {
+        double tolerance = SIMPLIFY_TOLERANCE_PIXELS / getScale(zoom);
+        try {
+            Geometry simplified = DouglasPeuckerSimplifier.simplify(geometry, tolerance);
+            if (simplified != null && !simplified.isEmpty()) {
+                return simplified;
+            }
+        } catch (Exception e) {
+            log.debug("Error simplifying geometry: " + e.getMessage());
+        }
+        return geometry;
+    }
+
+    /**
+     * Pixels per coordinate unit (per degree of longitude for geographic coordinates)
+     */
+    private double getScale(int zoom) {
+        double worldSize = Math.pow(2, zoom);
+        return geographic ? worldSize * TILE_SIZE / 360.0 : worldSize;
+    }
+
+    private double toPixelX(double x, double scale) {
+        return geographic ? (x + 180.0) * scale : x * scale;
+    }
+
+    private double toPixelY(double y, double scale) {
+        if (!geographic) {
+            return -y * scale;
+        }
+        double latitude = Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, y)));
+        double mercatorY = Math.log(Math.tan(Math.PI / 4 + latitude / 2));
+        // 360 degrees of longitude take the same number of pixels as 2*PI of mercator Y
+        return (Math.PI - mercatorY) * 180.0 / Math.PI * scale;
+    }
+
+    private double fromPixelX(double pixelX, double scale) {
+        return geographic ? pixelX / scale - 180.0 : pixelX / scale;
+    }
+
+    private double fromPixelY(double pixelY, double scale) {
+        if (!geographic) {
+            return -pixelY / scale;
+        }
+        double mercatorY = Math.PI - pixelY / scale * Math.PI / 180.0;
+        return Math.toDegrees(Math.atan(Math.sinh(mercatorY)));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.jkiss.code.NotNull;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.*;
+
+/**
+ * Incremental loader of map tiles for a single viewer.
+ *
+ * Remembers tiles and features already sent to the viewer at the current zoom level,
+ * so panning the map returns only new tiles and each feature is sent once.
+ * Changing zoom level resets the session (the viewer must clear rendered features).
+ */
+public class GisTileSession {
+
+    /**
+     * Maximum number of tiles loaded per request (e.g. when viewport is huge)
+     */
+    private static final int MAX_TILES_PER_UPDATE = 256;
+
+    /**
+     * New viewer content
+     */
+    public static class Update {
+        private final boolean reset;
+        private final int[] featureIds;
+        private final List<GisFeatureIndex.Cluster> clusters;
+
+        Update(boolean reset, @NotNull int[] featureIds, @NotNull List<GisFeatureIndex.Cluster> clusters) {
+            this.reset = reset;
+            this.featureIds = featureIds;
+            this.clusters = clusters;
+        }
+
+        /**
+         * Previously rendered features and clusters must be removed
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        @NotNull
+        public int[] getFeatureIds() {
+            return featureIds;
+        }
+
+        @NotNull
+        public List<GisFeatureIndex.Cluster> getClusters() {
+            return clusters;
+        }
+    }
+
+    private final GisFeatureIndex index;
+    private final Set<Long> loadedTiles = new HashSet<>();
+    private final BitSet sentFeatures = new BitSet();
+    private int zoom = Integer.MIN_VALUE;
+
+    public GisTileSession(@NotNull GisFeatureIndex index) {
+        this.index = index;
+    }
+
+    @NotNull
+    public GisFeatureIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns content of the visible area which wasn't sent yet
+     */
+    @NotNull
+    public synchronized Update loadViewport(int zoom, @NotNull Envelope viewport) {
+        boolean reset = zoom != this.zoom;
+        if (reset) {
+            this.zoom = zoom;
+            loadedTiles.clear();
+            sentFeatures.clear();
+        }
+        Envelope area = viewport.intersection(index.getBounds());
+        if (area.isNull()) {
+            return new Update(reset, new int[0], List.of());
+        }
+        List<Integer> featureIds = new ArrayList<>();
+        List<GisFeatureIndex.Cluster> clusters = new ArrayList<>();
+        int[] range = index.getTileRange(zoom, area);
+        int tileCount = 0;
+        for (int y = range[1]; y <= range[3] && tileCount < MAX_TILES_PER_UPDATE; y++) {
+            for (int x = range[0]; x <= range[2] && tileCount < MAX_TILES_PER_UPDATE; x++) {
+                if (!loadedTiles.add(getTileKey(x, y))) {
+                    continue;
+                }
+                tileCount++;
+                GisFeatureIndex.Tile tile = index.getTile(zoom, x, y);
+                for (int featureId : tile.getFeatureIds()) {
+                    if (!sentFeatures.get(featureId)) {
+                        sentFeatures.set(featureId);
+                        featureIds.add(featureId);
+                    }
+                }
+                clusters.addAll(tile.getClusters());
+            }
+        }
+        int[] ids = new int[featureIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = featureIds.get(i);
+        }
+        return new Update(reset, ids, clusters);
+    }
+
+    private static long getTileKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -47,6 +47,8 @@ public class DTUIMessages extends NLS {
     public static String database_consumer_wizard_performance_group_label;
     public static String database_consumer_wizard_transactions_checkbox_label;
     public static String database_consumer_wizard_commit_spinner_label;
+    public static String database_consumer_wizard_parallel_writers_tooltip;
+    public static String database_consumer_wizard_resumable_tooltip;
     public static String database_consumer_wizard_general_group_label;
     public static String database_consumer_wizard_table_checkbox_label;
     public static String database_consumer_wizard_final_message_checkbox_label;
@@ -102,6 +104,7 @@ public class DTUIMessages extends NLS {
     public static String database_producer_page_extract_settings_description;
     public static String database_producer_page_extract_settings_threads_num_text_tooltip;
     public static String database_producer_page_extract_settings_new_connection_checkbox_tooltip;
+    public static String database_producer_page_extract_settings_pipelined_read_checkbox_tooltip;
     public static String database_producer_page_extract_settings_row_count_checkbox_tooltip;
     public static String database_producer_page_extract_settings_text_fetch_size_label;
     public static String database_producer_page_extract_settings_text_fetch_size_tooltip;
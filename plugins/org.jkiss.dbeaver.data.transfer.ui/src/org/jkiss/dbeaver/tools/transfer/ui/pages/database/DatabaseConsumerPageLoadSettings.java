@@ -178,6 +178,18 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
                     getWizard().getSettings().setShowFinalMessage(showFinalMessageCheckbox.getSelection());
                 }
             });
+            final Button resumableCheckbox = UIUtils.createCheckbox(
+                generalSettings,
+                DTMessages.database_consumer_settings_option_resumable,
+                DTUIMessages.database_consumer_wizard_resumable_tooltip,
+                settings.isResumable(),
+                1);
+            resumableCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setResumable(resumableCheckbox.getSelection());
+                }
+            });
 
             final DataTransferRegistry dataTransferRegistry = DataTransferRegistry.getInstance();
             final UIPropertyConfiguratorRegistry configuratorRegistry = UIPropertyConfiguratorRegistry.getInstance();
@@ -223,6 +235,14 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
             gd.widthHint = UIUtils.getFontHeight(commitAfterEdit) * 6;
             commitAfterEdit.setLayoutData(gd);
 
+            final Text parallelWritersEdit = UIUtils.createLabelText(performanceSettings, DTMessages.database_consumer_settings_option_parallel_writers, String.valueOf(settings.getParallelWriters()), SWT.BORDER);
+            parallelWritersEdit.setToolTipText(DTUIMessages.database_consumer_wizard_parallel_writers_tooltip);
+            parallelWritersEdit.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+            parallelWritersEdit.addModifyListener(e -> settings.setParallelWriters(CommonUtils.toInt(parallelWritersEdit.getText())));
+            gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1);
+            gd.widthHint = UIUtils.getFontHeight(parallelWritersEdit) * 6;
+            parallelWritersEdit.setLayoutData(gd);
+
             final Button useMultiRowInsert = UIUtils.createCheckbox(performanceSettings, DTUIMessages.database_consumer_wizard_checkbox_multi_insert_label, DTUIMessages.database_consumer_wizard_checkbox_multi_insert_description, settings.isUseMultiRowInsert(), 1);
             if (useBatchCheck != null && (
                 (!useBatchCheck.isDisposed() && useBatchCheck.getSelection()) ||
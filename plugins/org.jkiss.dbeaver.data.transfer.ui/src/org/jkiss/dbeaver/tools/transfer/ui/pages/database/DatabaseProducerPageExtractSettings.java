@@ -49,6 +49,7 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
     private Label segmentSizeLabel;
     private Text segmentSizeText;
     private Button newConnectionCheckbox;
+    private Button pipelinedReadCheckbox;
     private Button rowCountCheckbox;
     private Button selectedColumnsOnlyCheckbox;
     private Button selectedRowsOnlyCheckbox;
@@ -130,6 +131,14 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                 }
             });
 
+            pipelinedReadCheckbox = UIUtils.createCheckbox(generalSettings, DTMessages.data_transfer_wizard_output_checkbox_pipelined_read, DTUIMessages.database_producer_page_extract_settings_pipelined_read_checkbox_tooltip, false, 4);
+            pipelinedReadCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setPipelinedRead(pipelinedReadCheckbox.getSelection());
+                }
+            });
+
             rowCountCheckbox = UIUtils.createCheckbox(generalSettings, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, DTUIMessages.database_producer_page_extract_settings_row_count_checkbox_tooltip, true, 4);
             rowCountCheckbox.addSelectionListener(new SelectionAdapter() {
                 @Override
@@ -228,6 +237,7 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
 
         threadsNumText.setText(String.valueOf(getWizard().getSettings().getMaxJobCount()));
         newConnectionCheckbox.setSelection(settings.isOpenNewConnections());
+        pipelinedReadCheckbox.setSelection(settings.isPipelinedRead());
         rowCountCheckbox.setSelection(settings.isQueryRowCount());
 
         if (segmentSizeText != null) {
@@ -518,6 +518,7 @@ public class DataTransferWizard extends TaskConfigurationWizard<DataTransferSett
     private Map<String, Object> saveConfiguration(Map<String, Object> config) {
         config.put("maxJobCount", settings.getMaxJobCount());
         config.put("showFinalMessage", settings.isShowFinalMessage());
+        config.put("scheduleBySize", settings.isScheduleBySize());
 
         // Save nodes' settings
         boolean isTask = getCurrentTask() != null;
@@ -0,0 +1,354 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+import org.jkiss.dbeaver.model.task.DBTTask;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Checkpoints of a resumable data transfer task.
+ *
+ * Each pipe saves the key of the last committed row. Next run of the failed task skips finished pipes
+ * and reads only rows which follow the saved key. Pipes without a key can't be resumed: they are restarted
+ * from scratch if target tables are truncated before load, otherwise the task refuses to resume.
+ * Checkpoints are stored in the project metadata folder and removed once all pipes are finished.
+ */
+public class DataTransferCheckpoints {
+
+    private static final Log log = Log.getLog(DataTransferCheckpoints.class);
+
+    private static final String CHECKPOINTS_FOLDER = "transfer-checkpoints";
+
+    private static final Gson gson = new GsonBuilder()
+        .setPrettyPrinting()
+        .create();
+
+    /**
+     * Checkpoint of a single data pipe
+     */
+    public static class PipeCheckpoint {
+        private final DataTransferCheckpoints owner;
+        private final String pipeId;
+        private List<String> keyAttributes;
+        private List<String> lastKey;
+        private long rowsCommitted;
+        private boolean started;
+        private boolean completed;
+        // Set during current run when producer started the pipe
+        private volatile boolean active;
+        private volatile boolean resumed;
+        private volatile boolean restarted;
+
+        PipeCheckpoint(@NotNull DataTransferCheckpoints owner, @NotNull String pipeId) {
+            this.owner = owner;
+            this.pipeId = pipeId;
+        }
+
+        @NotNull
+        public String getPipeId() {
+            return pipeId;
+        }
+
+        /**
+         * Names of the key attributes. Rows are read in order of these attributes.
+         * Null if the pipe has no key and can't be resumed.
+         */
+        @Nullable
+        public List<String> getKeyAttributes() {
+            return keyAttributes;
+        }
+
+        /**
+         * SQL literals of the last committed key or null if nothing was committed yet.
+         */
+        @Nullable
+        public List<String> getLastKey() {
+            return lastKey;
+        }
+
+        public long getRowsCommitted() {
+            return rowsCommitted;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * Returns true if the pipe was started by the previous run (or by the current run, once activated)
+         */
+        public boolean isStarted() {
+            return started;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Returns true if the current run continues the transfer after the saved key
+         */
+        public boolean isResumed() {
+            return resumed;
+        }
+
+        /**
+         * Returns true if progress of the previous run was discarded. Rows written by the previous run
+         * must be removed from the target before load.
+         */
+        public boolean isRestarted() {
+            return restarted;
+        }
+
+        /**
+         * Activates checkpoint for the current run. If key attributes differ from the saved ones
+         * (e.g. source table was changed) or there is no key then saved progress is discarded.
+         * It fails if the pipe was started by the previous run and target tables are not truncated before load:
+         * rows written by the previous run would be inserted again.
+         */
+        public void activate(@Nullable List<String> keyAttributes) throws DBException {
+            synchronized (owner) {
+                boolean resumable = keyAttributes != null && keyAttributes.equals(this.keyAttributes);
+                if (!resumable) {
+                    if (started && !active) {
+                        owner.checkRestartAllowed(pipeId, keyAttributes == null ? "source has no unique key" : "source key was changed");
+                        log.warn("Transfer of '" + pipeId + "' can't be resumed. It is restarted from scratch");
+                        restarted = true;
+                    }
+                    this.keyAttributes = keyAttributes == null ? null : new ArrayList<>(keyAttributes);
+                    this.lastKey = null;
+                    this.rowsCommitted = 0;
+                    this.completed = false;
+                }
+                this.resumed = active ? resumed && resumable : started && resumable;
+                this.started = true;
+                this.active = true;
+                owner.save();
+            }
+        }
+
+        /**
+         * Saves key of the last committed row
+         */
+        public void commit(@NotNull List<String> lastKey, long rowCount) {
+            synchronized (owner) {
+                this.lastKey = new ArrayList<>(lastKey);
+                this.rowsCommitted += rowCount;
+                owner.save();
+            }
+        }
+
+        /**
+         * Marks pipe as finished. Finished pipes are skipped by the next runs.
+         */
+        public void complete() {
+            synchronized (owner) {
+                this.completed = true;
+                owner.save();
+            }
+        }
+
+        @NotNull
+        private Map<String, Object> serialize() {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("keyAttributes", keyAttributes);
+            state.put("lastKey", lastKey);
+            state.put("rowsCommitted", rowsCommitted);
+            state.put("started", started);
+            state.put("completed", completed);
+            return state;
+        }
+
+        private void deserialize(@NotNull Map<String, Object> state) {
+            keyAttributes = JSONUtils.getStringList(state, "keyAttributes");
+            if (keyAttributes.isEmpty()) {
+                keyAttributes = null;
+            }
+            lastKey = JSONUtils.getStringList(state, "lastKey");
+            if (lastKey.isEmpty() || keyAttributes == null || lastKey.size() != keyAttributes.size()) {
+                lastKey = null;
+            }
+            rowsCommitted = JSONUtils.getLong(state, "rowsCommitted", 0);
+            started = JSONUtils.getBoolean(state, "started");
+            completed = JSONUtils.getBoolean(state, "completed");
+        }
+
+        @Override
+        public String toString() {
+            return pipeId + (completed ? " [completed]" : keyAttributes == null ? " [no key]" : " [" + rowsCommitted + " rows]");
+        }
+    }
+
+    @NotNull
+    private final Path file;
+    private final boolean restartAllowed;
+    private final Map<String, PipeCheckpoint> checkpoints = new LinkedHashMap<>();
+
+    private DataTransferCheckpoints(@NotNull Path file, boolean restartAllowed) {
+        this.file = file;
+        this.restartAllowed = restartAllowed;
+    }
+
+    /**
+     * Loads checkpoints saved by the previous run of the task.
+     *
+     * @param restartAllowed true if target tables are truncated before load, so pipes which can't be resumed
+     *                       may be restarted from scratch
+     */
+    @NotNull
+    public static DataTransferCheckpoints load(@NotNull DBTTask task, boolean restartAllowed) {
+        Path folder = task.getProject().getMetadataFolder(false).resolve(CHECKPOINTS_FOLDER);
+        DataTransferCheckpoints result = new DataTransferCheckpoints(
+            folder.resolve(CommonUtils.escapeFileName(task.getId()) + ".json"), restartAllowed);
+        if (Files.exists(result.file)) {
+            try (Reader reader = Files.newBufferedReader(result.file, StandardCharsets.UTF_8)) {
+                Map<String, Object> state = JSONUtils.parseMap(gson, reader);
+                for (Map.Entry<String, Map<String, Object>> entry : JSONUtils.getNestedObjects(state, "pipes")) {
+                    result.getCheckpoint(entry.getKey()).deserialize(entry.getValue());
+                }
+            } catch (Exception e) {
+                log.warn("Error reading data transfer checkpoints from '" + result.file + "'. Task will be started from scratch", e);
+                result.checkpoints.clear();
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    public synchronized PipeCheckpoint getCheckpoint(@NotNull String pipeId) {
+        return checkpoints.computeIfAbsent(pipeId, id -> new PipeCheckpoint(this, id));
+    }
+
+    /**
+     * Returns checkpoints saved by the previous run which will be used to resume transfer
+     */
+    @NotNull
+    public synchronized List<PipeCheckpoint> getStartedCheckpoints() {
+        List<PipeCheckpoint> result = new ArrayList<>();
+        for (PipeCheckpoint checkpoint : checkpoints.values()) {
+            if (checkpoint.isStarted()) {
+                result.add(checkpoint);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks that unfinished pipes of the previous run can be resumed or restarted
+     */
+    public synchronized void checkResumable() throws DBException {
+        for (PipeCheckpoint checkpoint : checkpoints.values()) {
+            if (checkpoint.isStarted() && !checkpoint.isCompleted() && checkpoint.getKeyAttributes() == null) {
+                checkRestartAllowed(checkpoint.getPipeId(), "source has no unique key");
+            }
+        }
+    }
+
+    /**
+     * Returns true if all pipes which were run or have saved progress are finished
+     */
+    public synchronized boolean isCompleted() {
+        for (PipeCheckpoint checkpoint : checkpoints.values()) {
+            if (checkpoint.isStarted() && !checkpoint.isCompleted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes keyset predicate which matches rows following the specified key:
+     * {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ...}
+     *
+     * @param keyColumns quoted names of the key columns
+     * @param keyValues  SQL literals of the key values
+     */
+    @NotNull
+    public static String makeKeysetCondition(@NotNull List<String> keyColumns, @NotNull List<String> keyValues) {
+        if (keyColumns.isEmpty() || keyColumns.size() != keyValues.size()) {
+            throw new IllegalArgumentException("Key values don't match key columns");
+        }
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            if (i > 0) {
+                condition.append(" OR ");
+            }
+            condition.append("(");
+            for (int k = 0; k < i; k++) {
+                condition.append(keyColumns.get(k)).append("=").append(keyValues.get(k)).append(" AND ");
+            }
+            condition.append(keyColumns.get(i)).append(">").append(keyValues.get(i));
+            condition.append(")");
+        }
+        return condition.toString();
+    }
+
+    private void checkRestartAllowed(@NotNull String pipeId, @NotNull String reason) throws DBException {
+        if (!restartAllowed) {
+            throw new DBException("Transfer of '" + pipeId + "' can't be resumed: " + reason +
+                ". Enable truncate of target tables before load to restart it or disable resume from checkpoint");
+        }
+    }
+
+    /**
+     * Removes saved checkpoints. Next run of the task will start from scratch.
+     */
+    public synchronized void delete() {
+        checkpoints.clear();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Error deleting data transfer checkpoints '" + file + "'", e);
+        }
+    }
+
+    private synchronized void save() {
+        Map<String, Object> pipes = new LinkedHashMap<>();
+        for (PipeCheckpoint checkpoint : checkpoints.values()) {
+            if (checkpoint.started) {
+                pipes.put(checkpoint.pipeId, checkpoint.serialize());
+            }
+        }
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("pipes", pipes);
+        try {
+            Files.createDirectories(file.getParent());
+            // Write to a temporary file first, so a crash never leaves a broken checkpoint
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tempFile, gson.toJson(state, Map.class), StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Error saving data transfer checkpoints to '" + file + "'", e);
+        }
+    }
+
+}
@@ -97,7 +97,9 @@ public class DataTransferJob extends AbstractJob {
                 if (logStream != null) {
                     Log.setLogWriter(logStream);
                 }
+                long pipeStartTime = System.currentTimeMillis();
                 boolean transferResult = transferData(monitor, transferPipe);
+                settings.releaseDataPipe(transferPipe, System.currentTimeMillis() - pipeStartTime);
                 Log.setLogWriter(null);
 
                 hasErrors |= !transferResult;
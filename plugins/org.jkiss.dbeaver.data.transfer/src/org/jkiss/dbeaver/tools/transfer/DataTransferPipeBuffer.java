@@ -0,0 +1,457 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractResultSet;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelined data receiver.
+ *
+ * Decouples data producer from data consumer: producer thread reads rows into reusable row batches
+ * while consumer is fed from a separate thread, so source fetch and target write overlap.
+ * Number of batches is limited, producer waits for a free batch if consumer is slower (and vice versa).
+ *
+ * Consumer errors are rethrown in the producer thread (from the next fetchRow or by {@link #checkError()}),
+ * value read errors are rethrown in the consumer thread when the consumer reads the failed value.
+ * Result sets with LOBs, complex values or dynamic metadata can't be materialized safely,
+ * they are passed to the consumer directly.
+ */
+public class DataTransferPipeBuffer implements DBDDataReceiver {
+
+    private static final Log log = Log.getLog(DataTransferPipeBuffer.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_BATCH_COUNT = 4;
+
+    private static final long WAIT_INTERVAL = 100;
+
+    private static final RowBatch END_OF_DATA = new RowBatch(0, 0);
+
+    private static class RowBatch {
+        final Object[][] rows;
+        int rowCount;
+
+        RowBatch(int batchSize, int columnCount) {
+            this.rows = new Object[batchSize][columnCount];
+        }
+    }
+
+    /**
+     * Value which couldn't be read from the source result set
+     */
+    private static class ValueError {
+        final Throwable error;
+
+        ValueError(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    private final DBDDataReceiver consumer;
+    private final DBSDataContainer dataContainer;
+    private final int batchSize;
+    private final int batchCount;
+
+    private BlockingQueue<RowBatch> freeBatches;
+    private BlockingQueue<RowBatch> filledBatches;
+    private RowBatch currentBatch;
+    private DBDAttributeBinding[] bindings;
+    private BufferResultSet bufferResultSet;
+
+    private AbstractJob consumerJob;
+    private CountDownLatch consumerFinished;
+    private volatile Throwable consumerError;
+    private volatile boolean canceled;
+    private boolean passthrough;
+
+    private long rowCount;
+    private long producerWaitTime;
+    private volatile long consumerWaitTime;
+
+    public DataTransferPipeBuffer(@NotNull DBDDataReceiver consumer, @NotNull DBSDataContainer dataContainer) {
+        this(consumer, dataContainer, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_COUNT);
+    }
+
+    public DataTransferPipeBuffer(@NotNull DBDDataReceiver consumer, @NotNull DBSDataContainer dataContainer, int batchSize, int batchCount) {
+        this.consumer = consumer;
+        this.dataContainer = dataContainer;
+        this.batchSize = Math.max(batchSize, 1);
+        this.batchCount = Math.max(batchCount, 2);
+    }
+
+    /**
+     * Rows are passed to the consumer in the producer thread
+     */
+    public boolean isPassthrough() {
+        return passthrough;
+    }
+
+    /**
+     * Total time (in ms) producer waited for free row batches (i.e. for the consumer)
+     */
+    public long getProducerWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(producerWaitTime);
+    }
+
+    /**
+     * Total time (in ms) consumer waited for filled row batches (i.e. for the producer)
+     */
+    public long getConsumerWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(consumerWaitTime);
+    }
+
+    @Override
+    public void fetchStart(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+        consumer.fetchStart(session, resultSet, offset, maxRows);
+
+        DBCResultSetMetaData meta = resultSet.getMeta();
+        passthrough = session.getDataSource().getInfo().isDynamicMetadata();
+        if (!passthrough) {
+            bindings = getAttributeBindings(session, meta);
+            for (DBDAttributeBinding binding : bindings) {
+                DBPDataKind dataKind = binding.getDataKind();
+                if (dataKind.isComplex() || dataKind == DBPDataKind.CONTENT || dataKind == DBPDataKind.UNKNOWN) {
+                    // LOBs and nested values may depend on the source cursor state
+                    passthrough = true;
+                    break;
+                }
+            }
+        }
+        if (passthrough) {
+            log.debug("Result set can't be buffered, rows are passed to the consumer directly");
+            return;
+        }
+
+        freeBatches = new ArrayBlockingQueue<>(batchCount);
+        filledBatches = new ArrayBlockingQueue<>(batchCount + 1);
+        for (int i = 0; i < batchCount; i++) {
+            // Virtual custom attributes follow result set attributes
+            freeBatches.add(new RowBatch(batchSize, bindings.length));
+        }
+        bufferResultSet = new BufferResultSet(session, resultSet.getSourceStatement(), meta);
+        startConsumer(session);
+    }
+
+    /**
+     * Returns bindings of the source result set attributes
+     */
+    @NotNull
+    protected DBDAttributeBinding[] getAttributeBindings(@NotNull DBCSession session, @NotNull DBCResultSetMetaData meta) {
+        return DBUtils.getAttributeBindings(session, dataContainer, meta);
+    }
+
+    @Override
+    public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        if (passthrough) {
+            consumer.fetchRow(session, resultSet);
+            return;
+        }
+        checkError();
+        if (canceled) {
+            return;
+        }
+        if (currentBatch == null) {
+            currentBatch = takeFreeBatch(session.getProgressMonitor());
+            if (currentBatch == null) {
+                return;
+            }
+        }
+        Object[] row = currentBatch.rows[currentBatch.rowCount];
+        for (DBDAttributeBinding binding : bindings) {
+            int index = binding.getOrdinalPosition();
+            try {
+                row[index] = binding.getValueHandler().fetchValueObject(session, resultSet, binding, binding.getOrdinalPosition());
+            } catch (Throwable e) {
+                row[index] = new ValueError(e);
+            }
+        }
+        currentBatch.rowCount++;
+        rowCount++;
+        if (currentBatch.rowCount >= currentBatch.rows.length) {
+            filledBatches.add(currentBatch);
+            currentBatch = null;
+        }
+    }
+
+    /**
+     * Waits until consumer processes all buffered rows.
+     * Consumer errors are not thrown here (data containers just log fetchEnd errors), see {@link #checkError()}.
+     */
+    @Override
+    public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        if (!passthrough && consumerJob != null) {
+            if (currentBatch != null && currentBatch.rowCount > 0 && !canceled) {
+                filledBatches.add(currentBatch);
+            }
+            currentBatch = null;
+            filledBatches.add(END_OF_DATA);
+            waitForConsumer(session.getProgressMonitor());
+            log.debug("Pipelined transfer of " + rowCount + " row(s): producer waited " + getProducerWaitTime() +
+                "ms, consumer waited " + getConsumerWaitTime() + "ms");
+        }
+        consumer.fetchEnd(session, resultSet);
+    }
+
+    @Override
+    public void close() {
+        stopConsumer();
+        consumer.close();
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics getStatistics() {
+        return consumer.getStatistics();
+    }
+
+    /**
+     * Stops consumer thread if it is still running (e.g. if fetch wasn't finished because of error)
+     */
+    public void stopConsumer() {
+        if (consumerJob != null && consumerFinished.getCount() > 0) {
+            canceled = true;
+            consumerJob.cancel();
+            try {
+                consumerFinished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Rethrows consumer error in the caller thread.
+     * Must be called after the data read: errors which occur after the last fetched row are reported only here.
+     */
+    public void checkError() throws DBCException {
+        Throwable error = consumerError;
+        if (error == null) {
+            return;
+        }
+        if (error instanceof DBCException dbce) {
+            throw dbce;
+        } else if (error instanceof RuntimeException re) {
+            throw re;
+        } else if (error instanceof Error e) {
+            throw e;
+        } else {
+            throw new DBCException("Error transferring data", error);
+        }
+    }
+
+    /**
+     * Adds buffer wait times to statistics
+     */
+    public void dumpStatistics(@NotNull DBCStatistics statistics) {
+        if (!passthrough && consumerJob != null) {
+            addWaitTime(statistics, "Producer wait time", getProducerWaitTime());
+            addWaitTime(statistics, "Consumer wait time", getConsumerWaitTime());
+        }
+    }
+
+    private static void addWaitTime(@NotNull DBCStatistics statistics, @NotNull String name, long waitTime) {
+        Object prevTime = statistics.getInfo().get(name);
+        statistics.addInfo(name, prevTime instanceof Long ? (Long) prevTime + waitTime : waitTime);
+    }
+
+    @Nullable
+    private RowBatch takeFreeBatch(@NotNull DBRProgressMonitor monitor) throws DBCException {
+        long startTime = System.nanoTime();
+        try {
+            for (;;) {
+                // Check before each wait: a consumer which keeps up frees batches before the wait times out
+                checkError();
+                if (monitor.isCanceled() || consumerFinished.getCount() == 0) {
+                    // Consumer stops after current row, producer stops at the next row
+                    stopConsumer();
+                    canceled = true;
+                    return null;
+                }
+                RowBatch batch = freeBatches.poll(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    batch.rowCount = 0;
+                    return batch;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBCException("Data transfer interrupted", e);
+        } finally {
+            producerWaitTime += System.nanoTime() - startTime;
+        }
+    }
+
+    private void waitForConsumer(@NotNull DBRProgressMonitor monitor) {
+        long startTime = System.nanoTime();
+        try {
+            while (!consumerFinished.await(WAIT_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (monitor.isCanceled()) {
+                    stopConsumer();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopConsumer();
+        } finally {
+            producerWaitTime += System.nanoTime() - startTime;
+        }
+    }
+
+    private void startConsumer(@NotNull DBCSession session) {
+        PrintStream logWriter = Log.getLogWriter();
+        consumerFinished = new CountDownLatch(1);
+        consumerJob = new AbstractJob("Data transfer consumer") {
+            {
+                setSystem(true);
+            }
+
+            @Override
+            protected IStatus run(DBRProgressMonitor jobMonitor) {
+                if (logWriter != null) {
+                    Log.setLogWriter(logWriter);
+                }
+                try {
+                    consumeBatches(session, jobMonitor);
+                } catch (Throwable e) {
+                    consumerError = e;
+                } finally {
+                    Log.setLogWriter(null);
+                    consumerFinished.countDown();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        consumerJob.schedule();
+    }
+
+    private void consumeBatches(@NotNull DBCSession session, @NotNull DBRProgressMonitor jobMonitor) throws Exception {
+        for (;;) {
+            long startTime = System.nanoTime();
+            RowBatch batch = null;
+            while (batch == null && !isConsumerCanceled(jobMonitor)) {
+                batch = filledBatches.poll(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+            consumerWaitTime += System.nanoTime() - startTime;
+            if (batch == null || batch == END_OF_DATA) {
+                return;
+            }
+            for (int i = 0; i < batch.rowCount; i++) {
+                if (isConsumerCanceled(jobMonitor)) {
+                    return;
+                }
+                bufferResultSet.curRow = batch.rows[i];
+                try {
+                    consumer.fetchRow(session, bufferResultSet);
+                } finally {
+                    bufferResultSet.curRow = null;
+                }
+            }
+            freeBatches.add(batch);
+        }
+    }
+
+    private boolean isConsumerCanceled(@NotNull DBRProgressMonitor jobMonitor) {
+        return canceled || jobMonitor.isCanceled();
+    }
+
+    /**
+     * Result set over buffered rows. Used by the consumer thread.
+     * Value handlers read values of non-JDBC result sets with {@link DBCResultSet#getAttributeValue(int)}.
+     */
+    private static class BufferResultSet extends AbstractResultSet<DBCSession, DBCStatement> {
+
+        private final DBCResultSetMetaData meta;
+        private Object[] curRow;
+
+        BufferResultSet(@NotNull DBCSession session, @Nullable DBCStatement statement, @NotNull DBCResultSetMetaData meta) {
+            super(session, statement);
+            this.meta = meta;
+        }
+
+        @Override
+        public Object getAttributeValue(int index) throws DBCException {
+            if (curRow == null) {
+                throw new DBCException("No current row");
+            }
+            if (index < 0 || index >= curRow.length) {
+                throw new DBCException("Attribute index out of range (" + index + "/" + curRow.length + ")");
+            }
+            Object value = curRow[index];
+            if (value instanceof ValueError valueError) {
+                if (valueError.error instanceof DBCException dbce) {
+                    throw dbce;
+                }
+                throw new DBCException("Error reading value", valueError.error);
+            }
+            return value;
+        }
+
+        @Nullable
+        @Override
+        public Object getAttributeValue(String name) throws DBCException {
+            List<? extends DBCAttributeMetaData> attributes = meta.getAttributes();
+            for (int i = 0; i < attributes.size(); i++) {
+                if (attributes.get(i).getLabel().equals(name)) {
+                    return getAttributeValue(i);
+                }
+            }
+            throw new DBCException("Bad attribute name: " + name);
+        }
+
+        @Override
+        public boolean nextRow() {
+            return false;
+        }
+
+        @Override
+        public boolean moveTo(int position) {
+            return false;
+        }
+
+        @NotNull
+        @Override
+        public DBCResultSetMetaData getMeta() {
+            return meta;
+        }
+
+        @Override
+        public void close() {
+            curRow = null;
+        }
+    }
+}
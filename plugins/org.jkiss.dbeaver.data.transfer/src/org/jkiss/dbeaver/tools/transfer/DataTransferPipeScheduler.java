@@ -0,0 +1,212 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPObjectStatistics;
+import org.jkiss.dbeaver.model.DBPObjectStatisticsCollector;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+import java.util.*;
+
+/**
+ * Data transfer pipes scheduler.
+ *
+ * Hands out pipes to transfer jobs. With size-aware scheduling pipes are dispatched longest-first:
+ * the cost of a pipe is estimated by its source object size ({@link DBPObjectStatistics}),
+ * so huge tables do not start at the very end when other jobs are already idle.
+ * Pipes without statistics get the average cost of other pipes.
+ */
+public class DataTransferPipeScheduler {
+
+    private static final Log log = Log.getLog(DataTransferPipeScheduler.class);
+
+    private final List<DataTransferPipe> schedule;
+    private final Map<DataTransferPipe, Long> estimatedCosts;
+    private final Map<DataTransferPipe, Long> pipeTimes = new IdentityHashMap<>();
+    private final int workerCount;
+    private int nextPipe;
+    private long startTime;
+    private long endTime;
+
+    private DataTransferPipeScheduler(
+        @NotNull List<DataTransferPipe> schedule,
+        @NotNull Map<DataTransferPipe, Long> estimatedCosts,
+        int workerCount
+    ) {
+        this.schedule = schedule;
+        this.estimatedCosts = estimatedCosts;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Creates scheduler. Pipes are reordered only if size-aware scheduling is enabled and there are several workers,
+     * otherwise pipes are dispatched in the list order.
+     */
+    @NotNull
+    public static DataTransferPipeScheduler create(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull List<DataTransferPipe> pipes,
+        int workerCount,
+        boolean sizeAware
+    ) {
+        if (!sizeAware || workerCount < 2 || pipes.size() < 2) {
+            return new DataTransferPipeScheduler(new ArrayList<>(pipes), Collections.emptyMap(), workerCount);
+        }
+        Map<DataTransferPipe, Long> costs = new IdentityHashMap<>();
+        Set<DBSObject> collectedContainers = new HashSet<>();
+        long totalCost = 0;
+        int knownCount = 0;
+        for (DataTransferPipe pipe : pipes) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            long cost = estimatePipeCost(monitor, pipe, collectedContainers);
+            if (cost >= 0) {
+                costs.put(pipe, cost);
+                totalCost += cost;
+                knownCount++;
+            }
+        }
+        if (knownCount == 0) {
+            return new DataTransferPipeScheduler(new ArrayList<>(pipes), Collections.emptyMap(), workerCount);
+        }
+        long averageCost = totalCost / knownCount;
+        for (DataTransferPipe pipe : pipes) {
+            costs.putIfAbsent(pipe, averageCost);
+        }
+        List<DataTransferPipe> schedule = new ArrayList<>(pipes);
+        // Stable sort: pipes of the same cost keep the original order
+        schedule.sort(Comparator.comparingLong((DataTransferPipe pipe) -> costs.get(pipe)).reversed());
+        return new DataTransferPipeScheduler(schedule, costs, workerCount);
+    }
+
+    /**
+     * Estimates pipe cost by the source object size. Returns -1 if size is unknown.
+     */
+    private static long estimatePipeCost(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DataTransferPipe pipe,
+        @NotNull Set<DBSObject> collectedContainers
+    ) {
+        IDataTransferProducer<?> producer = pipe.getProducer();
+        DBSObject object = producer == null ? null : producer.getDatabaseObject();
+        if (!(object instanceof DBPObjectStatistics statistics)) {
+            return -1;
+        }
+        if (!statistics.hasStatistics()) {
+            DBSObject container = object.getParentObject();
+            if (container instanceof DBPObjectStatisticsCollector collector &&
+                !collector.isStatisticsCollected() &&
+                collectedContainers.add(container))
+            {
+                try {
+                    collector.collectObjectStatistics(monitor, true, false);
+                } catch (DBException e) {
+                    log.debug("Error reading statistics of '" + container.getName() + "'", e);
+                }
+            }
+        }
+        if (!statistics.hasStatistics()) {
+            return -1;
+        }
+        return Math.max(statistics.getStatObjectSize(), 0);
+    }
+
+    /**
+     * Returns the next pipe or null if all pipes were dispatched
+     */
+    @Nullable
+    public synchronized DataTransferPipe nextPipe() {
+        if (nextPipe >= schedule.size()) {
+            return null;
+        }
+        if (nextPipe == 0) {
+            startTime = System.currentTimeMillis();
+        }
+        return schedule.get(nextPipe++);
+    }
+
+    /**
+     * Registers the actual transfer time of the pipe
+     */
+    public synchronized void pipeFinished(@NotNull DataTransferPipe pipe, long elapsedTime) {
+        pipeTimes.put(pipe, elapsedTime);
+        endTime = System.currentTimeMillis();
+    }
+
+    @NotNull
+    public List<DataTransferPipe> getSchedule() {
+        return schedule;
+    }
+
+    public boolean isSizeAware() {
+        return !estimatedCosts.isEmpty();
+    }
+
+    /**
+     * Predicted versus actual makespan (wall time of all jobs).
+     * Cost estimates are converted to time with the throughput observed in this transfer.
+     * Returns null if pipes were not scheduled by size or were not finished.
+     */
+    @Nullable
+    public synchronized String getSummary() {
+        if (!isSizeAware() || pipeTimes.size() < schedule.size()) {
+            return null;
+        }
+        long totalCost = 0, totalTime = 0;
+        for (DataTransferPipe pipe : schedule) {
+            totalCost += estimatedCosts.get(pipe);
+            totalTime += pipeTimes.get(pipe);
+        }
+        if (totalCost <= 0) {
+            return null;
+        }
+        double timePerCost = (double) totalTime / totalCost;
+        long[] predictedTimes = new long[schedule.size()];
+        for (int i = 0; i < schedule.size(); i++) {
+            predictedTimes[i] = (long) (estimatedCosts.get(schedule.get(i)) * timePerCost);
+        }
+        return "Pipes scheduled by size for " + workerCount + " job(s): predicted time " +
+            predictMakespan(predictedTimes, workerCount) + "ms, actual time " + (endTime - startTime) + "ms";
+    }
+
+    /**
+     * Simulates dispatching of tasks (in the specified order) to workers: each next task is taken
+     * by the worker which becomes free first. Returns total time of all workers.
+     */
+    public static long predictMakespan(@NotNull long[] taskTimes, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Bad worker count: " + workerCount);
+        }
+        PriorityQueue<Long> workerTimes = new PriorityQueue<>();
+        for (int i = 0; i < workerCount; i++) {
+            workerTimes.add(0L);
+        }
+        long makespan = 0;
+        for (long taskTime : taskTimes) {
+            long workerTime = workerTimes.poll() + taskTime;
+            makespan = Math.max(makespan, workerTime);
+            workerTimes.add(workerTime);
+        }
+        return makespan;
+    }
+}
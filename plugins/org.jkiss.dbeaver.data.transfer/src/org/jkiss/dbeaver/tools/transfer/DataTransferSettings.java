@@ -78,10 +78,11 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
     private boolean consumerOptional;
     private boolean producerOptional;
     private int maxJobCount = DEFAULT_THREADS_NUM;
+    private boolean scheduleBySize = false;
 
     private transient boolean nodeSettingsLoaded = false;
 
-    private transient int curPipeNum = 0;
+    private transient DataTransferPipeScheduler pipeScheduler;
 
     private boolean showFinalMessage = true;
     // Hacky flag. Says that pipe selection is frozen.
@@ -311,6 +312,7 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
     public void loadSettings(Map<String, Object> config) {
         this.setMaxJobCount(CommonUtils.toInt(config.get("maxJobCount"), DataTransferSettings.DEFAULT_THREADS_NUM));
         this.setShowFinalMessage(CommonUtils.getBoolean(config.get("showFinalMessage"), this.isShowFinalMessage()));
+        this.setScheduleBySize(CommonUtils.getBoolean(config.get("scheduleBySize"), this.isScheduleBySize()));
 
         DataTransferNodeDescriptor savedConsumer = null, savedProducer = null, processorNode = null;
         {
@@ -590,14 +592,31 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
     }
 
     public synchronized DataTransferPipe acquireDataPipe(@NotNull DBRProgressMonitor monitor, @Nullable DBTTask task) {
-        if (curPipeNum >= dataPipes.size()) {
-            return null;
+        if (pipeScheduler == null) {
+            pipeScheduler = DataTransferPipeScheduler.create(monitor, dataPipes, maxJobCount, scheduleBySize);
         }
+        return pipeScheduler.nextPipe();
+    }
 
-        DataTransferPipe result = dataPipes.get(curPipeNum);
+    /**
+     * Called by transfer job when pipe transfer is finished
+     */
+    public void releaseDataPipe(@NotNull DataTransferPipe pipe, long elapsedTime) {
+        DataTransferPipeScheduler scheduler;
+        synchronized (this) {
+            scheduler = pipeScheduler;
+        }
+        if (scheduler != null) {
+            scheduler.pipeFinished(pipe, elapsedTime);
+        }
+    }
 
-        curPipeNum++;
-        return result;
+    /**
+     * Returns predicted and actual transfer time if pipes were scheduled by their size
+     */
+    @Nullable
+    public synchronized String getScheduleSummary() {
+        return pipeScheduler == null ? null : pipeScheduler.getSummary();
     }
 
     public DataTransferNodeDescriptor getProducer() {
@@ -691,6 +710,18 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
         }
     }
 
+    /**
+     * Dispatch pipes to parallel jobs starting from the biggest source objects.
+     * Disabled by default: reordering ignores the pipes order (tables dependencies and manual order).
+     */
+    public boolean isScheduleBySize() {
+        return scheduleBySize;
+    }
+
+    public void setScheduleBySize(boolean scheduleBySize) {
+        this.scheduleBySize = scheduleBySize;
+    }
+
     public boolean isShowFinalMessage() {
         return showFinalMessage;
     }
@@ -56,6 +56,8 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
     private boolean openNewConnections = true;
     private boolean useTransactions = true;
     private int commitAfterRows = 10000;
+    private int parallelWriters = 1;
+    private boolean resumable;
     private boolean transferAutoGeneratedColumns = true;
     private boolean truncateBeforeLoad = false;
     private boolean openTableOnFinish = true;
@@ -202,6 +204,28 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         this.commitAfterRows = commitAfterRows;
     }
 
+    /**
+     * Number of connections which insert rows in parallel
+     */
+    public int getParallelWriters() {
+        return parallelWriters;
+    }
+
+    public void setParallelWriters(int parallelWriters) {
+        this.parallelWriters = Math.max(parallelWriters, 1);
+    }
+
+    /**
+     * Transfer tasks save checkpoints after each commit and resume failed runs from the last checkpoint
+     */
+    public boolean isResumable() {
+        return resumable;
+    }
+
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
+
     public boolean isUseBulkLoad() {
         return useBulkLoad;
     }
@@ -232,6 +256,8 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         useTransactions = CommonUtils.getBoolean(settings.get("useTransactions"), useTransactions);
         onDuplicateKeyInsertMethodId = CommonUtils.toString(settings.get("onDuplicateKeyMethod"), onDuplicateKeyInsertMethodId);
         commitAfterRows = CommonUtils.toInt(settings.get("commitAfterRows"), commitAfterRows);
+        setParallelWriters(CommonUtils.toInt(settings.get("parallelWriters"), parallelWriters));
+        resumable = CommonUtils.getBoolean(settings.get("resumable"), resumable);
         useMultiRowInsert = CommonUtils.getBoolean(settings.get("useMultiRowInsert"), useMultiRowInsert);
         multiRowInsertBatch = CommonUtils.toInt(settings.get("multiRowInsertBatch"), multiRowInsertBatch);
         skipBindValues = CommonUtils.getBoolean(settings.get("skipBindValues"), skipBindValues);
@@ -305,6 +331,8 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         settings.put("openNewConnections", openNewConnections);
         settings.put("useTransactions", useTransactions);
         settings.put("commitAfterRows", commitAfterRows);
+        settings.put("parallelWriters", parallelWriters);
+        settings.put("resumable", resumable);
         settings.put("useMultiRowInsert", useMultiRowInsert);
         settings.put("multiRowInsertBatch", multiRowInsertBatch);
         settings.put("skipBindValues", skipBindValues);
@@ -353,6 +381,8 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_transfer_auto_generated_columns, transferAutoGeneratedColumns);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_disable_referential_integrity, disableReferentialIntegrity);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_use_bulk_load, useBulkLoad);
+        DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_parallel_writers, parallelWriters);
+        DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_resumable, resumable);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_truncate_before_load, truncateBeforeLoad);
 
         return summary.toString();
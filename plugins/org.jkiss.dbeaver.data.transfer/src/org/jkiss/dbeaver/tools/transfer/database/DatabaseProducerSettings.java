@@ -44,6 +44,7 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     private boolean queryRowCount = true;
     private boolean selectedRowsOnly = false;
     private boolean selectedColumnsOnly = false;
+    private boolean pipelinedRead = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
     private int fetchSize = DEFAULT_FETCH_SIZE;
 
@@ -100,6 +101,17 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.openNewConnections = openNewConnections;
     }
 
+    /**
+     * Read source data and pass it to the consumer in separate threads
+     */
+    public boolean isPipelinedRead() {
+        return pipelinedRead;
+    }
+
+    public void setPipelinedRead(boolean pipelinedRead) {
+        this.pipelinedRead = pipelinedRead;
+    }
+
     public ExtractType getExtractType() {
         return extractType;
     }
@@ -117,6 +129,7 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         queryRowCount = CommonUtils.toBoolean(settings.get("queryRowCount"));
         selectedColumnsOnly = CommonUtils.toBoolean(settings.get("selectedColumnsOnly"));
         selectedRowsOnly = CommonUtils.toBoolean(settings.get("selectedRowsOnly"));
+        pipelinedRead = CommonUtils.toBoolean(settings.get("pipelinedRead"));
     }
 
     @Override
@@ -128,6 +141,7 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         settings.put("queryRowCount", queryRowCount);
         settings.put("selectedColumnsOnly", selectedColumnsOnly);
         settings.put("selectedRowsOnly", selectedRowsOnly);
+        settings.put("pipelinedRead", pipelinedRead);
     }
 
     @Override
@@ -139,6 +153,7 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
+        DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_pipelined_read, pipelinedRead);
 
         return summary.toString();
     }
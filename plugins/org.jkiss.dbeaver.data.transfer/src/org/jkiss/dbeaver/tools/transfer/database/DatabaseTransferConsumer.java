@@ -78,6 +78,13 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
     private DBCSession targetSession;
     private DBSDataManipulator.ExecuteBatch executeBatch;
     private DBSDataBulkLoader.BulkLoadManager bulkLoadManager;
+    private DatabaseTransferParallelWriter parallelWriter;
+    @Nullable
+    private DataTransferCheckpoints.PipeCheckpoint checkpoint;
+    // Source result set indexes of checkpoint key attributes
+    private int[] checkpointKeyIndexes;
+    private Object[] checkpointKeyValues;
+    private long checkpointRows;
     private long rowsExported = 0;
     private boolean ignoreErrors = false;
 
@@ -164,6 +171,38 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         return previewRows;
     }
 
+    @Nullable
+    public DataTransferCheckpoints.PipeCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Sets checkpoint of the resumable transfer. Consumer saves the key of the last committed row in it.
+     */
+    public void setCheckpoint(@Nullable DataTransferCheckpoints.PipeCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Returns true if target objects were created by the interrupted run of the resumable transfer
+     */
+    private boolean isStartedBefore() {
+        return checkpoint != null && checkpoint.isStarted();
+    }
+
+    private boolean isTruncateRequired() {
+        if (checkpoint != null && checkpoint.isActive()) {
+            if (checkpoint.isRestarted()) {
+                // Rows written by the interrupted run can't be skipped
+                return true;
+            }
+            if (checkpoint.isResumed()) {
+                return false;
+            }
+        }
+        return settings.isTruncateBeforeLoad() && (containerMapping == null || containerMapping.getMappingType() == DatabaseMappingType.existing);
+    }
+
     /**
      * @return list of target attributes
      */
@@ -186,7 +225,7 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         AbstractExecutionSource executionSource = new AbstractExecutionSource(containerMapping.getSource(), targetContext, this);
 
         DBSDataManipulator targetObject = getTargetObject();
-        if (targetObject != null && !isPreview && offset <= 0 && settings.isTruncateBeforeLoad() && (containerMapping == null || containerMapping.getMappingType() == DatabaseMappingType.existing)) {
+        if (targetObject != null && !isPreview && offset <= 0 && isTruncateRequired()) {
             // Truncate target tables
             // Note: all implementations support truncate in some way (e.g. DELETE FROM)
             // even if DBSDataManipulator.FEATURE_DATA_TRUNCATE is reported to be not supported.
@@ -301,17 +340,82 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 if (targetObject instanceof DBSDataManipulatorExt) {
                     ((DBSDataManipulatorExt) targetObject).beforeDataChange(targetSession, DBSManipulationType.INSERT, attributes, executionSource);
                 }
-                executeBatch = targetObject.insertData(
-                    targetSession,
-                    attributes,
-                    null,
-                    executionSource,
-                    options);
+                parallelWriter = startParallelWriter(session.getProgressMonitor(), targetObject, attributes, executionSource, options);
+                if (parallelWriter == null) {
+                    executeBatch = targetObject.insertData(
+                        targetSession,
+                        attributes,
+                        null,
+                        executionSource,
+                        options);
+                }
             }
         } else {
             previewRows = new ArrayList<>();
             executeBatch = new PreviewBatch();
         }
+        initCheckpointKey();
+    }
+
+    private void initCheckpointKey() throws DBCException {
+        checkpointKeyIndexes = null;
+        checkpointKeyValues = null;
+        if (checkpoint == null || !checkpoint.isActive() || executeBatch == null || isPreview) {
+            return;
+        }
+        List<String> keyAttributes = checkpoint.getKeyAttributes();
+        if (keyAttributes == null) {
+            return;
+        }
+        int[] keyIndexes = new int[keyAttributes.size()];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            keyIndexes[i] = -1;
+            for (int k = 0; k < sourceBindings.length; k++) {
+                if (keyAttributes.get(i).equals(sourceBindings[k].getName())) {
+                    keyIndexes[i] = k;
+                    break;
+                }
+            }
+            if (keyIndexes[i] < 0) {
+                log.debug("Key attribute '" + keyAttributes.get(i) + "' not found in source data, checkpoints are not saved");
+                try {
+                    // Transfer can't be resumed, next run restarts it from scratch
+                    checkpoint.activate(null);
+                } catch (DBException e) {
+                    throw new DBCException(e.getMessage(), e);
+                }
+                return;
+            }
+        }
+        checkpointKeyIndexes = keyIndexes;
+        checkpointKeyValues = new Object[keyIndexes.length];
+    }
+
+    @Nullable
+    private DatabaseTransferParallelWriter startParallelWriter(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSDataManipulator targetObject,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource executionSource,
+        @NotNull Map<String, Object> options
+    ) throws DBCException {
+        // Embedded databases (e.g. SQLite) serialize writes, isolated connections are not used for them.
+        // Ignoring of duplicate rows requires row-by-row inserts in a single connection.
+        if (settings.getParallelWriters() < 2 || !useIsolatedConnection || settings.isIgnoreDuplicateRows()) {
+            return null;
+        }
+        // Writers must see changes made before the load (e.g. truncate) and must not wait for their locks
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(targetContext);
+        if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+            txnManager.commit(targetSession);
+        }
+        DatabaseTransferParallelWriter writer = new DatabaseTransferParallelWriter(
+            settings, targetObject, attributes, executionSource, options, this::createExecuteOptions);
+        if (!writer.start(monitor, targetObject, settings.getParallelWriters())) {
+            log.debug("Can't open parallel writer connections, data is loaded in a single connection");
+            return null;
+        }
+        return writer;
     }
 
     private boolean isSkipColumn(DBDAttributeBinding attr) {
@@ -388,8 +492,19 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             }
         }
 
+        if (checkpointKeyIndexes != null) {
+            // Key values are read from the source result set, key columns may be not mapped or transformed
+            for (int i = 0; i < checkpointKeyIndexes.length; i++) {
+                DBDAttributeBinding keyBinding = sourceBindings[checkpointKeyIndexes[i]];
+                checkpointKeyValues[i] = keyBinding.getValueHandler().fetchValueObject(
+                    session, resultSet, keyBinding, keyBinding.getOrdinalPosition());
+            }
+        }
+
         if (bulkLoadManager != null) {
             bulkLoadManager.addRow(targetSession, rowValues);
+        } else if (parallelWriter != null) {
+            parallelWriter.addRow(targetSession.getProgressMonitor(), rowValues);
         } else {
             executeBatch.add(rowValues);
         }
@@ -405,6 +520,13 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         if (isPreview) {
             return;
         }
+        if (parallelWriter != null) {
+            // Writers insert and commit rows by themselves
+            if (DBFetchProgress.monitorFetchProgress(rowsExported)) {
+                targetSession.getProgressMonitor().subTask("Insert rows (" + rowsExported + ")");
+            }
+            return;
+        }
         boolean ignoreDuplicateRowsErrors = settings.isIgnoreDuplicateRows();
         boolean needCommit = force || ignoreDuplicateRowsErrors || ((rowsExported % settings.getCommitAfterRows()) == 0);
         // Do commit action in these cases:
@@ -424,28 +546,7 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                     targetSession.getProgressMonitor().subTask("Insert rows (" + rowsExported + ")");
                 }
 
-                Map<String, Object> options = new HashMap<>();
-                options.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, disableUsingBatches);
-                options.put(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE, settings.getMultiRowInsertBatch());
-                options.put(DBSDataManipulator.OPTION_SKIP_BIND_VALUES, settings.isSkipBindValues());
-
-                boolean onDuplicateKeyCaseOn = settings.getOnDuplicateKeyInsertMethodId() != null &&
-                    !settings.getOnDuplicateKeyInsertMethodId().equals(DBSDataManipulator.INSERT_NONE_METHOD);
-                if (onDuplicateKeyCaseOn) {
-                    String insertMethodId = settings.getOnDuplicateKeyInsertMethodId();
-                    if (!CommonUtils.isEmpty(insertMethodId)) {
-                        SQLDialectInsertReplaceMethod insertReplaceMethod =
-                            DBWorkbench.getPlatform().getSQLDialectRegistry().getInsertReplaceMethod(insertMethodId);
-                        if (insertReplaceMethod != null) {
-                            try {
-                                DBDInsertReplaceMethod insertMethod = insertReplaceMethod.createInsertMethod();
-                                options.put(DBSDataManipulator.OPTION_INSERT_REPLACE_METHOD, insertMethod);
-                            } catch (DBException e) {
-                                log.debug("Can't get insert replace method", e);
-                            }
-                        }
-                    }
-                }
+                Map<String, Object> options = createExecuteOptions();
 
                 boolean retryInsert;
                 do {
@@ -507,12 +608,60 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 txnManager.commit(targetSession);
             }
         }
+        // Rows are committed one by one when duplicates are ignored. Checkpoint is saved on commit boundaries only:
+        // resumed transfer inserts rows after the saved key again, and they are skipped as duplicates.
+        boolean checkpointRequired = force || (rowsExported % settings.getCommitAfterRows()) == 0;
+        if (checkpointRequired && checkpointKeyIndexes != null && !targetSession.getProgressMonitor().isCanceled()) {
+            saveCheckpoint();
+        }
+    }
+
+    private void saveCheckpoint() {
+        if (checkpoint == null || rowsExported == checkpointRows) {
+            return;
+        }
+        List<String> lastKey = new ArrayList<>(checkpointKeyIndexes.length);
+        for (int i = 0; i < checkpointKeyIndexes.length; i++) {
+            DBDAttributeBinding keyBinding = sourceBindings[checkpointKeyIndexes[i]];
+            lastKey.add(SQLUtils.convertValueToSQL(keyBinding.getDataSource(), keyBinding, checkpointKeyValues[i]));
+        }
+        checkpoint.commit(lastKey, rowsExported - checkpointRows);
+        checkpointRows = rowsExported;
+    }
+
+    @NotNull
+    private Map<String, Object> createExecuteOptions() {
+        Map<String, Object> options = new HashMap<>();
+        options.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, settings.isDisableUsingBatches());
+        options.put(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE, settings.getMultiRowInsertBatch());
+        options.put(DBSDataManipulator.OPTION_SKIP_BIND_VALUES, settings.isSkipBindValues());
+
+        boolean onDuplicateKeyCaseOn = settings.getOnDuplicateKeyInsertMethodId() != null &&
+            !settings.getOnDuplicateKeyInsertMethodId().equals(DBSDataManipulator.INSERT_NONE_METHOD);
+        if (onDuplicateKeyCaseOn) {
+            String insertMethodId = settings.getOnDuplicateKeyInsertMethodId();
+            if (!CommonUtils.isEmpty(insertMethodId)) {
+                SQLDialectInsertReplaceMethod insertReplaceMethod =
+                    DBWorkbench.getPlatform().getSQLDialectRegistry().getInsertReplaceMethod(insertMethodId);
+                if (insertReplaceMethod != null) {
+                    try {
+                        DBDInsertReplaceMethod insertMethod = insertReplaceMethod.createInsertMethod();
+                        options.put(DBSDataManipulator.OPTION_INSERT_REPLACE_METHOD, insertMethod);
+                    } catch (DBException e) {
+                        log.debug("Can't get insert replace method", e);
+                    }
+                }
+            }
+        }
+        return options;
     }
 
     @Override
     public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
         try {
-            if (rowsExported > 0) {
+            if (parallelWriter != null) {
+                parallelWriter.finish(targetSession.getProgressMonitor(), statistics);
+            } else if (rowsExported > 0) {
                 insertBatch(true);
             }
             if (bulkLoadManager != null) {
@@ -535,6 +684,10 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
 
     @Override
     public void close() {
+        if (parallelWriter != null) {
+            parallelWriter.close();
+            parallelWriter = null;
+        }
         closeExporter();
     }
 
@@ -637,7 +790,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         try {
             DBSObject dbObject = checkTargetContainer(monitor);
 
-            if (!isPreview && containerMapping != null) {
+            // Target objects of the resumed transfer were created by the interrupted run
+            if (!isPreview && containerMapping != null && !isStartedBefore()) {
                 DBSObjectContainer container = settings.getContainer();
                 if (container == null) {
                     throw new DBException("No target datasource - can't create target objects");
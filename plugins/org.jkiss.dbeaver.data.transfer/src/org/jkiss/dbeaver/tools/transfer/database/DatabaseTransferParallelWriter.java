@@ -0,0 +1,372 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Parallel writer of database consumer.
+ *
+ * Distributes row batches across several isolated target connections. Each writer commits independently
+ * after {@link DatabaseConsumerSettings#getCommitAfterRows()} rows written by this writer.
+ *
+ * The first failed batch stops all writers: writers finish their current batches, roll back uncommitted rows,
+ * remaining batches are discarded. If several batches fail, the error of the earliest batch is reported,
+ * so the result doesn't depend on the writers timing. Rows committed by writers before the failure stay in the target,
+ * the final summary reports how many rows were committed.
+ */
+final class DatabaseTransferParallelWriter {
+
+    private static final Log log = Log.getLog(DatabaseTransferParallelWriter.class);
+
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final long WAIT_INTERVAL = 100;
+
+    private static final RowBatch END_OF_DATA = new RowBatch(-1, 0, List.of());
+
+    private static class RowBatch {
+        final long sequence;
+        final long firstRow;
+        final List<Object[]> rows;
+
+        RowBatch(long sequence, long firstRow, @NotNull List<Object[]> rows) {
+            this.sequence = sequence;
+            this.firstRow = firstRow;
+            this.rows = rows;
+        }
+    }
+
+    private final DatabaseConsumerSettings settings;
+    private final DBSDataManipulator targetObject;
+    private final DBSAttributeBase[] attributes;
+    private final DBCExecutionSource executionSource;
+    private final Map<String, Object> insertOptions;
+    private final Supplier<Map<String, Object>> executeOptionsFactory;
+    private final int batchSize;
+
+    private final List<Writer> writers = new ArrayList<>();
+    private BlockingQueue<RowBatch> batchQueue;
+    private CountDownLatch finishLatch;
+    private volatile boolean stopped;
+
+    private List<Object[]> pendingRows;
+    private long batchSequence;
+    private long rowsSubmitted;
+
+    // Guarded by this
+    private RowBatch failedBatch;
+    private Throwable failure;
+
+    private class Writer extends AbstractJob {
+        private final int index;
+        private final DBCExecutionContext context;
+        // Options may contain stateful objects (e.g. insert replace method), they are not shared between writers
+        private final Map<String, Object> executeOptions;
+        private final DBCStatistics statistics = new DBCStatistics();
+        private volatile long rowsWritten;
+        private volatile long rowsCommitted;
+        private volatile int commitCount;
+
+        Writer(int index, @NotNull DBCExecutionContext context) {
+            super("Data load writer [" + index + "]");
+            setSystem(true);
+            this.index = index;
+            this.context = context;
+            this.executeOptions = executeOptionsFactory.get();
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor jobMonitor) {
+            RowBatch batch = null;
+            try (DBCSession session = context.openSession(jobMonitor, DBCExecutionPurpose.UTIL, "Data load [" + index + "]")) {
+                session.enableLogging(false);
+                DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                boolean useTransactions = settings.isUseTransactions() && txnManager != null && txnManager.isSupportsTransactions();
+                if (txnManager != null && txnManager.isSupportsTransactions() && txnManager.isAutoCommit() == useTransactions) {
+                    txnManager.setAutoCommit(jobMonitor, !useTransactions);
+                }
+                DBSDataManipulator.ExecuteBatch executeBatch = targetObject.insertData(
+                    session, attributes, null, executionSource, insertOptions);
+                try {
+                    long uncommittedRows = 0;
+                    for (;;) {
+                        batch = batchQueue.poll(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+                        if (stopped || jobMonitor.isCanceled()) {
+                            break;
+                        }
+                        if (batch == null) {
+                            continue;
+                        }
+                        if (batch != END_OF_DATA) {
+                            writeBatch(session, executeBatch, batch);
+                            uncommittedRows += batch.rows.size();
+                        }
+                        if (useTransactions && uncommittedRows > 0 &&
+                            (batch == END_OF_DATA || uncommittedRows >= settings.getCommitAfterRows()))
+                        {
+                            txnManager.commit(session);
+                            rowsCommitted += uncommittedRows;
+                            commitCount++;
+                            uncommittedRows = 0;
+                        } else if (!useTransactions) {
+                            rowsCommitted = rowsWritten;
+                        }
+                        if (batch == END_OF_DATA) {
+                            break;
+                        }
+                    }
+                    batch = null;
+                } finally {
+                    executeBatch.close();
+                    if (useTransactions && rowsCommitted < rowsWritten) {
+                        try {
+                            txnManager.rollback(session, null);
+                        } catch (DBCException e) {
+                            log.debug("Error rolling back writer [" + index + "] transaction", e);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                reportFailure(batch, e);
+            } finally {
+                finishLatch.countDown();
+            }
+            return Status.OK_STATUS;
+        }
+
+        private void writeBatch(
+            @NotNull DBCSession session,
+            @NotNull DBSDataManipulator.ExecuteBatch executeBatch,
+            @NotNull RowBatch batch
+        ) throws DBException {
+            for (Object[] row : batch.rows) {
+                executeBatch.add(row);
+            }
+            DBExecUtils.tryExecuteRecover(session, session.getDataSource(), param -> {
+                try {
+                    statistics.accumulate(executeBatch.execute(session, executeOptions));
+                } catch (Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+            });
+            rowsWritten += batch.rows.size();
+        }
+    }
+
+    DatabaseTransferParallelWriter(
+        @NotNull DatabaseConsumerSettings settings,
+        @NotNull DBSDataManipulator targetObject,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource executionSource,
+        @NotNull Map<String, Object> insertOptions,
+        @NotNull Supplier<Map<String, Object>> executeOptionsFactory
+    ) {
+        this.settings = settings;
+        this.targetObject = targetObject;
+        this.attributes = attributes;
+        this.executionSource = executionSource;
+        this.insertOptions = insertOptions;
+        this.executeOptionsFactory = executeOptionsFactory;
+        this.batchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, settings.getCommitAfterRows()));
+    }
+
+    /**
+     * Opens writer connections and starts writers.
+     * Returns false if less than two connections were opened, in this case rows must be written by the caller.
+     */
+    boolean start(@NotNull DBRProgressMonitor monitor, @NotNull DBSObject targetDB, int writerCount) {
+        List<DBCExecutionContext> contexts = new ArrayList<>(writerCount);
+        monitor.subTask("Open writer connections");
+        for (int i = 0; i < writerCount && !monitor.isCanceled(); i++) {
+            try {
+                contexts.add(DBUtils.getObjectOwnerInstance(targetDB).openIsolatedContext(monitor, "Data transfer writer", null));
+            } catch (DBException e) {
+                // Probably connections limit. Use what we have
+                log.debug("Can't open writer connection", e);
+                break;
+            }
+        }
+        if (contexts.size() < 2) {
+            for (DBCExecutionContext context : contexts) {
+                context.close();
+            }
+            return false;
+        }
+        batchQueue = new ArrayBlockingQueue<>(contexts.size() * 2);
+        finishLatch = new CountDownLatch(contexts.size());
+        pendingRows = new ArrayList<>(batchSize);
+        for (int i = 0; i < contexts.size(); i++) {
+            Writer writer = new Writer(i + 1, contexts.get(i));
+            writers.add(writer);
+            writer.schedule();
+        }
+        log.debug("Parallel data load into '" + DBUtils.getObjectFullName(targetObject, DBPEvaluationContext.UI) +
+            "' with " + writers.size() + " writer(s)");
+        return true;
+    }
+
+    int getWriterCount() {
+        return writers.size();
+    }
+
+    void addRow(@NotNull DBRProgressMonitor monitor, @NotNull Object[] row) throws DBCException {
+        checkFailure();
+        pendingRows.add(row);
+        if (pendingRows.size() >= batchSize) {
+            flushRows(monitor);
+        }
+    }
+
+    /**
+     * Writes remaining rows and waits for all writers.
+     * Throws the error of the earliest failed batch.
+     */
+    void finish(@NotNull DBRProgressMonitor monitor, @NotNull DBCStatistics statistics) throws DBCException {
+        try {
+            flushRows(monitor);
+            for (int i = 0; i < writers.size(); i++) {
+                putBatch(monitor, END_OF_DATA);
+            }
+            waitForWriters(monitor);
+        } finally {
+            dumpSummary(statistics);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops writers (if they are still running) and closes writer connections
+     */
+    void close() {
+        if (finishLatch != null && finishLatch.getCount() > 0) {
+            stopped = true;
+            try {
+                finishLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Writer writer : writers) {
+            writer.context.close();
+        }
+        writers.clear();
+    }
+
+    private void flushRows(@NotNull DBRProgressMonitor monitor) throws DBCException {
+        if (pendingRows.isEmpty()) {
+            return;
+        }
+        RowBatch batch = new RowBatch(batchSequence++, rowsSubmitted, pendingRows);
+        rowsSubmitted += pendingRows.size();
+        pendingRows = new ArrayList<>(batchSize);
+        putBatch(monitor, batch);
+    }
+
+    private void putBatch(@NotNull DBRProgressMonitor monitor, @NotNull RowBatch batch) throws DBCException {
+        try {
+            while (!batchQueue.offer(batch, WAIT_INTERVAL, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+                if (monitor.isCanceled()) {
+                    stopped = true;
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+            throw new DBCException("Data load interrupted", e);
+        }
+    }
+
+    private void waitForWriters(@NotNull DBRProgressMonitor monitor) {
+        try {
+            while (!finishLatch.await(WAIT_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (monitor.isCanceled()) {
+                    stopped = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+
+    private synchronized void reportFailure(@Nullable RowBatch batch, @NotNull Throwable error) {
+        stopped = true;
+        if (failure == null || (batch != null && (failedBatch == null || batch.sequence < failedBatch.sequence))) {
+            failedBatch = batch;
+            failure = error;
+        }
+    }
+
+    private synchronized void checkFailure() throws DBCException {
+        if (failure == null) {
+            return;
+        }
+        String message = failedBatch == null ?
+            "Data load writer failed" :
+            "Error inserting rows " + (failedBatch.firstRow + 1) + "-" + (failedBatch.firstRow + failedBatch.rows.size());
+        throw new DBCException(message + " (" + getRowsCommitted() + " row(s) committed by parallel writers)", failure);
+    }
+
+    private long getRowsCommitted() {
+        long rowsCommitted = 0;
+        for (Writer writer : writers) {
+            rowsCommitted += writer.rowsCommitted;
+        }
+        return rowsCommitted;
+    }
+
+    private void dumpSummary(@NotNull DBCStatistics statistics) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Parallel data load: ").append(rowsSubmitted).append(" row(s) submitted, ")
+            .append(getRowsCommitted()).append(" row(s) committed");
+        for (Writer writer : writers) {
+            statistics.accumulate(writer.statistics);
+            summary.append("\n\tWriter [").append(writer.index).append("]: ")
+                .append(writer.rowsWritten).append(" row(s) written, ")
+                .append(writer.rowsCommitted).append(" committed in ")
+                .append(writer.commitCount).append(" transaction(s)");
+        }
+        statistics.addInfo("Parallel writers", writers.size());
+        statistics.addInfo("Rows committed", getRowsCommitted());
+        log.debug(summary);
+    }
+}
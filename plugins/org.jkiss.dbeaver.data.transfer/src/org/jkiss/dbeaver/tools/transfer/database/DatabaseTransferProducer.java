@@ -38,9 +38,12 @@ import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
 import org.jkiss.dbeaver.model.task.DBTTask;
 import org.jkiss.dbeaver.model.task.DBTaskUtils;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.tools.transfer.DataTransferCheckpoints;
+import org.jkiss.dbeaver.tools.transfer.DataTransferPipeBuffer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferNodePrimary;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProcessor;
@@ -53,6 +56,7 @@ import org.jkiss.utils.CommonUtils;
 
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -185,6 +189,13 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
         DBPDataSource dataSource = databaseObject.getDataSource();
         assert (dataSource != null);
 
+        DataTransferCheckpoints.PipeCheckpoint checkpoint = consumer instanceof DatabaseTransferConsumer dtc ? dtc.getCheckpoint() : null;
+        if (checkpoint != null && checkpoint.isCompleted()) {
+            log.debug("Transfer of '" + checkpoint.getPipeId() + "' was completed by the previous run");
+            return;
+        }
+        DBDDataFilter readFilter = checkpoint == null ? dataFilter : makeCheckpointFilter(monitor1, checkpoint);
+
         DBExecUtils.tryExecuteRecover(monitor1, dataSource, monitor -> {
             long readFlags = DBSDataContainer.FLAG_NONE;
             if (settings.isSelectedColumnsOnly()) {
@@ -244,7 +255,7 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                         if (settings.isQueryRowCount() && dataContainer.isFeatureSupported(DBSDataContainer.FEATURE_DATA_COUNT)) {
                             monitor.beginTask(DTMessages.data_transfer_wizard_job_task_retrieve, 1);
                             try {
-                                totalRows = dataContainer.countData(transferSource, session, dataFilter, readFlags);
+                                totalRows = dataContainer.countData(transferSource, session, readFilter, readFlags);
                             } catch (Throwable e) {
                                 log.warn("Can't retrieve row count from '" + dataContainer.getName() + "'", e);
                                 try {
@@ -268,14 +279,14 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                             // Perform export
                             if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
                                 // Just do it in single query
-                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
+                                producerStatistics.accumulate(readData(transferSource, session, consumer, settings, readFilter, -1, -1, readFlags));
                             } else {
                                 // Read all data by segments
                                 long offset = 0;
                                 int segmentSize = settings.getSegmentSize();
                                 for (; ; ) {
-                                    DBCStatistics statistics = dataContainer.readData(
-                                        transferSource, session, consumer, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    DBCStatistics statistics = readData(
+                                        transferSource, session, consumer, settings, readFilter, offset, segmentSize, readFlags);
                                     if (statistics == null || statistics.getRowsFetched() < segmentSize) {
                                         // Done
                                         break;
@@ -284,6 +295,9 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                                     offset += statistics.getRowsFetched();
                                 }
                             }
+                            if (checkpoint != null && checkpoint.isActive() && !monitor.isCanceled()) {
+                                checkpoint.complete();
+                            }
                         } finally {
                             monitor.done();
                         }
@@ -314,6 +328,99 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
         });
     }
 
+    @NotNull
+    private DBCStatistics readData(
+        @NotNull DBCExecutionSource source,
+        @NotNull DBCSession session,
+        @NotNull IDataTransferConsumer<?, ?> consumer,
+        @NotNull DatabaseProducerSettings settings,
+        @Nullable DBDDataFilter readFilter,
+        long offset,
+        long maxRows,
+        long readFlags
+    ) throws DBCException {
+        if (!settings.isPipelinedRead()) {
+            return dataContainer.readData(source, session, consumer, readFilter, offset, maxRows, readFlags, settings.getFetchSize());
+        }
+        DataTransferPipeBuffer buffer = new DataTransferPipeBuffer(consumer, dataContainer);
+        try {
+            DBCStatistics statistics = dataContainer.readData(source, session, buffer, readFilter, offset, maxRows, readFlags, settings.getFetchSize());
+            buffer.checkError();
+            buffer.dumpStatistics(producerStatistics);
+            return statistics;
+        } finally {
+            buffer.stopConsumer();
+        }
+    }
+
+    /**
+     * Makes filter which reads rows in order of the entity unique key, starting after the checkpoint key.
+     * Activates the checkpoint. If there is no suitable key then rows are read from scratch.
+     */
+    @Nullable
+    private DBDDataFilter makeCheckpointFilter(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DataTransferCheckpoints.PipeCheckpoint checkpoint
+    ) throws DBException {
+        List<? extends DBSEntityAttribute> keyAttributes = getCheckpointKey(monitor);
+        if (keyAttributes == null) {
+            checkpoint.activate(null);
+            return dataFilter;
+        }
+        List<String> keyNames = new ArrayList<>(keyAttributes.size());
+        List<String> keyColumns = new ArrayList<>(keyAttributes.size());
+        for (DBSEntityAttribute attribute : keyAttributes) {
+            keyNames.add(attribute.getName());
+            keyColumns.add(DBUtils.getQuotedIdentifier(attribute));
+        }
+        checkpoint.activate(keyNames);
+
+        DBDDataFilter filter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+        filter.setOrder(String.join(",", keyColumns));
+
+        List<String> lastKey = checkpoint.getLastKey();
+        if (lastKey != null) {
+            String condition = DataTransferCheckpoints.makeKeysetCondition(keyColumns, lastKey);
+            filter.setWhere(CommonUtils.isEmpty(filter.getWhere()) ?
+                condition : "(" + filter.getWhere() + ") AND (" + condition + ")");
+            log.debug("Resume transfer of '" + getObjectName() + "' after " + checkpoint.getRowsCommitted() + " committed row(s)");
+        }
+        return filter;
+    }
+
+    /**
+     * Returns unique key which may be used to resume transfer or null
+     */
+    @Nullable
+    private List<? extends DBSEntityAttribute> getCheckpointKey(@NotNull DBRProgressMonitor monitor) throws DBException {
+        if (!(dataContainer instanceof DBSEntity entity)) {
+            log.debug("Checkpoints are not supported for '" + getObjectName() + "': source is not a table");
+            return null;
+        }
+        if (dataFilter != null && (dataFilter.hasOrdering() || !CommonUtils.isEmpty(dataFilter.getOrder()))) {
+            log.debug("Checkpoints are not supported for '" + getObjectName() + "': custom data ordering");
+            return null;
+        }
+        if (dataFilter != null && dataFilter.isAnyConstraint() && dataFilter.hasConditions()) {
+            // Custom condition would be joined with the checkpoint condition by OR
+            log.debug("Checkpoints are not supported for '" + getObjectName() + "': filter matches any condition");
+            return null;
+        }
+        List<? extends DBSEntityAttribute> keyAttributes = DBUtils.getBestTableIdentifier(monitor, entity);
+        if (keyAttributes.isEmpty()) {
+            log.debug("Checkpoints are not supported for '" + getObjectName() + "': no unique key");
+            return null;
+        }
+        for (DBSEntityAttribute attribute : keyAttributes) {
+            if (!attribute.isRequired()) {
+                // NULLs break keyset comparison
+                log.debug("Checkpoints are not supported for '" + getObjectName() + "': nullable key attribute '" + attribute.getName() + "'");
+                return null;
+            }
+        }
+        return keyAttributes;
+    }
+
     @Override
     public boolean equals(Object obj) {
         return obj instanceof DatabaseTransferProducer &&
@@ -23,16 +23,20 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCStatistics;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
 import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.task.*;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.tools.transfer.*;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseConsumerSettings;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferProducer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
+import org.jkiss.utils.CommonUtils;
 
 import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
@@ -77,7 +81,13 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
         }
         executeWithSettings(runnableContext, task, locale, log, logStream, listener, settings[0]);
 
-        return DBTTaskRunStatus.makeStatisticsStatus(totalStatistics);
+        DBTTaskRunStatus runStatus = DBTTaskRunStatus.makeStatisticsStatus(totalStatistics);
+        String scheduleSummary = settings[0].getScheduleSummary();
+        if (scheduleSummary != null) {
+            runStatus.setResultMessage(CommonUtils.isEmpty(runStatus.getResultMessage()) ?
+                scheduleSummary : runStatus.getResultMessage() + "\n" + scheduleSummary);
+        }
+        return runStatus;
     }
 
     public void executeWithSettings(
@@ -92,8 +102,16 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
         listener.taskStarted(task);
         int indexOfLastPipeWithDisabledReferentialIntegrity = -1;
         try {
-            indexOfLastPipeWithDisabledReferentialIntegrity = initializePipes(runnableContext, settings, task);
+            DataTransferCheckpoints checkpoints = task == null ? null : loadCheckpoints(task, settings, log);
+            indexOfLastPipeWithDisabledReferentialIntegrity = initializePipes(runnableContext, settings, task, checkpoints);
             Throwable error = runDataTransferJobs(runnableContext, task, locale, log, logStream, listener, settings);
+            if (checkpoints != null) {
+                if (error == null && checkpoints.isCompleted()) {
+                    checkpoints.delete();
+                } else {
+                    log.info("Data transfer checkpoints saved. Next run of the task will resume the transfer");
+                }
+            }
             listener.taskFinished(task, null, error, settings);
         } catch (InvocationTargetException e) {
             DBWorkbench.getPlatformUI().showError(
@@ -112,10 +130,33 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
         }
     }
 
+    @Nullable
+    private static DataTransferCheckpoints loadCheckpoints(
+        @NotNull DBTTask task,
+        @NotNull DataTransferSettings settings,
+        @NotNull Log log
+    ) throws DBException {
+        if (!(settings.getNodeSettings(settings.getConsumer()) instanceof DatabaseConsumerSettings consumerSettings) ||
+            !consumerSettings.isResumable()) {
+            return null;
+        }
+        if (consumerSettings.isUseBulkLoad() || consumerSettings.getParallelWriters() > 1) {
+            log.warn("Data transfer checkpoints can't be used with bulk load or parallel writers");
+            return null;
+        }
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, consumerSettings.isTruncateBeforeLoad());
+        for (DataTransferCheckpoints.PipeCheckpoint checkpoint : checkpoints.getStartedCheckpoints()) {
+            log.info("Resume data transfer: " + checkpoint);
+        }
+        checkpoints.checkResumable();
+        return checkpoints;
+    }
+
     private int initializePipes(
         @NotNull DBRRunnableContext runnableContext,
         @NotNull DataTransferSettings settings,
-        @Nullable DBTTask task
+        @Nullable DBTTask task,
+        @Nullable DataTransferCheckpoints checkpoints
     ) throws InvocationTargetException, InterruptedException, DBException {
         int[] indexOfLastPipeWithDisabledReferentialIntegrity = new int[]{-1};
         DBException[] dbException = {null};
@@ -130,6 +171,14 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
                     pipe.initPipe(settings, i, dataPipes.size());
                     IDataTransferConsumer<?, ?> consumer = pipe.getConsumer();
                     consumer.setRuntimeParameters(consumerRuntimeParameters);
+                    if (checkpoints != null && consumer instanceof DatabaseTransferConsumer databaseConsumer &&
+                        pipe.getProducer() instanceof DatabaseTransferProducer producer)
+                    {
+                        // Queries have no persistent id, they are identified by the position in the task
+                        String pipeId = producer.getDatabaseObject() instanceof DBSEntity entity ?
+                            DBUtils.getObjectFullId(entity) : "pipe-" + (i + 1);
+                        databaseConsumer.setCheckpoint(checkpoints.getCheckpoint(pipeId));
+                    }
                     try {
                         consumer.startTransfer(monitor);
                     } catch (DBException e) {
@@ -216,6 +265,10 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
                     }
                     totalStatistics.accumulate(job.getTotalStatistics());
                 }
+                String scheduleSummary = settings.getScheduleSummary();
+                if (scheduleSummary != null) {
+                    log.info(scheduleSummary);
+                }
                 monitor.done();
                 monitor.beginTask("Finalizing data transfer", 1);
                 try {
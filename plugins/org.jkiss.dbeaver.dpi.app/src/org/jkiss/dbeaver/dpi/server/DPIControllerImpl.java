@@ -34,6 +34,7 @@ import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.app.DBPDataSourceRegistry;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.dpi.*;
+import org.jkiss.dbeaver.model.impl.dpi.DPIResultSet;
 import org.jkiss.dbeaver.model.navigator.meta.DBXTreeItem;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -171,6 +172,34 @@ public class DPIControllerImpl implements DPIController {
         return invokeObjectMethod(object, method, null);
     }
 
+    @Nullable
+    @Override
+    public synchronized String readResultSetPage(@NotNull String resultSetId) throws DBException {
+        DPIResultSet resultSet = getResultSet(resultSetId);
+        byte[] page = resultSet.pollPage();
+        if (page == null) {
+            // All pages were read
+            closeResultSet(resultSetId);
+            return null;
+        }
+        return Base64.getEncoder().encodeToString(page);
+    }
+
+    @Override
+    public synchronized void closeResultSet(@NotNull String resultSetId) throws DBException {
+        DPIResultSet resultSet = getResultSet(resultSetId);
+        context.pruneObject(resultSetId);
+        resultSet.close();
+    }
+
+    @NotNull
+    private DPIResultSet getResultSet(@NotNull String resultSetId) throws DBException {
+        if (!(context.getObject(resultSetId) instanceof DPIResultSet resultSet)) {
+            throw new DBException("DPI result set '" + resultSetId + "' not found");
+        }
+        return resultSet;
+    }
+
     private Object invokeObjectMethod(Object object, Method method, Object[] args) throws DBException {
         boolean originalAccessible = method.canAccess(object);
         method.setAccessible(true);
@@ -21,22 +21,46 @@ import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.dpi.model.DPIContext;
+import org.jkiss.dbeaver.model.dpi.DPIController;
 import org.jkiss.dbeaver.model.exec.DBCResultSet;
 import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.DBCStatement;
 import org.jkiss.dbeaver.model.impl.dpi.DPIResultSet;
 import org.jkiss.dbeaver.model.impl.dpi.DPIResultSetColumn;
+import org.jkiss.dbeaver.model.impl.dpi.DPIResultSetPageReader;
 import org.jkiss.dbeaver.model.impl.dpi.DPIServerSmartProxyDataReceiver;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
+/**
+ * Result set adapter.
+ *
+ * Rows are written as binary pages (Base64 encoded). Only first page is sent with the result set,
+ * the rest are read by the client on demand (see {@link DPIController#readResultSetPage(String)}).
+ */
 public class DPIResultSetAdapter extends AbstractTypeAdapter<DBCResultSet> {
+    private static final Log log = Log.getLog(DPIResultSetAdapter.class);
+
     private static final String META = "meta";
     private static final String SESSION = "session";
     private static final String STATEMENT = "statement";
-    private static final String ROWS = "rows";
+    private static final String PAGES = "pages";
+    private static final String RESULT_SET_ID = "resultSetId";
+
+    private static final Type META_TYPE = new TypeToken<List<DPIResultSetColumn>>() {
+    }.getType();
+
+    private static final int INLINE_PAGE_COUNT = 1;
+
     private final Gson gson;
 
     public DPIResultSetAdapter(DPIContext context, Gson gson) {
@@ -65,13 +89,26 @@ public class DPIResultSetAdapter extends AbstractTypeAdapter<DBCResultSet> {
         jsonWriter.beginObject();
 
         jsonWriter.name(META);
-        jsonWriter.value(gson.toJson(dpiResultSet.getMetaColumns()));
+        gson.toJson(dpiResultSet.getMetaColumns(), META_TYPE, jsonWriter);
         jsonWriter.name(SESSION);
-        jsonWriter.value(gson.toJson(dpiResultSet.getSession()));
+        writeObject(jsonWriter, dpiResultSet.getSession());
         jsonWriter.name(STATEMENT);
-        jsonWriter.value(gson.toJson(dpiResultSet.getSourceStatement()));
-        jsonWriter.name(ROWS);
-        jsonWriter.value(gson.toJson(dpiResultSet.getAllRows()));
+        writeObject(jsonWriter, dpiResultSet.getSourceStatement());
+        jsonWriter.name(PAGES);
+        jsonWriter.beginArray();
+        for (int i = 0; i < INLINE_PAGE_COUNT; i++) {
+            byte[] page = dpiResultSet.pollPage();
+            if (page == null) {
+                break;
+            }
+            jsonWriter.value(Base64.getEncoder().encodeToString(page));
+        }
+        jsonWriter.endArray();
+        if (dpiResultSet.hasPages()) {
+            // Keep the rest on the server side
+            jsonWriter.name(RESULT_SET_ID);
+            jsonWriter.value(context.getOrCreateObjectId(dpiResultSet));
+        }
 
         jsonWriter.endObject();
     }
@@ -81,35 +118,86 @@ public class DPIResultSetAdapter extends AbstractTypeAdapter<DBCResultSet> {
         DBCSession session = null;
         DBCStatement statement = null;
         List<DPIResultSetColumn> meta = null;
-        List<Object[]> rows = null;
+        List<byte[]> pages = new ArrayList<>();
+        String resultSetId = null;
         jsonReader.beginObject();
         while (jsonReader.peek() == JsonToken.NAME) {
             String attrName = jsonReader.nextName();
             switch (attrName) {
                 case META:
-                    meta = gson.fromJson(
-                        jsonReader.nextString(),
-                        new TypeToken<List<DPIResultSetColumn>>() {
-                        }.getType()
-                    );
+                    meta = readObject(jsonReader, META_TYPE);
                     break;
                 case SESSION:
-                    session = gson.fromJson(jsonReader.nextString(), DBCSession.class);
+                    session = readObject(jsonReader, DBCSession.class);
                     break;
                 case STATEMENT:
-                    statement = gson.fromJson(jsonReader.nextString(), DBCStatement.class);
+                    statement = readObject(jsonReader, DBCStatement.class);
+                    break;
+                case PAGES:
+                    jsonReader.beginArray();
+                    while (jsonReader.hasNext()) {
+                        pages.add(Base64.getDecoder().decode(jsonReader.nextString()));
+                    }
+                    jsonReader.endArray();
                     break;
-                case ROWS:
-                    rows = gson.fromJson(
-                        jsonReader.nextString(),
-                        new TypeToken<List<Object[]>>() {
-                        }.getType()
-                    );
+                case RESULT_SET_ID:
+                    resultSetId = jsonReader.nextString();
+                    break;
+                default:
+                    jsonReader.skipValue();
                     break;
             }
         }
         jsonReader.endObject();
 
-        return new DPIResultSet(session, statement, meta, rows);
+        return new DPIResultSet(
+            session,
+            statement,
+            meta == null ? List.of() : meta,
+            pages,
+            resultSetId == null ? null : createPageReader(resultSetId));
+    }
+
+    private void writeObject(@NotNull JsonWriter jsonWriter, @Nullable Object object) throws IOException {
+        if (object == null) {
+            jsonWriter.nullValue();
+        } else {
+            gson.toJson(object, object.getClass(), jsonWriter);
+        }
+    }
+
+    @Nullable
+    private <T> T readObject(@NotNull JsonReader jsonReader, @NotNull Type type) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        return gson.fromJson(jsonReader, type);
+    }
+
+    @Nullable
+    private DPIResultSetPageReader createPageReader(@NotNull String resultSetId) {
+        DPIController controller = context.getDpiController();
+        if (controller == null) {
+            log.warn("DPI controller is not available, remaining pages of result set '" + resultSetId + "' are ignored");
+            return null;
+        }
+        return new DPIResultSetPageReader() {
+            @Nullable
+            @Override
+            public byte[] readPage() throws DBException {
+                String page = controller.readResultSetPage(resultSetId);
+                return page == null ? null : Base64.getDecoder().decode(page);
+            }
+
+            @Override
+            public void close() {
+                try {
+                    controller.closeResultSet(resultSetId);
+                } catch (DBException e) {
+                    log.debug("Error closing DPI result set '" + resultSetId + "'", e);
+                }
+            }
+        };
     }
 }
@@ -39,6 +39,16 @@ public class DiagramObjectCollector {
 
     private static final Log log = Log.getLog(DiagramObjectCollector.class);
 
+    /**
+     * Minimal number of selected tables of one container to read metadata of the whole container
+     */
+    private static final int BULK_LOAD_MIN_TABLES = 10;
+    /**
+     * Minimal percentage of container tables which must be selected to read metadata of the whole container.
+     * Reading a huge schema for a few of its tables is slower than reading these tables one by one.
+     */
+    private static final int BULK_LOAD_MIN_TABLES_PERCENT = 20;
+
     private final ERDDiagram diagram;
     private final List<ERDEntity> erdEntities = new ArrayList<>();
     private boolean showViews;
@@ -57,10 +67,58 @@ public class DiagramObjectCollector {
         throws DBException
     {
         Set<DBSEntity> tables = new LinkedHashSet<>();
-        collectTables(monitor, roots, tables, settings, forceShowViews);
+        Set<DBSObjectContainer> scannedContainers = new LinkedHashSet<>();
+        monitor.beginTask("Collect diagram tables", 1);
+        try {
+            collectTables(monitor, roots, tables, scannedContainers, settings, forceShowViews);
+        } finally {
+            monitor.done();
+        }
+        if (!monitor.isCanceled()) {
+            DiagramStructureLoader.loadStructure(monitor, getBulkLoadContainers(monitor, tables, scannedContainers));
+        }
         return tables;
     }
 
+    /**
+     * Containers whose tables metadata should be read in bulk: scanned containers and containers
+     * with many individually selected tables (relative to the container size).
+     */
+    static Collection<DBSObjectContainer> getBulkLoadContainers(
+        DBRProgressMonitor monitor,
+        Collection<DBSEntity> tables,
+        Set<DBSObjectContainer> scannedContainers)
+    {
+        Map<DBSObjectContainer, Integer> tableCounts = new LinkedHashMap<>();
+        for (DBSEntity table : tables) {
+            if (table.getParentObject() instanceof DBSObjectContainer container) {
+                tableCounts.merge(container, 1, Integer::sum);
+            }
+        }
+        List<DBSObjectContainer> result = new ArrayList<>();
+        for (Map.Entry<DBSObjectContainer, Integer> entry : tableCounts.entrySet()) {
+            if (scannedContainers.contains(entry.getKey()) || isBulkLoadRequired(monitor, entry.getKey(), entry.getValue())) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBulkLoadRequired(DBRProgressMonitor monitor, DBSObjectContainer container, int tableCount) {
+        if (tableCount < BULK_LOAD_MIN_TABLES) {
+            return false;
+        }
+        try {
+            // Tables were selected from this container so its children are already cached
+            Collection<? extends DBSObject> children = container.getChildren(monitor);
+            int containerSize = children == null ? tableCount : children.size();
+            return tableCount * 100L >= (long) containerSize * BULK_LOAD_MIN_TABLES_PERCENT;
+        } catch (DBException e) {
+            log.debug("Error reading '" + container.getName() + "' tables", e);
+            return false;
+        }
+    }
+
     public void setShowViews(boolean showViews) {
         this.showViews = showViews;
     }
@@ -69,6 +127,7 @@ public class DiagramObjectCollector {
         DBRProgressMonitor monitor,
         Collection<? extends DBSObject> roots,
         Set<DBSEntity> tables,
+        Set<DBSObjectContainer> scannedContainers,
         DiagramCollectSettings settings,
         boolean forceShowViews)
         throws DBException
@@ -86,7 +145,7 @@ public class DiagramObjectCollector {
             }
 
             if (root instanceof DBSFolder) {
-                collectTables(monitor, ((DBSFolder) root).getChildrenObjects(monitor), tables, settings, false);
+                collectTables(monitor, ((DBSFolder) root).getChildrenObjects(monitor), tables, scannedContainers, settings, false);
             } else if (root instanceof DBSEntity) {
                 if ((root instanceof DBSTablePartition && !showPartitions) || (DBUtils.isView((DBSEntity) root) && !(showViews || forceShowViews))) {
                     continue;
@@ -94,7 +153,7 @@ public class DiagramObjectCollector {
                 tables.add((DBSEntity) root);
             }
             if (root instanceof DBSObjectContainer) {
-                collectTables(monitor, (DBSObjectContainer) root, tables, showViews, showPartitions);
+                collectTables(monitor, (DBSObjectContainer) root, tables, scannedContainers, showViews, showPartitions);
             }
         }
     }
@@ -103,6 +162,7 @@ public class DiagramObjectCollector {
         DBRProgressMonitor monitor,
         DBSObjectContainer container,
         Set<DBSEntity> tables,
+        Set<DBSObjectContainer> scannedContainers,
         boolean showViews,
         boolean showPartitions)
         throws DBException
@@ -110,7 +170,10 @@ public class DiagramObjectCollector {
         if (monitor.isCanceled()) {
             return;
         }
-        container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
+        // Read only the list of tables here, their metadata is loaded in bulk after collection
+        monitor.subTask("Read '" + container.getName() + "' tables");
+        container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ENTITIES);
+        scannedContainers.add(container);
         final Collection<? extends DBSObject> children = container.getChildren(monitor);
         if (!CommonUtils.isEmpty(children)) {
             Class<? extends DBSObject> childType = container.getPrimaryChildType(monitor);
@@ -134,7 +197,7 @@ public class DiagramObjectCollector {
 
                     tables.add(entity1);
                 } else if (entity instanceof DBSObjectContainer) {
-                    collectTables(monitor, (DBSObjectContainer) entity, tables, showViews, showPartitions);
+                    collectTables(monitor, (DBSObjectContainer) entity, tables, scannedContainers, showViews, showPartitions);
                 }
             }
         }
@@ -147,17 +210,39 @@ public class DiagramObjectCollector {
         throws DBException
     {
         Collection<DBSEntity> tables = collectTables(monitor, roots, settings, showViews);
-        for (DBSEntity table : tables) {
-            if (DBUtils.isHiddenObject(table)) {
-                // Skip hidden tables
-                continue;
+        if (monitor.isCanceled()) {
+            return;
+        }
+
+        monitor.beginTask("Create diagram entities", tables.size());
+        try {
+            for (DBSEntity table : tables) {
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                monitor.worked(1);
+                if (DBUtils.isHiddenObject(table)) {
+                    // Skip hidden tables
+                    continue;
+                }
+                addDiagramEntity(monitor, table);
             }
-            addDiagramEntity(monitor, table);
+        } finally {
+            monitor.done();
         }
 
         // Add new relations
-        for (ERDEntity erdEntity : erdEntities) {
-            erdEntity.addModelRelations(monitor, diagram, true, false);
+        monitor.beginTask("Create diagram relations", erdEntities.size());
+        try {
+            for (ERDEntity erdEntity : erdEntities) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                erdEntity.addModelRelations(monitor, diagram, true, false);
+                monitor.worked(1);
+            }
+        } finally {
+            monitor.done();
         }
     }
 
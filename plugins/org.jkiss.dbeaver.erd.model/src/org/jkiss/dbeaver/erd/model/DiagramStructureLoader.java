@@ -0,0 +1,159 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk loader of diagram tables metadata.
+ *
+ * Reads attributes, keys and foreign keys of whole containers with {@link DBSObjectContainer#cacheStructure}
+ * (a few catalog queries per container instead of several queries per table).
+ * Containers which use different metadata connections are loaded in parallel.
+ */
+final class DiagramStructureLoader {
+
+    private static final Log log = Log.getLog(DiagramStructureLoader.class);
+
+    private static final int STRUCT_DETAILS = DBSObjectContainer.STRUCT_ATTRIBUTES | DBSObjectContainer.STRUCT_ASSOCIATIONS;
+    private static final long PROGRESS_UPDATE_INTERVAL = 100;
+
+    private DiagramStructureLoader() {
+    }
+
+    static void loadStructure(@NotNull DBRProgressMonitor monitor, @NotNull Collection<DBSObjectContainer> containers) {
+        if (containers.isEmpty()) {
+            return;
+        }
+        // Containers sharing the same metadata context can't be read concurrently
+        Map<Object, List<DBSObjectContainer>> groups = new LinkedHashMap<>();
+        for (DBSObjectContainer container : containers) {
+            Object contextKey = DBUtils.getDefaultContext(container, true);
+            groups.computeIfAbsent(contextKey == null ? container : contextKey, k -> new ArrayList<>()).add(container);
+        }
+        monitor.beginTask("Load tables metadata", containers.size());
+        try {
+            if (groups.size() == 1) {
+                for (DBSObjectContainer container : containers) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    loadContainer(monitor, container);
+                    monitor.worked(1);
+                }
+            } else {
+                loadParallel(monitor, groups.values());
+            }
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private static void loadParallel(@NotNull DBRProgressMonitor monitor, @NotNull Collection<List<DBSObjectContainer>> groups) {
+        AtomicInteger loadedCount = new AtomicInteger();
+        CountDownLatch finishLatch = new CountDownLatch(groups.size());
+        List<AbstractJob> jobs = new ArrayList<>(groups.size());
+        for (List<DBSObjectContainer> group : groups) {
+            AbstractJob job = new AbstractJob("Load tables metadata") {
+                {
+                    setSystem(true);
+                }
+
+                @Override
+                protected IStatus run(DBRProgressMonitor jobMonitor) {
+                    try {
+                        for (DBSObjectContainer container : group) {
+                            if (jobMonitor.isCanceled()) {
+                                break;
+                            }
+                            loadContainer(jobMonitor, container);
+                            loadedCount.incrementAndGet();
+                        }
+                    } finally {
+                        finishLatch.countDown();
+                    }
+                    return Status.OK_STATUS;
+                }
+            };
+            jobs.add(job);
+            job.schedule();
+        }
+
+        // Report progress from the caller thread
+        int reportedCount = 0;
+        try {
+            boolean finished = false;
+            while (!finished) {
+                finished = finishLatch.await(PROGRESS_UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+                int count = loadedCount.get();
+                if (count > reportedCount) {
+                    monitor.subTask("Loaded metadata of " + count + " schema(s)");
+                    monitor.worked(count - reportedCount);
+                    reportedCount = count;
+                }
+                if (!finished && monitor.isCanceled()) {
+                    cancelJobs(jobs);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelJobs(jobs);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cancels loader jobs and waits for the started ones, so that no metadata is read
+     * in the background after the diagram load is finished.
+     */
+    private static void cancelJobs(@NotNull List<AbstractJob> jobs) {
+        for (AbstractJob job : jobs) {
+            job.cancel();
+        }
+        try {
+            for (AbstractJob job : jobs) {
+                job.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void loadContainer(@NotNull DBRProgressMonitor monitor, @NotNull DBSObjectContainer container) {
+        monitor.subTask("Load '" + DBUtils.getObjectFullName(container, DBPEvaluationContext.UI) + "' metadata");
+        try {
+            container.cacheStructure(monitor, STRUCT_DETAILS);
+        } catch (DBException e) {
+            // Not fatal, tables metadata will be read on demand
+            log.debug("Error loading '" + container.getName() + "' metadata", e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import java.util.Arrays;
+
+/**
+ * Quadtree for Barnes-Hut approximation of repulsive forces.
+ * Distant groups of points are replaced with their center of mass, so force calculation takes O(n log n).
+ */
+final class BarnesHutTree {
+
+    private static final int MAX_DEPTH = 32;
+    private static final int NO_POINT = -1;
+    private static final int MULTI_POINT = -2;
+
+    private final double theta2;
+
+    // Cells
+    private double[] cellX;
+    private double[] cellY;
+    private double[] cellSize;
+    private double[] massX;
+    private double[] massY;
+    private double[] mass;
+    private int[] children;
+    private int[] cellPoint;
+    private int cellCount;
+
+    private int[] stack = new int[64];
+
+    BarnesHutTree(double theta) {
+        this.theta2 = theta * theta;
+        allocate(64);
+    }
+
+    void build(double[] x, double[] y, double[] weights, int count) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        if (cellX.length < count * 2) {
+            allocate(count * 2);
+        }
+        cellCount = 0;
+        int root = newCell(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1e-6) * 1.0001);
+        for (int i = 0; i < count; i++) {
+            insert(root, i, x[i], y[i], weights[i]);
+        }
+    }
+
+    /**
+     * Adds repulsive force {@code strength * weight(other) / distance} applied to point {@code i} to {@code force}.
+     */
+    void addRepulsion(int i, double x, double y, double strength, double[] force) {
+        int top = 0;
+        stack[top++] = 0;
+        double fx = 0, fy = 0;
+        while (top > 0) {
+            int cell = stack[--top];
+            if (mass[cell] == 0 || cellPoint[cell] == i) {
+                continue;
+            }
+            double dx = x - massX[cell];
+            double dy = y - massY[cell];
+            double d2 = dx * dx + dy * dy;
+            boolean leaf = cellPoint[cell] != NO_POINT;
+            if (leaf || cellSize[cell] * cellSize[cell] < theta2 * d2) {
+                if (d2 < 1e-12) {
+                    continue;
+                }
+                double f = strength * mass[cell] / d2;
+                fx += dx * f;
+                fy += dy * f;
+            } else {
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                for (int q = 0; q < 4; q++) {
+                    int child = children[cell * 4 + q];
+                    if (child >= 0) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+        force[0] += fx;
+        force[1] += fy;
+    }
+
+    private void insert(int cell, int point, double x, double y, double weight) {
+        for (int depth = 0; ; depth++) {
+            double oldMass = mass[cell];
+            mass[cell] = oldMass + weight;
+            massX[cell] = (massX[cell] * oldMass + x * weight) / mass[cell];
+            massY[cell] = (massY[cell] * oldMass + y * weight) / mass[cell];
+            if (oldMass == 0) {
+                cellPoint[cell] = point;
+                return;
+            }
+            int existing = cellPoint[cell];
+            if (existing == MULTI_POINT || (existing >= 0 && depth >= MAX_DEPTH)) {
+                // Too deep: keep aggregated points together
+                cellPoint[cell] = MULTI_POINT;
+                return;
+            }
+            if (existing >= 0) {
+                // Split leaf: move existing point one level down
+                cellPoint[cell] = NO_POINT;
+                double existingX = (massX[cell] * mass[cell] - x * weight) / oldMass;
+                double existingY = (massY[cell] * mass[cell] - y * weight) / oldMass;
+                int child = getChild(cell, existingX, existingY);
+                mass[child] = oldMass;
+                massX[child] = existingX;
+                massY[child] = existingY;
+                cellPoint[child] = existing;
+            }
+            cell = getChild(cell, x, y);
+        }
+    }
+
+    private int getChild(int cell, double x, double y) {
+        double half = cellSize[cell] / 2;
+        int quadrant = (x >= cellX[cell] + half ? 1 : 0) + (y >= cellY[cell] + half ? 2 : 0);
+        int child = children[cell * 4 + quadrant];
+        if (child < 0) {
+            child = newCell(
+                cellX[cell] + ((quadrant & 1) != 0 ? half : 0),
+                cellY[cell] + ((quadrant & 2) != 0 ? half : 0),
+                half);
+            children[cell * 4 + quadrant] = child;
+        }
+        return child;
+    }
+
+    private int newCell(double x, double y, double size) {
+        if (cellCount == cellX.length) {
+            allocate(cellX.length * 2);
+        }
+        int cell = cellCount++;
+        cellX[cell] = x;
+        cellY[cell] = y;
+        cellSize[cell] = size;
+        massX[cell] = 0;
+        massY[cell] = 0;
+        mass[cell] = 0;
+        cellPoint[cell] = NO_POINT;
+        Arrays.fill(children, cell * 4, cell * 4 + 4, -1);
+        return cell;
+    }
+
+    private void allocate(int capacity) {
+        if (cellX != null && capacity <= cellX.length) {
+            return;
+        }
+        cellX = cellX == null ? new double[capacity] : Arrays.copyOf(cellX, capacity);
+        cellY = cellY == null ? new double[capacity] : Arrays.copyOf(cellY, capacity);
+        cellSize = cellSize == null ? new double[capacity] : Arrays.copyOf(cellSize, capacity);
+        massX = massX == null ? new double[capacity] : Arrays.copyOf(massX, capacity);
+        massY = massY == null ? new double[capacity] : Arrays.copyOf(massY, capacity);
+        mass = mass == null ? new double[capacity] : Arrays.copyOf(mass, capacity);
+        cellPoint = cellPoint == null ? new int[capacity] : Arrays.copyOf(cellPoint, capacity);
+        children = children == null ? new int[capacity * 4] : Arrays.copyOf(children, capacity * 4);
+    }
+}
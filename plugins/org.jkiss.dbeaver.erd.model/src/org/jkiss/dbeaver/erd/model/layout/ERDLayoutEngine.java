@@ -0,0 +1,455 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless layout of large diagrams.
+ *
+ * The graph is split into connected components. Each component is placed with multilevel force-directed
+ * placement ({@link ForceDirectedPlacement}), overlaps are removed and edges are routed orthogonally on a grid
+ * ({@link OrthogonalRouter}). Components are independent and are laid out in parallel, then packed into rows.
+ * Isolated nodes are arranged in a compact grid after connected components.
+ * Components whose overlaps can't be removed are arranged in a grid too.
+ */
+public class ERDLayoutEngine {
+
+    private static final Log log = Log.getLog(ERDLayoutEngine.class);
+
+    public static final int DEFAULT_NODE_SPACING = 40;
+    public static final int DEFAULT_COMPONENT_SPACING = 80;
+    public static final int DEFAULT_GRID_SIZE = 20;
+
+    private static final int OVERLAP_REMOVAL_PASSES = 50;
+    private static final int OVERLAP_REMOVAL_EXPANSIONS = 5;
+    private static final double OVERLAP_EXPANSION_FACTOR = 1.25;
+    private static final double PACKING_ASPECT_RATIO = 1.5;
+    private static final double INITIAL_DENSITY = 0.7;
+
+    private int nodeSpacing = DEFAULT_NODE_SPACING;
+    private int componentSpacing = DEFAULT_COMPONENT_SPACING;
+    private int gridSize = DEFAULT_GRID_SIZE;
+    private boolean routeEdges = true;
+    private boolean parallel = true;
+    private long seed = 1;
+    private int overlapRemovalPasses = OVERLAP_REMOVAL_PASSES;
+
+    public int getNodeSpacing() {
+        return nodeSpacing;
+    }
+
+    public void setNodeSpacing(int nodeSpacing) {
+        this.nodeSpacing = nodeSpacing;
+    }
+
+    public int getComponentSpacing() {
+        return componentSpacing;
+    }
+
+    public void setComponentSpacing(int componentSpacing) {
+        this.componentSpacing = componentSpacing;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    public boolean isRouteEdges() {
+        return routeEdges;
+    }
+
+    public void setRouteEdges(boolean routeEdges) {
+        this.routeEdges = routeEdges;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Lay out connected components in parallel (in the common fork-join pool)
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Random seed. Layout is deterministic for the same graph and seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    void setOverlapRemovalPasses(int overlapRemovalPasses) {
+        this.overlapRemovalPasses = overlapRemovalPasses;
+    }
+
+    /**
+     * Computes node locations and edge bends of the graph.
+     *
+     * @throws DBException if layout of any component failed. Other components are laid out anyway,
+     *                     but locations of the graph nodes must not be used.
+     */
+    public void layout(@NotNull DBRProgressMonitor monitor, @NotNull ERDLayoutGraph graph) throws DBException {
+        List<ERDLayoutGraph.Node> nodes = graph.getNodes();
+        if (nodes.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        List<Component> components = findComponents(graph);
+        monitor.beginTask("Layout diagram", components.size());
+        try {
+            if (parallel && components.size() > 1) {
+                ExecutorCompletionService<Component> completionService = new ExecutorCompletionService<>(ForkJoinPool.commonPool());
+                for (Component component : components) {
+                    completionService.submit(() -> {
+                        component.layout(monitor);
+                        return component;
+                    });
+                }
+                Throwable error = null;
+                // Wait for all components, so no task modifies the graph after return
+                for (int i = 0; i < components.size(); i++) {
+                    try {
+                        completionService.take().get();
+                    } catch (ExecutionException e) {
+                        if (error == null) {
+                            error = e.getCause();
+                        } else {
+                            error.addSuppressed(e.getCause());
+                        }
+                    }
+                    monitor.worked(1);
+                }
+                if (error != null) {
+                    throw new DBException("Error laying out diagram component", error);
+                }
+            } else {
+                for (Component component : components) {
+                    try {
+                        component.layout(monitor);
+                    } catch (RuntimeException e) {
+                        throw new DBException("Error laying out diagram component", e);
+                    }
+                    monitor.worked(1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            monitor.done();
+        }
+        packComponents(components);
+        log.debug("Diagram layout: " + nodes.size() + " nodes, " + graph.getEdges().size() + " edges, " +
+            components.size() + " components in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    @NotNull
+    private List<Component> findComponents(@NotNull ERDLayoutGraph graph) {
+        List<ERDLayoutGraph.Node> nodes = graph.getNodes();
+        int[] parent = new int[nodes.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (ERDLayoutGraph.Edge edge : graph.getEdges()) {
+            int a = findRoot(parent, edge.getSource().getIndex());
+            int b = findRoot(parent, edge.getTarget().getIndex());
+            if (a != b) {
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        Map<Integer, Component> componentMap = new LinkedHashMap<>();
+        Component isolatedNodes = new Component(true);
+        Set<Integer> connected = new HashSet<>();
+        for (ERDLayoutGraph.Edge edge : graph.getEdges()) {
+            if (edge.getSource() != edge.getTarget()) {
+                connected.add(edge.getSource().getIndex());
+                connected.add(edge.getTarget().getIndex());
+            }
+        }
+        for (ERDLayoutGraph.Node node : nodes) {
+            if (!connected.contains(node.getIndex())) {
+                isolatedNodes.nodes.add(node);
+            } else {
+                componentMap.computeIfAbsent(findRoot(parent, node.getIndex()), root -> new Component(false)).nodes.add(node);
+            }
+        }
+        for (ERDLayoutGraph.Edge edge : graph.getEdges()) {
+            Component component = componentMap.get(findRoot(parent, edge.getSource().getIndex()));
+            (component == null ? isolatedNodes : component).edges.add(edge);
+        }
+        List<Component> components = new ArrayList<>(componentMap.values());
+        if (!isolatedNodes.nodes.isEmpty()) {
+            components.add(isolatedNodes);
+        }
+        return components;
+    }
+
+    private static int findRoot(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Places components into rows: largest first, rows are filled up to the width of a square-ish layout.
+     */
+    private void packComponents(@NotNull List<Component> components) {
+        List<Component> sorted = new ArrayList<>(components);
+        sorted.sort(Comparator.comparing((Component c) -> c.isolated).thenComparing(c -> -(long) c.width * c.height));
+        double totalArea = 0;
+        int maxWidth = 0;
+        for (Component component : sorted) {
+            totalArea += (double) (component.width + componentSpacing) * (component.height + componentSpacing);
+            maxWidth = Math.max(maxWidth, component.width);
+        }
+        int rowLimit = Math.max(maxWidth, (int) Math.sqrt(totalArea));
+        int x = 0, y = 0, rowHeight = 0;
+        for (Component component : sorted) {
+            if (x > 0 && x + component.width > rowLimit) {
+                x = 0;
+                y += alignToGrid(rowHeight + componentSpacing);
+                rowHeight = 0;
+            }
+            component.moveTo(x, y);
+            x += alignToGrid(component.width + componentSpacing);
+            rowHeight = Math.max(rowHeight, component.height);
+        }
+    }
+
+    private int alignToGrid(int value) {
+        return gridSize <= 1 ? value : (value + gridSize - 1) / gridSize * gridSize;
+    }
+
+    private class Component {
+        final boolean isolated;
+        final List<ERDLayoutGraph.Node> nodes = new ArrayList<>();
+        final List<ERDLayoutGraph.Edge> edges = new ArrayList<>();
+        int width;
+        int height;
+
+        Component(boolean isolated) {
+            this.isolated = isolated;
+        }
+
+        void layout(@NotNull DBRProgressMonitor monitor) {
+            if (isolated || nodes.size() == 1) {
+                arrangeGrid();
+            } else {
+                place(monitor);
+            }
+            if (routeEdges && !isolated && !monitor.isCanceled()) {
+                routeEdges();
+            }
+            for (ERDLayoutGraph.Node node : nodes) {
+                width = Math.max(width, node.x + node.getWidth());
+                height = Math.max(height, node.y + node.getHeight());
+            }
+        }
+
+        void moveTo(int x, int y) {
+            for (ERDLayoutGraph.Node node : nodes) {
+                node.x += x;
+                node.y += y;
+            }
+            for (ERDLayoutGraph.Edge edge : edges) {
+                for (int[] bend : edge.bends) {
+                    bend[0] += x;
+                    bend[1] += y;
+                }
+            }
+        }
+
+        private void arrangeGrid() {
+            double area = 0;
+            for (ERDLayoutGraph.Node node : nodes) {
+                area += (double) (node.getWidth() + nodeSpacing) * (node.getHeight() + nodeSpacing);
+            }
+            int rowLimit = (int) (Math.sqrt(area) * PACKING_ASPECT_RATIO);
+            int x = 0, y = 0, rowHeight = 0;
+            for (ERDLayoutGraph.Node node : nodes) {
+                if (x > 0 && x + node.getWidth() > rowLimit) {
+                    x = 0;
+                    y += snap(rowHeight + nodeSpacing);
+                    rowHeight = 0;
+                }
+                node.x = x;
+                node.y = y;
+                x += snap(node.getWidth() + nodeSpacing);
+                rowHeight = Math.max(rowHeight, node.getHeight());
+            }
+        }
+
+        private void place(@NotNull DBRProgressMonitor monitor) {
+            int n = nodes.size();
+            Map<ERDLayoutGraph.Node, Integer> localIndex = new IdentityHashMap<>();
+            for (int i = 0; i < n; i++) {
+                localIndex.put(nodes.get(i), i);
+            }
+            int[] sources = new int[edges.size()];
+            int[] targets = new int[edges.size()];
+            for (int i = 0; i < edges.size(); i++) {
+                sources[i] = localIndex.get(edges.get(i).getSource());
+                targets[i] = localIndex.get(edges.get(i).getTarget());
+            }
+            double[][] positions = new ForceDirectedPlacement(seed + n, monitor::isCanceled).layout(n, sources, targets);
+            double[] cx = positions[0];
+            double[] cy = positions[1];
+
+            // Scale natural spring length to the average node size
+            double[] lengths = new double[edges.size()];
+            int lengthCount = 0;
+            for (int i = 0; i < edges.size(); i++) {
+                if (sources[i] != targets[i]) {
+                    lengths[lengthCount++] = Math.hypot(cx[sources[i]] - cx[targets[i]], cy[sources[i]] - cy[targets[i]]);
+                }
+            }
+            Arrays.sort(lengths, 0, lengthCount);
+            double medianLength = lengthCount == 0 ? 1 : Math.max(lengths[lengthCount / 2], 1e-3);
+            double averageSize = 0;
+            int[] widths = new int[n];
+            int[] heights = new int[n];
+            for (int i = 0; i < n; i++) {
+                widths[i] = nodes.get(i).getWidth();
+                heights[i] = nodes.get(i).getHeight();
+                averageSize += Math.max(widths[i], heights[i]);
+            }
+            averageSize /= n;
+            // Start dense, overlap removal moves nodes apart locally
+            double scale = (averageSize + nodeSpacing) * INITIAL_DENSITY / medianLength;
+            for (int i = 0; i < n; i++) {
+                cx[i] *= scale;
+                cy[i] *= scale;
+            }
+
+            boolean overlapsRemoved = false;
+            for (int attempt = 0; attempt < OVERLAP_REMOVAL_EXPANSIONS && !overlapsRemoved; attempt++) {
+                overlapsRemoved = removeOverlaps(cx, cy, widths, heights);
+                if (!overlapsRemoved) {
+                    for (int i = 0; i < n; i++) {
+                        cx[i] *= OVERLAP_EXPANSION_FACTOR;
+                        cy[i] *= OVERLAP_EXPANSION_FACTOR;
+                    }
+                }
+            }
+            if (!overlapsRemoved) {
+                // Grid has no overlaps, though it ignores relations
+                log.debug("Can't remove overlaps of " + n + " diagram nodes. Arrange them in a grid.");
+                arrangeGrid();
+                return;
+            }
+
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                minX = Math.min(minX, cx[i] - widths[i] / 2.0);
+                minY = Math.min(minY, cy[i] - heights[i] / 2.0);
+            }
+            for (int i = 0; i < n; i++) {
+                ERDLayoutGraph.Node node = nodes.get(i);
+                node.x = snap((int) Math.round(cx[i] - widths[i] / 2.0 - minX));
+                node.y = snap((int) Math.round(cy[i] - heights[i] / 2.0 - minY));
+            }
+        }
+
+        /**
+         * Pushes overlapping nodes apart along the axis of the smallest overlap (sweep over nodes sorted by left side).
+         * Returns false if overlaps remain.
+         */
+        private boolean removeOverlaps(double[] cx, double[] cy, int[] widths, int[] heights) {
+            int n = cx.length;
+            // Half of spacing + grid size margin: snapping to the grid must not create overlaps
+            double margin = (nodeSpacing + gridSize) / 2.0;
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            for (int pass = 0; pass < overlapRemovalPasses; pass++) {
+                Arrays.sort(order, Comparator.comparingDouble(i -> cx[i] - widths[i] / 2.0));
+                boolean moved = false;
+                for (int a = 0; a < n; a++) {
+                    int i = order[a];
+                    for (int b = a + 1; b < n; b++) {
+                        int j = order[b];
+                        double halfWidthI = widths[i] / 2.0 + margin, halfWidthJ = widths[j] / 2.0 + margin;
+                        if (cx[j] - halfWidthJ >= cx[i] + halfWidthI) {
+                            break;
+                        }
+                        double halfHeightI = heights[i] / 2.0 + margin, halfHeightJ = heights[j] / 2.0 + margin;
+                        double overlapX = Math.min(cx[i] + halfWidthI, cx[j] + halfWidthJ) - Math.max(cx[i] - halfWidthI, cx[j] - halfWidthJ);
+                        double overlapY = Math.min(cy[i] + halfHeightI, cy[j] + halfHeightJ) - Math.max(cy[i] - halfHeightI, cy[j] - halfHeightJ);
+                        if (overlapX <= 0 || overlapY <= 0) {
+                            continue;
+                        }
+                        moved = true;
+                        if (overlapX < overlapY) {
+                            double shift = overlapX / 2 + 0.5;
+                            double sign = cx[i] <= cx[j] ? 1 : -1;
+                            cx[i] -= shift * sign;
+                            cx[j] += shift * sign;
+                        } else {
+                            double shift = overlapY / 2 + 0.5;
+                            double sign = cy[i] <= cy[j] ? 1 : -1;
+                            cy[i] -= shift * sign;
+                            cy[j] += shift * sign;
+                        }
+                    }
+                }
+                if (!moved) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void routeEdges() {
+            int[][] rects = new int[nodes.size()][];
+            Map<ERDLayoutGraph.Node, int[]> nodeRects = new IdentityHashMap<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                ERDLayoutGraph.Node node = nodes.get(i);
+                rects[i] = new int[]{node.x, node.y, node.getWidth(), node.getHeight()};
+                nodeRects.put(node, rects[i]);
+            }
+            OrthogonalRouter router = new OrthogonalRouter(rects, gridSize);
+            for (ERDLayoutGraph.Edge edge : edges) {
+                if (edge.getSource() == edge.getTarget()) {
+                    continue;
+                }
+                edge.bends = router.route(nodeRects.get(edge.getSource()), nodeRects.get(edge.getTarget()));
+            }
+        }
+
+        private int snap(int value) {
+            return gridSize <= 1 ? value : Math.round((float) value / gridSize) * gridSize;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.erd.model.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diagram graph for {@link ERDLayoutEngine}.
+ * Nodes are rectangles of fixed size, edges connect nodes. Elements are arbitrary objects associated with nodes
+ * and edges (diagram elements, edit parts, etc).
+ * Layout results (node locations and edge bends) are stored in the graph.
+ */
+public class ERDLayoutGraph {
+
+    private static final int DEFAULT_NOTE_WIDTH = 150;
+    private static final int DEFAULT_NOTE_HEIGHT = 100;
+    private static final int ENTITY_MIN_WIDTH = 100;
+    private static final int ENTITY_MAX_WIDTH = 400;
+    private static final int ENTITY_CHAR_WIDTH = 7;
+    private static final int ENTITY_HEADER_HEIGHT = 24;
+    private static final int ENTITY_ATTRIBUTE_HEIGHT = 18;
+
+    public static class Node {
+        private final int index;
+        private final Object element;
+        private final int width;
+        private final int height;
+        int x;
+        int y;
+
+        Node(int index, @NotNull Object element, int width, int height) {
+            this.index = index;
+            this.element = element;
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @NotNull
+        public Object getElement() {
+            return element;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        @Override
+        public String toString() {
+            return element + " [" + x + "," + y + " " + width + "x" + height + "]";
+        }
+    }
+
+    public static class Edge {
+        private final Object element;
+        private final Node source;
+        private final Node target;
+        List<int[]> bends = List.of();
+
+        Edge(@Nullable Object element, @NotNull Node source, @NotNull Node target) {
+            this.element = element;
+            this.source = source;
+            this.target = target;
+        }
+
+        @Nullable
+        public Object getElement() {
+            return element;
+        }
+
+        @NotNull
+        public Node getSource() {
+            return source;
+        }
+
+        @NotNull
+        public Node getTarget() {
+            return target;
+        }
+
+        /**
+         * Edge bend points ({x, y} in diagram coordinates), empty if the edge should be drawn straight.
+         */
+        @NotNull
+        public List<int[]> getBends() {
+            return bends;
+        }
+    }
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Edge> edges = new ArrayList<>();
+    private final Map<Object, Node> elementNodes = new IdentityHashMap<>();
+
+    @NotNull
+    public Node addNode(@NotNull Object element, int width, int height) {
+        Node node = new Node(nodes.size(), element, Math.max(1, width), Math.max(1, height));
+        nodes.add(node);
+        elementNodes.put(element, node);
+        return node;
+    }
+
+    @NotNull
+    public Edge addEdge(@Nullable Object element, @NotNull Node source, @NotNull Node target) {
+        Edge edge = new Edge(element, source, target);
+        edges.add(edge);
+        return edge;
+    }
+
+    @NotNull
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    @NotNull
+    public List<Edge> getEdges() {
+        return edges;
+    }
+
+    @Nullable
+    public Node getNode(@NotNull Object element) {
+        return elementNodes.get(element);
+    }
+
+    /**
+     * Creates graph of diagram entities, notes and associations.
+     * Element sizes are estimated from names and attributes as no figures are available in the model.
+     */
+    @NotNull
+    public static ERDLayoutGraph fromDiagram(@NotNull ERDDiagram diagram) {
+        ERDLayoutGraph graph = new ERDLayoutGraph();
+        for (ERDEntity entity : diagram.getEntities()) {
+            int maxLength = entity.getName() == null ? 0 : entity.getName().length();
+            List<ERDEntityAttribute> attributes = entity.getAttributes();
+            for (ERDEntityAttribute attribute : attributes) {
+                maxLength = Math.max(maxLength, attribute.getName().length());
+            }
+            graph.addNode(
+                entity,
+                Math.min(ENTITY_MAX_WIDTH, Math.max(ENTITY_MIN_WIDTH, maxLength * ENTITY_CHAR_WIDTH + 40)),
+                ENTITY_HEADER_HEIGHT + attributes.size() * ENTITY_ATTRIBUTE_HEIGHT);
+        }
+        for (ERDNote note : diagram.getNotes()) {
+            graph.addNode(note, DEFAULT_NOTE_WIDTH, DEFAULT_NOTE_HEIGHT);
+        }
+        List<ERDElement<?>> elements = new ArrayList<>(diagram.getEntities());
+        elements.addAll(diagram.getNotes());
+        for (ERDElement<?> element : elements) {
+            Node source = graph.getNode(element);
+            if (source == null) {
+                continue;
+            }
+            for (ERDAssociation association : element.getAssociations()) {
+                Node target = association.getTargetEntity() == null ? null : graph.getNode(association.getTargetEntity());
+                if (target != null) {
+                    graph.addEdge(association, source, target);
+                }
+            }
+        }
+        return graph;
+    }
+
+}
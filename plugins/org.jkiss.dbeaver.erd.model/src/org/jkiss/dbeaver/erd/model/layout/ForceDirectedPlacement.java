@@ -0,0 +1,277 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import org.jkiss.code.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Multilevel spring-electrical placement of a connected graph.
+ *
+ * The graph is coarsened by edge matching until it is small, the coarsest graph is laid out from random positions,
+ * then the layout is interpolated to finer levels and refined. Repulsive forces are approximated with
+ * {@link BarnesHutTree}, so each iteration takes O(n log n) and the whole layout is close to O(n log n).
+ * Coordinates are in units of the natural spring length.
+ */
+final class ForceDirectedPlacement {
+
+    private static final int MIN_COARSE_SIZE = 8;
+    private static final double MIN_COARSENING_RATIO = 0.75;
+    private static final double REPULSION = 0.2;
+    private static final double BARNES_HUT_THETA = 1.2;
+    private static final double COOLING = 0.9;
+    private static final double TOLERANCE = 0.01;
+    private static final int COARSEST_ITERATIONS = 300;
+    private static final int REFINE_ITERATIONS = 80;
+
+    /**
+     * Graph level: adjacency in compressed rows format
+     */
+    private static class Level {
+        final int size;
+        final int[] adjStart;
+        final int[] adj;
+        final double[] weights;
+        int[] parent;
+
+        Level(int size, int[] adjStart, int[] adj, double[] weights) {
+            this.size = size;
+            this.adjStart = adjStart;
+            this.adj = adj;
+            this.weights = weights;
+        }
+    }
+
+    private final Random random;
+    private final BooleanSupplier canceled;
+    private final BarnesHutTree tree = new BarnesHutTree(BARNES_HUT_THETA);
+
+    ForceDirectedPlacement(long seed, @NotNull BooleanSupplier canceled) {
+        this.random = new Random(seed);
+        this.canceled = canceled;
+    }
+
+    /**
+     * Computes node positions. Edges are pairs of node indexes, duplicates and self loops are allowed.
+     *
+     * @return {x[], y[]}
+     */
+    @NotNull
+    double[][] layout(int size, @NotNull int[] edgeSources, @NotNull int[] edgeTargets) {
+        double[] x = new double[size];
+        double[] y = new double[size];
+        if (size == 1) {
+            return new double[][]{x, y};
+        }
+        double[] weights = new double[size];
+        Arrays.fill(weights, 1);
+        List<Level> levels = new ArrayList<>();
+        levels.add(buildLevel(size, edgeSources, edgeTargets, weights));
+        while (levels.get(levels.size() - 1).size > MIN_COARSE_SIZE) {
+            Level coarse = coarsen(levels.get(levels.size() - 1));
+            if (coarse == null) {
+                break;
+            }
+            levels.add(coarse);
+        }
+
+        Level coarsest = levels.get(levels.size() - 1);
+        double side = Math.sqrt(coarsest.size);
+        for (int i = 0; i < coarsest.size; i++) {
+            x[i] = random.nextDouble() * side;
+            y[i] = random.nextDouble() * side;
+        }
+        refine(coarsest, x, y, side / 2, COARSEST_ITERATIONS);
+
+        for (int levelIndex = levels.size() - 2; levelIndex >= 0; levelIndex--) {
+            Level fine = levels.get(levelIndex);
+            double[] fineX = new double[size];
+            double[] fineY = new double[size];
+            for (int i = 0; i < fine.size; i++) {
+                int parent = fine.parent[i];
+                fineX[i] = x[parent] + (random.nextDouble() - 0.5) * 0.1;
+                fineY[i] = y[parent] + (random.nextDouble() - 0.5) * 0.1;
+            }
+            x = fineX;
+            y = fineY;
+            refine(fine, x, y, 1, REFINE_ITERATIONS);
+        }
+        return new double[][]{x, y};
+    }
+
+    /**
+     * Adaptive step refinement (Y. Hu, "Efficient and high quality force-directed graph drawing")
+     */
+    private void refine(@NotNull Level level, @NotNull double[] x, @NotNull double[] y, double step, int maxIterations) {
+        int n = level.size;
+        double energy = Double.MAX_VALUE;
+        int progress = 0;
+        double strength = REPULSION;
+        double[] force = new double[2];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            if (canceled.getAsBoolean()) {
+                return;
+            }
+            tree.build(x, y, level.weights, n);
+            double prevEnergy = energy;
+            energy = 0;
+            double movement = 0;
+            for (int i = 0; i < n; i++) {
+                force[0] = 0;
+                force[1] = 0;
+                tree.addRepulsion(i, x[i], y[i], strength * level.weights[i], force);
+                for (int k = level.adjStart[i]; k < level.adjStart[i + 1]; k++) {
+                    int j = level.adj[k];
+                    double dx = x[j] - x[i];
+                    double dy = y[j] - y[i];
+                    double d = Math.sqrt(dx * dx + dy * dy);
+                    force[0] += dx * d;
+                    force[1] += dy * d;
+                }
+                double f = Math.sqrt(force[0] * force[0] + force[1] * force[1]);
+                if (f > 0) {
+                    double dx = step * force[0] / f;
+                    double dy = step * force[1] / f;
+                    x[i] += dx;
+                    y[i] += dy;
+                    movement += Math.sqrt(dx * dx + dy * dy);
+                }
+                energy += f * f;
+            }
+            if (energy < prevEnergy) {
+                progress++;
+                if (progress >= 5) {
+                    progress = 0;
+                    step /= COOLING;
+                }
+            } else {
+                progress = 0;
+                step *= COOLING;
+            }
+            if (movement < TOLERANCE * n) {
+                break;
+            }
+        }
+    }
+
+    @NotNull
+    private static Level buildLevel(int size, @NotNull int[] sources, @NotNull int[] targets, @NotNull double[] weights) {
+        // Sort edges by source, drop self loops and duplicates
+        int[] degree = new int[size + 1];
+        for (int e = 0; e < sources.length; e++) {
+            if (sources[e] != targets[e]) {
+                degree[sources[e]]++;
+                degree[targets[e]]++;
+            }
+        }
+        int[] start = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            start[i + 1] = start[i] + degree[i];
+        }
+        int[] fill = Arrays.copyOf(start, size);
+        int[] adj = new int[start[size]];
+        for (int e = 0; e < sources.length; e++) {
+            int s = sources[e], t = targets[e];
+            if (s != t) {
+                adj[fill[s]++] = t;
+                adj[fill[t]++] = s;
+            }
+        }
+        int[] marker = new int[size];
+        Arrays.fill(marker, -1);
+        int[] compactStart = new int[size + 1];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            compactStart[i] = count;
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                int j = adj[k];
+                if (marker[j] != i) {
+                    marker[j] = i;
+                    adj[count++] = j;
+                }
+            }
+        }
+        compactStart[size] = count;
+        return new Level(size, compactStart, Arrays.copyOf(adj, count), weights);
+    }
+
+    /**
+     * Merges pairs of adjacent nodes. Returns null if graph can't be reduced significantly.
+     */
+    private Level coarsen(@NotNull Level level) {
+        int n = level.size;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        int[] parent = new int[n];
+        Arrays.fill(parent, -1);
+        int coarseSize = 0;
+        for (int u : order) {
+            if (parent[u] >= 0) {
+                continue;
+            }
+            // Prefer light neighbors to keep coarse nodes balanced
+            int best = -1;
+            for (int k = level.adjStart[u]; k < level.adjStart[u + 1]; k++) {
+                int v = level.adj[k];
+                if (parent[v] < 0 && (best < 0 || level.weights[v] < level.weights[best])) {
+                    best = v;
+                }
+            }
+            parent[u] = coarseSize;
+            if (best >= 0) {
+                parent[best] = coarseSize;
+            }
+            coarseSize++;
+        }
+        if (coarseSize > n * MIN_COARSENING_RATIO) {
+            return null;
+        }
+        double[] coarseWeights = new double[coarseSize];
+        for (int i = 0; i < n; i++) {
+            coarseWeights[parent[i]] += level.weights[i];
+        }
+        int edgeCount = level.adj.length;
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int k = level.adjStart[i]; k < level.adjStart[i + 1]; k++) {
+                int j = level.adj[k];
+                if (i < j) {
+                    sources[count] = parent[i];
+                    targets[count] = parent[j];
+                    count++;
+                }
+            }
+        }
+        level.parent = parent;
+        return buildLevel(coarseSize, Arrays.copyOf(sources, count), Arrays.copyOf(targets, count), coarseWeights);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import org.jkiss.code.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Orthogonal edge router.
+ *
+ * Edges are routed with A* search over a uniform grid where cells covered by nodes are blocked.
+ * Path cost includes bends and cells already used by other edges, so edges prefer straight and separate tracks.
+ * Search is limited to a window around edge ends; if no path is found the edge gets a simple Z-shaped route.
+ */
+final class OrthogonalRouter {
+
+    private static final int BORDER_CELLS = 2;
+    private static final int BEND_COST = 4;
+    private static final int MAX_USAGE_COST = 8;
+    private static final int MIN_WINDOW_MARGIN = 8;
+
+    private static final int EAST = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int NORTH = 3;
+    private static final int[] DIR_X = {1, 0, -1, 0};
+    private static final int[] DIR_Y = {0, 1, 0, -1};
+
+    private final int cellSize;
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    private final long[] blocked;
+    private final byte[] usage;
+
+    private final IntHeap heap = new IntHeap();
+
+    /**
+     * @param rects node rectangles {x, y, width, height}
+     */
+    OrthogonalRouter(@NotNull int[][] rects, int cellSize) {
+        this.cellSize = cellSize;
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int[] rect : rects) {
+            minX = Math.min(minX, rect[0]);
+            minY = Math.min(minY, rect[1]);
+            maxX = Math.max(maxX, rect[0] + rect[2]);
+            maxY = Math.max(maxY, rect[1] + rect[3]);
+        }
+        this.originX = Math.floorDiv(minX, cellSize) * cellSize - BORDER_CELLS * cellSize;
+        this.originY = Math.floorDiv(minY, cellSize) * cellSize - BORDER_CELLS * cellSize;
+        this.columns = (maxX - originX) / cellSize + 1 + BORDER_CELLS;
+        this.rows = (maxY - originY) / cellSize + 1 + BORDER_CELLS;
+        this.blocked = new long[(columns * rows + 63) / 64];
+        this.usage = new byte[columns * rows];
+        for (int[] rect : rects) {
+            int c0 = toColumn(rect[0]), c1 = toColumn(rect[0] + rect[2] - 1);
+            int r0 = toRow(rect[1]), r1 = toRow(rect[1] + rect[3] - 1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int cell = r * columns + c;
+                    blocked[cell >> 6] |= 1L << cell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Routes edge between two node rectangles.
+     *
+     * @return bend points, ends are located next to node borders
+     */
+    @NotNull
+    List<int[]> route(@NotNull int[] source, @NotNull int[] target) {
+        int[] sourcePort = new int[3];
+        int[] targetPort = new int[3];
+        choosePorts(source, target, sourcePort, targetPort);
+        List<int[]> path = null;
+        if (sourcePort[2] >= 0 && targetPort[2] >= 0) {
+            path = findPath(sourcePort, targetPort);
+        }
+        if (path == null) {
+            return simpleRoute(source, target);
+        }
+        return path;
+    }
+
+    /**
+     * Port is {column, row, direction} of the first free cell outside of the node, direction points away from node.
+     */
+    private void choosePorts(int[] source, int[] target, int[] sourcePort, int[] targetPort) {
+        double dx = (target[0] + target[2] / 2.0) - (source[0] + source[2] / 2.0);
+        double dy = (target[1] + target[3] / 2.0) - (source[1] + source[3] / 2.0);
+        boolean separatedX = target[0] >= source[0] + source[2] || source[0] >= target[0] + target[2];
+        boolean separatedY = target[1] >= source[1] + source[3] || source[1] >= target[1] + target[3];
+        boolean horizontal = separatedX && (!separatedY || Math.abs(dx) >= Math.abs(dy));
+        if (!separatedX && !separatedY) {
+            horizontal = Math.abs(dx) >= Math.abs(dy);
+        }
+        int sourceDir, targetDir;
+        if (horizontal) {
+            sourceDir = dx >= 0 ? EAST : WEST;
+        } else {
+            sourceDir = dy >= 0 ? SOUTH : NORTH;
+        }
+        targetDir = (sourceDir + 2) % 4;
+        findPort(source, sourceDir, sourcePort);
+        findPort(target, targetDir, targetPort);
+    }
+
+    private void findPort(int[] rect, int dir, int[] port) {
+        int c0 = toColumn(rect[0]), c1 = toColumn(rect[0] + rect[2] - 1);
+        int r0 = toRow(rect[1]), r1 = toRow(rect[1] + rect[3] - 1);
+        boolean vertical = dir == NORTH || dir == SOUTH;
+        int fixed = switch (dir) {
+            case EAST -> c1 + 1;
+            case WEST -> c0 - 1;
+            case SOUTH -> r1 + 1;
+            default -> r0 - 1;
+        };
+        int from = vertical ? c0 : r0;
+        int to = vertical ? c1 : r1;
+        int middle = (from + to) / 2;
+        // Search free cell from the middle of the side
+        for (int offset = 0; offset <= (to - from) / 2 + 1; offset++) {
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int pos = middle + offset * sign;
+                if (pos < from || pos > to) {
+                    continue;
+                }
+                int column = vertical ? pos : fixed;
+                int row = vertical ? fixed : pos;
+                if (isFree(column, row)) {
+                    port[0] = column;
+                    port[1] = row;
+                    port[2] = dir;
+                    return;
+                }
+            }
+        }
+        port[2] = -1;
+    }
+
+    private List<int[]> findPath(int[] sourcePort, int[] targetPort) {
+        int spanX = Math.abs(sourcePort[0] - targetPort[0]);
+        int spanY = Math.abs(sourcePort[1] - targetPort[1]);
+        int margin = Math.max(MIN_WINDOW_MARGIN, Math.max(spanX, spanY) / 2);
+        int wc0 = Math.max(0, Math.min(sourcePort[0], targetPort[0]) - margin);
+        int wr0 = Math.max(0, Math.min(sourcePort[1], targetPort[1]) - margin);
+        int wc1 = Math.min(columns - 1, Math.max(sourcePort[0], targetPort[0]) + margin);
+        int wr1 = Math.min(rows - 1, Math.max(sourcePort[1], targetPort[1]) + margin);
+        int width = wc1 - wc0 + 1;
+        int height = wr1 - wr0 + 1;
+        int stateCount = width * height * 4;
+
+        int[] cost = new int[stateCount];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        int[] previous = new int[stateCount];
+        heap.clear();
+
+        int startState = ((sourcePort[1] - wr0) * width + (sourcePort[0] - wc0)) * 4 + sourcePort[2];
+        cost[startState] = 0;
+        previous[startState] = -1;
+        heap.push(heuristic(sourcePort[0], sourcePort[1], targetPort), startState);
+        int goalState = -1;
+        while (!heap.isEmpty()) {
+            int priority = heap.peekPriority();
+            int state = heap.pop();
+            int dir = state & 3;
+            int local = state >> 2;
+            int column = local % width + wc0;
+            int row = local / width + wr0;
+            int stateCost = cost[state];
+            if (priority - heuristic(column, row, targetPort) > stateCost) {
+                // Outdated queue entry
+                continue;
+            }
+            if (column == targetPort[0] && row == targetPort[1]) {
+                goalState = state;
+                break;
+            }
+            for (int newDir = 0; newDir < 4; newDir++) {
+                if (newDir == (dir + 2) % 4) {
+                    continue;
+                }
+                int nc = column + DIR_X[newDir];
+                int nr = row + DIR_Y[newDir];
+                if (nc < wc0 || nc > wc1 || nr < wr0 || nr > wr1 || !isFree(nc, nr)) {
+                    continue;
+                }
+                int newCost = stateCost + 1 + Math.min(usage[nr * columns + nc], MAX_USAGE_COST) + (newDir == dir ? 0 : BEND_COST);
+                int newState = (((nr - wr0) * width + (nc - wc0)) << 2) | newDir;
+                if (newCost < cost[newState]) {
+                    cost[newState] = newCost;
+                    previous[newState] = state;
+                    heap.push(newCost + heuristic(nc, nr, targetPort), newState);
+                }
+            }
+        }
+        if (goalState < 0) {
+            return null;
+        }
+
+        // Path from target to source, keep ends and corners only
+        List<int[]> points = new ArrayList<>();
+        for (int state = goalState; state >= 0; state = previous[state]) {
+            int local = state >> 2;
+            int column = local % width + wc0;
+            int row = local / width + wr0;
+            int cell = row * columns + column;
+            if (usage[cell] < Byte.MAX_VALUE) {
+                usage[cell]++;
+            }
+            int[] point = {toX(column), toY(row)};
+            int size = points.size();
+            if (size >= 2) {
+                int[] a = points.get(size - 2), b = points.get(size - 1);
+                if ((a[0] == b[0] && b[0] == point[0]) || (a[1] == b[1] && b[1] == point[1])) {
+                    points.set(size - 1, point);
+                    continue;
+                }
+            }
+            points.add(point);
+        }
+        Collections.reverse(points);
+        return points;
+    }
+
+    /**
+     * Fallback route: Z-shape through the middle point
+     */
+    @NotNull
+    private static List<int[]> simpleRoute(int[] source, int[] target) {
+        int sx = source[0] + source[2] / 2, sy = source[1] + source[3] / 2;
+        int tx = target[0] + target[2] / 2, ty = target[1] + target[3] / 2;
+        if (Math.abs(tx - sx) >= Math.abs(ty - sy)) {
+            int mx = (sx + tx) / 2;
+            return List.of(new int[]{mx, sy}, new int[]{mx, ty});
+        } else {
+            int my = (sy + ty) / 2;
+            return List.of(new int[]{sx, my}, new int[]{tx, my});
+        }
+    }
+
+    private int heuristic(int column, int row, int[] targetPort) {
+        return Math.abs(column - targetPort[0]) + Math.abs(row - targetPort[1]);
+    }
+
+    private boolean isFree(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return false;
+        }
+        int cell = row * columns + column;
+        return (blocked[cell >> 6] & (1L << cell)) == 0;
+    }
+
+    private int toColumn(int x) {
+        return Math.floorDiv(x - originX, cellSize);
+    }
+
+    private int toRow(int y) {
+        return Math.floorDiv(y - originY, cellSize);
+    }
+
+    private int toX(int column) {
+        return originX + column * cellSize + cellSize / 2;
+    }
+
+    private int toY(int row) {
+        return originY + row * cellSize + cellSize / 2;
+    }
+
+    /**
+     * Binary min-heap of (priority, value) pairs packed into longs
+     */
+    private static final class IntHeap {
+        private long[] items = new long[256];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int priority, int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            long item = ((long) priority << 32) | (value & 0xFFFFFFFFL);
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (items[parent] <= item) {
+                    break;
+                }
+                items[i] = items[parent];
+                i = parent;
+            }
+            items[i] = item;
+        }
+
+        int peekPriority() {
+            return (int) (items[0] >>> 32);
+        }
+
+        int pop() {
+            long top = items[0];
+            long last = items[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && items[child + 1] < items[child]) {
+                    child++;
+                }
+                if (items[child] >= last) {
+                    break;
+                }
+                items[i] = items[child];
+                i = child;
+            }
+            items[i] = last;
+            return (int) top;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.jkiss.dbeaver.erd.ui.internal.ERDUIMessages;
 import org.jkiss.dbeaver.erd.ui.layout.algorithm.direct.DirectedGraphLayoutVisitor;
+import org.jkiss.dbeaver.erd.ui.layout.algorithm.scalable.ScalableGraphLayoutVisitor;
 import org.jkiss.dbeaver.erd.ui.part.DiagramPart;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.ui.UIUtils;
@@ -39,6 +40,11 @@ import java.util.List;
  */
 public class GraphLayoutAuto extends AbstractLayout {
 
+    /**
+     * Diagrams with more nodes are laid out with the scalable force-directed layout
+     */
+    private static final int LARGE_DIAGRAM_SIZE = 200;
+
     private DiagramPart diagram;
 
     public GraphLayoutAuto(DiagramPart diagram) {
@@ -62,7 +68,11 @@ public class GraphLayoutAuto extends AbstractLayout {
         DBRProgressMonitor monitor = diagram.getDiagram().getMonitor();
         monitor.subTask(ERDUIMessages.erd_job_layout_diagram);
         UIUtils.syncExec(() -> {
-            new DirectedGraphLayoutVisitor(diagram.getDiagram().getDecorator()).layoutDiagram(diagram);
+            if (diagram.getChildren().size() > LARGE_DIAGRAM_SIZE) {
+                new ScalableGraphLayoutVisitor(diagram.getDiagram().getDecorator()).layoutDiagram(monitor, diagram);
+            } else {
+                new DirectedGraphLayoutVisitor(diagram.getDiagram().getDecorator()).layoutDiagram(diagram);
+            }
             diagram.setTableModelBounds();
         });
     }
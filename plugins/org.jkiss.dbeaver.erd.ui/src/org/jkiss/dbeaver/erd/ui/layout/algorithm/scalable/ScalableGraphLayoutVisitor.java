@@ -0,0 +1,152 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.ui.layout.algorithm.scalable;
+
+import org.eclipse.draw2d.AbsoluteBendpoint;
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.editparts.AbstractConnectionEditPart;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.erd.model.layout.ERDLayoutEngine;
+import org.jkiss.dbeaver.erd.model.layout.ERDLayoutGraph;
+import org.jkiss.dbeaver.erd.ui.layout.GraphAnimation;
+import org.jkiss.dbeaver.erd.ui.model.ERDDecorator;
+import org.jkiss.dbeaver.erd.ui.part.AttributePart;
+import org.jkiss.dbeaver.erd.ui.part.NodePart;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out diagram parts with {@link ERDLayoutEngine}.
+ * Used for large diagrams where directed graph layout is too slow.
+ */
+public class ScalableGraphLayoutVisitor {
+    private static final Log log = Log.getLog(ScalableGraphLayoutVisitor.class);
+
+    private final ERDDecorator decorator;
+
+    public ScalableGraphLayoutVisitor(@NotNull ERDDecorator decorator) {
+        this.decorator = decorator;
+    }
+
+    public void layoutDiagram(@NotNull DBRProgressMonitor monitor, @NotNull AbstractGraphicalEditPart diagram) {
+        ERDLayoutGraph graph = new ERDLayoutGraph();
+        GraphAnimation.recordInitialState(diagram.getFigure());
+        for (Object child : diagram.getChildren()) {
+            if (child instanceof NodePart nodePart) {
+                Dimension preferredSize = nodePart.getFigure().getPreferredSize(-1, -1);
+                graph.addNode(nodePart, preferredSize.width, preferredSize.height);
+            }
+        }
+        if (graph.getNodes().isEmpty()) {
+            return;
+        }
+        for (Object child : diagram.getChildren()) {
+            GraphicalEditPart entityPart = (GraphicalEditPart) child;
+            for (AbstractConnectionEditPart connectionPart : getSourceConnections(entityPart)) {
+                addConnectionEdge(graph, connectionPart);
+            }
+        }
+
+        ERDLayoutEngine engine = new ERDLayoutEngine();
+        Dimension snapSize = decorator.getEntitySnapSize();
+        if (snapSize != null && snapSize.width > 0) {
+            engine.setGridSize(snapSize.width);
+        }
+        try {
+            engine.layout(monitor, graph);
+        } catch (DBException e) {
+            DBWorkbench.getPlatformUI().showError("Diagram layout", "Error during layouting elements", e);
+            return;
+        }
+        if (monitor.isCanceled()) {
+            return;
+        }
+
+        for (ERDLayoutGraph.Node node : graph.getNodes()) {
+            IFigure figure = ((GraphicalEditPart) node.getElement()).getFigure();
+            Dimension preferredSize = figure.getPreferredSize();
+            figure.setBounds(new Rectangle(node.getX(), node.getY(), preferredSize.width, preferredSize.height));
+        }
+        for (ERDLayoutGraph.Edge edge : graph.getEdges()) {
+            AbstractConnectionEditPart connectionPart = (AbstractConnectionEditPart) edge.getElement();
+            if (connectionPart == null || edge.getBends().isEmpty()) {
+                continue;
+            }
+            List<AbsoluteBendpoint> bends = new ArrayList<>(edge.getBends().size());
+            for (int[] bend : edge.getBends()) {
+                bends.add(new AbsoluteBendpoint(bend[0], bend[1]));
+            }
+            connectionPart.getConnectionFigure().setRoutingConstraint(bends);
+        }
+    }
+
+    private static void addConnectionEdge(@NotNull ERDLayoutGraph graph, @NotNull AbstractConnectionEditPart connectionPart) {
+        ERDLayoutGraph.Node source = findNode(graph, connectionPart.getSource());
+        ERDLayoutGraph.Node target = findNode(graph, connectionPart.getTarget());
+        if (source == null || target == null) {
+            log.debug("Source or target node not found");
+            return;
+        }
+        GraphAnimation.recordInitialState((Connection) connectionPart.getFigure());
+        graph.addEdge(connectionPart, source, target);
+    }
+
+    @Nullable
+    private static ERDLayoutGraph.Node findNode(@NotNull ERDLayoutGraph graph, @Nullable EditPart part) {
+        if (part == null) {
+            return null;
+        }
+        ERDLayoutGraph.Node node = graph.getNode(part);
+        if (node == null && part.getParent() != null) {
+            // Attribute connection
+            node = graph.getNode(part.getParent());
+        }
+        return node;
+    }
+
+    @NotNull
+    private static List<AbstractConnectionEditPart> getSourceConnections(@NotNull GraphicalEditPart entityPart) {
+        List<AbstractConnectionEditPart> result = new ArrayList<>();
+        for (Object connection : entityPart.getSourceConnections()) {
+            if (connection instanceof AbstractConnectionEditPart connectionPart) {
+                result.add(connectionPart);
+            }
+        }
+        for (Object child : entityPart.getChildren()) {
+            if (child instanceof AttributePart attributePart) {
+                for (Object connection : attributePart.getSourceConnections()) {
+                    if (connection instanceof AbstractConnectionEditPart connectionPart) {
+                        result.add(connectionPart);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -51,7 +51,8 @@ class ForeignKeysCache extends JDBCCompositeCache<GenericStructContainer, Generi
 
     private final Map<String, GenericUniqueKey> pkMap = new HashMap<>();
     private final GenericMetaObject foreignKeyObject;
-    private int fkIndex;
+    // Tables may be read concurrently (see GenericMetadataBulkLoader), keep FK counter per reading thread
+    private final ThreadLocal<Integer> fkIndex = ThreadLocal.withInitial(() -> 1);
 
     ForeignKeysCache(TableCache tableCache)
     {
@@ -61,13 +62,14 @@ class ForeignKeysCache extends JDBCCompositeCache<GenericStructContainer, Generi
             GenericUtils.getColumn(tableCache.getDataSource(), GenericConstants.OBJECT_FOREIGN_KEY, JDBCConstants.FKTABLE_NAME),
             GenericUtils.getColumn(tableCache.getDataSource(), GenericConstants.OBJECT_FOREIGN_KEY, JDBCConstants.FK_NAME));
         foreignKeyObject = tableCache.getDataSource().getMetaObject(GenericConstants.OBJECT_FOREIGN_KEY);
-        fkIndex = 1;
     }
 
     @Override
     public void clearCache()
     {
-        pkMap.clear();
+        synchronized (pkMap) {
+            pkMap.clear();
+        }
         super.clearCache();
     }
 
@@ -195,14 +197,16 @@ class ForeignKeysCache extends JDBCCompositeCache<GenericStructContainer, Generi
                     pkName = "primary_key";
                 }
                 String pkFullName = pkTable.getFullyQualifiedName(DBPEvaluationContext.DDL) + "." + pkName;
-                fakePk = pkMap.get(pkFullName);
-                if (fakePk == null) {
-                    fakePk = pkTable.getDataSource().getMetaModel().createConstraintImpl(pkTable, pkName,  DBSEntityConstraintType.PRIMARY_KEY, dbResult, true);
-                    pkMap.put(pkFullName, fakePk);
-                    // Add this fake constraint to it's owner
-                    fakePk.getTable().addUniqueKey(fakePk);
+                synchronized (pkMap) {
+                    fakePk = pkMap.get(pkFullName);
+                    if (fakePk == null) {
+                        fakePk = pkTable.getDataSource().getMetaModel().createConstraintImpl(pkTable, pkName,  DBSEntityConstraintType.PRIMARY_KEY, dbResult, true);
+                        pkMap.put(pkFullName, fakePk);
+                        // Add this fake constraint to it's owner
+                        fakePk.getTable().addUniqueKey(fakePk);
+                    }
+                    fakePk.addColumn(new GenericTableConstraintColumn(fakePk, pkColumn, keySeq));
                 }
-                fakePk.addColumn(new GenericTableConstraintColumn(fakePk, pkColumn, keySeq));
                 pk = fakePk;
             }
         }
@@ -260,7 +264,7 @@ class ForeignKeysCache extends JDBCCompositeCache<GenericStructContainer, Generi
     protected void cacheChildren(DBRProgressMonitor monitor, GenericTableForeignKey foreignKey, List<GenericTableForeignKeyColumnTable> rows)
     {
         foreignKey.setColumns(monitor, rows);
-        fkIndex = 1;
+        fkIndex.set(1);
     }
 
     @Override
@@ -268,10 +272,11 @@ class ForeignKeysCache extends JDBCCompositeCache<GenericStructContainer, Generi
         final String pkTableName = GenericUtils.safeGetStringTrimmed(foreignKeyObject, dbResult, JDBCConstants.PKTABLE_NAME);
         int keySeq = GenericUtils.safeGetInt(foreignKeyObject, dbResult, JDBCConstants.KEY_SEQ);
         String fkName = "FK_" + parentName + "_" + pkTableName;
-        if (fkIndex > 1 && keySeq == 1) {
-            fkName += "_" + fkIndex;
+        int index = fkIndex.get();
+        if (index > 1 && keySeq == 1) {
+            fkName += "_" + index;
         }
-        fkIndex++;
+        fkIndex.set(index + 1);
         return fkName;
     }
 }
@@ -32,6 +32,7 @@ public class GenericDataSourceInfo extends JDBCDataSourceInfo {
     public boolean supportsCatalogSelection;
     public boolean supportsSchemaSelection;
     private boolean supportsMultipleResults;
+    private final boolean supportsFetchSizeChange;
     private boolean multipleResultsFailsOnMaxRows;
     private boolean supportsNullableUniqueConstraints;
     private final boolean supportsTransactionsForDDL;
@@ -44,6 +45,7 @@ public class GenericDataSourceInfo extends JDBCDataSourceInfo {
         setSupportsResultSetScroll(CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_SUPPORTS_SCROLL), false));
         supportsMultipleResults = CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_SUPPORTS_MULTIPLE_RESULTS), false);
         multipleResultsFailsOnMaxRows = CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_MULTIPLE_RESULTS_FAILS_ON_MAX_ROWS), false);
+        supportsFetchSizeChange = CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_SUPPORTS_FETCH_SIZE_CHANGE), false);
         supportsTransactionsForDDL = CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_SUPPORTS_TRANSACTIONS_FOR_DDL), true);
         setReadOnlyData(CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_READ_ONLY_DATA), false));
         setReadOnlyMetaData(CommonUtils.getBoolean(driver.getDriverParameter(GenericConstants.PARAM_READ_ONLY_META_DATA), false));
@@ -114,6 +116,11 @@ public class GenericDataSourceInfo extends JDBCDataSourceInfo {
         return multipleResultsFailsOnMaxRows;
     }
 
+    @Override
+    public boolean supportsResultSetFetchSizeChange() {
+        return supportsFetchSizeChange;
+    }
+
     @Override
     public boolean supportsTransactionsForDDL() {
         return super.supportsTransactionsForDDL() && supportsTransactionsForDDL;
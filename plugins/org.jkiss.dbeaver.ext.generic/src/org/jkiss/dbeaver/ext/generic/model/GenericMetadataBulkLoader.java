@@ -0,0 +1,204 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.generic.model;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCompositeCache;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent loader of tables keys and indexes.
+ *
+ * Some drivers can read keys and indexes only for a single table at once (DatabaseMetaData calls with a table name).
+ * This loader reads them table by table over several isolated metadata connections,
+ * the number of connections is configured by {@link org.jkiss.dbeaver.ext.generic.model.meta.GenericMetaModel#getMetadataReadThreads}.
+ * Results are merged into composite caches exactly as on-demand reads of a single table.
+ */
+final class GenericMetadataBulkLoader {
+
+    private static final Log log = Log.getLog(GenericMetadataBulkLoader.class);
+
+    private static final long PROGRESS_UPDATE_INTERVAL = 100;
+
+    private GenericMetadataBulkLoader() {
+    }
+
+    /**
+     * Reads objects of specified caches for all tables of the container.
+     * Caches are read one after another in the given order (e.g. foreign keys refer to previously read unique keys).
+     * Returns false if concurrent reading is disabled or metadata connections can't be opened.
+     * In this case objects will be read on demand.
+     */
+    static boolean loadTablesMetadata(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull GenericObjectContainer container,
+        @NotNull List<JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?>> caches
+    ) throws DBException {
+        GenericDataSource dataSource = container.getDataSource();
+        int maxThreads = dataSource.getMetaModel().getMetadataReadThreads(dataSource);
+        if (maxThreads < 2 || caches.isEmpty()) {
+            return false;
+        }
+        List<GenericTableBase> tables = new ArrayList<>();
+        for (GenericTableBase table : container.getTables(monitor)) {
+            if (table.isPersisted()) {
+                tables.add(table);
+            }
+        }
+        if (tables.size() < 2) {
+            return false;
+        }
+        List<JDBCExecutionContext> contexts = openContexts(monitor, container, Math.min(maxThreads, tables.size()));
+        try {
+            if (contexts.size() < 2) {
+                // Single extra connection gives nothing comparing to the main metadata connection
+                return false;
+            }
+            monitor.beginTask("Load tables metadata", tables.size() * caches.size());
+            try {
+                for (JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> cache : caches) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    loadCache(monitor, container, cache, tables, contexts);
+                }
+            } finally {
+                monitor.done();
+            }
+            return true;
+        } finally {
+            for (JDBCExecutionContext context : contexts) {
+                context.close();
+            }
+        }
+    }
+
+    @NotNull
+    private static List<JDBCExecutionContext> openContexts(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull GenericObjectContainer container,
+        int count
+    ) {
+        DBCExecutionContext initFrom = DBUtils.getDefaultContext(container, true);
+        List<JDBCExecutionContext> contexts = new ArrayList<>(count);
+        monitor.subTask("Open metadata connections");
+        for (int i = 0; i < count && !monitor.isCanceled(); i++) {
+            try {
+                DBCExecutionContext context = DBUtils.getObjectOwnerInstance(container)
+                    .openIsolatedContext(monitor, "Metadata reader", initFrom);
+                if (context instanceof JDBCExecutionContext jdbcContext) {
+                    contexts.add(jdbcContext);
+                } else {
+                    context.close();
+                    break;
+                }
+            } catch (DBException e) {
+                // Probably connections limit. Use what we have
+                log.debug("Can't open metadata connection", e);
+                break;
+            }
+        }
+        return contexts;
+    }
+
+    private static void loadCache(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull GenericObjectContainer container,
+        @NotNull JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> cache,
+        @NotNull List<GenericTableBase> tables,
+        @NotNull List<JDBCExecutionContext> contexts
+    ) {
+        Queue<GenericTableBase> tableQueue = new ConcurrentLinkedQueue<>(tables);
+        AtomicInteger loadedCount = new AtomicInteger();
+        CountDownLatch finishLatch = new CountDownLatch(contexts.size());
+        List<AbstractJob> jobs = new ArrayList<>(contexts.size());
+        for (JDBCExecutionContext context : contexts) {
+            AbstractJob job = new AbstractJob("Load tables metadata") {
+                {
+                    setSystem(true);
+                }
+
+                @Override
+                protected IStatus run(DBRProgressMonitor jobMonitor) {
+                    try (JDBCSession session = context.openSession(jobMonitor, DBCExecutionPurpose.META, "Load tables metadata")) {
+                        for (GenericTableBase table; !jobMonitor.isCanceled() && (table = tableQueue.poll()) != null; ) {
+                            try {
+                                cache.loadObjects(jobMonitor, container, table, session);
+                            } catch (DBException e) {
+                                // Not fatal, table metadata will be read on demand
+                                log.debug("Error loading '" + table.getFullyQualifiedName(DBPEvaluationContext.UI) + "' metadata", e);
+                            }
+                            loadedCount.incrementAndGet();
+                        }
+                    } finally {
+                        finishLatch.countDown();
+                    }
+                    return Status.OK_STATUS;
+                }
+            };
+            jobs.add(job);
+            job.schedule();
+        }
+
+        // Report progress from the caller thread
+        int reportedCount = 0;
+        try {
+            boolean finished = false;
+            while (!finished) {
+                finished = finishLatch.await(PROGRESS_UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+                int count = loadedCount.get();
+                if (count > reportedCount) {
+                    monitor.subTask("Loaded metadata of " + count + " of " + tables.size() + " table(s)");
+                    monitor.worked(count - reportedCount);
+                    reportedCount = count;
+                }
+                if (!finished && monitor.isCanceled()) {
+                    for (AbstractJob job : jobs) {
+                        job.cancel();
+                    }
+                    // Wait for workers: their connections are closed right after this
+                    finishLatch.await();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (AbstractJob job : jobs) {
+                job.cancel();
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCompositeCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.meta.Association;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -195,6 +196,9 @@ public abstract class GenericObjectContainer implements GenericStructContainer,
                 if (readFromTables && newIndexCache.isEmpty()) {
                     newIndexCache = new ArrayList<>();
                     indexCache.clearCache();
+                    // Read indexes over several connections if driver allows it.
+                    // Tables loop below just collects them from the cache then.
+                    GenericMetadataBulkLoader.loadTablesMetadata(monitor, this, List.of(indexCache));
                     // Load indexes for all tables and return copy of them
                     List<? extends GenericTableBase> tables = getTables(monitor);
                     monitor.beginTask("Cache indexes from tables", tables.size());
@@ -259,22 +263,30 @@ public abstract class GenericObjectContainer implements GenericStructContainer,
         if ((scope & STRUCT_ASSOCIATIONS) != 0 && dataSource.supportsStructCache()) {
             // Try to read all PKs
             // Try to read all FKs
+            // Caches which can't be read at once are read table by table (if driver allows concurrent reading)
+            List<JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?>> tableCaches = new ArrayList<>();
             try {
                 monitor.subTask("Cache primary keys");
                 Collection<GenericUniqueKey> objects = constraintKeysCache.getObjects(monitor, this, null);
                 if (CommonUtils.isEmpty(objects)) {
                     // Nothing was read, Maybe driver doesn't support mass keys reading
                     constraintKeysCache.clearCache();
+                    tableCaches.add(constraintKeysCache);
                 }
             } catch (Exception e) {
                 // Failed - seems to be unsupported feature
                 log.debug(e);
+                constraintKeysCache.clearCache();
+                tableCaches.add(constraintKeysCache);
             }
 
             if (dataSource.getInfo().supportsIndexes()) {
                 // Try to read all indexes
                 monitor.subTask("Cache indexes");
                 cacheIndexes(monitor, false);
+                if (CommonUtils.isEmpty(indexCache.getCachedObjects())) {
+                    tableCaches.add(indexCache);
+                }
             }
 
             if (dataSource.getInfo().supportsReferentialIntegrity()) {
@@ -285,12 +297,20 @@ public abstract class GenericObjectContainer implements GenericStructContainer,
                     if (CommonUtils.isEmpty(foreignKeys)) {
                         // Nothing was read, Maybe driver doesn't support mass keys reading
                         foreignKeysCache.clearCache();
+                        tableCaches.add(foreignKeysCache);
                     }
                 } catch (Exception e) {
                     // Failed - seems to be unsupported feature
                     log.debug(e);
+                    foreignKeysCache.clearCache();
+                    tableCaches.add(foreignKeysCache);
                 }
             }
+
+            if (!tableCaches.isEmpty()) {
+                monitor.subTask("Cache tables keys");
+                GenericMetadataBulkLoader.loadTablesMetadata(monitor, this, tableCaches);
+            }
         }
     }
 
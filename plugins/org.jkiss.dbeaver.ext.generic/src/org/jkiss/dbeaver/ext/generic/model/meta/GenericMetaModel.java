@@ -958,6 +958,20 @@ public class GenericMetaModel {
                 new GenericTableConstraintColumn(object, tableColumn, keySeq) };
     }
 
+    //////////////////////////////////////////////////////
+    // Bulk metadata reading
+
+    /**
+     * Maximum number of metadata connections used to read keys and indexes table by table
+     * (when driver can't read them for the whole catalog/schema at once).
+     * Values less than 2 mean sequential reading over the main metadata connection.
+     */
+    public int getMetadataReadThreads(@NotNull GenericDataSource dataSource) {
+        return CommonUtils.toInt(
+            dataSource.getContainer().getDriver().getDriverParameter(GenericConstants.PARAM_METADATA_READ_THREADS),
+            1);
+    }
+
     //////////////////////////////////////////////////////
     // Sequences
 
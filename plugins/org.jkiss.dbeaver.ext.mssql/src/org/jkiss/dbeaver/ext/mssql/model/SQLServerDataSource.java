@@ -53,6 +53,7 @@ import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.utils.BeanUtils;
 import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.Pair;
 
 import java.sql.SQLException;
 import java.util.Collection;
@@ -225,6 +226,15 @@ public class SQLServerDataSource extends JDBCDataSource implements DBSInstanceCo
         return properties;
     }
 
+    @Nullable
+    @Override
+    protected Pair<String, String> getSocketFactoryProperties() {
+        if (SQLServerUtils.isDriverSqlServer(getContainer().getDriver())) {
+            return new Pair<>("socketFactoryClass", "socketFactoryConstructorArg");
+        }
+        return null;
+    }
+
     private void initSSL(DBRProgressMonitor monitor, Properties properties, DBWHandlerConfiguration sslConfig) throws DBCException {
         monitor.subTask("Install SSL certificates");
 
@@ -307,6 +317,24 @@ public class SQLServerDataSource extends JDBCDataSource implements DBSInstanceCo
         };
     }
 
+    @Override
+    public boolean supportsMetadataChangeSignal() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public String readMetadataChangeSignal(@NotNull DBRProgressMonitor monitor) throws DBException {
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Read catalog change signal")) {
+            session.enableLogging(false);
+            return getMetadataSnapshotIdentity() + "|" + JDBCUtils.queryString(session,
+                "SELECT CONVERT(varchar(20), COUNT(*)) + ':' + ISNULL(CONVERT(varchar(30), MAX(modify_date), 126), '') FROM sys.objects");
+        } catch (Exception e) {
+            log.debug("Error reading SQL Server catalog change signal: " + e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public void initialize(@NotNull DBRProgressMonitor monitor) throws DBException {
         super.initialize(monitor);
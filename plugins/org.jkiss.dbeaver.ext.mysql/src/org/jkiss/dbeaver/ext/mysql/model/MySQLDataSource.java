@@ -287,6 +287,31 @@ public class MySQLDataSource extends JDBCDataSource implements DBPObjectStatisti
         return catalogCache.getCachedObject(name);
     }
 
+    @Override
+    public boolean supportsMetadataChangeSignal() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public String readMetadataChangeSignal(@NotNull DBRProgressMonitor monitor) throws DBException {
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Read catalog change signal")) {
+            session.enableLogging(false);
+            return getMetadataSnapshotIdentity() + "|" + JDBCUtils.queryString(session,
+                "SELECT CONCAT(\n" +
+                "(SELECT CONCAT(COUNT(*), ':', IFNULL(MAX(CREATE_TIME), ''), ':', " +
+                "IFNULL(SUM(CRC32(CONCAT_WS(':', TABLE_SCHEMA, TABLE_NAME, TABLE_COMMENT))), 0)) FROM information_schema.TABLES), ':',\n" +
+                // Some ALTER TABLE statements do not change CREATE_TIME, so column definitions are compared too
+                "(SELECT CONCAT(COUNT(*), ':', " +
+                "IFNULL(SUM(CRC32(CONCAT_WS(':', TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_COMMENT))), 0)) " +
+                "FROM information_schema.COLUMNS), ':',\n" +
+                "(SELECT CONCAT(COUNT(*), ':', IFNULL(MAX(LAST_ALTERED), '')) FROM information_schema.ROUTINES))");
+        } catch (Exception e) {
+            log.debug("Error reading MySQL catalog change signal: " + e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public void initialize(@NotNull DBRProgressMonitor monitor)
         throws DBException {
@@ -527,6 +527,25 @@ public class OracleDataSource extends JDBCDataSource implements DBPObjectStatist
         return getInfo().getDatabaseVersion().getMajor() >= 12;
     }
 
+    @Override
+    public boolean supportsMetadataChangeSignal() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public String readMetadataChangeSignal(@NotNull DBRProgressMonitor monitor) throws DBException {
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Read catalog change signal")) {
+            session.enableLogging(false);
+            // Any DDL (including comments and grants) updates LAST_DDL_TIME of the object, drop changes objects count
+            return getMetadataSnapshotIdentity() + "|" + JDBCUtils.queryString(session,
+                "SELECT COUNT(*) || ':' || TO_CHAR(MAX(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') FROM ALL_OBJECTS");
+        } catch (Exception e) {
+            log.debug("Error reading Oracle catalog change signal: " + e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public void initialize(@NotNull DBRProgressMonitor monitor)
         throws DBException {
@@ -42,4 +42,9 @@ class OracleDataSourceInfo extends JDBCDataSourceInfo {
         return false;
     }
 
+    @Override
+    public boolean supportsResultSetFetchSizeChange() {
+        return true;
+    }
+
 }
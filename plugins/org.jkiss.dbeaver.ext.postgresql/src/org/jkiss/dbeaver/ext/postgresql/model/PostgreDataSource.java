@@ -56,6 +56,7 @@ import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.runtime.net.DefaultCallbackHandler;
 import org.jkiss.utils.BeanUtils;
 import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.Pair;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -316,6 +317,15 @@ public class PostgreDataSource extends JDBCDataSource implements DBSInstanceCont
         return props;
     }
 
+    @Nullable
+    @Override
+    protected Pair<String, String> getSocketFactoryProperties() {
+        if (CommonUtils.notEmpty(getContainer().getDriver().getDriverClassName()).startsWith("org.postgresql.")) {
+            return new Pair<>("socketFactory", "socketFactoryArg");
+        }
+        return null;
+    }
+
     private void initServerSSL(Map<String, String> props, DBWHandlerConfiguration sslConfig) throws DBException {
         props.put(PostgreConstants.PROP_SSL, "true");
 
@@ -433,6 +443,28 @@ public class PostgreDataSource extends JDBCDataSource implements DBSInstanceCont
         return settingCache.getCachedObject(name);
     }
 
+    @Override
+    public boolean supportsMetadataChangeSignal() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public String readMetadataChangeSignal(@NotNull DBRProgressMonitor monitor) throws DBException {
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Read catalog change signal")) {
+            session.enableLogging(false);
+            // Catalog rows are rewritten by any DDL, so their counts and newest xmin change after each DDL or comment
+            return getMetadataSnapshotIdentity() + "|" + JDBCUtils.queryString(session,
+                "SELECT (SELECT count(*) || ':' || max(xmin::text::bigint) FROM pg_catalog.pg_class) || ':' ||\n" +
+                "(SELECT count(*) || ':' || max(xmin::text::bigint) FROM pg_catalog.pg_attribute) || ':' ||\n" +
+                "(SELECT count(*) || ':' || max(xmin::text::bigint) FROM pg_catalog.pg_proc) || ':' ||\n" +
+                "(SELECT count(*) || ':' || max(xmin::text::bigint) FROM pg_catalog.pg_description)");
+        } catch (Exception e) {
+            log.debug("Error reading PostgreSQL catalog change signal: " + e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public void initialize(@NotNull DBRProgressMonitor monitor)
         throws DBException {
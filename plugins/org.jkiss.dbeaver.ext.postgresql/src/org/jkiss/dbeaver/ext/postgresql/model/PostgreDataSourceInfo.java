@@ -54,6 +54,12 @@ class PostgreDataSourceInfo extends JDBCDataSourceInfo {
         return dataSource.getServerType().supportsResultSetLimits();
     }
 
+    @Override
+    public boolean supportsResultSetFetchSizeChange() {
+        // Cursor-based fetch reads the next portion with the current fetch size
+        return true;
+    }
+
     @Override
     public boolean supportsTransactions() {
         return dataSource.getServerType().supportsTransactions();
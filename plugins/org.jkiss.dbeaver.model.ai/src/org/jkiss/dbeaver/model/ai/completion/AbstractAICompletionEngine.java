@@ -82,6 +82,20 @@ public abstract class AbstractAICompletionEngine<SERVICE, REQUEST> implements DA
         return messages.stream().filter(it -> DAICompletionMessage.Role.USER.equals(it.getRole())).toList();
     }
 
+    /**
+     * Returns text of user messages, used to select metadata relevant to the request
+     */
+    @NotNull
+    protected static String getRequestText(@NotNull List<DAICompletionMessage> messages) {
+        StringBuilder text = new StringBuilder();
+        for (DAICompletionMessage message : messages) {
+            if (message.getRole() == DAICompletionMessage.Role.USER) {
+                text.append(message.getContent()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
     public abstract Map<String, SERVICE> getServiceMap();
 
     protected abstract int getMaxTokens();
@@ -0,0 +1,218 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.ai.metadata;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPEvent;
+import org.jkiss.dbeaver.model.DBPEventListener;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.ai.format.IAIFormatter;
+import org.jkiss.dbeaver.model.app.DBPDataSourceRegistry;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
+import org.jkiss.dbeaver.model.navigator.DBNEvent;
+import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.navigator.INavigatorListener;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTablePartition;
+
+import java.util.*;
+
+/**
+ * Cache of AI metadata context: relevance indexes of containers and generated entity descriptions.
+ * Cached data is invalidated when objects are changed or disconnected and when navigator nodes are refreshed.
+ */
+final class MetadataContextCache implements DBPEventListener, INavigatorListener {
+
+    private static final Log log = Log.getLog(MetadataContextCache.class);
+
+    private record EntityDescription(@NotNull IAIFormatter formatter, boolean fullyQualified, @NotNull String text) {
+    }
+
+    private final Map<DBSObjectContainer, MetadataRelevanceIndex<DBSEntity>> indexes = new HashMap<>();
+    private final Map<DBSEntity, EntityDescription> descriptions = new HashMap<>();
+    private final Set<DBPDataSourceRegistry> registries = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<DBNModel> navigatorModels = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Nullable
+    synchronized String getDescription(@NotNull DBSEntity entity, @NotNull IAIFormatter formatter, boolean fullyQualified) {
+        EntityDescription description = descriptions.get(entity);
+        if (description == null || description.formatter() != formatter || description.fullyQualified() != fullyQualified) {
+            return null;
+        }
+        return description.text();
+    }
+
+    synchronized void putDescription(@NotNull DBSEntity entity, @NotNull IAIFormatter formatter, boolean fullyQualified, @NotNull String text) {
+        descriptions.put(entity, new EntityDescription(formatter, fullyQualified, text));
+    }
+
+    /**
+     * Returns relevance index of all entities of the container (including nested containers)
+     */
+    @NotNull
+    MetadataRelevanceIndex<DBSEntity> getIndex(@NotNull DBRProgressMonitor monitor, @NotNull DBSObjectContainer container) throws DBException {
+        synchronized (this) {
+            MetadataRelevanceIndex<DBSEntity> index = indexes.get(container);
+            if (index != null) {
+                return index;
+            }
+        }
+        MetadataRelevanceIndex<DBSEntity> index = buildIndex(monitor, container);
+        if (!monitor.isCanceled()) {
+            synchronized (this) {
+                indexes.put(container, index);
+                addRegistryListener(container);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public void handleDataSourceEvent(DBPEvent event) {
+        DBPEvent.Action action = event.getAction();
+        if (event.getObject() != null &&
+            (action == DBPEvent.Action.OBJECT_ADD || action == DBPEvent.Action.OBJECT_UPDATE || action == DBPEvent.Action.OBJECT_REMOVE)
+        ) {
+            invalidate(event.getObject());
+        }
+    }
+
+    @Override
+    public void nodeChanged(DBNEvent event) {
+        // Navigator refresh reloads objects without data source events
+        if (event.getNode() instanceof DBNDatabaseNode node && node.getObject() != null && (
+            event.getAction() != DBNEvent.Action.UPDATE ||
+            event.getNodeChange() == DBNEvent.NodeChange.REFRESH ||
+            event.getNodeChange() == DBNEvent.NodeChange.STRUCT_REFRESH)
+        ) {
+            invalidate(node.getObject());
+        }
+    }
+
+    private synchronized void invalidate(@NotNull DBSObject object) {
+        indexes.keySet().removeIf(container -> isRelated(container, object));
+        descriptions.keySet().removeIf(entity -> isRelated(entity, object));
+    }
+
+    private void addRegistryListener(@NotNull DBSObjectContainer container) {
+        DBPDataSource dataSource = container.getDataSource();
+        if (dataSource != null) {
+            DBPDataSourceRegistry registry = dataSource.getContainer().getRegistry();
+            if (registries.add(registry)) {
+                registry.addDataSourceListener(this);
+            }
+            DBPProject project = registry.getProject();
+            DBNModel navigatorModel = project == null ? null : project.getNavigatorModel();
+            if (navigatorModel != null && navigatorModels.add(navigatorModel)) {
+                navigatorModel.addListener(this);
+            }
+        }
+    }
+
+    @NotNull
+    private static MetadataRelevanceIndex<DBSEntity> buildIndex(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSObjectContainer container
+    ) throws DBException {
+        List<DBSEntity> entities = new ArrayList<>();
+        collectEntities(monitor, container, entities);
+
+        monitor.subTask("Index metadata of " + container.getName());
+        MetadataRelevanceIndex<DBSEntity> index = new MetadataRelevanceIndex<>();
+        for (DBSEntity entity : entities) {
+            List<String> attributeNames = new ArrayList<>();
+            List<? extends DBSEntityAttribute> attributes = entity.getAttributes(monitor);
+            if (attributes != null) {
+                for (DBSEntityAttribute attribute : attributes) {
+                    if (!DBUtils.isHiddenObject(attribute)) {
+                        attributeNames.add(attribute.getName());
+                    }
+                }
+            }
+            index.addObject(entity, entity.getName(), attributeNames, entity.getDescription());
+        }
+        for (DBSEntity entity : entities) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            try {
+                Collection<? extends DBSEntityAssociation> associations = entity.getAssociations(monitor);
+                if (associations != null) {
+                    for (DBSEntityAssociation association : associations) {
+                        DBSEntity associatedEntity = association.getAssociatedEntity();
+                        if (associatedEntity != null) {
+                            index.addLink(entity, associatedEntity);
+                        }
+                    }
+                }
+            } catch (DBException e) {
+                log.debug("Error reading associations of '" + entity.getName() + "'", e);
+            }
+        }
+        return index;
+    }
+
+    private static void collectEntities(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSObjectContainer container,
+        @NotNull List<DBSEntity> entities
+    ) throws DBException {
+        monitor.subTask("Load cache of " + container.getName());
+        container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
+        Collection<? extends DBSObject> children = container.getChildren(monitor);
+        if (children == null) {
+            return;
+        }
+        for (DBSObject child : children) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            if (DBUtils.isSystemObject(child) || DBUtils.isHiddenObject(child) || child instanceof DBSTablePartition) {
+                continue;
+            }
+            if (child instanceof DBSEntity entity) {
+                entities.add(entity);
+            } else if (child instanceof DBSObjectContainer childContainer) {
+                collectEntities(monitor, childContainer, entities);
+            }
+        }
+    }
+
+    private static boolean isRelated(@NotNull DBSObject object1, @NotNull DBSObject object2) {
+        return isAncestorOrSelf(object1, object2) || isAncestorOrSelf(object2, object1);
+    }
+
+    private static boolean isAncestorOrSelf(@NotNull DBSObject ancestor, @NotNull DBSObject object) {
+        if (ancestor instanceof DBPDataSourceContainer) {
+            DBPDataSource dataSource = object.getDataSource();
+            return object == ancestor || (dataSource != null && dataSource.getContainer() == ancestor);
+        }
+        for (DBSObject parent = object; parent != null; parent = parent.getParentObject()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -36,7 +36,6 @@ import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
 import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
 import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
-import org.jkiss.dbeaver.model.struct.rdb.DBSTablePartition;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.List;
@@ -46,6 +45,9 @@ public class MetadataProcessor {
     private static final Log log = Log.getLog(MetadataProcessor.class);
 
     private static final boolean SUPPORTS_ATTRS = true;
+    private static final int MAX_SKIPPED_ENTITIES = 20;
+
+    private final MetadataContextCache contextCache = new MetadataContextCache();
 
     public String generateObjectDescription(
         @NotNull DBRProgressMonitor monitor,
@@ -55,6 +57,28 @@ public class MetadataProcessor {
         int maxRequestLength,
         boolean useFullyQualifiedName
     ) throws DBException {
+        return generateObjectDescription(monitor, object, context, formatter, maxRequestLength, useFullyQualifiedName, null);
+    }
+
+    /**
+     * Generates object description. Container entities most relevant to the request are described first,
+     * entities which do not fit into the request length are skipped.
+     */
+    public String generateObjectDescription(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSObject object,
+        @Nullable DBCExecutionContext context,
+        @NotNull IAIFormatter formatter,
+        int maxRequestLength,
+        boolean useFullyQualifiedName,
+        @Nullable String request
+    ) throws DBException {
+        if (object instanceof DBSEntity entity) {
+            String cachedDescription = contextCache.getDescription(entity, formatter, useFullyQualifiedName);
+            if (cachedDescription != null) {
+                return cachedDescription;
+            }
+        }
         if (DBNUtils.getNodeByObject(monitor, object, false) == null) {
             // Skip hidden objects
             return "";
@@ -75,28 +99,31 @@ public class MetadataProcessor {
             DBSEntityAttribute firstAttr = addPromptAttributes(monitor, entity, description, formatter);
             formatter.addExtraDescription(monitor, entity, description, firstAttr);
             description.append(");");
+            contextCache.putDescription(entity, formatter, useFullyQualifiedName, description.toString());
         } else if (object instanceof DBSObjectContainer objectContainer) {
-            monitor.subTask("Load cache of " + object.getName());
-            objectContainer.cacheStructure(
-                monitor,
-                DBSObjectContainer.STRUCT_ENTITIES | DBSObjectContainer.STRUCT_ATTRIBUTES);
-            for (DBSObject child : objectContainer.getChildren(monitor)) {
-                if (DBUtils.isSystemObject(child) || DBUtils.isHiddenObject(child) || child instanceof DBSTablePartition) {
-                    continue;
+            int maxLength = maxRequestLength * 3;
+            int skippedCount = 0;
+            for (DBSEntity entity : contextCache.getIndex(monitor, objectContainer).rank(request)) {
+                if (monitor.isCanceled()) {
+                    break;
                 }
-                String childText = generateObjectDescription(
+                String entityText = generateObjectDescription(
                     monitor,
-                    child,
+                    entity,
                     context,
                     formatter,
                     maxRequestLength,
-                    isRequiresFullyQualifiedName(child, context)
+                    isRequiresFullyQualifiedName(entity, context)
                 );
-                if (description.length() + childText.length() > maxRequestLength * 3) {
-                    log.debug("Trim AI metadata prompt  at table '" + child.getName() + "' - too long request");
-                    break;
+                if (description.length() + entityText.length() > maxLength) {
+                    // Less relevant but shorter descriptions may still fit
+                    if (++skippedCount > MAX_SKIPPED_ENTITIES) {
+                        log.debug("Trim AI metadata prompt at table '" + entity.getName() + "' - too long request");
+                        break;
+                    }
+                    continue;
                 }
-                description.append(childText);
+                description.append(entityText);
             }
         }
         return description.toString();
@@ -113,6 +140,22 @@ public class MetadataProcessor {
         @NotNull IAIFormatter formatter,
         @NotNull String instructions,
         int maxRequestTokens
+    ) throws DBException {
+        return createMetadataMessage(monitor, context, mainObject, formatter, instructions, maxRequestTokens, null);
+    }
+
+    /**
+     * Creates a new message containing completion metadata most relevant to the user request
+     */
+    @NotNull
+    public DAICompletionMessage createMetadataMessage(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DAICompletionContext context,
+        @Nullable DBSObjectContainer mainObject,
+        @NotNull IAIFormatter formatter,
+        @NotNull String instructions,
+        int maxRequestTokens,
+        @Nullable String request
     ) throws DBException {
         if (mainObject == null || mainObject.getDataSource() == null) {
             throw new DBException("Invalid completion request");
@@ -157,7 +200,8 @@ public class MetadataProcessor {
                 executionContext,
                 formatter,
                 remainingRequestTokens,
-                false
+                false,
+                request
             ));
         }
 
@@ -0,0 +1,242 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.ai.metadata;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.*;
+
+/**
+ * Ranks schema objects by relevance to a natural language request.
+ *
+ * Objects are indexed by identifier tokens of their names, attribute names and comments and scored with BM25.
+ * Objects linked with relevant ones (e.g. by foreign keys) get a part of their score,
+ * so join tables and lookup tables are selected together with the main tables.
+ */
+public final class MetadataRelevanceIndex<T> {
+
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int ATTRIBUTE_WEIGHT = 1;
+    private static final int COMMENT_WEIGHT = 1;
+
+    /**
+     * Part of the object score given to linked objects
+     */
+    private static final double LINK_SCORE_FACTOR = 0.5;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>();
+
+    static {
+        for (String word : new String[] {
+            "a", "an", "the", "of", "in", "on", "at", "to", "for", "from", "by", "with", "and", "or", "not",
+            "is", "are", "be", "me", "my", "i", "we", "it", "this", "that", "which", "what", "who", "how",
+            "all", "each", "every", "any", "show", "list", "get", "find", "give", "select", "return", "query",
+            "please", "table", "column"
+        }) {
+            STOP_WORDS.add(normalizeToken(word));
+        }
+    }
+
+    private static class Document<T> {
+        final T item;
+        final int order;
+        final Map<String, Integer> termFrequencies = new HashMap<>();
+        final Set<Document<T>> links = new LinkedHashSet<>();
+        int length;
+
+        Document(T item, int order) {
+            this.item = item;
+            this.order = order;
+        }
+
+        void addTerms(@Nullable String text, int weight) {
+            for (String token : tokenize(text)) {
+                termFrequencies.merge(token, weight, Integer::sum);
+                length += weight;
+            }
+        }
+    }
+
+    private final Map<T, Document<T>> documents = new LinkedHashMap<>();
+    private final Map<String, Integer> documentFrequencies = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Adds object to the index. Objects which are not relevant to a request keep the order they were added in.
+     */
+    public void addObject(@NotNull T item, @NotNull String name, @NotNull Collection<String> attributeNames, @Nullable String comment) {
+        Document<T> document = new Document<>(item, documents.size());
+        document.addTerms(name, NAME_WEIGHT);
+        for (String attributeName : attributeNames) {
+            document.addTerms(attributeName, ATTRIBUTE_WEIGHT);
+        }
+        document.addTerms(comment, COMMENT_WEIGHT);
+        Document<T> prevDocument = documents.put(item, document);
+        if (prevDocument != null) {
+            removeStatistics(prevDocument);
+        }
+        for (String term : document.termFrequencies.keySet()) {
+            documentFrequencies.merge(term, 1, Integer::sum);
+        }
+        totalLength += document.length;
+    }
+
+    /**
+     * Links two objects (e.g. by a foreign key). Links to unknown objects are ignored.
+     */
+    public void addLink(@NotNull T item1, @NotNull T item2) {
+        Document<T> document1 = documents.get(item1);
+        Document<T> document2 = documents.get(item2);
+        if (document1 != null && document2 != null && document1 != document2) {
+            document1.links.add(document2);
+            document2.links.add(document1);
+        }
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Returns all indexed objects, most relevant to the request first
+     */
+    @NotNull
+    public List<T> rank(@Nullable String request) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(request)));
+        queryTerms.removeIf(STOP_WORDS::contains);
+        if (queryTerms.isEmpty() || documents.isEmpty()) {
+            return new ArrayList<>(documents.keySet());
+        }
+        double avgLength = Math.max(1.0, (double) totalLength / documents.size());
+        Map<Document<T>, Double> scores = new HashMap<>();
+        for (Document<T> document : documents.values()) {
+            double score = 0;
+            for (String term : queryTerms) {
+                Integer frequency = document.termFrequencies.get(term);
+                if (frequency != null) {
+                    double tf = frequency * (BM25_K1 + 1) /
+                        (frequency + BM25_K1 * (1 - BM25_B + BM25_B * document.length / avgLength));
+                    score += getInverseDocumentFrequency(term) * tf;
+                }
+            }
+            if (score > 0) {
+                scores.put(document, score);
+            }
+        }
+        // Expand to the neighborhood of relevant objects
+        Map<Document<T>, Double> linkScores = new HashMap<>();
+        for (Map.Entry<Document<T>, Double> entry : scores.entrySet()) {
+            for (Document<T> link : entry.getKey().links) {
+                linkScores.merge(link, entry.getValue() * LINK_SCORE_FACTOR, Math::max);
+            }
+        }
+        for (Map.Entry<Document<T>, Double> entry : linkScores.entrySet()) {
+            scores.merge(entry.getKey(), entry.getValue(), Double::sum);
+        }
+
+        List<Document<T>> ranked = new ArrayList<>(documents.values());
+        ranked.sort(Comparator
+            .comparingDouble((Document<T> d) -> -scores.getOrDefault(d, 0.0))
+            .thenComparingInt(d -> d.order));
+        List<T> result = new ArrayList<>(ranked.size());
+        for (Document<T> document : ranked) {
+            result.add(document.item);
+        }
+        return result;
+    }
+
+    private double getInverseDocumentFrequency(@NotNull String term) {
+        int frequency = documentFrequencies.getOrDefault(term, 0);
+        return Math.log(1 + (documents.size() - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    private void removeStatistics(@NotNull Document<T> document) {
+        for (String term : document.termFrequencies.keySet()) {
+            documentFrequencies.computeIfPresent(term, (t, count) -> count > 1 ? count - 1 : null);
+        }
+        totalLength -= document.length;
+        for (Document<T> link : document.links) {
+            link.links.remove(document);
+        }
+    }
+
+    /**
+     * Splits text into lower case word tokens. Identifiers are split by case changes and separators
+     * (e.g. {@code customerOrders} and {@code CUSTOMER_ORDERS} both give {@code customer, order}).
+     */
+    @NotNull
+    static List<String> tokenize(@Nullable String text) {
+        if (CommonUtils.isEmpty(text)) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        char prevChar = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                addToken(tokens, token);
+            } else {
+                boolean wordStart = token.length() > 0 && (
+                    (Character.isUpperCase(c) && Character.isLowerCase(prevChar)) ||
+                    (Character.isDigit(c) != Character.isDigit(prevChar)) ||
+                    (Character.isLowerCase(c) && Character.isUpperCase(prevChar) && token.length() > 1)
+                );
+                if (wordStart) {
+                    if (Character.isLowerCase(c) && Character.isUpperCase(prevChar)) {
+                        // Acronym followed by a word (e.g. HTTPRequest): last upper case letter starts the word
+                        token.setLength(token.length() - 1);
+                        addToken(tokens, token);
+                        token.append(prevChar);
+                    } else {
+                        addToken(tokens, token);
+                    }
+                }
+                token.append(c);
+            }
+            prevChar = c;
+        }
+        addToken(tokens, token);
+        return tokens;
+    }
+
+    private static void addToken(@NotNull List<String> tokens, @NotNull StringBuilder token) {
+        if (token.length() > 0) {
+            tokens.add(normalizeToken(token.toString().toLowerCase(Locale.ENGLISH)));
+            token.setLength(0);
+        }
+    }
+
+    /**
+     * Reduces plural forms, so {@code orders} matches {@code order}
+     */
+    @NotNull
+    private static String normalizeToken(@NotNull String token) {
+        if (token.length() > 4 && token.endsWith("ies")) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
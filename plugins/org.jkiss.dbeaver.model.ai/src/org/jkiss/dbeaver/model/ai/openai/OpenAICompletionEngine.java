@@ -162,7 +162,8 @@ public class OpenAICompletionEngine extends AbstractAICompletionEngine<GPTComple
             mainObject,
             formatter,
             getInstructions(chatCompletion),
-            getMaxTokens() - AIConstants.MAX_RESPONSE_TOKENS
+            getMaxTokens() - AIConstants.MAX_RESPONSE_TOKENS,
+            getRequestText(messages)
         );
 
         final List<DAICompletionMessage> mergedMessages = new ArrayList<>();
@@ -37,9 +37,13 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCFactory;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataSnapshot;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCConnectionImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
+import org.jkiss.dbeaver.model.net.DBWNetworkHandler;
+import org.jkiss.dbeaver.model.net.DBWTunnel;
+import org.jkiss.dbeaver.model.net.DBWTunnelSocketFactory;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLConstants;
@@ -54,6 +58,7 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.IOUtils;
+import org.jkiss.utils.Pair;
 
 import java.io.IOException;
 import java.net.SocketException;
@@ -92,6 +97,8 @@ public abstract class JDBCDataSource extends AbstractDataSource
 
     private final transient List<Connection> closingConnections = new ArrayList<>();
     protected List<Path> tempFiles;
+    @Nullable
+    private volatile JDBCMetadataSnapshot metadataSnapshot;
 
 
     protected JDBCDataSource(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSourceContainer container, @NotNull SQLDialect dialect)
@@ -375,10 +382,40 @@ public abstract class JDBCDataSource extends AbstractDataSource
         }
 
         fillConnectionProperties(connectionInfo, connectProps);
+        setTunnelSocketFactory(connectProps);
 
         return connectProps;
     }
 
+    /**
+     * Names of driver properties which set socket factory class and its constructor argument.
+     * Driver must instantiate the factory ({@link javax.net.SocketFactory}) with a single String argument.
+     * Returns null if driver doesn't support custom socket factories.
+     */
+    @Nullable
+    protected Pair<String, String> getSocketFactoryProperties() {
+        return null;
+    }
+
+    /**
+     * Makes driver open sockets directly through the network tunnel instead of the tunnel local port.
+     */
+    private void setTunnelSocketFactory(@NotNull Properties connectProps) {
+        Pair<String, String> factoryProps = getSocketFactoryProperties();
+        if (factoryProps == null ||
+            connectProps.containsKey(factoryProps.getFirst()) ||
+            !container.getPreferenceStore().getBoolean(ModelPreferences.NET_TUNNEL_SOCKET_FACTORY)) {
+            return;
+        }
+        for (DBWNetworkHandler handler : container.getActiveNetworkHandlers()) {
+            if (handler instanceof DBWTunnel tunnel && tunnel.supportsDirectChannels()) {
+                connectProps.setProperty(factoryProps.getFirst(), DBWTunnelSocketFactory.class.getName());
+                connectProps.setProperty(factoryProps.getSecond(), DBWTunnelSocketFactory.registerTunnel(tunnel));
+                break;
+            }
+        }
+    }
+
     protected String getConnectionURL(DBPConnectionConfiguration connectionInfo) {
         String url = connectionInfo.getUrl();
         if (CommonUtils.isEmpty(url)) {
@@ -496,6 +533,12 @@ public abstract class JDBCDataSource extends AbstractDataSource
 
     @Override
     public void shutdown(@NotNull DBRProgressMonitor monitor) {
+        JDBCMetadataSnapshot snapshot = metadataSnapshot;
+        if (snapshot != null) {
+            monitor.subTask("Save metadata snapshot");
+            snapshot.close();
+            metadataSnapshot = null;
+        }
         for (JDBCRemoteInstance instance : getAvailableInstances()) {
             Object exclusiveLock = instance.getExclusiveLock().acquireExclusiveLock();
             try {
@@ -557,6 +600,51 @@ public abstract class JDBCDataSource extends AbstractDataSource
                 dataSourceInfo = new JDBCDataSourceInfo(container);
             }
         }
+
+        JDBCMetadataSnapshot snapshot = JDBCMetadataSnapshot.createSnapshot(this);
+        if (snapshot != null) {
+            snapshot.scheduleLoad();
+            this.metadataSnapshot = snapshot;
+        }
+    }
+
+    /**
+     * Persistent metadata snapshot. Null if snapshots are disabled for this connection.
+     */
+    @Nullable
+    public JDBCMetadataSnapshot getMetadataSnapshot() {
+        return metadataSnapshot;
+    }
+
+    /**
+     * Checks whether data source can read catalog change signal (see {@link #readMetadataChangeSignal}).
+     * Metadata snapshot is used only for such data sources.
+     */
+    public boolean supportsMetadataChangeSignal() {
+        return false;
+    }
+
+    /**
+     * Reads cheap catalog change signal (e.g. objects count and last DDL timestamp).
+     * Signal must change after any DDL. Metadata snapshot saved with a different signal is discarded on connect.
+     * Returns null if signal is not supported or can't be read, in this case snapshot is not used.
+     * Implementations usually combine {@link #getMetadataSnapshotIdentity()} with a catalog version query result.
+     */
+    @Nullable
+    public String readMetadataChangeSignal(@NotNull DBRProgressMonitor monitor) throws DBException {
+        return null;
+    }
+
+    /**
+     * Server and driver versions and connection identity. Part of the metadata change signal.
+     */
+    @NotNull
+    protected String getMetadataSnapshotIdentity() {
+        DBPConnectionConfiguration connectionInfo = container.getActualConnectionConfiguration();
+        return dataSourceInfo.getDatabaseProductName() + " " + dataSourceInfo.getDatabaseProductVersion() +
+            "|" + dataSourceInfo.getDriverName() + " " + dataSourceInfo.getDriverVersion() +
+            "|" + CommonUtils.notEmpty(connectionInfo.getUrl()) +
+            "|" + CommonUtils.notEmpty(connectionInfo.getUserName());
     }
 
     protected void readDatabaseServerVersion(DatabaseMetaData metaData) {
@@ -277,6 +277,17 @@ public abstract class JDBCCompositeCache<
 
     protected void loadObjects(DBRProgressMonitor monitor, OWNER owner, PARENT forParent)
         throws DBException
+    {
+        loadObjects(monitor, owner, forParent, null);
+    }
+
+    /**
+     * Loads objects using the specified metadata session (or default metadata session if it is null).
+     * Session is not closed after loading. Can be used to read objects of different parents
+     * concurrently over separate connections: results are merged into the cache atomically.
+     */
+    public void loadObjects(@NotNull DBRProgressMonitor monitor, @NotNull OWNER owner, @Nullable PARENT forParent, @Nullable JDBCSession metaSession)
+        throws DBException
     {
         if (DBWorkbench.getPlatform().isUnitTestMode()) {
             log.debug("[TEST] Skip composite cache read in test mode");
@@ -303,13 +314,24 @@ public abstract class JDBCCompositeCache<
         DBPDataSource dataSource = owner.getDataSource();
         assert (dataSource != null);
         monitor.beginTask("Load composite cache", 1);
-        try (JDBCSession session = DBUtils.openMetaSession(monitor, owner, "Load composite objects")) {
-
-            JDBCStatement dbStat = prepareObjectsStatement(session, owner, forParent);
-            dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+        try (JDBCSession ownSession = metaSession == null ? DBUtils.openMetaSession(monitor, owner, "Load composite objects") : null) {
+            JDBCSession session = metaSession != null ? metaSession : ownSession;
+
+            JDBCMetadataSnapshot snapshot = JDBCMetadataSnapshot.getSnapshot(dataSource);
+            String snapshotKey = snapshot == null ? null :
+                JDBCMetadataSnapshot.makeKey(this, owner, forParent == null ? "objects" : "objects:" + forParent.getName());
+            JDBCResultSet dbResult = snapshot == null ? null : snapshot.openSnapshotResultSet(session, snapshotKey);
+            JDBCStatement dbStat = null;
             try {
-                dbStat.executeStatement();
-                JDBCResultSet dbResult = dbStat.getResultSet();
+                if (dbResult == null) {
+                    dbStat = prepareObjectsStatement(session, owner, forParent);
+                    dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+                    dbStat.executeStatement();
+                    dbResult = dbStat.getResultSet();
+                    if (dbResult != null && snapshot != null) {
+                        dbResult = snapshot.recordResultSet(session, snapshotKey, dbResult);
+                    }
+                }
                 if (dbResult != null) try {
                     while (dbResult.next()) {
                         if (monitor.isCanceled()) {
@@ -389,7 +411,9 @@ public abstract class JDBCCompositeCache<
                 }
             }
             finally {
-                dbStat.close();
+                if (dbStat != null) {
+                    dbStat.close();
+                }
             }
         }
         catch (SQLException ex) {
@@ -0,0 +1,690 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCResultSetImpl;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent metadata snapshot of a JDBC data source.
+ *
+ * Keeps raw rows of metadata queries executed by JDBC object caches and stores them in a compact
+ * binary file in the project metadata folder. On the next connect rows are replayed through the regular
+ * cache fetch methods, so caches are populated without server round trips.
+ * Each snapshot entry is replayed only once per connection: any later reload (e.g. after navigator refresh)
+ * goes to the server and records a fresh entry.
+ */
+public class JDBCMetadataSnapshot {
+
+    private static final Log log = Log.getLog(JDBCMetadataSnapshot.class);
+
+    private static final String SNAPSHOT_FOLDER = "metadata-snapshots"; //$NON-NLS-1$
+    private static final int SNAPSHOT_MAGIC = 0x44424d53;
+    private static final int SNAPSHOT_VERSION = 2;
+    // Delay between the last recorded entry and snapshot save
+    private static final long SAVE_DELAY = 5000;
+    // Sanity limit for columns count of a corrupted file
+    private static final int MAX_COLUMNS = 10000;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_BOOLEAN = 5;
+    private static final byte VALUE_DECIMAL = 6;
+    private static final byte VALUE_TIMESTAMP = 7;
+    private static final byte VALUE_DATE = 8;
+    private static final byte VALUE_BYTES = 9;
+
+    private static class Entry {
+        final String[] columns;
+        final List<Object[]> rows;
+        volatile boolean replayed;
+
+        Entry(String[] columns, List<Object[]> rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+    }
+
+    @NotNull
+    private final JDBCDataSource dataSource;
+    @NotNull
+    private final Path snapshotFile;
+    private final long maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile String changeSignal;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    @NotNull
+    private final AbstractJob saveJob;
+
+    public JDBCMetadataSnapshot(@NotNull JDBCDataSource dataSource, @NotNull Path snapshotFile, long maxSize) {
+        this.dataSource = dataSource;
+        this.snapshotFile = snapshotFile;
+        this.maxSize = maxSize;
+        this.saveJob = new AbstractJob("Save metadata snapshot of '" + dataSource.getContainer().getName() + "'") {
+            {
+                setSystem(true);
+            }
+
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                saveSnapshot();
+                return Status.OK_STATUS;
+            }
+        };
+    }
+
+    /**
+     * Returns metadata snapshot of the specified data source or null if snapshots are disabled.
+     */
+    @Nullable
+    public static JDBCMetadataSnapshot getSnapshot(@Nullable DBPDataSource dataSource) {
+        return dataSource instanceof JDBCDataSource jdbcDataSource ? jdbcDataSource.getMetadataSnapshot() : null;
+    }
+
+    /**
+     * Creates snapshot for the data source if it is enabled in the connection preferences
+     * and the data source can detect metadata changes (see {@link JDBCDataSource#supportsMetadataChangeSignal()}).
+     */
+    @Nullable
+    public static JDBCMetadataSnapshot createSnapshot(@NotNull JDBCDataSource dataSource) {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        DBPPreferenceStore store = container.getPreferenceStore();
+        if (!store.getBoolean(ModelPreferences.META_SNAPSHOT_ENABLED) || container.isTemporary() ||
+            !dataSource.supportsMetadataChangeSignal()) {
+            return null;
+        }
+        Path folder = container.getProject().getMetadataFolder(false).resolve(SNAPSHOT_FOLDER);
+        return new JDBCMetadataSnapshot(
+            dataSource,
+            folder.resolve(CommonUtils.escapeFileName(container.getId()) + ".dat"),
+            store.getLong(ModelPreferences.META_SNAPSHOT_MAX_SIZE) * 1024 * 1024);
+    }
+
+    /**
+     * Makes snapshot key of the cache content for the specified owner.
+     */
+    @NotNull
+    public static String makeKey(@NotNull Object cache, @NotNull DBSObject owner, @Nullable String qualifier) {
+        String key = cache.getClass().getName() + ":" + DBUtils.getObjectFullId(owner);
+        return qualifier == null ? key : key + ":" + qualifier;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Loads snapshot file and validates it against the data source change signal in a background job.
+     * Caches do not wait for the snapshot: until it is ready all metadata is read from the server.
+     */
+    public void scheduleLoad() {
+        new AbstractJob("Load metadata snapshot of '" + dataSource.getContainer().getName() + "'") {
+            {
+                setSystem(true);
+            }
+
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                load(monitor);
+                return Status.OK_STATUS;
+            }
+        }.schedule();
+    }
+
+    /**
+     * Reads change signal and loads snapshot file.
+     * If change signal can't be read the snapshot is neither used nor saved.
+     */
+    void load(@NotNull DBRProgressMonitor monitor) {
+        try {
+            changeSignal = readChangeSignal(monitor);
+            if (changeSignal == null) {
+                log.debug("Metadata change signal of '" + dataSource.getContainer().getName() + "' is not available. Snapshot is not used.");
+                entries.clear();
+            } else {
+                loadSnapshot(monitor);
+            }
+        } catch (Exception e) {
+            log.debug("Error loading metadata snapshot from '" + snapshotFile + "'", e);
+            entries.clear();
+            // Overwrite corrupted file by the next save
+            dirty = true;
+        }
+        ready = true;
+    }
+
+    /**
+     * Opens result set over snapshot rows. Returns null if there is no snapshot entry for the key.
+     */
+    @Nullable
+    public JDBCResultSet openSnapshotResultSet(@NotNull JDBCSession session, @NotNull String key) throws SQLException {
+        if (!ready) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null || entry.replayed) {
+            return null;
+        }
+        entry.replayed = true;
+        return JDBCResultSetImpl.makeResultSet(
+            session,
+            null,
+            SnapshotResultSet.create(new SnapshotResultSet(entry.columns, entry.rows.iterator(), null)),
+            "Metadata snapshot",
+            true);
+    }
+
+    /**
+     * Wraps server result set. All fetched rows are recorded into the snapshot entry once the result set
+     * is read till the end. Closing the returned result set closes the server one.
+     */
+    @NotNull
+    public JDBCResultSet recordResultSet(@NotNull JDBCSession session, @NotNull String key, @NotNull JDBCResultSet dbResult) throws SQLException {
+        if (ready && changeSignal == null) {
+            // Snapshot can't be validated, so it isn't saved
+            return dbResult;
+        }
+        ResultSetMetaData metaData = dbResult.getOriginal().getMetaData();
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1);
+        }
+        SnapshotResultSet recorder = new SnapshotResultSet(columns, null, dbResult) {
+            @Override
+            protected void onComplete(@NotNull List<Object[]> rows) {
+                putEntry(key, columns, rows);
+                // Save once the initial metadata load is over (rescheduling postpones the pending save)
+                saveJob.schedule(SAVE_DELAY);
+            }
+        };
+        return JDBCResultSetImpl.makeResultSet(session, dbResult.getSourceStatement(), SnapshotResultSet.create(recorder), "Metadata snapshot", true);
+    }
+
+    /**
+     * Adds rows read from the server. They are saved by the next snapshot save.
+     */
+    void putEntry(@NotNull String key, @NotNull String[] columns, @NotNull List<Object[]> rows) {
+        Entry entry = new Entry(columns, rows);
+        entry.replayed = true;
+        entries.put(key, entry);
+        dirty = true;
+    }
+
+    /**
+     * Returns rows of the snapshot entry or null if there is no such entry
+     */
+    @Nullable
+    List<Object[]> getEntryRows(@NotNull String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.rows;
+    }
+
+    /**
+     * Writes snapshot file if something was changed since it was loaded.
+     */
+    public synchronized void saveSnapshot() {
+        if (!dirty || changeSignal == null) {
+            // Nothing to save or snapshot can't be validated on the next connect
+            return;
+        }
+        // Entries recorded from now on will be saved by the next save
+        dirty = false;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(buffer))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                writeString(out, changeSignal);
+                List<Map.Entry<String, Entry>> entryList = new ArrayList<>(entries.entrySet());
+                out.writeInt(entryList.size());
+                for (Map.Entry<String, Entry> entry : entryList) {
+                    writeString(out, entry.getKey());
+                    writeEntry(out, entry.getValue());
+                }
+            }
+            if (buffer.size() > maxSize) {
+                log.debug("Metadata snapshot size (" + buffer.size() + ") exceeds the limit (" + maxSize + "). Snapshot is not saved.");
+                Files.deleteIfExists(snapshotFile);
+                return;
+            }
+            Files.createDirectories(snapshotFile.getParent());
+            Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            Files.write(tempFile, buffer.toByteArray());
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            log.debug("Error saving metadata snapshot to '" + snapshotFile + "'", e);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Cancels pending background save and writes snapshot file.
+     */
+    public void close() {
+        saveJob.cancel();
+        saveSnapshot();
+    }
+
+    private void loadSnapshot(@NotNull DBRProgressMonitor monitor) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        String savedSignal;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.debug("Unsupported metadata snapshot format in '" + snapshotFile + "'");
+                return;
+            }
+            savedSignal = readString(in);
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount && !monitor.isCanceled(); i++) {
+                String key = readString(in);
+                Entry entry = readEntry(in);
+                entries.putIfAbsent(key, entry);
+            }
+        }
+        if (!savedSignal.equals(changeSignal)) {
+            log.debug("Metadata of '" + dataSource.getContainer().getName() + "' was changed. Snapshot discarded.");
+            entries.values().removeIf(entry -> !entry.replayed);
+            dirty = true;
+        }
+    }
+
+    @Nullable
+    private String readChangeSignal(@NotNull DBRProgressMonitor monitor) {
+        try {
+            return dataSource.readMetadataChangeSignal(monitor);
+        } catch (Exception e) {
+            log.debug("Error reading metadata change signal", e);
+            return null;
+        }
+    }
+
+    private static void writeEntry(@NotNull DataOutputStream out, @NotNull Entry entry) throws IOException {
+        out.writeInt(entry.columns.length);
+        for (String column : entry.columns) {
+            writeString(out, column);
+        }
+        out.writeInt(entry.rows.size());
+        for (Object[] row : entry.rows) {
+            for (Object value : row) {
+                writeValue(out, value);
+            }
+        }
+    }
+
+    @NotNull
+    private static Entry readEntry(@NotNull DataInputStream in) throws IOException {
+        int columnCount = in.readInt();
+        if (columnCount < 0 || columnCount > MAX_COLUMNS) {
+            throw new IOException("Bad snapshot columns count: " + columnCount);
+        }
+        String[] columns = new String[columnCount];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = readString(in);
+        }
+        int rowCount = in.readInt();
+        if (rowCount < 0) {
+            throw new IOException("Bad snapshot rows count: " + rowCount);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            Object[] row = new Object[columns.length];
+            for (int k = 0; k < row.length; k++) {
+                row[k] = readValue(in);
+            }
+            rows.add(row);
+        }
+        return new Entry(columns, rows);
+    }
+
+    private static boolean isSupportedValue(@Nullable Object value) {
+        return value == null || value instanceof String || value instanceof Number || value instanceof Boolean ||
+            value instanceof java.util.Date || value instanceof byte[];
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof String str) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, str);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(VALUE_INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long longValue) {
+            out.writeByte(VALUE_LONG);
+            out.writeLong(longValue);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof Number) {
+            out.writeByte(VALUE_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Timestamp timestamp) {
+            out.writeByte(VALUE_TIMESTAMP);
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof java.util.Date date) {
+            out.writeByte(VALUE_DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(VALUE_BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            throw new IOException("Unsupported snapshot value type: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Writes length-prefixed UTF-8 string. Unlike writeUTF it is not limited by 64K
+     * (view and procedure definitions, comments may be longer).
+     */
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @NotNull
+    private static String readString(@NotNull DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads length-prefixed bytes. Buffer grows while data is read, so bad length in a corrupted file
+     * leads to EOF instead of a huge allocation.
+     */
+    @NotNull
+    private static byte[] readBytes(@NotNull DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Bad snapshot value length: " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Unexpected end of metadata snapshot");
+        }
+        return bytes;
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return readString(in);
+            case VALUE_INT:
+                return in.readInt();
+            case VALUE_LONG:
+                return in.readLong();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_DECIMAL:
+                return new BigDecimal(readString(in));
+            case VALUE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            }
+            case VALUE_DATE:
+                return new java.sql.Date(in.readLong());
+            case VALUE_BYTES:
+                return readBytes(in);
+            default:
+                throw new IOException("Bad snapshot value type: " + type);
+        }
+    }
+
+    /**
+     * Minimal forward-only result set over snapshot rows.
+     * In recording mode rows are read from the original result set and kept in memory.
+     */
+    private static class SnapshotResultSet implements InvocationHandler {
+        private final String[] columns;
+        @Nullable
+        private final Iterator<Object[]> rowIterator;
+        @Nullable
+        private final ResultSet original;
+        private final List<Object[]> recordedRows = new ArrayList<>();
+        private boolean recordable = true;
+        private Object[] currentRow;
+        private boolean wasNull;
+        private boolean closed;
+
+        SnapshotResultSet(@NotNull String[] columns, @Nullable Iterator<Object[]> rowIterator, @Nullable ResultSet original) {
+            this.columns = columns;
+            this.rowIterator = rowIterator;
+            this.original = original;
+        }
+
+        @NotNull
+        static ResultSet create(@NotNull SnapshotResultSet handler) {
+            return (ResultSet) Proxy.newProxyInstance(
+                JDBCMetadataSnapshot.class.getClassLoader(),
+                new Class[]{ResultSet.class},
+                handler);
+        }
+
+        protected void onComplete(@NotNull List<Object[]> rows) {
+            // Nothing by default
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return nextRow();
+                case "close":
+                    closed = true;
+                    if (original != null) {
+                        original.close();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "wasNull":
+                    return wasNull;
+                case "findColumn":
+                    return findColumn((String) args[0]) + 1;
+                case "getMetaData":
+                    return createMetaData();
+                case "getStatement":
+                    return original == null ? null : original.getStatement();
+                case "getWarnings":
+                    return null;
+                case "clearWarnings":
+                case "setFetchSize":
+                case "setFetchDirection":
+                    return null;
+                case "getFetchSize":
+                    return 0;
+                case "getFetchDirection":
+                    return ResultSet.FETCH_FORWARD;
+                case "getType":
+                    return ResultSet.TYPE_FORWARD_ONLY;
+                case "getConcurrency":
+                    return ResultSet.CONCUR_READ_ONLY;
+                case "isWrapperFor":
+                    return false;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Metadata snapshot result set";
+            }
+            if (name.startsWith("get") && args != null && args.length >= 1 &&
+                (args[0] instanceof Integer || args[0] instanceof String))
+            {
+                int index = args[0] instanceof Integer columnIndex ? columnIndex - 1 : findColumn((String) args[0]);
+                if (currentRow == null || index < 0 || index >= currentRow.length) {
+                    throw new SQLException("Column " + args[0] + " not found in metadata snapshot");
+                }
+                Object value = currentRow[index];
+                wasNull = value == null;
+                return convertValue(value, method.getReturnType());
+            }
+            throw new SQLFeatureNotSupportedException("Method " + name + " is not supported by metadata snapshot");
+        }
+
+        private boolean nextRow() throws SQLException {
+            if (original == null) {
+                currentRow = rowIterator != null && rowIterator.hasNext() ? rowIterator.next() : null;
+                return currentRow != null;
+            }
+            if (!original.next()) {
+                currentRow = null;
+                if (recordable) {
+                    onComplete(recordedRows);
+                }
+                return false;
+            }
+            currentRow = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                currentRow[i] = original.getObject(i + 1);
+                if (recordable && !isSupportedValue(currentRow[i])) {
+                    // Driver-specific value. Such entries can't be persisted
+                    recordable = false;
+                    recordedRows.clear();
+                }
+            }
+            if (recordable) {
+                recordedRows.add(currentRow);
+            }
+            return true;
+        }
+
+        private int findColumn(@NotNull String label) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equalsIgnoreCase(label)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @NotNull
+        private ResultSetMetaData createMetaData() {
+            return (ResultSetMetaData) Proxy.newProxyInstance(
+                JDBCMetadataSnapshot.class.getClassLoader(),
+                new Class[]{ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> columns.length;
+                    case "getColumnLabel", "getColumnName" -> columns[(Integer) args[0] - 1];
+                    case "getColumnType" -> Types.VARCHAR;
+                    case "isNullable" -> ResultSetMetaData.columnNullable;
+                    default -> {
+                        Class<?> returnType = method.getReturnType();
+                        if (returnType == String.class) {
+                            yield "";
+                        } else if (returnType == Boolean.TYPE) {
+                            yield false;
+                        } else if (returnType == Integer.TYPE) {
+                            yield 0;
+                        }
+                        yield null;
+                    }
+                });
+        }
+
+        @Nullable
+        private static Object convertValue(@Nullable Object value, @NotNull Class<?> type) throws SQLException {
+            if (type == Object.class) {
+                return value;
+            } else if (type == String.class) {
+                return value == null ? null : CommonUtils.toString(value);
+            } else if (type == Integer.TYPE) {
+                return CommonUtils.toInt(value);
+            } else if (type == Long.TYPE) {
+                return CommonUtils.toLong(value);
+            } else if (type == Short.TYPE) {
+                return (short) CommonUtils.toInt(value);
+            } else if (type == Byte.TYPE) {
+                return (byte) CommonUtils.toInt(value);
+            } else if (type == Double.TYPE) {
+                return CommonUtils.toDouble(value);
+            } else if (type == Float.TYPE) {
+                return (float) CommonUtils.toDouble(value);
+            } else if (type == Boolean.TYPE) {
+                return value instanceof Number number ? number.intValue() != 0 : CommonUtils.toBoolean(value);
+            } else if (type == BigDecimal.class) {
+                return value == null ? null : value instanceof BigDecimal bd ? bd : new BigDecimal(value.toString());
+            } else if (value == null || type.isInstance(value)) {
+                return value;
+            } else if (value instanceof java.util.Date date) {
+                if (type == Timestamp.class) {
+                    return new Timestamp(date.getTime());
+                } else if (type == java.sql.Date.class) {
+                    return new java.sql.Date(date.getTime());
+                } else if (type == Time.class) {
+                    return new Time(date.getTime());
+                }
+            }
+            throw new SQLException("Can't convert snapshot value " + value.getClass().getName() + " to " + type.getName());
+        }
+    }
+
+}
@@ -110,33 +110,29 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
             try {
                 try (JDBCSession session = DBUtils.openMetaSession(monitor, owner, "Load objects from " + owner.getName())) {
                     beforeCacheLoading(session, owner);
-                    try (JDBCStatement dbStat = prepareObjectsStatement(session, owner)) {
-                        monitor.subTask("Load " + getCacheName());
-                        dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
-                        dbStat.executeStatement();
-                        JDBCResultSet dbResult = dbStat.getResultSet();
-                        if (dbResult != null) {
-                            try {
-                                while (dbResult.next()) {
-                                    if (monitor.isCanceled()) {
-                                        return;
-                                    }
-
-                                    OBJECT object = fetchObject(session, owner, dbResult);
-                                    if (object == null || !isValidObject(monitor, owner, object)) {
-                                        continue;
+                    try {
+                        JDBCMetadataSnapshot snapshot = JDBCMetadataSnapshot.getSnapshot(dataSource);
+                        String snapshotKey = snapshot == null ? null : JDBCMetadataSnapshot.makeKey(this, owner, null);
+                        JDBCResultSet snapshotResult = snapshot == null ? null : snapshot.openSnapshotResultSet(session, snapshotKey);
+                        if (snapshotResult != null) {
+                            monitor.subTask("Load " + getCacheName() + " from metadata snapshot");
+                            if (!readObjects(monitor, session, owner, snapshotResult, tmpObjectList)) {
+                                return;
+                            }
+                        } else {
+                            try (JDBCStatement dbStat = prepareObjectsStatement(session, owner)) {
+                                monitor.subTask("Load " + getCacheName());
+                                dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+                                dbStat.executeStatement();
+                                JDBCResultSet dbResult = dbStat.getResultSet();
+                                if (dbResult != null) {
+                                    if (snapshot != null) {
+                                        dbResult = snapshot.recordResultSet(session, snapshotKey, dbResult);
                                     }
-                                    tmpObjectList.add(object);
-
-                                    // Do not log every object load. This overheats UI in case of long lists
-                                    //monitor.subTask(object.getName());
-                                    if (tmpObjectList.size() == maximumCacheSize) {
-                                        log.warn("Maximum cache size exceeded (" + maximumCacheSize + ") in " + this);
-                                        break;
+                                    if (!readObjects(monitor, session, owner, dbResult, tmpObjectList)) {
+                                        return;
                                     }
                                 }
-                            } finally {
-                                dbResult.close();
                             }
                         }
                     } finally {
@@ -168,6 +164,42 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
         this.invalidateObjects(monitor, owner, new CacheIterator());
     }
 
+    /**
+     * Reads all objects from the result set and closes it.
+     * Returns false if loading was canceled.
+     */
+    private boolean readObjects(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull JDBCSession session,
+        @NotNull OWNER owner,
+        @NotNull JDBCResultSet dbResult,
+        @NotNull List<OBJECT> tmpObjectList
+    ) throws SQLException, DBException {
+        try {
+            while (dbResult.next()) {
+                if (monitor.isCanceled()) {
+                    return false;
+                }
+
+                OBJECT object = fetchObject(session, owner, dbResult);
+                if (object == null || !isValidObject(monitor, owner, object)) {
+                    continue;
+                }
+                tmpObjectList.add(object);
+
+                // Do not log every object load. This overheats UI in case of long lists
+                //monitor.subTask(object.getName());
+                if (tmpObjectList.size() == maximumCacheSize) {
+                    log.warn("Maximum cache size exceeded (" + maximumCacheSize + ") in " + this);
+                    break;
+                }
+            }
+        } finally {
+            dbResult.close();
+        }
+        return true;
+    }
+
     public void beforeCacheLoading(JDBCSession session, OWNER owner) throws DBException {
         // Do nothing
     }
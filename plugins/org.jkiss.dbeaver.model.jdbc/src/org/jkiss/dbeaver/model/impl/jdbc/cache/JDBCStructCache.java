@@ -92,10 +92,21 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
             Map<OBJECT, List<CHILD>> objectMap = new HashMap<>();
 
             // Load columns
-            try (JDBCStatement dbStat = prepareChildrenStatement(session, owner, forObject)) {
-                dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
-                dbStat.executeStatement();
-                JDBCResultSet dbResult = dbStat.getResultSet();
+            JDBCMetadataSnapshot snapshot = JDBCMetadataSnapshot.getSnapshot(dataSource);
+            String snapshotKey = snapshot == null ? null :
+                JDBCMetadataSnapshot.makeKey(this, owner, forObject == null ? "children" : "children:" + forObject.getName());
+            JDBCResultSet dbResult = snapshot == null ? null : snapshot.openSnapshotResultSet(session, snapshotKey);
+            JDBCStatement dbStat = null;
+            try {
+                if (dbResult == null) {
+                    dbStat = prepareChildrenStatement(session, owner, forObject);
+                    dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+                    dbStat.executeStatement();
+                    dbResult = dbStat.getResultSet();
+                    if (dbResult != null && snapshot != null) {
+                        dbResult = snapshot.recordResultSet(session, snapshotKey, dbResult);
+                    }
+                }
                 if (dbResult != null) {
                     try {
                         while (dbResult.next()) {
@@ -167,6 +178,10 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
                         dbResult.close();
                     }
                 }
+            } finally {
+                if (dbStat != null) {
+                    dbStat.close();
+                }
             }
         } catch (SQLException ex) {
             throw new DBDatabaseException(ex, dataSource);
@@ -104,6 +104,10 @@ public class JDBCContentBLOB extends JDBCContentLOB {
                     } catch (Throwable e) {
                         throw new DBCException(e, executionContext);
                     }
+                } else if (platform.getPreferenceStore().getBoolean(ModelPreferences.CONTENT_LOB_PAGED_READ)) {
+                    // Read content on demand. Storage owns the blob now and frees it on release
+                    this.storage = new JDBCContentBLOBPagedStorage(blob, contentLength, getDefaultEncoding());
+                    this.blob = null;
                 } else {
                     // Create new local storage
                     Path tempFile;
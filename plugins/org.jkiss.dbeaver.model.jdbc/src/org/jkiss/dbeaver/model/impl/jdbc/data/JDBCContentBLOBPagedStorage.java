@@ -0,0 +1,137 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.app.DBPPlatform;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDContentStorageRandomAccess;
+import org.jkiss.dbeaver.model.data.storage.TemporaryContentStorage;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.utils.ContentUtils;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * BLOB storage which reads content on demand with Blob.getBytes
+ */
+public class JDBCContentBLOBPagedStorage extends JDBCContentLOBPagedStorage<byte[]> implements DBDContentStorageRandomAccess {
+
+    private final Blob blob;
+
+    public JDBCContentBLOBPagedStorage(@NotNull Blob blob, long contentLength, String charset) {
+        super(contentLength, charset);
+        this.blob = blob;
+    }
+
+    @NotNull
+    @Override
+    protected byte[] readPage(long offset, int length) throws SQLException {
+        // JDBC positions are 1-based
+        return blob.getBytes(offset + 1, length);
+    }
+
+    @Override
+    protected void freeLOB() throws SQLException {
+        blob.free();
+    }
+
+    @Override
+    public int readBytes(long position, @NotNull byte[] buffer, int offset, int length) throws IOException {
+        if (position >= getContentLength()) {
+            return -1;
+        }
+        int bytesRead = 0;
+        while (bytesRead < length && position < getContentLength()) {
+            byte[] page = getPage(position);
+            int pageOffset = (int) (position % PAGE_SIZE);
+            int copyLength = Math.min(length - bytesRead, page.length - pageOffset);
+            if (copyLength <= 0) {
+                // Driver returned less bytes than expected
+                break;
+            }
+            System.arraycopy(page, pageOffset, buffer, offset + bytesRead, copyLength);
+            bytesRead += copyLength;
+            position += copyLength;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public InputStream getContentStream() {
+        return new InputStream() {
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] buffer = new byte[1];
+                return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+            }
+
+            @Override
+            public int read(@NotNull byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                int count = readBytes(position, b, off, len);
+                if (count > 0) {
+                    position += count;
+                }
+                return count == 0 ? -1 : count;
+            }
+
+            @Override
+            public long skip(long n) {
+                long skipped = Math.max(0, Math.min(n, getContentLength() - position));
+                position += skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available() {
+                return (int) Math.min(Integer.MAX_VALUE, getContentLength() - position);
+            }
+        };
+    }
+
+    @Override
+    public Reader getContentReader() {
+        return new InputStreamReader(getContentStream(), Charset.forName(getCharset()));
+    }
+
+    @Override
+    public DBDContentStorage cloneStorage(DBRProgressMonitor monitor) throws IOException {
+        DBPPlatform platform = DBWorkbench.getPlatform();
+        Path tempFile = ContentUtils.createTempContentFile(monitor, platform, "blob" + blob.hashCode());
+        try (OutputStream os = Files.newOutputStream(tempFile)) {
+            try (InputStream is = getContentStream()) {
+                ContentUtils.copyStreams(is, getContentLength(), os, monitor);
+            }
+        } catch (IOException e) {
+            ContentUtils.deleteTempFile(tempFile);
+            throw e;
+        }
+        return new TemporaryContentStorage(platform, tempFile, getCharset(), true);
+    }
+
+}
@@ -106,6 +106,10 @@ public class JDBCContentCLOB extends JDBCContentLOB implements DBDContent {
                             throw new DBCException(e, executionContext);
                         }
                     }
+                } else if (platform.getPreferenceStore().getBoolean(ModelPreferences.CONTENT_LOB_PAGED_READ)) {
+                    // Read content on demand. Storage owns the clob now and frees it on release
+                    this.storage = new JDBCContentCLOBPagedStorage(clob, contentLength, getDefaultEncoding());
+                    this.clob = null;
                 } else {
                     // Create new local storage
                     Path tempFile;
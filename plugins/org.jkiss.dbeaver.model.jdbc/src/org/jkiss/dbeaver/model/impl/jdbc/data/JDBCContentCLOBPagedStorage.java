@@ -0,0 +1,165 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.app.DBPPlatform;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.storage.TemporaryContentStorage;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.utils.ContentUtils;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * CLOB storage which reads content on demand with Clob.getSubString.
+ * Content length is measured in characters.
+ */
+public class JDBCContentCLOBPagedStorage extends JDBCContentLOBPagedStorage<String> {
+
+    private final Clob clob;
+
+    public JDBCContentCLOBPagedStorage(@NotNull Clob clob, long contentLength, String charset) {
+        super(contentLength, charset);
+        this.clob = clob;
+    }
+
+    @NotNull
+    @Override
+    protected String readPage(long offset, int length) throws SQLException {
+        // JDBC positions are 1-based
+        return clob.getSubString(offset + 1, length);
+    }
+
+    @Override
+    protected void freeLOB() throws SQLException {
+        clob.free();
+    }
+
+    @Override
+    public Reader getContentReader() {
+        return new Reader() {
+            private long position;
+
+            @Override
+            public int read(@NotNull char[] cbuf, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (position >= getContentLength()) {
+                    return -1;
+                }
+                String page = getPage(position);
+                int pageOffset = (int) (position % PAGE_SIZE);
+                int count = Math.min(len, page.length() - pageOffset);
+                if (count <= 0) {
+                    // Driver returned less characters than expected
+                    return -1;
+                }
+                page.getChars(pageOffset, pageOffset + count, cbuf, off);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close, LOB is freed on storage release
+            }
+        };
+    }
+
+    @Override
+    public InputStream getContentStream() {
+        Charset charset = Charset.forName(getCharset());
+        Reader reader = getContentReader();
+        return new InputStream() {
+            private final char[] chars = new char[PAGE_SIZE];
+            private byte[] buffer = new byte[0];
+            private int bufferPos;
+            private char pendingHighSurrogate;
+
+            @Override
+            public int read() throws IOException {
+                if (!fillBuffer()) {
+                    return -1;
+                }
+                return buffer[bufferPos++] & 0xff;
+            }
+
+            @Override
+            public int read(@NotNull byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!fillBuffer()) {
+                    return -1;
+                }
+                int count = Math.min(len, buffer.length - bufferPos);
+                System.arraycopy(buffer, bufferPos, b, off, count);
+                bufferPos += count;
+                return count;
+            }
+
+            private boolean fillBuffer() throws IOException {
+                while (bufferPos >= buffer.length) {
+                    int offset = 0;
+                    if (pendingHighSurrogate != 0) {
+                        chars[offset++] = pendingHighSurrogate;
+                        pendingHighSurrogate = 0;
+                    }
+                    int count = reader.read(chars, offset, chars.length - offset);
+                    if (count < 0) {
+                        if (offset == 0) {
+                            return false;
+                        }
+                        count = 0;
+                    }
+                    int length = offset + count;
+                    if (count > 0 && Character.isHighSurrogate(chars[length - 1])) {
+                        // Do not split surrogate pair between chunks
+                        pendingHighSurrogate = chars[--length];
+                    }
+                    buffer = new String(chars, 0, length).getBytes(charset);
+                    bufferPos = 0;
+                }
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public DBDContentStorage cloneStorage(DBRProgressMonitor monitor) throws IOException {
+        DBPPlatform platform = DBWorkbench.getPlatform();
+        Path tempFile = ContentUtils.createTempContentFile(monitor, platform, "clob" + clob.hashCode());
+        try (Writer os = Files.newBufferedWriter(tempFile, Charset.forName(getCharset()))) {
+            try (Reader reader = getContentReader()) {
+                ContentUtils.copyStreams(reader, getContentLength(), os, monitor);
+            }
+        } catch (IOException e) {
+            ContentUtils.deleteTempFile(tempFile);
+            throw e;
+        }
+        return new TemporaryContentStorage(platform, tempFile, getCharset(), true);
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LOB content storage which reads content on demand.
+ * Content is read by pages, recently used pages are kept in a small LRU cache.
+ * Full content is materialized only on explicit copy (see {@link #cloneStorage}).
+ * Storage owns the LOB locator and frees it on release.
+ */
+public abstract class JDBCContentLOBPagedStorage<PAGE> implements DBDContentStorage {
+
+    private static final Log log = Log.getLog(JDBCContentLOBPagedStorage.class);
+
+    protected static final int PAGE_SIZE = 64 * 1024;
+    private static final int MAX_CACHED_PAGES = 16;
+
+    private final long contentLength;
+    private final String charset;
+    private final Map<Long, PAGE> pageCache = new LinkedHashMap<>(MAX_CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PAGE> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private volatile boolean released;
+
+    protected JDBCContentLOBPagedStorage(long contentLength, String charset) {
+        this.contentLength = contentLength;
+        this.charset = charset;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public String getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns content page which contains the specified position
+     */
+    @NotNull
+    protected synchronized PAGE getPage(long position) throws IOException {
+        if (released) {
+            throw new IOException("LOB content was released");
+        }
+        long pageIndex = position / PAGE_SIZE;
+        PAGE page = pageCache.get(pageIndex);
+        if (page == null) {
+            long pageOffset = pageIndex * PAGE_SIZE;
+            try {
+                page = readPage(pageOffset, (int) Math.min(PAGE_SIZE, contentLength - pageOffset));
+            } catch (SQLException e) {
+                throw new IOException("Error reading LOB content at " + pageOffset, e);
+            }
+            pageCache.put(pageIndex, page);
+        }
+        return page;
+    }
+
+    /**
+     * Reads content page from the LOB.
+     *
+     * @param offset zero-based content offset
+     */
+    @NotNull
+    protected abstract PAGE readPage(long offset, int length) throws SQLException;
+
+    /**
+     * Frees LOB locator
+     */
+    protected abstract void freeLOB() throws SQLException;
+
+    @Override
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        pageCache.clear();
+        try {
+            freeLOB();
+        } catch (Throwable e) {
+            log.debug("Error freeing LOB: " + e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+}
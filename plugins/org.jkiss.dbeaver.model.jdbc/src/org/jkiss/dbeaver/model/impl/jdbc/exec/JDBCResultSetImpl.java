@@ -20,6 +20,7 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCFetchSizeController;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSetMetaData;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
@@ -51,6 +52,8 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
     private long maxRows = -1;
     private final boolean fake;
     private final boolean disableLogging;
+    @Nullable
+    private final DBCFetchSizeController fetchSizeController;
 
     public static JDBCResultSet makeResultSet(@NotNull JDBCSession session, @Nullable JDBCStatement statement, @NotNull ResultSet original, String description, boolean disableLogging)
         throws SQLException
@@ -65,6 +68,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         this.disableLogging = disableLogging;
         this.description = description;
         this.fake = statement == null;
+        this.fetchSizeController = statement == null ? null : statement.getFetchSizeController();
 
         if (!disableLogging) {
             // Notify handler
@@ -154,7 +158,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         checkNotEmpty();
         try {
             // JDBC uses 1-based indexes
-            return original.getObject(index + 1);
+            return accountValue(original.getObject(index + 1));
         }
         catch (SQLException e) {
             throw new DBCException(e, session.getExecutionContext());
@@ -165,7 +169,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
     public Object getAttributeValue(String name) throws DBCException {
         checkNotEmpty();
         try {
-            return original.getObject(name);
+            return accountValue(original.getObject(name));
         }
         catch (SQLException e) {
             throw new DBCException(e, session.getExecutionContext());
@@ -279,10 +283,14 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         this.beforeFetch();
         try {
             // Fetch next row
+            long fetchStartTime = fetchSizeController == null ? 0 : System.nanoTime();
             boolean fetched = original.next();
             if (fetched) {
                 rowsFetched++;
             }
+            if (fetchSizeController != null) {
+                adaptFetchSize(fetchStartTime, fetched);
+            }
             if (fetched && JDBCTrace.isApiTraceEnabled()) {
                 JDBCTrace.dumpResultSetRow(this.original);
             }
@@ -294,6 +302,26 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         }
     }
 
+    private void adaptFetchSize(long fetchStartTime, boolean fetched) {
+        if (!fetchSizeController.rowFetched(fetchStartTime, System.nanoTime(), fetched)) {
+            return;
+        }
+        try {
+            original.setFetchSize(fetchSizeController.getFetchSize());
+        } catch (Throwable e) {
+            // Driver doesn't support fetch size change. Keep the current one
+            log.debug("Can't change result set fetch size: " + e.getMessage());
+            fetchSizeController.disableAdaptation();
+        }
+    }
+
+    private <T> T accountValue(T value) {
+        if (fetchSizeController != null && value != null) {
+            fetchSizeController.addValueSize(DBCFetchSizeController.estimateValueSize(value));
+        }
+        return value;
+    }
+
     @Override
     public void close()
     {
@@ -341,7 +369,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         throws SQLException
     {
         checkNotEmpty();
-        return original.getString(columnIndex);
+        return accountValue(original.getString(columnIndex));
     }
 
     private static void traceGetValue(int columnIndex, String value) {
@@ -418,7 +446,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         throws SQLException
     {
         checkNotEmpty();
-        return original.getBytes(columnIndex);
+        return accountValue(original.getBytes(columnIndex));
     }
 
     @Override
@@ -475,7 +503,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         throws SQLException
     {
         checkNotEmpty();
-        return original.getString(columnLabel);
+        return accountValue(original.getString(columnLabel));
     }
 
     @Override
@@ -548,7 +576,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         throws SQLException
     {
         checkNotEmpty();
-        return original.getBytes(columnLabel);
+        return accountValue(original.getBytes(columnLabel));
     }
 
     @Override
@@ -634,7 +662,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         throws SQLException
     {
         checkNotEmpty();
-        return original.getObject(columnIndex);
+        return accountValue(original.getObject(columnIndex));
     }
 
     @Override
@@ -642,7 +670,7 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
         throws SQLException
     {
         checkNotEmpty();
-        return original.getObject(columnLabel);
+        return accountValue(original.getObject(columnLabel));
     }
 
     @Override
@@ -1160,14 +1188,14 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
     public Blob getBlob(int columnIndex)
         throws SQLException
     {
-        return original.getBlob(columnIndex);
+        return accountValue(original.getBlob(columnIndex));
     }
 
     @Override
     public Clob getClob(int columnIndex)
         throws SQLException
     {
-        return original.getClob(columnIndex);
+        return accountValue(original.getClob(columnIndex));
     }
 
     @Override
@@ -1195,14 +1223,14 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
     public Blob getBlob(String columnLabel)
         throws SQLException
     {
-        return original.getBlob(columnLabel);
+        return accountValue(original.getBlob(columnLabel));
     }
 
     @Override
     public Clob getClob(String columnLabel)
         throws SQLException
     {
-        return original.getClob(columnLabel);
+        return accountValue(original.getClob(columnLabel));
     }
 
     @Override
@@ -1440,14 +1468,14 @@ public class JDBCResultSetImpl extends AbstractResultSet<JDBCSession, JDBCStatem
     public String getNString(int columnIndex)
         throws SQLException
     {
-        return original.getNString(columnIndex);
+        return accountValue(original.getNString(columnIndex));
     }
 
     @Override
     public String getNString(String columnLabel)
         throws SQLException
     {
-        return original.getNString(columnLabel);
+        return accountValue(original.getNString(columnLabel));
     }
 
     @Override
@@ -22,6 +22,7 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCFetchSizeController;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
@@ -56,6 +57,7 @@ public class JDBCStatementImpl<STATEMENT extends Statement> extends AbstractStat
 
     private long updateCount;
     private Throwable executeError;
+    private DBCFetchSizeController fetchSizeController;
 
     public JDBCStatementImpl(@NotNull JDBCSession connection, @NotNull STATEMENT original, boolean disableLogging)
     {
@@ -654,6 +656,17 @@ public class JDBCStatementImpl<STATEMENT extends Statement> extends AbstractStat
         }
     }
 
+    @Override
+    public void setFetchSizeController(@Nullable DBCFetchSizeController controller) {
+        this.fetchSizeController = controller;
+    }
+
+    @Nullable
+    @Override
+    public DBCFetchSizeController getFetchSizeController() {
+        return fetchSizeController;
+    }
+
     @Override
     public int getUpdateCount() throws SQLException
     {
@@ -41,6 +41,7 @@ import org.jkiss.dbeaver.model.sql.SQLExpressionFormatter;
 import org.jkiss.dbeaver.model.sql.SQLQueryGeneratorUpdate;
 import org.jkiss.dbeaver.model.sql.SQLUtils;
 import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.model.virtual.DBVDictionaryCache;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVUtils;
 import org.jkiss.utils.ArrayUtils;
@@ -216,6 +217,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
                             fetchProgress.monitorRowFetch();
                         }
                         fetchProgress.dumpStatistics(statistics);
+                        DBExecUtils.dumpFetchSizeStatistics(dbResult, statistics);
                     } finally {
                         // First - close cursor
                         try {
@@ -356,6 +358,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         throws DBCException
     {
         readRequiredMeta(session.getProgressMonitor());
+        DBVDictionaryCache.invalidate(this);
 
         boolean multiRowInsertSupported = getDataSource().getSQLDialect().getDefaultMultiValueInsertMode() == SQLDialect.MultiValueInsertMode.GROUP_ROWS;
         if (CommonUtils.toBoolean(options.get(DBSDataManipulator.OPTION_USE_MULTI_INSERT)) && multiRowInsertSupported) {
@@ -386,6 +389,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
                 Collections.emptyMap());
         }
         readRequiredMeta(session.getProgressMonitor());
+        DBVDictionaryCache.invalidate(this);
 
         DBSAttributeBase[] attributes = ArrayUtils.concatArrays(updateAttributes, keyAttributes);
 
@@ -468,6 +472,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         throws DBCException
     {
         readRequiredMeta(session.getProgressMonitor());
+        DBVDictionaryCache.invalidate(this);
 
         return new ExecuteBatchImpl(keyAttributes, null, false) {
             @NotNull
@@ -593,6 +598,37 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         List<DBDValueHandler> keyValueHandler = keyColumns.stream()
             .map(c -> DBUtils.findValueHandler(c.getDataSource(), c)).toList();
 
+        if (!CommonUtils.isEmpty(preceedingKeys)) {
+            return readDictionaryValues(monitor, keyColumns, keyValueHandler, keyValues, preceedingKeys, descColumns, sortByValue, sortAsc);
+        }
+        // Labels of the same keys are requested for each page of referencing rows
+        List<DBDLabelValuePair> values = DBVDictionaryCache.getCache(getDataSource()).getLabels(
+            this,
+            keyColumns,
+            keyValueHandler,
+            descColumns,
+            keyValues,
+            batch -> readDictionaryValues(monitor, keyColumns, keyValueHandler, batch, null, descColumns, true, true));
+        if (values.size() > 1) {
+            Comparator<DBDLabelValuePair> comparator = sortByValue ?
+                DBDLabelValuePair::compareTo :
+                Comparator.comparing(DBDLabelValuePair::getLabel, Comparator.nullsFirst(Comparator.naturalOrder()));
+            values.sort(sortAsc ? comparator : comparator.reversed());
+        }
+        return values;
+    }
+
+    @NotNull
+    private List<DBDLabelValuePair> readDictionaryValues(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull List<DBSEntityAttribute> keyColumns,
+        @NotNull List<DBDValueHandler> keyValueHandler,
+        @NotNull List<Object[]> keyValues,
+        @Nullable List<DBDAttributeValue[]> preceedingKeys,
+        @Nullable String descColumns,
+        boolean sortByValue,
+        boolean sortAsc
+    ) throws DBException {
         StringBuilder query = new StringBuilder();
         query.append("SELECT ");
         for (int i = 0; i < keyColumns.size(); i++) {
@@ -25,6 +25,7 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContextDefaults;
 import org.jkiss.dbeaver.model.impl.DBObjectNameCaseTransformer;
+import org.jkiss.dbeaver.model.navigator.DBNUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.LocalCacheProgressMonitor;
 import org.jkiss.dbeaver.model.sql.completion.SQLCompletionRequest;
@@ -196,7 +197,7 @@ public class SQLSearchUtils
                 }
             }
             if (childObject == null && nameList.size() <= 1) {
-                if (useAssistant && !monitor.isForceCacheUsage()) {
+                if (useAssistant) {
                     // No such object found - may be it's start of table name
                     DBSStructureAssistant structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, sc);
                     if (structureAssistant != null) {
@@ -209,7 +210,10 @@ public class SQLSearchUtils
                         params.setCaseSensitive(identifierDetector.isQuoted(objectNameMask));
                         params.setMaxResults(2);
                         params.setGlobalSearch(isGlobalSearch);
-                        Collection<DBSObjectReference> tables = structureAssistant.findObjectsByMask(monitor, executionContext, params);
+                        // Do not query the server if only cached metadata may be used
+                        Collection<DBSObjectReference> tables = monitor.isForceCacheUsage() ?
+                            DBNUtils.findCachedObjectsByMask(executionContext, params) :
+                            DBNUtils.findObjectsByMask(monitor, structureAssistant, executionContext, params);
                         if (!tables.isEmpty()) {
                             return tables.iterator().next().resolveObject(monitor);
                         }
@@ -0,0 +1,167 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.commands;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.impl.sql.BasicSQLDialect;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.*;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Control command handler.
+ * Marks the following script statements as independent: they may be executed in parallel
+ * in several isolated connections.
+ *
+ * <pre>
+ * &#64;parallel        - parallel mode with default number of connections
+ * &#64;parallel 8      - parallel mode with 8 connections
+ * &#64;parallel off    - back to sequential execution
+ * </pre>
+ */
+public class SQLCommandParallel implements SQLControlCommandHandler {
+
+    /**
+     * Script context data key. Integer value: number of connections, 0 means sequential execution.
+     */
+    public static final String DATA_PARALLEL_CONNECTIONS = "parallel.connections";
+    public static final int DEFAULT_CONNECTIONS = 4;
+    public static final int MAX_CONNECTIONS = 64;
+
+    private static final int MAX_LEADING_KEYWORDS = 6;
+
+    @NotNull
+    @Override
+    public SQLControlResult handleCommand(@NotNull DBRProgressMonitor monitor, @NotNull SQLControlCommand command, @NotNull SQLScriptContext scriptContext) throws DBException {
+        String parameter = CommonUtils.notEmpty(command.getParameter()).trim();
+        int connections;
+        if (parameter.isEmpty() || parameter.equalsIgnoreCase("on")) {
+            connections = DEFAULT_CONNECTIONS;
+        } else if (parameter.equalsIgnoreCase("off")) {
+            connections = 0;
+        } else {
+            connections = CommonUtils.toInt(parameter, -1);
+            if (connections < 0 || connections > MAX_CONNECTIONS) {
+                throw new DBCException("Invalid Parallel command. Expected syntax:\n@parallel [on|off|connections (1-" + MAX_CONNECTIONS + ")]");
+            }
+        }
+        scriptContext.setData(DATA_PARALLEL_CONNECTIONS, connections);
+
+        return SQLControlResult.success();
+    }
+
+    /**
+     * Returns end (exclusive) of the block of independent statements starting at the specified position
+     * or the same position if statement must be executed sequentially.
+     * Statements marked in {@code executed} were already executed in parallel and don't break the block.
+     *
+     * @param explicitBlock statements follow the &#64;parallel command, see {@link #isParallelStatement}
+     */
+    public static int getParallelBlockEnd(
+        @NotNull List<? extends SQLScriptElement> queries,
+        int start,
+        @NotNull BitSet executed,
+        boolean explicitBlock
+    ) {
+        int blockEnd = start;
+        while (blockEnd < queries.size() && (executed.get(blockEnd) || isParallelStatement(queries.get(blockEnd), explicitBlock))) {
+            blockEnd++;
+        }
+        return blockEnd;
+    }
+
+    /**
+     * Checks whether statement may be executed in a parallel block.
+     * Barriers are executed sequentially after all preceding statements: control commands, statements with parameters,
+     * queries returning results (they are not fetched in parallel blocks), transaction and session statements
+     * (BEGIN, COMMIT, SET, ALTER SESSION, USE) and temporary tables DDL, as they affect the editor connection only.
+     *
+     * If parallel mode is enabled for the whole script then only DML and DDL statements recognized by the parser
+     * may be executed in parallel. After the explicit &#64;parallel command all statements except barriers are
+     * considered independent, including maintenance statements unknown to the parser (ANALYZE, VACUUM, GRANT, etc).
+     */
+    public static boolean isParallelStatement(@NotNull SQLScriptElement element, boolean explicitBlock) {
+        if (!(element instanceof SQLQuery query) || !CommonUtils.isEmpty(query.getParameters())) {
+            return false;
+        }
+        List<String> keywords = getLeadingKeywords(query);
+        if (isSessionStatement(keywords) || isTemporaryTableDDL(keywords)) {
+            return false;
+        }
+        return switch (query.getType()) {
+            case INSERT, UPDATE, DELETE, MERGE, DDL -> true;
+            case UNKNOWN -> explicitBlock;
+            default -> false;
+        };
+    }
+
+    private static boolean isSessionStatement(@NotNull List<String> keywords) {
+        if (keywords.isEmpty()) {
+            return true;
+        }
+        return switch (keywords.get(0)) {
+            case "SET", "RESET", "USE", "BEGIN", "START", "COMMIT", "ROLLBACK", "SAVEPOINT", "RELEASE", "END", "ABORT",
+                "DISCARD", "LOCK", "PRAGMA", "CONNECT", "DISCONNECT",
+                // Statements returning results
+                "SHOW", "EXPLAIN", "DESCRIBE", "DESC", "VALUES" -> true;
+            case "ALTER" -> keywords.size() > 1 && keywords.get(1).equals("SESSION");
+            default -> false;
+        };
+    }
+
+    /**
+     * CREATE [GLOBAL|LOCAL] TEMP[ORARY] TABLE, DECLARE GLOBAL TEMPORARY TABLE and SQL Server #tables
+     */
+    private static boolean isTemporaryTableDDL(@NotNull List<String> keywords) {
+        if (keywords.isEmpty() || !(keywords.get(0).equals("CREATE") || keywords.get(0).equals("DECLARE"))) {
+            return false;
+        }
+        for (int i = 1; i < keywords.size(); i++) {
+            String keyword = keywords.get(i);
+            if (keyword.equals("TEMP") || keyword.equals("TEMPORARY")) {
+                return true;
+            }
+            if (keyword.equals("TABLE")) {
+                return i + 1 < keywords.size() && keywords.get(i + 1).startsWith("#");
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    private static List<String> getLeadingKeywords(@NotNull SQLQuery query) {
+        DBPDataSource dataSource = query.getDataSource();
+        SQLDialect dialect = dataSource == null ? BasicSQLDialect.INSTANCE : dataSource.getSQLDialect();
+        String text = SQLUtils.stripComments(dialect, query.getText());
+        List<String> keywords = new ArrayList<>();
+        for (String word : text.split("[\\s;]+", MAX_LEADING_KEYWORDS + 1)) {
+            if (!word.isEmpty() && keywords.size() < MAX_LEADING_KEYWORDS) {
+                keywords.add(word.toUpperCase(Locale.ENGLISH));
+            }
+        }
+        return keywords;
+    }
+
+}
@@ -185,6 +185,7 @@ public class SQLQueryDataContainer implements DBSDataContainer, SQLQueryContaine
                         executeResult.setRowCount(fetchProgress.getRowCount());
                     }
                     statistics.setRowsFetched(fetchProgress.getRowCount());
+                    DBExecUtils.dumpFetchSizeStatistics(resultSet, statistics);
                     monitor.subTask(fetchProgress.getRowCount() + " rows fetched");
                 }
             } else {
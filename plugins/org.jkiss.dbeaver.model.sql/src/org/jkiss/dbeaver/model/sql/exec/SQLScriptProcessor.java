@@ -352,6 +352,7 @@ public class SQLScriptProcessor {
         }
 
         statistics.setRowsFetched(fetchProgress.getRowCount());
+        DBExecUtils.dumpFetchSizeStatistics(resultSet, statistics);
         monitor.subTask(fetchProgress.getRowCount() + " rows fetched");
 
         return true;
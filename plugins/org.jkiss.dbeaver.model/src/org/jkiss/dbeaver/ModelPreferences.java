@@ -196,11 +196,15 @@ public final class ModelPreferences
     public static final String CONTENT_CACHE_CLOB = "content.cache.clob"; //$NON-NLS-1$
     public static final String CONTENT_CACHE_BLOB = "content.cache.blob"; //$NON-NLS-1$
     public static final String CONTENT_CACHE_MAX_SIZE = "content.cache.maxsize"; //$NON-NLS-1$
+    public static final String CONTENT_LOB_PAGED_READ = "content.lob.paged"; //$NON-NLS-1$
+    public static final String CONTENT_TEMP_MAX_SIZE = "content.temp.maxsize"; //$NON-NLS-1$
     public static final String META_SEPARATE_CONNECTION = "database.meta.separate.connection"; //$NON-NLS-1$
     public static final String META_DISABLE_EXTRA_READ = "database.meta.disableAdditionalRead"; //$NON-NLS-1$
     public static final String META_CASE_SENSITIVE = "database.meta.casesensitive"; //$NON-NLS-1$
     public static final String META_USE_SERVER_SIDE_FILTERS = "database.meta.server.side.filters"; //$NON-NLS-1$
     public static final String META_EXTRA_DDL_INFO = "database.meta.extra.ddl.info"; //$NON-NLS-1$
+    public static final String META_SNAPSHOT_ENABLED = "database.meta.snapshot.enabled"; //$NON-NLS-1$
+    public static final String META_SNAPSHOT_MAX_SIZE = "database.meta.snapshot.maxSize"; //$NON-NLS-1$
 
     public static final String META_CLIENT_NAME_DISABLE = "database.meta.client.name.disable"; //$NON-NLS-1$
     public static final String META_CLIENT_NAME_OVERRIDE = "database.meta.client.name.override"; //$NON-NLS-1$
@@ -218,9 +222,16 @@ public final class ModelPreferences
     // Network
     public static final String NET_TUNNEL_PORT_MIN = "net.tunnel.port.min"; //$NON-NLS-1$
     public static final String NET_TUNNEL_PORT_MAX = "net.tunnel.port.max"; //$NON-NLS-1$
+    public static final String NET_TUNNEL_SOCKET_FACTORY = "net.tunnel.socket.factory"; //$NON-NLS-1$
+
+    // Tasks
+    public static final String TASK_RUN_HISTORY_SIZE = "task.run.history.size"; //$NON-NLS-1$
 
     // ResultSet
     public static final String RESULT_SET_USE_FETCH_SIZE = "resultset.fetch.size"; //$NON-NLS-1$
+    public static final String RESULT_SET_ADAPTIVE_FETCH_SIZE = "resultset.fetch.size.adaptive"; //$NON-NLS-1$
+    // Memory (in megabytes) which can be occupied by rows of a single fetch round trip
+    public static final String RESULT_SET_FETCH_MEMORY_BUDGET = "resultset.fetch.memory.budget"; //$NON-NLS-1$
     public static final String RESULT_SET_MAX_ROWS_USE_SQL = "resultset.maxrows.sql"; //$NON-NLS-1$
     public static final String RESULT_SET_BINARY_PRESENTATION = "resultset.binary.representation"; //$NON-NLS-1$
     public static final String RESULT_SET_BINARY_STRING_MAX_LEN = "resultset.binary.stringMaxLength"; //$NON-NLS-1$
@@ -322,11 +333,14 @@ public final class ModelPreferences
         PrefUtils.setDefaultPreferenceValue(store, QUERY_REMOVE_TRAILING_DELIMITER, true);
 
         PrefUtils.setDefaultPreferenceValue(store, MEMORY_CONTENT_MAX_SIZE, 10000);
+        PrefUtils.setDefaultPreferenceValue(store, CONTENT_LOB_PAGED_READ, false);
         PrefUtils.setDefaultPreferenceValue(store, META_SEPARATE_CONNECTION, SeparateConnectionBehavior.DEFAULT.name());
         PrefUtils.setDefaultPreferenceValue(store, META_CASE_SENSITIVE, false);
         PrefUtils.setDefaultPreferenceValue(store, META_DISABLE_EXTRA_READ, false);
         PrefUtils.setDefaultPreferenceValue(store, META_EXTRA_DDL_INFO, true);
         PrefUtils.setDefaultPreferenceValue(store, META_USE_SERVER_SIDE_FILTERS, true);
+        PrefUtils.setDefaultPreferenceValue(store, META_SNAPSHOT_ENABLED, false);
+        PrefUtils.setDefaultPreferenceValue(store, META_SNAPSHOT_MAX_SIZE, 32);
 
         PrefUtils.setDefaultPreferenceValue(store, META_CLIENT_NAME_DISABLE, false);
         PrefUtils.setDefaultPreferenceValue(store, META_CLIENT_NAME_OVERRIDE, false);
@@ -348,16 +362,23 @@ public final class ModelPreferences
         PrefUtils.setDefaultPreferenceValue(store, CONTENT_CACHE_CLOB, true);
         PrefUtils.setDefaultPreferenceValue(store, CONTENT_CACHE_BLOB, false);
         PrefUtils.setDefaultPreferenceValue(store, CONTENT_CACHE_MAX_SIZE, 1000000);
+        PrefUtils.setDefaultPreferenceValue(store, CONTENT_TEMP_MAX_SIZE, 4096);
 
         // Network
         PrefUtils.setDefaultPreferenceValue(store, NET_TUNNEL_PORT_MIN, 10000);
         PrefUtils.setDefaultPreferenceValue(store, NET_TUNNEL_PORT_MAX, 60000);
+        PrefUtils.setDefaultPreferenceValue(store, NET_TUNNEL_SOCKET_FACTORY, false);
+
+        // Tasks
+        PrefUtils.setDefaultPreferenceValue(store, TASK_RUN_HISTORY_SIZE, 1000);
 
         // ResultSet
         PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_MAX_ROWS_USE_SQL, false);
         PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_BINARY_PRESENTATION, DBConstants.BINARY_FORMATS[0].getId());
         PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_BINARY_STRING_MAX_LEN, 32);
         PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_USE_FETCH_SIZE, false);
+        PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_ADAPTIVE_FETCH_SIZE, true);
+        PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_FETCH_MEMORY_BUDGET, 64);
         PrefUtils.setDefaultPreferenceValue(store, RESULT_SET_IGNORE_COLUMN_LABEL, false);
 
         // QM
@@ -367,6 +388,8 @@ public final class ModelPreferences
             QMObjectType.toString(Arrays.asList(QMObjectType.txn, QMObjectType.query)));
         PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_QUERY_TYPES, DBCExecutionPurpose.USER + "," + DBCExecutionPurpose.USER_FILTERED + "," + DBCExecutionPurpose.USER_SCRIPT);
         PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_STORE_LOG_FILE, false);
+        PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_STORE_HISTORY, false);
+        PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_HISTORY_MAX_SIZE, 512);
 
         // SQL
         PrefUtils.setDefaultPreferenceValue(store, SQL_PARAMETERS_ENABLED, true);
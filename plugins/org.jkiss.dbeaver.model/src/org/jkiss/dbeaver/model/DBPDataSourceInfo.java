@@ -166,6 +166,12 @@ public interface DBPDataSourceInfo
 
     boolean supportsResultSetOrdering();
 
+    /**
+     * Driver applies fetch size changes of an open result set to the following round trips.
+     * Many drivers read fetch size only once, when the cursor is opened.
+     */
+    boolean supportsResultSetFetchSizeChange();
+
     boolean supportsNullableUniqueConstraints();
 
     /**
@@ -0,0 +1,37 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Random access content storage.
+ * Content viewers may read arbitrary content ranges directly from such storage,
+ * without copying the whole content into memory or local file.
+ */
+public interface DBDContentStorageRandomAccess extends DBDContentStorage {
+
+    /**
+     * Reads up to {@code length} bytes starting from the specified content position.
+     *
+     * @return number of bytes read or -1 if position is beyond the content end
+     */
+    int readBytes(long position, @NotNull byte[] buffer, int offset, int length) throws IOException;
+
+}
@@ -0,0 +1,68 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * Temporary content file shared between content storages.
+ * File is deleted when the last storage releases it.
+ */
+final class TemporaryContentFile {
+
+    private final Path file;
+    private final long size;
+    private int refCount = 1;
+
+    TemporaryContentFile(@NotNull Path file, long size) {
+        this.file = file;
+        this.size = size;
+    }
+
+    @NotNull
+    Path getFile() {
+        return file;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    synchronized boolean isShared() {
+        return refCount > 1;
+    }
+
+    synchronized void acquire() {
+        refCount++;
+    }
+
+    void release() {
+        synchronized (this) {
+            if (--refCount > 0) {
+                return;
+            }
+        }
+        TemporaryContentSpace.getInstance().releaseFile(this);
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.storage;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Temporary content space accounting.
+ *
+ * Tracks size of temporary content files owned by content storages (files which are deleted on release).
+ * Other files of the content folder (content editor files, LOB files being filled, etc) are never touched.
+ * Owned files which couldn't be deleted on release (e.g. still opened by some stream on Windows) are kept in the
+ * list of released files and deleted later, when total size exceeds the limit ({@link ModelPreferences#CONTENT_TEMP_MAX_SIZE}).
+ * Zero limit disables the check. Files in use are never deleted, a warning is logged instead.
+ */
+final class TemporaryContentSpace {
+
+    private static final Log log = Log.getLog(TemporaryContentSpace.class);
+
+    private static final TemporaryContentSpace instance = new TemporaryContentSpace(TemporaryContentSpace::getMaxSizePreference);
+
+    private final LongSupplier maxSizeProvider;
+    private final Set<Path> usedFiles = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Long> releasedFiles = new ConcurrentHashMap<>();
+    private final AtomicLong usedSize = new AtomicLong();
+    private final AtomicLong releasedSize = new AtomicLong();
+    private volatile boolean limitWarned;
+
+    @NotNull
+    static TemporaryContentSpace getInstance() {
+        return instance;
+    }
+
+    TemporaryContentSpace(@NotNull LongSupplier maxSizeProvider) {
+        this.maxSizeProvider = maxSizeProvider;
+    }
+
+    void registerFile(@NotNull TemporaryContentFile file) {
+        if (!usedFiles.add(file.getFile())) {
+            return;
+        }
+        usedSize.addAndGet(file.getSize());
+        long maxSize = maxSizeProvider.getAsLong();
+        if (maxSize <= 0 || getTotalSize() <= maxSize) {
+            limitWarned = false;
+            return;
+        }
+        deleteReleasedFiles();
+        long totalSize = getTotalSize();
+        if (totalSize > maxSize && !limitWarned) {
+            limitWarned = true;
+            log.warn("Temporary content files size (" + (totalSize / 1024 / 1024) + "Mb) exceeds the limit (" +
+                (maxSize / 1024 / 1024) + "Mb). Close unused value editors and viewers to free disk space.");
+        }
+    }
+
+    /**
+     * Unregisters file and deletes it. If file can't be deleted now it will be deleted later.
+     */
+    void releaseFile(@NotNull TemporaryContentFile file) {
+        if (!usedFiles.remove(file.getFile())) {
+            return;
+        }
+        usedSize.addAndGet(-file.getSize());
+        if (!deleteFile(file.getFile())) {
+            releasedFiles.put(file.getFile(), file.getSize());
+            releasedSize.addAndGet(file.getSize());
+        }
+    }
+
+    /**
+     * Total size of owned files: files in use and released files which weren't deleted yet
+     */
+    long getTotalSize() {
+        return usedSize.get() + releasedSize.get();
+    }
+
+    int getReleasedFileCount() {
+        return releasedFiles.size();
+    }
+
+    /**
+     * Retries deletion of released files.
+     */
+    void deleteReleasedFiles() {
+        for (Map.Entry<Path, Long> entry : releasedFiles.entrySet()) {
+            Path file = entry.getKey();
+            if (usedFiles.contains(file)) {
+                // The same path was reused by a new file
+                releasedFiles.remove(file, entry.getValue());
+                releasedSize.addAndGet(-entry.getValue());
+                continue;
+            }
+            if (deleteFile(file) && releasedFiles.remove(file, entry.getValue())) {
+                releasedSize.addAndGet(-entry.getValue());
+                log.debug("Released temporary content file '" + file + "' deleted");
+            }
+        }
+    }
+
+    private static boolean deleteFile(@NotNull Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            log.debug("Can't delete temporary content file '" + file + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static long getMaxSizePreference() {
+        DBPPreferenceStore store = ModelPreferences.getPreferences();
+        return store == null ? 0 : (long) store.getInt(ModelPreferences.CONTENT_TEMP_MAX_SIZE) * 1024 * 1024;
+    }
+}
@@ -16,10 +16,14 @@
  */
 package org.jkiss.dbeaver.model.data.storage;
 
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.app.DBPPlatform;
 import org.jkiss.dbeaver.model.data.DBDContentStorage;
 import org.jkiss.dbeaver.model.data.DBDContentStorageLocal;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.LoggingProgressMonitor;
 import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
@@ -33,20 +37,35 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
- * File content storage
+ * File content storage.
+ *
+ * Temporary files (deleted on release) are shared between cloned storages and copied only
+ * when some storage requests the data file for modification.
  */
 public class TemporaryContentStorage implements DBDContentStorageLocal {
 
+    private static final Log log = Log.getLog(TemporaryContentStorage.class);
+
     private final DBPPlatform platform;
     private Path file;
     private String charset;
-    private boolean deleteFileOnRelease;
+    @Nullable
+    private TemporaryContentFile sharedFile;
 
     public TemporaryContentStorage(DBPPlatform platform, Path file, String charset, boolean deleteFileOnRelease) {
         this.platform = platform;
         this.file = file;
         this.charset = CommonUtils.toString(charset, GeneralUtils.DEFAULT_ENCODING);
-        this.deleteFileOnRelease = deleteFileOnRelease;
+        if (deleteFileOnRelease) {
+            this.sharedFile = registerFile(file);
+        }
+    }
+
+    private TemporaryContentStorage(@NotNull TemporaryContentStorage source, @NotNull TemporaryContentFile sharedFile) {
+        this.platform = source.platform;
+        this.file = sharedFile.getFile();
+        this.charset = source.charset;
+        this.sharedFile = sharedFile;
     }
 
     @Override
@@ -78,7 +97,47 @@ public class TemporaryContentStorage implements DBDContentStorageLocal {
     @Override
     public DBDContentStorage cloneStorage(DBRProgressMonitor monitor)
         throws IOException {
-        // Create new local storage
+        TemporaryContentFile sharedFile = this.sharedFile;
+        if (sharedFile != null) {
+            // Share the same file, it will be copied on modification
+            sharedFile.acquire();
+            return new TemporaryContentStorage(this, sharedFile);
+        }
+        // File is owned by somebody else and may change, create new local storage
+        return new TemporaryContentStorage(platform, copyFile(monitor), charset, true);
+    }
+
+    @Override
+    public void release() {
+        TemporaryContentFile sharedFile = this.sharedFile;
+        if (sharedFile != null) {
+            this.sharedFile = null;
+            sharedFile.release();
+        }
+    }
+
+    /**
+     * Returns data file for read and write. If file is shared with other storages then
+     * it is copied first.
+     */
+    @Override
+    public Path getDataFile() {
+        TemporaryContentFile sharedFile = this.sharedFile;
+        if (sharedFile != null && sharedFile.isShared()) {
+            try {
+                Path fileCopy = copyFile(new LoggingProgressMonitor(log));
+                this.sharedFile = registerFile(fileCopy);
+                this.file = fileCopy;
+                sharedFile.release();
+            } catch (IOException e) {
+                log.error("Error copying shared content file '" + file + "'", e);
+            }
+        }
+        return file;
+    }
+
+    @NotNull
+    private Path copyFile(@NotNull DBRProgressMonitor monitor) throws IOException {
         Path tempFile = ContentUtils.createTempContentFile(monitor, platform, "copy" + this.hashCode());
         try {
             try (InputStream is = Files.newInputStream(file)) {
@@ -90,18 +149,19 @@ public class TemporaryContentStorage implements DBDContentStorageLocal {
             ContentUtils.deleteTempFile(tempFile);
             throw new IOException(e);
         }
-        return new TemporaryContentStorage(platform, tempFile, charset, true);
+        return tempFile;
     }
 
-    @Override
-    public void release() {
-        if (deleteFileOnRelease) {
-            ContentUtils.deleteTempFile(file);
+    @NotNull
+    private static TemporaryContentFile registerFile(@NotNull Path file) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            size = 0;
         }
-    }
-
-    @Override
-    public Path getDataFile() {
-        return file;
+        TemporaryContentFile contentFile = new TemporaryContentFile(file, size);
+        TemporaryContentSpace.getInstance().registerFile(contentFile);
+        return contentFile;
     }
 }
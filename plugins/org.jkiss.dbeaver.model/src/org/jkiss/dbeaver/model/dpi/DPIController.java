@@ -59,4 +59,15 @@ public interface DPIController extends DBPPingController, AutoCloseable {
         @RequestParameter("object") @NotNull String objectId,
         @RequestParameter("property") @NotNull String propertyName) throws DBException;
 
+    /**
+     * Reads next page of the result set which wasn't transferred completely.
+     * Returns Base64-encoded page or null if there are no more pages (result set is released then).
+     */
+    @RequestMapping
+    @Nullable
+    String readResultSetPage(@RequestParameter("resultSet") @NotNull String resultSetId) throws DBException;
+
+    @RequestMapping
+    void closeResultSet(@RequestParameter("resultSet") @NotNull String resultSetId) throws DBException;
+
 }
@@ -0,0 +1,245 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.sql.Blob;
+import java.sql.Clob;
+
+/**
+ * Adaptive result set fetch size.
+ *
+ * Measures size of fetched values and time spent waiting for the driver during the first round trips
+ * and grows or shrinks the fetch size so that one round trip fits into the memory budget.
+ * Fetch size grows while the client mostly waits for the server (network latency dominates)
+ * and shrinks immediately if rows turn out to be wider than the budget allows.
+ * After a few round trips the size is fixed.
+ *
+ * Controller is bound to a single cursor and is not thread-safe.
+ */
+public final class DBCFetchSizeController {
+
+    public static final int DEFAULT_INITIAL_FETCH_SIZE = 200;
+    public static final int MIN_FETCH_SIZE = 10;
+
+    // Number of round trips after which fetch size is fixed
+    private static final int MAX_ADAPTATIONS = 8;
+    // Grow fetch size if the client spends more than this part of the fetch time waiting for the driver
+    private static final double GROW_WAIT_RATIO = 0.5;
+    private static final long ROW_OVERHEAD = 64;
+    private static final long FIXED_VALUE_SIZE = 16;
+    private static final long OBJECT_VALUE_SIZE = 32;
+    private static final long LOB_VALUE_SIZE = 8192;
+
+    private final int initialFetchSize;
+    private final int maxFetchSize;
+    private final long memoryBudget;
+
+    private int fetchSize;
+    private int minUsedFetchSize;
+    private int maxUsedFetchSize;
+    private boolean adaptive = true;
+    private int adaptationCount;
+
+    // Current round trip
+    private int tripRows;
+    private long tripBytes;
+    private long tripWaitTime;
+    private long tripProcessTime;
+    private long lastFetchEnd;
+
+    // Totals
+    private long totalRows;
+    private long totalBytes;
+    private long totalWaitTime;
+    private int roundTripCount;
+
+    /**
+     * @param initialFetchSize fetch size of the first round trip
+     * @param maxFetchSize     upper limit of fetch size
+     * @param memoryBudget     memory (in bytes) which may be occupied by rows of a single round trip
+     */
+    public DBCFetchSizeController(int initialFetchSize, int maxFetchSize, long memoryBudget) {
+        this.maxFetchSize = Math.max(maxFetchSize, MIN_FETCH_SIZE);
+        this.initialFetchSize = Math.max(MIN_FETCH_SIZE, Math.min(initialFetchSize, this.maxFetchSize));
+        this.memoryBudget = memoryBudget;
+        this.fetchSize = this.initialFetchSize;
+        this.minUsedFetchSize = this.initialFetchSize;
+        this.maxUsedFetchSize = this.initialFetchSize;
+    }
+
+    public int getInitialFetchSize() {
+        return initialFetchSize;
+    }
+
+    /**
+     * Current fetch size
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getMinUsedFetchSize() {
+        return minUsedFetchSize;
+    }
+
+    public int getMaxUsedFetchSize() {
+        return maxUsedFetchSize;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Stops adaptation (e.g. if driver rejected fetch size change)
+     */
+    public void disableAdaptation() {
+        adaptive = false;
+    }
+
+    /**
+     * Average measured row size in bytes (or 0 if nothing was fetched)
+     */
+    public long getAverageRowSize() {
+        return totalRows == 0 ? 0 : totalBytes / totalRows;
+    }
+
+    public int getRoundTripCount() {
+        return roundTripCount;
+    }
+
+    /**
+     * Average time (in nanoseconds) spent waiting for the driver per round trip
+     */
+    public long getAverageRoundTripTime() {
+        return roundTripCount == 0 ? 0 : totalWaitTime / roundTripCount;
+    }
+
+    /**
+     * Adds size of the value read from the current row
+     */
+    public void addValueSize(long bytes) {
+        tripBytes += bytes;
+    }
+
+    /**
+     * Registers fetch of the next row.
+     *
+     * @param fetchStartTime time (System.nanoTime) when cursor movement was started
+     * @param fetchEndTime   time (System.nanoTime) when cursor movement was finished
+     * @param fetched        true if row was fetched, false if cursor reached the end
+     * @return true if fetch size was changed and must be applied to the cursor
+     */
+    public boolean rowFetched(long fetchStartTime, long fetchEndTime, boolean fetched) {
+        if (lastFetchEnd != 0) {
+            // Time between fetches was spent by the consumer
+            tripProcessTime += Math.max(0, fetchStartTime - lastFetchEnd);
+        }
+        lastFetchEnd = fetchEndTime;
+        tripWaitTime += Math.max(0, fetchEndTime - fetchStartTime);
+        if (!fetched) {
+            completeRoundTrip();
+            return false;
+        }
+        tripRows++;
+        tripBytes += ROW_OVERHEAD;
+        if (tripRows < fetchSize) {
+            return false;
+        }
+        if (!adaptive) {
+            completeRoundTrip();
+            return false;
+        }
+        int newFetchSize = evaluateFetchSize();
+        completeRoundTrip();
+        if (++adaptationCount >= MAX_ADAPTATIONS) {
+            adaptive = false;
+        }
+        if (newFetchSize == fetchSize) {
+            return false;
+        }
+        fetchSize = newFetchSize;
+        minUsedFetchSize = Math.min(minUsedFetchSize, fetchSize);
+        maxUsedFetchSize = Math.max(maxUsedFetchSize, fetchSize);
+        return true;
+    }
+
+    /**
+     * Saves fetch sizes in execution statistics
+     */
+    public void dumpStatistics(@NotNull DBCStatistics statistics) {
+        statistics.setFetchSize(initialFetchSize, fetchSize);
+        if (roundTripCount > 0) {
+            statistics.addInfo("Fetch size", minUsedFetchSize == maxUsedFetchSize ?
+                String.valueOf(fetchSize) :
+                initialFetchSize + " -> " + fetchSize + " (" + minUsedFetchSize + ".." + maxUsedFetchSize + ")");
+            statistics.addInfo("Avg row size", getAverageRowSize() + " bytes");
+            statistics.addInfo("Fetch round trips", roundTripCount);
+        }
+    }
+
+    private void completeRoundTrip() {
+        if (tripRows == 0) {
+            return;
+        }
+        roundTripCount++;
+        totalRows += tripRows;
+        totalBytes += tripBytes;
+        totalWaitTime += tripWaitTime;
+        tripRows = 0;
+        tripBytes = 0;
+        tripWaitTime = 0;
+        tripProcessTime = 0;
+    }
+
+    private int evaluateFetchSize() {
+        long rowSize = Math.max(ROW_OVERHEAD, tripBytes / tripRows);
+        int budgetRows = (int) Math.max(MIN_FETCH_SIZE, Math.min(maxFetchSize, memoryBudget / rowSize));
+        if (fetchSize > budgetRows) {
+            // Rows are too wide
+            return budgetRows;
+        }
+        if (tripWaitTime > (tripWaitTime + tripProcessTime) * GROW_WAIT_RATIO) {
+            // Client waits for the server - make round trips larger
+            return (int) Math.min(budgetRows, (long) fetchSize * 2);
+        }
+        return fetchSize;
+    }
+
+    /**
+     * Estimates memory occupied by the value read from a result set
+     */
+    public static long estimateValueSize(@Nullable Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof CharSequence str) {
+            return OBJECT_VALUE_SIZE + str.length() * 2L;
+        } else if (value instanceof byte[] bytes) {
+            return FIXED_VALUE_SIZE + bytes.length;
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof java.util.Date) {
+            return FIXED_VALUE_SIZE;
+        } else if (value instanceof Blob || value instanceof Clob) {
+            // Locator plus prefetched content
+            return LOB_VALUE_SIZE;
+        } else {
+            return OBJECT_VALUE_SIZE;
+        }
+    }
+}
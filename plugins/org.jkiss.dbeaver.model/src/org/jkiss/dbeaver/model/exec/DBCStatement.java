@@ -135,6 +135,18 @@ public interface DBCStatement extends DBPObject, DBRBlockingObject, DBPCloseable
 
     void setResultsFetchSize(int fetchSize) throws DBCException;
 
+    /**
+     * Sets adaptive fetch size controller for result sets of this statement.
+     * Statements which can't change fetch size of open result sets ignore it.
+     */
+    default void setFetchSizeController(@Nullable DBCFetchSizeController controller) {
+    }
+
+    @Nullable
+    default DBCFetchSizeController getFetchSizeController() {
+        return null;
+    }
+
     default boolean isStatementClosed() throws DBCException {
         return false;
     }
@@ -32,6 +32,8 @@ public class DBCStatistics implements DBCExecutionResult {
     private long executeTime;
     private long fetchTime;
     private int statementsCount;
+    private int initialFetchSize = -1;
+    private int fetchSize = -1;
     private String queryText;
     private Map<String, Object> infoMap;
     private List<String> messages;
@@ -122,6 +124,25 @@ public class DBCStatistics implements DBCExecutionResult {
     }
 
 
+    /**
+     * Fetch size of the first result set round trip (or -1 if fetch size wasn't set)
+     */
+    public int getInitialFetchSize() {
+        return initialFetchSize;
+    }
+
+    /**
+     * Fetch size used at the end of fetch (differs from initial one if fetch size was adapted)
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int initialFetchSize, int fetchSize) {
+        this.initialFetchSize = initialFetchSize;
+        this.fetchSize = fetchSize;
+    }
+
     public String getQueryText() {
         return queryText;
     }
@@ -174,6 +195,10 @@ public class DBCStatistics implements DBCExecutionResult {
         executeTime += stat.executeTime;
         fetchTime += stat.fetchTime;
         statementsCount += stat.statementsCount;
+        if (stat.fetchSize > 0) {
+            initialFetchSize = stat.initialFetchSize;
+            fetchSize = stat.fetchSize;
+        }
         if (!CommonUtils.isEmpty(stat.messages)) {
             for (String message : stat.messages) {
                 addMessage(message);
@@ -192,6 +217,8 @@ public class DBCStatistics implements DBCExecutionResult {
         executeTime = 0;
         fetchTime = 0;
         statementsCount = 0;
+        initialFetchSize = -1;
+        fetchSize = -1;
         messages = null;
         infoMap = null;
     }
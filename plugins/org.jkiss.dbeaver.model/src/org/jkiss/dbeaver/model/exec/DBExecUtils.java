@@ -263,20 +263,46 @@ public class DBExecUtils {
     }
 
     public static void setStatementFetchSize(DBCStatement dbStat, long firstRow, long maxRows, int fetchSize) {
-        boolean useFetchSize = fetchSize > 0 || dbStat.getSession().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
+        DBPDataSource dataSource = dbStat.getSession().getDataSource();
+        DBPPreferenceStore preferenceStore = dataSource.getContainer().getPreferenceStore();
+        boolean useFetchSize = fetchSize > 0 || preferenceStore.getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
         if (useFetchSize) {
             if (fetchSize <= 0) {
                 fetchSize = DEFAULT_READ_FETCH_SIZE;
             }
+            int maxFetchSize = firstRow < 0 || maxRows <= 0 ? fetchSize : (int) Math.min(Integer.MAX_VALUE, firstRow + maxRows);
             try {
-                dbStat.setResultsFetchSize(
-                    firstRow < 0 || maxRows <= 0 ? fetchSize : (int) (firstRow + maxRows));
+                if (preferenceStore.getBoolean(ModelPreferences.RESULT_SET_ADAPTIVE_FETCH_SIZE) &&
+                    dataSource.getInfo().supportsResultSetFetchSizeChange() &&
+                    maxFetchSize > DBCFetchSizeController.DEFAULT_INITIAL_FETCH_SIZE)
+                {
+                    // Start with small round trips and let the cursor adapt the size
+                    DBCFetchSizeController controller = new DBCFetchSizeController(
+                        DBCFetchSizeController.DEFAULT_INITIAL_FETCH_SIZE,
+                        maxFetchSize,
+                        preferenceStore.getInt(ModelPreferences.RESULT_SET_FETCH_MEMORY_BUDGET) * 1024L * 1024L);
+                    dbStat.setFetchSizeController(controller);
+                    dbStat.setResultsFetchSize(controller.getFetchSize());
+                } else {
+                    dbStat.setResultsFetchSize(maxFetchSize);
+                }
             } catch (Exception e) {
                 log.warn(e);
             }
         }
     }
 
+    /**
+     * Saves fetch size chosen for the result set in execution statistics
+     */
+    public static void dumpFetchSizeStatistics(@NotNull DBCResultSet resultSet, @NotNull DBCStatistics statistics) {
+        DBCStatement statement = resultSet.getSourceStatement();
+        DBCFetchSizeController controller = statement == null ? null : statement.getFetchSizeController();
+        if (controller != null) {
+            controller.dumpStatistics(statistics);
+        }
+    }
+
     public static void executeScript(DBRProgressMonitor monitor, DBCExecutionContext executionContext, String jobName, List<DBEPersistAction> persistActions) {
         try (DBCSession session = executionContext.openSession(monitor, DBCExecutionPurpose.UTIL, jobName)) {
             executeScript(session, persistActions.toArray(new DBEPersistAction[0]));
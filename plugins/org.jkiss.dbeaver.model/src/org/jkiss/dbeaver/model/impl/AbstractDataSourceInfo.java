@@ -78,6 +78,11 @@ public abstract class AbstractDataSourceInfo implements DBPDataSourceInfo
         return true;
     }
 
+    @Override
+    public boolean supportsResultSetFetchSizeChange() {
+        return false;
+    }
+
     @Override
     public boolean supportsNullableUniqueConstraints() {
         return false;
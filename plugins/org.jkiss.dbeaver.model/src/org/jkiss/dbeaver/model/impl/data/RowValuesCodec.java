@@ -0,0 +1,257 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.DBCException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of row values.
+ * Used to transfer DPI result set pages and to keep result set rows in temporary files.
+ *
+ * Page is stored by columns. Each column starts with a value type tag followed by the null flag and value
+ * of each row. Columns with values of different types are stored with a type tag per value.
+ * Values of unsupported types are transferred as strings.
+ */
+public final class RowValuesCodec {
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_MIXED = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_BYTE = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_INT = 5;
+    private static final byte TYPE_LONG = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_DOUBLE = 8;
+    private static final byte TYPE_DECIMAL = 9;
+    private static final byte TYPE_BIGINT = 10;
+    private static final byte TYPE_STRING = 11;
+    private static final byte TYPE_BINARY = 12;
+    private static final byte TYPE_TIMESTAMP = 13;
+    private static final byte TYPE_DATE = 14;
+    private static final byte TYPE_TIME = 15;
+    private static final byte TYPE_DATETIME = 16;
+    private static final byte TYPE_ERROR = 17;
+
+    private static final Set<Class<?>> ENCODABLE_CLASSES = Set.of(
+        Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+        BigDecimal.class, BigInteger.class, String.class, byte[].class,
+        java.sql.Timestamp.class, java.sql.Date.class, java.sql.Time.class, java.util.Date.class);
+
+    private RowValuesCodec() {
+    }
+
+    /**
+     * Checks whether value is restored exactly (with the same class) after encoding
+     */
+    public static boolean isEncodable(@Nullable Object value) {
+        return value == null || ENCODABLE_CLASSES.contains(value.getClass());
+    }
+
+    @NotNull
+    public static byte[] encode(@NotNull List<Object[]> rows, int columnCount) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + rows.size() * columnCount * 8);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(rows.size());
+        out.writeInt(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            byte columnType = getColumnType(rows, i);
+            out.writeByte(columnType);
+            if (columnType == TYPE_NULL) {
+                continue;
+            }
+            for (Object[] row : rows) {
+                Object value = i < row.length ? row[i] : null;
+                if (columnType == TYPE_MIXED) {
+                    byte valueType = getValueType(value);
+                    out.writeByte(valueType);
+                    writeValue(out, valueType, value);
+                } else if (value == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    writeValue(out, columnType, value);
+                }
+            }
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    @NotNull
+    public static List<Object[]> decode(@NotNull byte[] page) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(page));
+        int rowCount = in.readInt();
+        int columnCount = in.readInt();
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Object[columnCount]);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            byte columnType = in.readByte();
+            if (columnType == TYPE_NULL) {
+                continue;
+            }
+            for (Object[] row : rows) {
+                if (columnType == TYPE_MIXED) {
+                    row[i] = readValue(in, in.readByte());
+                } else if (in.readBoolean()) {
+                    row[i] = readValue(in, columnType);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static byte getColumnType(@NotNull List<Object[]> rows, int index) {
+        byte columnType = TYPE_NULL;
+        for (Object[] row : rows) {
+            byte valueType = getValueType(index < row.length ? row[index] : null);
+            if (valueType == TYPE_NULL || valueType == columnType) {
+                continue;
+            }
+            if (columnType != TYPE_NULL) {
+                return TYPE_MIXED;
+            }
+            columnType = valueType;
+        }
+        return columnType;
+    }
+
+    private static byte getValueType(@Nullable Object value) {
+        if (value == null) {
+            return TYPE_NULL;
+        } else if (value instanceof String) {
+            return TYPE_STRING;
+        } else if (value instanceof Integer) {
+            return TYPE_INT;
+        } else if (value instanceof Long) {
+            return TYPE_LONG;
+        } else if (value instanceof Double) {
+            return TYPE_DOUBLE;
+        } else if (value instanceof BigDecimal) {
+            return TYPE_DECIMAL;
+        } else if (value instanceof java.sql.Timestamp) {
+            return TYPE_TIMESTAMP;
+        } else if (value instanceof java.sql.Date) {
+            return TYPE_DATE;
+        } else if (value instanceof java.sql.Time) {
+            return TYPE_TIME;
+        } else if (value instanceof java.util.Date) {
+            return TYPE_DATETIME;
+        } else if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        } else if (value instanceof Short) {
+            return TYPE_SHORT;
+        } else if (value instanceof Byte) {
+            return TYPE_BYTE;
+        } else if (value instanceof Float) {
+            return TYPE_FLOAT;
+        } else if (value instanceof BigInteger) {
+            return TYPE_BIGINT;
+        } else if (value instanceof byte[]) {
+            return TYPE_BINARY;
+        } else if (value instanceof DBDValueError) {
+            return TYPE_ERROR;
+        } else {
+            return TYPE_STRING;
+        }
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, byte type, @Nullable Object value) throws IOException {
+        switch (type) {
+            case TYPE_NULL -> {
+            }
+            case TYPE_BOOLEAN -> out.writeBoolean((Boolean) value);
+            case TYPE_BYTE -> out.writeByte((Byte) value);
+            case TYPE_SHORT -> out.writeShort((Short) value);
+            case TYPE_INT -> out.writeInt((Integer) value);
+            case TYPE_LONG -> out.writeLong((Long) value);
+            case TYPE_FLOAT -> out.writeFloat((Float) value);
+            case TYPE_DOUBLE -> out.writeDouble((Double) value);
+            case TYPE_DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeInt(decimal.scale());
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+            }
+            case TYPE_BIGINT -> writeBytes(out, ((BigInteger) value).toByteArray());
+            case TYPE_BINARY -> writeBytes(out, (byte[]) value);
+            case TYPE_TIMESTAMP -> {
+                java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+                out.writeLong(timestamp.getTime());
+                out.writeInt(timestamp.getNanos());
+            }
+            case TYPE_DATE, TYPE_TIME, TYPE_DATETIME -> out.writeLong(((java.util.Date) value).getTime());
+            case TYPE_ERROR -> writeBytes(out, ((DBDValueError) value).getErrorTitle().getBytes(StandardCharsets.UTF_8));
+            default -> writeBytes(out, String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull DataInputStream in, byte type) throws IOException {
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_BOOLEAN -> in.readBoolean();
+            case TYPE_BYTE -> in.readByte();
+            case TYPE_SHORT -> in.readShort();
+            case TYPE_INT -> in.readInt();
+            case TYPE_LONG -> in.readLong();
+            case TYPE_FLOAT -> in.readFloat();
+            case TYPE_DOUBLE -> in.readDouble();
+            case TYPE_DECIMAL -> {
+                int scale = in.readInt();
+                yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case TYPE_BIGINT -> new BigInteger(readBytes(in));
+            case TYPE_STRING -> new String(readBytes(in), StandardCharsets.UTF_8);
+            case TYPE_BINARY -> readBytes(in);
+            case TYPE_TIMESTAMP -> {
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                yield timestamp;
+            }
+            case TYPE_DATE -> new java.sql.Date(in.readLong());
+            case TYPE_TIME -> new java.sql.Time(in.readLong());
+            case TYPE_DATETIME -> new java.util.Date(in.readLong());
+            case TYPE_ERROR -> new DBDValueError(new DBCException(new String(readBytes(in), StandardCharsets.UTF_8)));
+            default -> throw new IOException("Unsupported value type: " + type);
+        };
+    }
+
+    private static void writeBytes(@NotNull DataOutputStream out, @NotNull byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @NotNull
+    private static byte[] readBytes(@NotNull DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+}
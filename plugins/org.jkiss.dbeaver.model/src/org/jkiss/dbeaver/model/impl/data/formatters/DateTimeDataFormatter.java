@@ -23,31 +23,74 @@ import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.time.ExtendedDateFormat;
 
+import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.FieldPosition;
 import java.text.ParseException;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.format.DecimalStyle;
 import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
 
+/**
+ * Date/time formatter.
+ *
+ * Formatter is thread-safe and doesn't lock. Values are formatted with immutable java.time formatters
+ * when the pattern allows it, otherwise each thread uses its own copy of the date format.
+ * Recently rendered values are cached, as the same dates are usually repeated in a column.
+ */
 public class DateTimeDataFormatter implements DBDDataFormatter {
 
     public static final String PROP_PATTERN = "pattern";
     public static final String PROP_TIMEZONE = "timezone";
 
+    private static final int RENDER_CACHE_SIZE = 256;
+    // Date format uses Julian calendar before Gregorian cutover (plus one day to not depend on time zone)
+    private static final long GREGORIAN_CUTOVER_TIME = -12219292800000L + 86400000L;
+
+    // Pattern letters which have the same meaning in SimpleDateFormat and DateTimeFormatter
+    // mapped to the maximum supported length
+    private static final String COMPATIBLE_PATTERN_LETTERS = "yMdHhmsSaEkKD";
+    private static final int[] COMPATIBLE_PATTERN_LENGTHS = { 4, 4, 2, 2, 2, 2, 2, 3, 1, 4, 2, 2, 3 };
+
+    private static class RenderedValue {
+        private final Object key;
+        private final long time;
+        private final int nanos;
+        private final String text;
+
+        RenderedValue(@NotNull Object key, long time, int nanos, @NotNull String text) {
+            this.key = key;
+            this.time = time;
+            this.nanos = nanos;
+            this.text = text;
+        }
+    }
+
+    private static class DateFormatState {
+        private final DateFormat dateFormat;
+        private final StringBuffer buffer = new StringBuffer();
+        private final FieldPosition position = new FieldPosition(0);
+
+        DateFormatState(@NotNull DateFormat dateFormat) {
+            this.dateFormat = (DateFormat) dateFormat.clone();
+        }
+    }
+
     private String pattern;
     private ZoneId zone;
     private DateFormat dateFormat;
-    private StringBuffer buffer;
-    private FieldPosition position;
     private DateTimeFormatter dateTimeFormatter;
+    // Formatter of java.util.Date values (equivalent to dateFormat),
+    // null if pattern or locale calendar is not supported by java.time
+    private DateTimeFormatter legacyDateFormatter;
+    private ThreadLocal<DateFormatState> dateFormatState;
+    private final RenderedValue[] renderCache = new RenderedValue[RENDER_CACHE_SIZE];
 
     @Override
     public void init(DBSTypedObject type, Locale locale, Map<String, Object> properties)
@@ -61,11 +104,23 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
             locale);
         // We shouldn't use lenient formatter (#7244)
         dateFormat.setLenient(false);
-        buffer = new StringBuffer();
-        position = new FieldPosition(0);
+        DateFormat templateFormat = dateFormat;
+        dateFormatState = ThreadLocal.withInitial(() -> new DateFormatState(templateFormat));
         // DateTimeFormatter pattern for nanoseconds is "n" but old "f" (ExtendedDateFormat)
         String java8DatePattern = pattern.replaceAll("f+", "n");
         dateTimeFormatter = DateTimeFormatter.ofPattern(java8DatePattern);
+        legacyDateFormatter = null;
+        // Locales like th_TH or ja_JP_JP use Buddhist and Japanese calendars in the date format
+        if ("gregory".equals(dateFormat.getCalendar().getCalendarType()) && isCompatiblePattern(sdfPattern)) {
+            try {
+                legacyDateFormatter = DateTimeFormatter.ofPattern(sdfPattern, locale)
+                    .withDecimalStyle(DecimalStyle.of(locale))
+                    .withZone(dateFormat.getTimeZone().toZoneId());
+            } catch (IllegalArgumentException e) {
+                // Use date format
+            }
+        }
+        Arrays.fill(renderCache, null);
     }
 
     @Nullable
@@ -87,6 +142,40 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
     @Override
     public String formatValue(Object value)
     {
+        if (value == null) {
+            return null;
+        }
+        Object key;
+        long time = 0;
+        int nanos = 0;
+        if (value instanceof Date) {
+            // Date is mutable, so cache it by its value
+            key = value.getClass();
+            time = ((Date) value).getTime();
+            if (value instanceof Timestamp) {
+                nanos = ((Timestamp) value).getNanos();
+            }
+        } else if (value instanceof LocalDateTime || value instanceof LocalDate || value instanceof LocalTime ||
+            value instanceof OffsetDateTime || value instanceof ZonedDateTime || value instanceof OffsetTime || value instanceof Instant) {
+            key = value;
+        } else {
+            return formatValueUncached(value);
+        }
+        int hash = key == value ? value.hashCode() : key.hashCode() ^ Long.hashCode(time) ^ nanos * 31;
+        int index = (hash ^ (hash >>> 16)) & (RENDER_CACHE_SIZE - 1);
+        RenderedValue cached = renderCache[index];
+        if (cached != null && cached.time == time && cached.nanos == nanos && cached.key.equals(key)) {
+            return cached.text;
+        }
+        String text = formatValueUncached(value);
+        if (text != null) {
+            renderCache[index] = new RenderedValue(key, time, nanos, text);
+        }
+        return text;
+    }
+
+    @Nullable
+    private String formatValueUncached(@NotNull Object value) {
         if (value instanceof Date && zone != null) {
             return dateTimeFormatter.format(ZonedDateTime.ofInstant(((Date) value).toInstant(), zone));
         }
@@ -104,12 +193,16 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
             }
             return dateTimeFormatter.format((TemporalAccessor) value);
         }
-        synchronized (dateFormat) {
-            buffer.setLength(0);
-            return value == null ? null : dateFormat.format(value, buffer, position).toString();
+        if (value instanceof Date && legacyDateFormatter != null && ((Date) value).getTime() >= GREGORIAN_CUTOVER_TIME) {
+            Instant instant = value instanceof Timestamp ?
+                ((Timestamp) value).toInstant() :
+                Instant.ofEpochMilli(((Date) value).getTime());
+            return legacyDateFormatter.format(instant);
         }
+        DateFormatState state = dateFormatState.get();
+        state.buffer.setLength(0);
+        return state.dateFormat.format(value, state.buffer, state.position).toString();
     }
-
     @Override
     public Object parseValue(String value, Class<?> typeHint) throws ParseException
     {
@@ -129,7 +222,44 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
                 }
             }
         }
-        return dateFormat.parse(value);
+        return dateFormatState.get().dateFormat.parse(value);
+    }
+
+    /**
+     * Checks that pattern is formatted the same way by SimpleDateFormat and DateTimeFormatter
+     */
+    private static boolean isCompatiblePattern(@NotNull String pattern) {
+        for (int i = 0; i < pattern.length(); ) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                int end = pattern.indexOf('\'', i + 1);
+                if (end < 0) {
+                    return false;
+                }
+                i = end + 1;
+                continue;
+            }
+            if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                // Special characters of DateTimeFormatter
+                return false;
+            }
+            int length = 1;
+            while (i + length < pattern.length() && pattern.charAt(i + length) == c) {
+                length++;
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int letterIndex = COMPATIBLE_PATTERN_LETTERS.indexOf(c);
+                if (letterIndex < 0 || length > COMPATIBLE_PATTERN_LENGTHS[letterIndex]) {
+                    return false;
+                }
+                if ((c == 'S' && length != 3) || (c == 'y' && length == 3)) {
+                    // Milliseconds vs fraction of second
+                    return false;
+                }
+            }
+            i += length;
+        }
+        return true;
     }
 
 }
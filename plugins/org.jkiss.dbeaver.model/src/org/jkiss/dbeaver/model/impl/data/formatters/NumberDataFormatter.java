@@ -16,6 +16,7 @@
  */
 package org.jkiss.dbeaver.model.impl.data.formatters;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.data.DBDDataFormatter;
@@ -26,30 +27,76 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.FieldPosition;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.Locale;
 import java.util.Map;
 
+/**
+ * Number formatter.
+ *
+ * Formatter is thread-safe and doesn't lock: each thread formats with its own copy of the number format.
+ * Integer values are rendered directly (without DecimalFormat) when format settings allow it.
+ */
 public class NumberDataFormatter implements DBDDataFormatter {
 
     public static final int MAX_DEFAULT_FRACTIONS_DIGITS = 16;
 
     private static final Log log = Log.getLog(NumberDataFormatter.class);
 
-    private DecimalFormat numberFormat;
-    private StringBuffer buffer;
-    private FieldPosition position;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Per-thread copy of the number format and buffers
+     */
+    private static class FormatState {
+        private final DecimalFormat template;
+        private final DecimalFormat format;
+        private final StringBuffer buffer = new StringBuffer();
+        private final StringBuilder text = new StringBuilder();
+        private final FieldPosition position = new FieldPosition(0);
+
+        FormatState(@NotNull DecimalFormat template) {
+            this.template = template;
+            this.format = (DecimalFormat) template.clone();
+        }
+    }
+
+    // Template format. Replaced (never modified) after initialization
+    private volatile DecimalFormat numberFormat;
+    private final ThreadLocal<FormatState> formatState = new ThreadLocal<>();
     private boolean nativeSpecialValues;
 
+    // Settings of direct integers rendering
+    private boolean fastIntegers;
+    private String positivePrefix;
+    private String positiveSuffix;
+    private String negativePrefix;
+    private String negativeSuffix;
+    private char zeroDigit;
+    private char groupingSeparator;
+    private char decimalSeparator;
+    private int groupingSize;
+    private int minIntegerDigits;
+    private int maxIntegerDigits;
+    private int minFractionDigits;
+
     public NumberDataFormatter() {
     }
 
     @Override
     public void init(DBSTypedObject type, Locale locale, Map<String, Object> properties)
     {
-        numberFormat = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+        DecimalFormat numberFormat = (DecimalFormat) NumberFormat.getNumberInstance(locale);
         Object useGrouping = properties.get(NumberFormatSample.PROP_USE_GROUPING);
         if (useGrouping != null) {
             numberFormat.setGroupingUsed(CommonUtils.toBoolean(useGrouping));
@@ -113,9 +160,28 @@ public class NumberDataFormatter implements DBDDataFormatter {
                 numberFormat.setGroupingUsed(false);
             }
         }
-        buffer = new StringBuffer();
-        position = new FieldPosition(0);
         nativeSpecialValues = CommonUtils.toBoolean(properties.get(NumberFormatSample.PROP_NATIVE_SPECIAL_VALUES));
+        initIntegerRendering(numberFormat);
+        this.numberFormat = numberFormat;
+    }
+
+    private void initIntegerRendering(@NotNull DecimalFormat numberFormat) {
+        DecimalFormatSymbols symbols = numberFormat.getDecimalFormatSymbols();
+        positivePrefix = numberFormat.getPositivePrefix();
+        positiveSuffix = numberFormat.getPositiveSuffix();
+        negativePrefix = numberFormat.getNegativePrefix();
+        negativeSuffix = numberFormat.getNegativeSuffix();
+        zeroDigit = symbols.getZeroDigit();
+        groupingSeparator = symbols.getGroupingSeparator();
+        decimalSeparator = symbols.getDecimalSeparator();
+        groupingSize = numberFormat.isGroupingUsed() ? numberFormat.getGroupingSize() : 0;
+        minIntegerDigits = numberFormat.getMinimumIntegerDigits();
+        maxIntegerDigits = numberFormat.getMaximumIntegerDigits();
+        minFractionDigits = numberFormat.getMinimumFractionDigits();
+        // Multiplier and exponent are not used in number formatter patterns, but don't rely on it
+        fastIntegers = numberFormat.getMultiplier() == 1 &&
+            !numberFormat.isDecimalSeparatorAlwaysShown() &&
+            !numberFormat.toPattern().contains("E");
     }
 
     @Nullable
@@ -132,71 +198,136 @@ public class NumberDataFormatter implements DBDDataFormatter {
         if (value == null) {
             return null;
         }
+        StringBuilder text = getFormatState().text;
+        text.setLength(0);
+        appendValue(value, text);
+        return text.toString();
+    }
+
+    private void appendValue(@NotNull Object value, @NotNull StringBuilder buffer) {
         if (CommonUtils.isNaN(value) || CommonUtils.isInfinite(value)) {
             if (nativeSpecialValues) {
-                return value.toString();
+                buffer.append(value);
+                return;
+            }
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            if (appendInteger(((Number) value).longValue(), buffer)) {
+                return;
             }
         } else if (value instanceof Float || value instanceof Double) {
             // Convert to BigDecimal so we don't have rounding issues with high minimum fraction digits set
             value = new BigDecimal(value.toString());
         } else if (!(value instanceof Number)) {
-            return value.toString();
+            buffer.append(value);
+            return;
         }
         try {
-            synchronized (this) {
-                buffer.setLength(0);
-                try {
-                    return numberFormat.format(value, buffer, position).toString();
-                } catch (ArithmeticException e) {
-                    if (numberFormat.getRoundingMode() == RoundingMode.UNNECESSARY) {
-                        // This type can't use UNNECESSARY rounding. Let's set default one
-                        log.debug("Disabling UNNECESSARY rounding for numbers (" + e.getMessage() + ")");
-                        numberFormat.setRoundingMode(RoundingMode.HALF_EVEN);
-                    }
-                    return numberFormat.format(value, buffer, position).toString();
-                }
-            }
+            buffer.append(formatNumber(getFormatState(), value));
         } catch (Exception e) {
-            return value.toString();
+            buffer.append(value);
+        }
+    }
+
+    @NotNull
+    private CharSequence formatNumber(@NotNull FormatState state, @NotNull Object value) {
+        state.buffer.setLength(0);
+        try {
+            return state.format.format(value, state.buffer, state.position);
+        } catch (ArithmeticException e) {
+            if (state.format.getRoundingMode() != RoundingMode.UNNECESSARY) {
+                throw e;
+            }
+            // This type can't use UNNECESSARY rounding. Let's set default one
+            log.debug("Disabling UNNECESSARY rounding for numbers (" + e.getMessage() + ")");
+            DecimalFormat newFormat = (DecimalFormat) state.template.clone();
+            newFormat.setRoundingMode(RoundingMode.HALF_EVEN);
+            numberFormat = newFormat;
+            state.format.setRoundingMode(RoundingMode.HALF_EVEN);
+            state.buffer.setLength(0);
+            return state.format.format(value, state.buffer, state.position);
         }
     }
 
+    /**
+     * Renders integer the same way as DecimalFormat does.
+     * Returns false if value can't be rendered directly.
+     */
+    private boolean appendInteger(long value, @NotNull StringBuilder buffer) {
+        if (!fastIntegers || value == Long.MIN_VALUE) {
+            return false;
+        }
+        long absValue = Math.abs(value);
+        int digitCount = 1;
+        while (digitCount < POWERS_OF_TEN.length && absValue >= POWERS_OF_TEN[digitCount]) {
+            digitCount++;
+        }
+        if (digitCount > maxIntegerDigits || (absValue == 0 && minIntegerDigits == 0)) {
+            return false;
+        }
+        buffer.append(value < 0 ? negativePrefix : positivePrefix);
+        for (int position = Math.max(digitCount, minIntegerDigits) - 1; position >= 0; position--) {
+            int digit = position < POWERS_OF_TEN.length ? (int) (absValue / POWERS_OF_TEN[position] % 10) : 0;
+            buffer.append((char) (zeroDigit + digit));
+            if (groupingSize > 0 && position > 0 && position % groupingSize == 0) {
+                buffer.append(groupingSeparator);
+            }
+        }
+        if (minFractionDigits > 0) {
+            buffer.append(decimalSeparator);
+            for (int i = 0; i < minFractionDigits; i++) {
+                buffer.append(zeroDigit);
+            }
+        }
+        buffer.append(value < 0 ? negativeSuffix : positiveSuffix);
+        return true;
+    }
+
+    @NotNull
+    private FormatState getFormatState() {
+        DecimalFormat template = numberFormat;
+        FormatState state = formatState.get();
+        if (state == null || state.template != template) {
+            state = new FormatState(template);
+            formatState.set(state);
+        }
+        return state;
+    }
+
     @Override
     public Object parseValue(String value, @Nullable Class<?> typeHint) throws ParseException
     {
-        synchronized (this) {
-            numberFormat.setParseBigDecimal(typeHint == BigDecimal.class || typeHint == BigInteger.class);
-            Number number = numberFormat.parse(value);
-            if (number != null && typeHint != null) {
-                boolean isFloat = number instanceof Double || number instanceof Float;
-                if (typeHint == Byte.class) {
-                    if (isFloat) {
-                        return number;
-                    }
-                    return number.byteValue();
-                } else if (typeHint == Short.class) {
-                    if (isFloat) {
-                        return number;
-                    }
-                    return number.shortValue();
-                } else if (typeHint == Integer.class) {
-                    if (isFloat) {
-                        return number;
-                    }
-                    return number.intValue();
-                } else if (typeHint == Long.class) {
-                    if (isFloat) {
-                        return number;
-                    }
-                    return number.longValue();
-                } else if (typeHint == Float.class) {
-                    return number.floatValue();
-                } else if (typeHint == Double.class) {
-                    return number.doubleValue();
+        DecimalFormat numberFormat = getFormatState().format;
+        numberFormat.setParseBigDecimal(typeHint == BigDecimal.class || typeHint == BigInteger.class);
+        Number number = numberFormat.parse(value);
+        if (number != null && typeHint != null) {
+            boolean isFloat = number instanceof Double || number instanceof Float;
+            if (typeHint == Byte.class) {
+                if (isFloat) {
+                    return number;
+                }
+                return number.byteValue();
+            } else if (typeHint == Short.class) {
+                if (isFloat) {
+                    return number;
+                }
+                return number.shortValue();
+            } else if (typeHint == Integer.class) {
+                if (isFloat) {
+                    return number;
+                }
+                return number.intValue();
+            } else if (typeHint == Long.class) {
+                if (isFloat) {
+                    return number;
                 }
+                return number.longValue();
+            } else if (typeHint == Float.class) {
+                return number.floatValue();
+            } else if (typeHint == Double.class) {
+                return number.doubleValue();
             }
-            return number;
         }
+        return number;
     }
 
 }
@@ -46,6 +46,9 @@ public class DPIDataReceiverCallback implements DPISmartCallback {
                 dataReceiver.fetchRow(session, dpiResultSet);
             }
             dataReceiver.fetchEnd(session, dpiResultSet);
+            if (dpiResultSet.getFetchError() != null) {
+                throw dpiResultSet.getFetchError();
+            }
         }
     }
 }
@@ -17,22 +17,48 @@
 package org.jkiss.dbeaver.model.impl.dpi;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.DBCStatement;
+import org.jkiss.dbeaver.model.impl.data.RowValuesCodec;
 import org.jkiss.dbeaver.model.impl.local.LocalResultSet;
 import org.jkiss.dbeaver.model.impl.local.LocalResultSetMeta;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
+/**
+ * Result set transferred between DPI server and client.
+ *
+ * Rows are kept in binary encoded pages (see {@link RowValuesCodec}), only the current page is decoded.
+ * On the client side pages which were not sent with the result set are read from the server
+ * when the previous page is consumed. Thus {@link #moveTo(int)} positions only within the current page.
+ */
 public class DPIResultSet extends LocalResultSet<DBCStatement> {
+    private static final Log log = Log.getLog(DPIResultSet.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
     private final List<DPIResultSetColumn> meta = new ArrayList<>();
+    private final Deque<byte[]> pages = new ArrayDeque<>();
+    private final int pageSize;
+    @Nullable
+    private DPIResultSetPageReader pageReader;
+    @Nullable
+    private DBException fetchError;
 
     public DPIResultSet(
         DBCSession session,
         DBCStatement statement
     ) {
         super(session, statement);
+        this.pageSize = DEFAULT_PAGE_SIZE;
     }
 
     public DPIResultSet(
@@ -41,15 +67,84 @@ public class DPIResultSet extends LocalResultSet<DBCStatement> {
         @NotNull List<DPIResultSetColumn> meta,
         @NotNull List<Object[]> rows
     ) {
-        super(session, statement);
+        this(session, statement);
         this.meta.addAll(meta);
         this.rows.addAll(rows);
     }
 
+    public DPIResultSet(
+        @NotNull DBCSession session,
+        @NotNull DBCStatement statement,
+        @NotNull List<DPIResultSetColumn> meta,
+        @NotNull List<byte[]> pages,
+        @Nullable DPIResultSetPageReader pageReader
+    ) {
+        this(session, statement);
+        this.meta.addAll(meta);
+        this.pages.addAll(pages);
+        this.pageReader = pageReader;
+    }
+
     public void addColumn(@NotNull DPIResultSetColumn column) {
         meta.add(column);
     }
 
+    @Override
+    public void addRow(Object... values) {
+        super.addRow(values);
+        if (rows.size() >= pageSize) {
+            flushRows();
+        }
+    }
+
+    /**
+     * Encodes all added rows into pages.
+     */
+    public void flushRows() {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int columnCount = meta.size();
+        for (Object[] row : rows) {
+            columnCount = Math.max(columnCount, row.length);
+        }
+        try {
+            pages.add(RowValuesCodec.encode(rows, columnCount));
+        } catch (IOException e) {
+            // Should never happen, encoding is in-memory
+            throw new IllegalStateException("Error encoding DPI result set page", e);
+        }
+        rows.clear();
+        curPosition = -1;
+    }
+
+    /**
+     * Removes and returns next encoded page. Returns null if there are no pages left.
+     */
+    @Nullable
+    public byte[] pollPage() {
+        flushRows();
+        return pages.poll();
+    }
+
+    public boolean hasPages() {
+        return !pages.isEmpty();
+    }
+
+    @Override
+    public boolean nextRow() {
+        if (curPosition < 0 && !rows.isEmpty() && !pages.isEmpty()) {
+            // Rows were added after pages
+            flushRows();
+        }
+        while (!super.nextRow()) {
+            if (!readNextPage()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @NotNull
     @Override
     public LocalResultSetMeta getMeta() {
@@ -61,8 +156,12 @@ public class DPIResultSet extends LocalResultSet<DBCStatement> {
         return meta;
     }
 
-    public List<Object[]> getAllRows() {
-        return rows;
+    /**
+     * Error occurred during remote pages read. Iteration stops on error.
+     */
+    @Nullable
+    public DBException getFetchError() {
+        return fetchError;
     }
 
     @Override
@@ -70,5 +169,42 @@ public class DPIResultSet extends LocalResultSet<DBCStatement> {
         curPosition = -1;
         rows.clear();
         meta.clear();
+        pages.clear();
+        if (pageReader != null) {
+            pageReader.close();
+            pageReader = null;
+        }
+    }
+
+    private boolean readNextPage() {
+        byte[] page = pages.poll();
+        if (page == null && pageReader != null) {
+            try {
+                page = pageReader.readPage();
+            } catch (DBException e) {
+                log.error("Error reading DPI result set page", e);
+                fetchError = e;
+            }
+            if (page == null) {
+                if (fetchError != null) {
+                    pageReader.close();
+                }
+                // Otherwise remote result set is released by the server after the last page
+                pageReader = null;
+            }
+        }
+        if (page == null) {
+            return false;
+        }
+        rows.clear();
+        curPosition = -1;
+        try {
+            rows.addAll(RowValuesCodec.decode(page));
+        } catch (IOException e) {
+            log.error("Error decoding DPI result set page", e);
+            fetchError = new DBCException("Corrupted DPI result set page", e);
+            return false;
+        }
+        return true;
     }
 }
@@ -84,7 +84,7 @@ public class DPIServerSmartProxyDataReceiver implements DBDDataReceiver, DPIServ
 
     @Override
     public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
-
+        dpiResultSet.flushRows();
     }
 
     @Override
@@ -30,10 +30,19 @@ public class DBNDatabaseItem extends DBNDatabaseNode {
     private DBSObject object;
 
     DBNDatabaseItem(DBNNode parent, DBXTreeNode meta, DBSObject object, boolean reflect) {
+        this(parent, meta, object, reflect, true);
+    }
+
+    /**
+     * @param register if false then node must be registered in the model by caller (e.g. in bulk with its siblings)
+     */
+    DBNDatabaseItem(DBNNode parent, DBXTreeNode meta, DBSObject object, boolean reflect, boolean register) {
         super(parent);
         this.meta = meta;
         this.object = object;
-        registerNode();
+        if (register) {
+            registerNode();
+        }
     }
 
     @Override
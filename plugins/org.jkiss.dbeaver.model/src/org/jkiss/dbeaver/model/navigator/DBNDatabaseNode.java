@@ -698,6 +698,10 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBNLazyNode, DB
         if (oldListCmp != null) {
             Collections.addAll(oldList, oldListCmp);
         }
+        List<DBNDatabaseNode> newItems = new ArrayList<>();
+        List<DBNDatabaseNode> loadedItems = new ArrayList<>();
+        // Whether all children are present in the navigator
+        boolean completeList = !this.filtered;
         for (Object childItem : itemList) {
             if (childItem == null) {
                 continue;
@@ -708,23 +712,28 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBNLazyNode, DB
             }
             if (DBUtils.isHiddenObject(childItem)) {
                 // Skip hidden objects
+                completeList = false;
                 continue;
             }
             if ((!showSystem && DBUtils.isSystemObject(childItem)) &&
                 !(itemList.size() == 1 && (childItem instanceof DBSSchema || childItem instanceof DBSCatalog))) { // Show system catalog/schema in case when only one object in the itemList
                 // Skip system objects
+                completeList = false;
                 continue;
             }
             if (hideFolders && (childItem instanceof DBAObject || childItem instanceof DBPSystemInfoObject)) {
                 // Skip all DBA objects
+                completeList = false;
                 continue;
             }
             if (mergeEntities && childItem instanceof DBSSchema) {
                 // Skip schemas in merge entities mode
+                completeList = false;
                 continue;
             }
             if (filter != null && !filter.matches(((DBSObject) childItem).getName())) {
                 // Doesn't match filter
+                completeList = false;
                 continue;
             }
             DBSObject object = (DBSObject) childItem;
@@ -746,6 +755,7 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBNLazyNode, DB
                         }
 
                         toList.add(oldChild);
+                        loadedItems.add(oldChild);
                         added = true;
                         iterator.remove();
                         break;
@@ -754,8 +764,19 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBNLazyNode, DB
             }
             if (!added) {
                 // Simply add new item
-                DBNDatabaseItem treeItem = new DBNDatabaseItem(this, meta, object, oldList != null);
+                DBNDatabaseItem treeItem = new DBNDatabaseItem(this, meta, object, oldList != null, false);
                 toList.add(treeItem);
+                loadedItems.add(treeItem);
+                newItems.add(treeItem);
+            }
+        }
+        DBNModel model = getModel();
+        if (model != null) {
+            if (!newItems.isEmpty()) {
+                model.addNodes(newItems);
+            }
+            if (completeList) {
+                model.setChildrenLoaded(loadedItems);
             }
         }
 
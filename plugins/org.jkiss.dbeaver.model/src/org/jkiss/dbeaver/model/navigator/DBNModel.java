@@ -89,7 +89,7 @@ public class DBNModel {
     private final List<INavigatorListener> listeners = new ArrayList<>();
     private transient INavigatorListener[] listenersCopy = null;
     private final transient List<DBNEvent> eventCache = new ArrayList<>();
-    private final Map<DBSObject, Object> nodeMap = new HashMap<>();
+    private final DBNNodeRegistry nodeRegistry = new DBNNodeRegistry();
     private final List<Function<DBNNode, Boolean>> nodeFilters = new ArrayList<>();
 
     private SMSessionContext modelAuthContext;
@@ -141,9 +141,7 @@ public class DBNModel {
 
         if (root != null) {
             this.root.dispose(false);
-            synchronized (nodeMap) {
-                this.nodeMap.clear();
-            }
+            this.nodeRegistry.clear();
             this.root = null;
         }
         synchronized (this.listeners) {
@@ -183,34 +181,7 @@ public class DBNModel {
             return (DBNDatabaseNode)object;
         }
         object = DBUtils.getPublicObjectContainer(object);
-
-        Object obj;
-        synchronized (nodeMap) {
-            obj = nodeMap.get(object);
-        }
-        if (obj == null) {
-            return null;
-        } else if (obj instanceof DBNDatabaseNode) {
-            return (DBNDatabaseNode)obj;
-        } else if (obj instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<DBNDatabaseNode> nodeList = (List<DBNDatabaseNode>) obj;
-            if (nodeList.isEmpty()) {
-                return null;
-            }
-            if (nodeList.size() > 1) {
-                for (DBNDatabaseNode node : nodeList) {
-                    if (node instanceof DBNDatabaseItem && !node.getMeta().isVirtual()) {
-                        return node;
-                    }
-                }
-            }
-            // Get just first one
-            return nodeList.get(0);
-        } else {
-            // Never be here
-            throw new IllegalStateException();
-        }
+        return object == null ? null : nodeRegistry.getNode(object);
 /*
         if (node == null) {
             log.warn("Can't find tree node for object " + object.getName() + " (" + object.getClass().getName() + ")");
@@ -470,55 +441,31 @@ public class DBNModel {
 
     void addNode(DBNDatabaseNode node, boolean reflect)
     {
-        synchronized (nodeMap) {
-            Object obj = nodeMap.get(node.getObject());
-            if (obj == null) {
-                // New node
-                nodeMap.put(node.getObject(), node);
-            } else if (obj instanceof DBNNode) {
-                // Second node - make a list
-                List<DBNNode> nodeList = new ArrayList<>(2);
-                nodeList.add((DBNNode)obj);
-                nodeList.add(node);
-                nodeMap.put(node.getObject(), nodeList);
-            } else if (obj instanceof List) {
-                // Multiple nodes
-                @SuppressWarnings("unchecked")
-                List<DBNNode> nodeList = (List<DBNNode>) obj;
-                nodeList.add(node);
-            }
-        }
+        nodeRegistry.addNode(node);
         if (reflect) {
             this.fireNodeEvent(new DBNEvent(this, DBNEvent.Action.ADD, DBNEvent.NodeChange.LOAD, node));
         }
     }
 
+    /**
+     * Registers all nodes of a loaded children list at once
+     */
+    void addNodes(Collection<? extends DBNDatabaseNode> nodes)
+    {
+        nodeRegistry.addNodes(nodes);
+    }
+
+    /**
+     * Marks loaded children list as complete (not reduced by navigator filters)
+     */
+    void setChildrenLoaded(Collection<? extends DBNDatabaseNode> children)
+    {
+        nodeRegistry.setChildrenLoaded(children);
+    }
+
     void removeNode(DBNDatabaseNode node, boolean reflect)
     {
-        boolean badNode = false;
-        synchronized (nodeMap) {
-            Object obj = nodeMap.get(node.getObject());
-            if (obj == null) {
-                // No found
-                badNode = true;
-            } else if (obj instanceof DBNNode) {
-                // Just remove it
-                if (nodeMap.remove(node.getObject()) != node) {
-                    badNode = true;
-                }
-            } else if (obj instanceof List) {
-                // Multiple nodes
-                @SuppressWarnings("unchecked")
-                List<DBNNode> nodeList = (List<DBNNode>) obj;
-                if (!nodeList.remove(node)) {
-                    badNode = true;
-                }
-                if (nodeList.isEmpty()) {
-                    nodeMap.remove(node.getObject());
-                }
-            }
-        }
-        if (badNode) {
+        if (!nodeRegistry.removeNode(node)) {
             log.warn("Remove unregistered meta node object " + node.getNodeDisplayName());
         } else {
             if (reflect) {
@@ -527,6 +474,14 @@ public class DBNModel {
         }
     }
 
+    /**
+     * Database nodes registry. May be used to collect registry metrics.
+     */
+    @NotNull
+    public DBNNodeRegistry getNodeRegistry() {
+        return nodeRegistry;
+    }
+
     public void addListener(INavigatorListener listener)
     {
         synchronized (this.listeners) {
@@ -0,0 +1,320 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.navigator;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Database navigator nodes registry.
+ * Maps database objects to navigator nodes.
+ *
+ * Updates are atomic per object, there is no global registry lock, so lookups never wait for
+ * concurrent node loading. Nodes are referenced weakly: nodes which were dropped from the tree without
+ * explicit disposal (e.g. collapsed and unloaded branches) are purged automatically.
+ *
+ * Registered objects are also indexed by name per data source, see {@link DBNObjectNameIndex}.
+ */
+public final class DBNNodeRegistry {
+
+    private static final NodeRef[] EMPTY_REFS = new NodeRef[0];
+
+    private static class NodeRef extends WeakReference<DBNDatabaseNode> {
+        private final DBSObject object;
+
+        NodeRef(@NotNull DBNDatabaseNode node, @NotNull DBSObject object, @NotNull ReferenceQueue<DBNDatabaseNode> queue) {
+            super(node, queue);
+            this.object = object;
+        }
+    }
+
+    private final ConcurrentHashMap<DBSObject, NodeRef[]> nodeMap = new ConcurrentHashMap<>();
+    private final ReferenceQueue<DBNDatabaseNode> staleRefs = new ReferenceQueue<>();
+    private final ConcurrentHashMap<DBPDataSourceContainer, DBNObjectNameIndex> nameIndexes = new ConcurrentHashMap<>();
+
+    private final LongAdder registeredCount = new LongAdder();
+    private final LongAdder removedCount = new LongAdder();
+    private final LongAdder collectedCount = new LongAdder();
+    private final LongAdder updateTime = new LongAdder();
+
+    DBNNodeRegistry() {
+    }
+
+    /**
+     * Returns primary node of the object: first non-virtual item if object has multiple nodes.
+     */
+    @Nullable
+    DBNDatabaseNode getNode(@NotNull DBSObject object) {
+        NodeRef[] refs = nodeMap.get(object);
+        if (refs == null) {
+            return null;
+        }
+        DBNDatabaseNode firstNode = null;
+        for (NodeRef ref : refs) {
+            DBNDatabaseNode node = ref.get();
+            if (node == null) {
+                continue;
+            }
+            if (refs.length == 1 || (node instanceof DBNDatabaseItem && !node.getMeta().isVirtual())) {
+                return node;
+            }
+            if (firstNode == null) {
+                firstNode = node;
+            }
+        }
+        return firstNode;
+    }
+
+    @NotNull
+    List<DBNDatabaseNode> getNodes(@NotNull DBSObject object) {
+        NodeRef[] refs = nodeMap.get(object);
+        if (refs == null) {
+            return List.of();
+        }
+        List<DBNDatabaseNode> result = new ArrayList<>(refs.length);
+        for (NodeRef ref : refs) {
+            DBNDatabaseNode node = ref.get();
+            if (node != null) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    void addNode(@NotNull DBNDatabaseNode node) {
+        expungeStaleNodes();
+        long startTime = System.nanoTime();
+        registerNode(node);
+        updateTime.add(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Registers all nodes of a children list at once.
+     */
+    void addNodes(@NotNull Collection<? extends DBNDatabaseNode> nodes) {
+        expungeStaleNodes();
+        long startTime = System.nanoTime();
+        for (DBNDatabaseNode node : nodes) {
+            registerNode(node);
+        }
+        updateTime.add(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Marks parents of the nodes as completely loaded in the name index.
+     * Must be called only for children lists which were not reduced by navigator filters.
+     */
+    void setChildrenLoaded(@NotNull Collection<? extends DBNDatabaseNode> children) {
+        for (DBNDatabaseNode node : children) {
+            DBSObject object = node.getObject();
+            if (object == null || object.getParentObject() == null) {
+                continue;
+            }
+            DBNObjectNameIndex nameIndex = getIndexForObject(object, true);
+            if (nameIndex != null) {
+                nameIndex.setScopeLoaded(object.getParentObject(), object.getClass());
+            }
+        }
+    }
+
+    /**
+     * Removes node from the registry. Returns false if node wasn't registered.
+     */
+    boolean removeNode(@NotNull DBNDatabaseNode node) {
+        expungeStaleNodes();
+        DBSObject object = node.getObject();
+        if (object == null) {
+            return false;
+        }
+        long startTime = System.nanoTime();
+        boolean[] removed = new boolean[1];
+        nodeMap.computeIfPresent(object, (key, refs) -> {
+            NodeRef[] newRefs = removeRef(refs, node);
+            removed[0] = newRefs != refs;
+            if (newRefs.length == 0) {
+                unindexObject(key);
+                return null;
+            }
+            return newRefs;
+        });
+        updateTime.add(System.nanoTime() - startTime);
+        if (removed[0]) {
+            removedCount.increment();
+        }
+        return removed[0];
+    }
+
+    void clear() {
+        nodeMap.clear();
+        nameIndexes.clear();
+    }
+
+    /**
+     * Returns name index of objects loaded in the navigator for the specified data source
+     * or null if no objects of this data source were loaded.
+     */
+    @Nullable
+    public DBNObjectNameIndex getNameIndex(@NotNull DBPDataSourceContainer container) {
+        expungeStaleNodes();
+        return nameIndexes.get(container);
+    }
+
+    /**
+     * Number of objects which have registered nodes
+     */
+    public int getSize() {
+        return nodeMap.size();
+    }
+
+    public long getRegisteredCount() {
+        return registeredCount.sum();
+    }
+
+    public long getRemovedCount() {
+        return removedCount.sum();
+    }
+
+    /**
+     * Number of nodes purged after garbage collection (nodes which were not disposed explicitly)
+     */
+    public long getCollectedCount() {
+        return collectedCount.sum();
+    }
+
+    /**
+     * Total time (in nanoseconds) spent in registry updates, including waiting for concurrent updates
+     * of the same objects.
+     */
+    public long getUpdateTime() {
+        return updateTime.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Navigator nodes: " + getSize() +
+            " (registered=" + getRegisteredCount() +
+            ", removed=" + getRemovedCount() +
+            ", collected=" + getCollectedCount() +
+            ", update time=" + (getUpdateTime() / 1000000) + "ms)";
+    }
+
+    private void registerNode(@NotNull DBNDatabaseNode node) {
+        DBSObject object = node.getObject();
+        if (object == null) {
+            return;
+        }
+        NodeRef nodeRef = new NodeRef(node, object, staleRefs);
+        nodeMap.compute(object, (key, refs) -> {
+            if (refs == null) {
+                indexObject(key);
+                return new NodeRef[] { nodeRef };
+            }
+            NodeRef[] newRefs = new NodeRef[refs.length + 1];
+            System.arraycopy(refs, 0, newRefs, 0, refs.length);
+            newRefs[refs.length] = nodeRef;
+            return newRefs;
+        });
+        registeredCount.increment();
+    }
+
+    private void expungeStaleNodes() {
+        for (Reference<? extends DBNDatabaseNode> ref; (ref = staleRefs.poll()) != null; ) {
+            NodeRef staleRef = (NodeRef) ref;
+            nodeMap.computeIfPresent(staleRef.object, (key, refs) -> {
+                NodeRef[] newRefs = removeRef(refs, null);
+                if (newRefs != refs) {
+                    collectedCount.add(refs.length - newRefs.length);
+                }
+                if (newRefs.length == 0) {
+                    unindexObject(key);
+                    return null;
+                }
+                return newRefs;
+            });
+        }
+    }
+
+    private void indexObject(@NotNull DBSObject object) {
+        DBNObjectNameIndex nameIndex = getIndexForObject(object, true);
+        if (nameIndex != null) {
+            nameIndex.addObject(object);
+        }
+    }
+
+    private void unindexObject(@NotNull DBSObject object) {
+        DBNObjectNameIndex nameIndex = getIndexForObject(object, false);
+        if (nameIndex != null) {
+            nameIndex.removeObject(object);
+        }
+    }
+
+    @Nullable
+    private DBNObjectNameIndex getIndexForObject(@NotNull DBSObject object, boolean create) {
+        if (object instanceof DBPDataSourceContainer || object instanceof DBPDataSource) {
+            return null;
+        }
+        DBPDataSource dataSource = object.getDataSource();
+        if (dataSource == null) {
+            return null;
+        }
+        DBPDataSourceContainer container = dataSource.getContainer();
+        return create ?
+            nameIndexes.computeIfAbsent(container, c -> new DBNObjectNameIndex()) :
+            nameIndexes.get(container);
+    }
+
+    /**
+     * Removes reference to the specified node (or all cleared references if node is null).
+     * Returns the same array if nothing was removed.
+     */
+    @NotNull
+    private static NodeRef[] removeRef(@NotNull NodeRef[] refs, @Nullable DBNDatabaseNode node) {
+        int removeCount = 0;
+        for (NodeRef ref : refs) {
+            if (ref.get() == node) {
+                removeCount++;
+            }
+        }
+        if (removeCount == 0) {
+            return refs;
+        }
+        if (removeCount == refs.length) {
+            return EMPTY_REFS;
+        }
+        NodeRef[] newRefs = new NodeRef[refs.length - removeCount];
+        int index = 0;
+        for (NodeRef ref : refs) {
+            if (ref.get() != node) {
+                newRefs[index++] = ref;
+            }
+        }
+        return newRefs;
+    }
+
+}
@@ -0,0 +1,455 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.navigator;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.impl.struct.DirectObjectReference;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
+import org.jkiss.dbeaver.model.struct.DBSObjectReference;
+import org.jkiss.dbeaver.model.struct.DBSObjectType;
+import org.jkiss.dbeaver.model.struct.DBSStructureAssistant;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Name index of database objects already loaded in the navigator model of a single data source.
+ *
+ * Objects are added and removed together with their navigator nodes, so the index always reflects
+ * the metadata cached on the client. Names are kept in a sorted map for prefix lookups and
+ * in a trigram index for "contains" masks. Prefix masks with camel-case humps
+ * (e.g. {@code ordIt}) also match names by word starts (e.g. {@code ORDER_ITEMS}).
+ *
+ * The index answers {@link DBSStructureAssistant.ObjectsSearchParams} queries without server round trips.
+ * {@link #isComplete} tells whether an empty result is authoritative or the server must be asked.
+ */
+public final class DBNObjectNameIndex {
+
+    private static final Entry[] EMPTY_ENTRIES = new Entry[0];
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private static final class Entry {
+        private final String name;
+        private final String key;
+        private final DBSObject object;
+
+        Entry(@NotNull String name, @NotNull DBSObject object) {
+            this.name = name;
+            this.key = name.toLowerCase(Locale.ROOT);
+            this.object = object;
+        }
+    }
+
+    private final ConcurrentHashMap<DBSObject, Entry> objects = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Entry[]> names = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Set<Entry>> trigrams = new ConcurrentHashMap<>();
+    // Parent objects whose children of some type were loaded completely
+    private final ConcurrentHashMap<DBSObject, Set<Class<?>>> loadedScopes = new ConcurrentHashMap<>();
+    // Indexed child containers (catalogs, schemas, etc) of parent objects
+    private final ConcurrentHashMap<DBSObject, Set<DBSObject>> childContainers = new ConcurrentHashMap<>();
+
+    DBNObjectNameIndex() {
+    }
+
+    /**
+     * Number of indexed objects
+     */
+    public int getSize() {
+        return objects.size();
+    }
+
+    void addObject(@NotNull DBSObject object) {
+        String name = object.getName();
+        if (CommonUtils.isEmpty(name)) {
+            return;
+        }
+        Entry entry = new Entry(name, object);
+        if (objects.putIfAbsent(object, entry) != null) {
+            return;
+        }
+        names.compute(entry.key, (key, entries) -> {
+            if (entries == null) {
+                return new Entry[] { entry };
+            }
+            Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = entry;
+            return newEntries;
+        });
+        for (long trigram : getTrigrams(entry.key)) {
+            trigrams.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(entry);
+        }
+        DBSObject parent = object.getParentObject();
+        if (parent != null && object instanceof DBSObjectContainer) {
+            childContainers.computeIfAbsent(parent, p -> ConcurrentHashMap.newKeySet()).add(object);
+        }
+    }
+
+    void removeObject(@NotNull DBSObject object) {
+        loadedScopes.remove(object);
+        // Children list of the parent isn't complete anymore (e.g. node was collected or filtered out)
+        DBSObject parent = object.getParentObject();
+        Set<Class<?>> parentLoadedTypes = parent == null ? null : loadedScopes.get(parent);
+        if (parentLoadedTypes != null) {
+            parentLoadedTypes.removeIf(type -> type.isInstance(object));
+        }
+        if (parent != null) {
+            childContainers.computeIfPresent(parent, (p, set) -> {
+                set.remove(object);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        Entry entry = objects.remove(object);
+        if (entry == null) {
+            return;
+        }
+        names.computeIfPresent(entry.key, (key, entries) -> {
+            Entry[] newEntries = EMPTY_ENTRIES;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == entry) {
+                    newEntries = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    break;
+                }
+            }
+            return newEntries.length == 0 ? null : newEntries;
+        });
+        for (long trigram : getTrigrams(entry.key)) {
+            trigrams.computeIfPresent(trigram, (t, set) -> {
+                set.remove(entry);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * Marks children of the specified type as completely loaded for the parent object.
+     */
+    void setScopeLoaded(@NotNull DBSObject parent, @NotNull Class<?> childType) {
+        loadedScopes.computeIfAbsent(parent, p -> ConcurrentHashMap.newKeySet()).add(childType);
+    }
+
+    void clear() {
+        objects.clear();
+        names.clear();
+        trigrams.clear();
+        loadedScopes.clear();
+        childContainers.clear();
+    }
+
+    /**
+     * Checks whether all objects matching search parameters are present in the index.
+     * Search scope is the parent object (or the whole data source for global searches).
+     * Objects of each requested type must be loaded either in the scope itself or,
+     * recursively, in all its child containers (e.g. in all schemas of all catalogs).
+     */
+    public boolean isComplete(@NotNull DBSStructureAssistant.ObjectsSearchParams params) {
+        if (params.isSearchInComments() || params.isSearchInDefinitions()) {
+            return false;
+        }
+        DBSObject scope = params.isGlobalSearch() ? getDataSource(params.getParentObject()) : params.getParentObject();
+        if (scope == null) {
+            return false;
+        }
+        for (DBSObjectType objectType : params.getObjectTypes()) {
+            if (!isScopeComplete(scope, objectType.getTypeClass(), new HashSet<>())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isScopeComplete(@NotNull DBSObject scope, @NotNull Class<?> objectType, @NotNull Set<DBSObject> visited) {
+        if (!visited.add(scope)) {
+            return true;
+        }
+        Set<Class<?>> loadedTypes = loadedScopes.get(scope);
+        if (loadedTypes == null) {
+            return false;
+        }
+        for (Class<?> loadedType : loadedTypes) {
+            if (objectType.isAssignableFrom(loadedType)) {
+                return true;
+            }
+        }
+        // Objects may reside in child containers. All of them must be loaded completely.
+        Set<DBSObject> containers = childContainers.get(scope);
+        if (containers == null || containers.isEmpty()) {
+            return false;
+        }
+        for (DBSObject container : containers) {
+            if (!isScopeComplete(container, objectType, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns data source of the search scope or the root data source object of loaded scopes
+     */
+    @Nullable
+    private DBSObject getDataSource(@Nullable DBSObject parent) {
+        if (parent != null) {
+            return parent.getDataSource();
+        }
+        for (DBSObject scope : loadedScopes.keySet()) {
+            if (scope instanceof DBPDataSource) {
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds indexed objects matching name mask, object types and parent of search parameters.
+     * Mask is an SQL LIKE mask ({@code %} and {@code _} wildcards).
+     * Search in comments and definitions is not supported (returns empty list).
+     */
+    @NotNull
+    public List<DBSObjectReference> findObjects(@NotNull DBSStructureAssistant.ObjectsSearchParams params) {
+        if (params.isSearchInComments() || params.isSearchInDefinitions() || params.getMaxResults() <= 0) {
+            return Collections.emptyList();
+        }
+        String mask = SQLUtils.makeSQLLike(params.getMask());
+        boolean caseSensitive = params.isCaseSensitive();
+        DBSObject parent = params.isGlobalSearch() ? null : params.getParentObject();
+
+        List<DBSObjectReference> result = new ArrayList<>();
+        Set<Entry> visited = new HashSet<>();
+        String prefix = getPrefix(mask);
+        if (prefix != null) {
+            // Simple prefix mask
+            String keyPrefix = prefix.toLowerCase(Locale.ROOT);
+            for (Entry[] entries : getPrefixEntries(keyPrefix)) {
+                for (Entry entry : entries) {
+                    if ((!caseSensitive || entry.name.startsWith(prefix)) &&
+                        addMatch(entry, params, parent, visited, result)) {
+                        return result;
+                    }
+                }
+            }
+            List<String> humps = getCamelHumps(prefix);
+            if (humps.size() > 1) {
+                for (Entry[] entries : getPrefixEntries(humps.get(0))) {
+                    for (Entry entry : entries) {
+                        if (matchesHumps(entry.name, humps) && addMatch(entry, params, parent, visited, result)) {
+                            return result;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        Pattern pattern = Pattern.compile(
+            SQLUtils.makeLikePattern(mask),
+            caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        for (Entry entry : getMaskCandidates(mask.toLowerCase(Locale.ROOT))) {
+            if (pattern.matcher(entry.name).matches() && addMatch(entry, params, parent, visited, result)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds entry to the result if it matches object types and parent.
+     * Returns true if max results count was reached.
+     */
+    private static boolean addMatch(
+        @NotNull Entry entry,
+        @NotNull DBSStructureAssistant.ObjectsSearchParams params,
+        @Nullable DBSObject parent,
+        @NotNull Set<Entry> visited,
+        @NotNull List<DBSObjectReference> result
+    ) {
+        if (!visited.add(entry)) {
+            return false;
+        }
+        DBSObjectType objectType = getObjectType(entry.object, params.getObjectTypes());
+        if (objectType == null || (parent != null && !isChildOf(entry.object, parent))) {
+            return false;
+        }
+        result.add(new DirectObjectReference(entry.object.getParentObject(), objectType, entry.object));
+        return result.size() >= params.getMaxResults();
+    }
+
+    @Nullable
+    private static DBSObjectType getObjectType(@NotNull DBSObject object, @NotNull DBSObjectType[] objectTypes) {
+        for (DBSObjectType objectType : objectTypes) {
+            if (objectType.getTypeClass().isInstance(object)) {
+                return objectType;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isChildOf(@NotNull DBSObject object, @NotNull DBSObject parent) {
+        for (DBSObject p = object.getParentObject(); p != null; p = p.getParentObject()) {
+            if (p == parent) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    private Collection<Entry[]> getPrefixEntries(@NotNull String keyPrefix) {
+        if (keyPrefix.isEmpty()) {
+            return names.values();
+        }
+        return names.subMap(keyPrefix, true, keyPrefix + Character.MAX_VALUE, true).values();
+    }
+
+    /**
+     * Returns candidate entries for a generic LIKE mask.
+     * Uses the longest literal fragment of the mask: trigram index for fragments of 3+ chars,
+     * prefix lookup for a leading literal, all entries otherwise.
+     */
+    @NotNull
+    private Collection<Entry> getMaskCandidates(@NotNull String keyMask) {
+        String fragment = "";
+        for (String part : keyMask.split("[%_]")) {
+            if (part.length() > fragment.length()) {
+                fragment = part;
+            }
+        }
+        if (fragment.length() >= TRIGRAM_LENGTH) {
+            Set<Entry> candidates = null;
+            for (long trigram : getTrigrams(fragment)) {
+                Set<Entry> trigramEntries = trigrams.get(trigram);
+                if (trigramEntries == null) {
+                    return Collections.emptyList();
+                }
+                if (candidates == null) {
+                    candidates = new HashSet<>(trigramEntries);
+                } else {
+                    candidates.retainAll(trigramEntries);
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+            }
+            if (candidates != null) {
+                List<Entry> sorted = new ArrayList<>(candidates);
+                sorted.sort(Comparator.comparing(e -> e.key));
+                return sorted;
+            }
+        }
+        int wildcardPos = 0;
+        while (wildcardPos < keyMask.length() && keyMask.charAt(wildcardPos) != '%' && keyMask.charAt(wildcardPos) != '_') {
+            wildcardPos++;
+        }
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry[] entries : getPrefixEntries(keyMask.substring(0, wildcardPos))) {
+            Collections.addAll(candidates, entries);
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns mask prefix if mask is a plain name followed by {@code %} wildcards, or null otherwise.
+     */
+    @Nullable
+    private static String getPrefix(@NotNull String mask) {
+        int end = mask.length();
+        while (end > 0 && mask.charAt(end - 1) == '%') {
+            end--;
+        }
+        if (end == mask.length()) {
+            return null;
+        }
+        String prefix = mask.substring(0, end);
+        if (prefix.indexOf('%') != -1 || prefix.indexOf('_') != -1 || prefix.indexOf('\\') != -1) {
+            return null;
+        }
+        return prefix;
+    }
+
+    /**
+     * Splits name into lower case words by case changes, underscores and digits.
+     */
+    @NotNull
+    static List<String> getCamelHumps(@NotNull String name) {
+        List<String> humps = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                addHump(humps, word);
+                continue;
+            }
+            if (word.length() > 0) {
+                char prev = name.charAt(i - 1);
+                if ((Character.isUpperCase(c) && Character.isLowerCase(prev)) || Character.isDigit(c) != Character.isDigit(prev)) {
+                    addHump(humps, word);
+                }
+            }
+            word.append(Character.toLowerCase(c));
+        }
+        addHump(humps, word);
+        return humps;
+    }
+
+    private static void addHump(@NotNull List<String> humps, @NotNull StringBuilder word) {
+        if (word.length() > 0) {
+            humps.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    /**
+     * Checks that each hump is a prefix of consecutive name words, starting from the first word.
+     */
+    private static boolean matchesHumps(@NotNull String name, @NotNull List<String> humps) {
+        List<String> words = getCamelHumps(name);
+        if (words.size() < humps.size()) {
+            return false;
+        }
+        for (int i = 0; i < humps.size(); i++) {
+            if (!words.get(i).startsWith(humps.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private static long[] getTrigrams(@NotNull String key) {
+        if (key.length() < TRIGRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] result = new long[key.length() - TRIGRAM_LENGTH + 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) key.charAt(i) << 32) | ((long) key.charAt(i + 1) << 16) | key.charAt(i + 2);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Object name index: " + getSize() + " objects, " + trigrams.size() + " trigrams";
+    }
+}
@@ -22,6 +22,7 @@ import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.DBPDataSourcePermission;
 import org.jkiss.dbeaver.model.DBPHiddenObject;
 import org.jkiss.dbeaver.model.DBPObjectWithOrdinalPosition;
@@ -36,6 +37,8 @@ import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectReference;
+import org.jkiss.dbeaver.model.struct.DBSStructureAssistant;
 import org.jkiss.dbeaver.model.struct.DBSWrapper;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.utils.ArrayUtils;
@@ -313,4 +316,50 @@ public class DBNUtils {
         node.dispose(reflect);
     }
 
+    /**
+     * Finds objects by mask in the navigator name index of the execution context data source.
+     * The index is used only if all requested objects are loaded in the navigator (see {@link DBNObjectNameIndex#isComplete}).
+     * Otherwise objects are searched by the structure assistant (i.e. on the server), because partial matches
+     * in the index would hide objects of navigator branches which were never expanded.
+     */
+    @NotNull
+    public static <CONTEXT extends DBCExecutionContext> List<DBSObjectReference> findObjectsByMask(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSStructureAssistant<CONTEXT> assistant,
+        @NotNull CONTEXT executionContext,
+        @NotNull DBSStructureAssistant.ObjectsSearchParams params
+    ) throws DBException {
+        DBNObjectNameIndex nameIndex = getObjectNameIndex(executionContext);
+        if (nameIndex != null) {
+            if (nameIndex.isComplete(params)) {
+                return nameIndex.findObjects(params);
+            }
+        }
+        return assistant.findObjectsByMask(monitor, executionContext, params);
+    }
+
+    /**
+     * Finds objects by mask in the navigator name index only, without server requests.
+     * Returns empty list if the index doesn't contain all objects of the search scope,
+     * because partial results would resolve names to wrong objects.
+     */
+    @NotNull
+    public static List<DBSObjectReference> findCachedObjectsByMask(
+        @NotNull DBCExecutionContext executionContext,
+        @NotNull DBSStructureAssistant.ObjectsSearchParams params
+    ) {
+        DBNObjectNameIndex nameIndex = getObjectNameIndex(executionContext);
+        if (nameIndex == null || !nameIndex.isComplete(params)) {
+            return Collections.emptyList();
+        }
+        return nameIndex.findObjects(params);
+    }
+
+    @Nullable
+    private static DBNObjectNameIndex getObjectNameIndex(@NotNull DBCExecutionContext executionContext) {
+        DBPDataSourceContainer container = executionContext.getDataSource().getContainer();
+        DBNModel navigatorModel = container.getProject().getNavigatorModel();
+        return navigatorModel == null ? null : navigatorModel.getNodeRegistry().getNameIndex(container);
+    }
+
 }
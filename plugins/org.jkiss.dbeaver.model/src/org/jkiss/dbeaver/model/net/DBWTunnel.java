@@ -45,4 +45,21 @@ public interface DBWTunnel extends DBWNetworkHandler, DBWForwarder {
 
     void addCloseListener(@NotNull Runnable listener);
 
+    /**
+     * Checks whether tunnel can open channels to the tunneled endpoint directly, without a local port listener.
+     */
+    default boolean supportsDirectChannels() {
+        return false;
+    }
+
+    /**
+     * Opens a new channel to the tunneled endpoint.
+     *
+     * @see DBWTunnelSocketFactory
+     */
+    @NotNull
+    default DBWTunnelChannel openDirectChannel() throws IOException {
+        throw new IOException("Direct channels are not supported by " + getClass().getSimpleName());
+    }
+
 }
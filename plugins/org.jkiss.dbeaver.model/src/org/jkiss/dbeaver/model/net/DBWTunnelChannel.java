@@ -0,0 +1,45 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net;
+
+import org.jkiss.code.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Bidirectional stream to the tunneled endpoint opened directly through the tunnel
+ * (e.g. SSH direct-tcpip channel), without a local port listener.
+ */
+public interface DBWTunnelChannel extends Closeable {
+
+    @NotNull
+    InputStream getInputStream() throws IOException;
+
+    @NotNull
+    OutputStream getOutputStream() throws IOException;
+
+    /**
+     * Returns false if the channel was closed locally or by the remote side
+     */
+    default boolean isOpen() {
+        return true;
+    }
+
+}
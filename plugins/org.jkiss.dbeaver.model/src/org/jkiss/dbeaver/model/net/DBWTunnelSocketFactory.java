@@ -0,0 +1,361 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import javax.net.SocketFactory;
+import java.io.*;
+import java.net.*;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Socket factory which opens sockets as direct tunnel channels.
+ *
+ * JDBC drivers which accept custom socket factories instantiate this class by name
+ * with the tunnel identifier as a constructor argument (see {@link #registerTunnel(DBWTunnel)}).
+ * Connected sockets ignore the requested address: they always lead to the tunneled endpoint.
+ * Socket options are accepted but not applied, except the read timeout ({@link Socket#setSoTimeout(int)}).
+ * Tunnel channels have no timed reads, so reads with a timeout wait for available data by polling.
+ */
+public class DBWTunnelSocketFactory extends SocketFactory {
+
+    private static final AtomicLong tunnelCounter = new AtomicLong();
+    private static final Map<String, DBWTunnel> tunnels = new ConcurrentHashMap<>();
+    private static final Map<DBWTunnel, String> tunnelIds = new IdentityHashMap<>();
+
+    @NotNull
+    private final String tunnelId;
+
+    public DBWTunnelSocketFactory(@NotNull String tunnelId) {
+        this.tunnelId = tunnelId;
+    }
+
+    /**
+     * Registers tunnel and returns its identifier which must be passed to the factory constructor.
+     * Tunnel is unregistered automatically when closed.
+     */
+    @NotNull
+    public static String registerTunnel(@NotNull DBWTunnel tunnel) {
+        synchronized (tunnelIds) {
+            String tunnelId = tunnelIds.get(tunnel);
+            if (tunnelId == null) {
+                String newId = "tunnel-" + tunnelCounter.incrementAndGet();
+                tunnelIds.put(tunnel, newId);
+                tunnels.put(newId, tunnel);
+                tunnel.addCloseListener(() -> {
+                    synchronized (tunnelIds) {
+                        tunnelIds.remove(tunnel);
+                        tunnels.remove(newId);
+                    }
+                });
+                tunnelId = newId;
+            }
+            return tunnelId;
+        }
+    }
+
+    @Override
+    public Socket createSocket() {
+        return new TunnelSocket(tunnelId);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return connectSocket(InetSocketAddress.createUnresolved(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return connectSocket(InetSocketAddress.createUnresolved(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return connectSocket(new InetSocketAddress(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return connectSocket(new InetSocketAddress(address, port));
+    }
+
+    @NotNull
+    private Socket connectSocket(@NotNull SocketAddress address) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(address);
+        return socket;
+    }
+
+    private static class TunnelSocket extends Socket {
+        private static final int BUFFER_SIZE = 64 * 1024;
+        private static final long MAX_POLL_DELAY = 10;
+
+        private final String tunnelId;
+        private volatile DBWTunnelChannel channel;
+        private InputStream inputStream;
+        private volatile InetSocketAddress remoteAddress;
+        private volatile boolean closed;
+        private volatile boolean inputShutdown;
+        private volatile boolean outputShutdown;
+        private volatile int soTimeout;
+        private boolean tcpNoDelay;
+        private boolean keepAlive;
+
+        TunnelSocket(@NotNull String tunnelId) {
+            this.tunnelId = tunnelId;
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint) throws IOException {
+            connect(endpoint, 0);
+        }
+
+        @Override
+        public synchronized void connect(SocketAddress endpoint, int timeout) throws IOException {
+            if (closed) {
+                throw new SocketException("Socket is closed");
+            }
+            if (channel != null) {
+                throw new SocketException("Already connected");
+            }
+            DBWTunnel tunnel = tunnels.get(tunnelId);
+            if (tunnel == null) {
+                throw new ConnectException("Tunnel " + tunnelId + " is closed");
+            }
+            channel = tunnel.openDirectChannel();
+            remoteAddress = endpoint instanceof InetSocketAddress isa ? isa : null;
+        }
+
+        @Override
+        public void bind(SocketAddress bindpoint) {
+            // Nothing to bind
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            DBWTunnelChannel curChannel = getTunnelChannel();
+            if (inputStream == null) {
+                inputStream = new FilterInputStream(curChannel.getInputStream()) {
+                    @Override
+                    public int read() throws IOException {
+                        waitForData(in, curChannel);
+                        return super.read();
+                    }
+
+                    @Override
+                    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+                        if (len > 0) {
+                            waitForData(in, curChannel);
+                        }
+                        return super.read(b, off, len);
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return getTunnelChannel().getOutputStream();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+        @Override
+        public void shutdownInput() {
+            inputShutdown = true;
+        }
+
+        @Override
+        public void shutdownOutput() throws IOException {
+            outputShutdown = true;
+            getTunnelChannel().getOutputStream().close();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return channel != null;
+        }
+
+        @Override
+        public boolean isBound() {
+            return channel != null;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public boolean isInputShutdown() {
+            return inputShutdown;
+        }
+
+        @Override
+        public boolean isOutputShutdown() {
+            return outputShutdown;
+        }
+
+        @Nullable
+        @Override
+        public InetAddress getInetAddress() {
+            InetSocketAddress address = remoteAddress;
+            return address == null ? null : address.getAddress();
+        }
+
+        @Override
+        public int getPort() {
+            InetSocketAddress address = remoteAddress;
+            return address == null ? 0 : address.getPort();
+        }
+
+        @Nullable
+        @Override
+        public SocketAddress getRemoteSocketAddress() {
+            return remoteAddress;
+        }
+
+        @Override
+        public void setSoTimeout(int timeout) throws SocketException {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("Negative timeout: " + timeout);
+            }
+            this.soTimeout = timeout;
+        }
+
+        @Override
+        public int getSoTimeout() {
+            return soTimeout;
+        }
+
+        @Override
+        public void setTcpNoDelay(boolean on) {
+            this.tcpNoDelay = on;
+        }
+
+        @Override
+        public boolean getTcpNoDelay() {
+            return tcpNoDelay;
+        }
+
+        @Override
+        public void setKeepAlive(boolean on) {
+            this.keepAlive = on;
+        }
+
+        @Override
+        public boolean getKeepAlive() {
+            return keepAlive;
+        }
+
+        @Override
+        public void setSoLinger(boolean on, int linger) {
+            // Not applicable
+        }
+
+        @Override
+        public int getSoLinger() {
+            return -1;
+        }
+
+        @Override
+        public void setReceiveBufferSize(int size) {
+            // Not applicable
+        }
+
+        @Override
+        public int getReceiveBufferSize() {
+            return BUFFER_SIZE;
+        }
+
+        @Override
+        public void setSendBufferSize(int size) {
+            // Not applicable
+        }
+
+        @Override
+        public int getSendBufferSize() {
+            return BUFFER_SIZE;
+        }
+
+        @Override
+        public String toString() {
+            return "Tunnel socket [" + tunnelId + (remoteAddress == null ? "" : " -> " + remoteAddress) + "]";
+        }
+
+        /**
+         * Waits until the channel has data to read, the channel is closed or the read timeout expires.
+         * Without a timeout the read blocks in the channel stream.
+         */
+        private void waitForData(@NotNull InputStream in, @NotNull DBWTunnelChannel curChannel) throws IOException {
+            int timeout = soTimeout;
+            if (timeout <= 0 || in.available() > 0) {
+                return;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            long pollDelay = 1;
+            while (in.available() <= 0) {
+                if (closed) {
+                    throw new SocketException("Socket is closed");
+                }
+                if (!curChannel.isOpen()) {
+                    // Let the channel stream report end of stream
+                    return;
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                try {
+                    Thread.sleep(Math.min(pollDelay, remaining));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Read interrupted");
+                }
+                pollDelay = Math.min(pollDelay * 2, MAX_POLL_DELAY);
+            }
+        }
+
+        @NotNull
+        private DBWTunnelChannel getTunnelChannel() throws SocketException {
+            DBWTunnelChannel curChannel = channel;
+            if (curChannel == null) {
+                throw new SocketException("Socket is not connected");
+            }
+            if (closed) {
+                throw new SocketException("Socket is closed");
+            }
+            return curChannel;
+        }
+    }
+}
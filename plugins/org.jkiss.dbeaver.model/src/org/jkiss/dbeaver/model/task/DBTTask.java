@@ -26,6 +26,7 @@ import org.jkiss.dbeaver.model.app.DBPProject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Map;
 
@@ -64,6 +65,15 @@ public interface DBTTask extends DBPNamedObject, DBPObjectWithDescription {
     @NotNull
     DBTTaskRun[] getAllRuns();
 
+    /**
+     * Returns up to {@code maxCount} most recent runs, from oldest to newest.
+     */
+    @NotNull
+    default DBTTaskRun[] getRecentRuns(int maxCount) {
+        DBTTaskRun[] runs = getAllRuns();
+        return runs.length <= maxCount ? runs : Arrays.copyOfRange(runs, runs.length - maxCount, runs.length);
+    }
+
     @Nullable
     Path getRunLog(@NotNull DBTTaskRun run);
 
@@ -0,0 +1,137 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.virtual;
+
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlExpression;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data expression bound to a particular set of result set attributes.
+ *
+ * Variable names are resolved to attribute slots once, so evaluation doesn't search attributes by name.
+ * Each evaluation uses its own lightweight context: compiled expression may be evaluated by several threads at once.
+ * Values of top-level attributes are read from the row directly.
+ * Nested and custom attributes are read with {@link DBUtils#getAttributeValue(DBDAttributeBinding, DBDAttributeBinding[], Object[])}.
+ */
+public class DBVCompiledExpression {
+
+    @NotNull
+    private final JexlExpression expression;
+    @NotNull
+    private final DBDAttributeBinding[] attributes;
+    @NotNull
+    private final Map<String, Object> contextObjects;
+    @NotNull
+    private final Map<String, Integer> slots;
+    // Row index of top-level attribute value or -1 if value must be extracted
+    @NotNull
+    private final int[] rowIndexes;
+
+    /**
+     * @param expression     parsed expression
+     * @param attributes     attributes of evaluated rows. Variables refer to the first attribute with the same name
+     * @param useLabels      resolve variables by attribute labels instead of names
+     * @param selfName       name of the attribute calculated by this expression, it is never resolved
+     * @param contextObjects objects available in expression as variables (e.g. namespaces).
+     *                       They take precedence over attributes.
+     */
+    public DBVCompiledExpression(
+        @NotNull JexlExpression expression,
+        @NotNull DBDAttributeBinding[] attributes,
+        boolean useLabels,
+        @Nullable String selfName,
+        @NotNull Map<String, Object> contextObjects
+    ) {
+        this.expression = expression;
+        this.attributes = attributes;
+        this.contextObjects = contextObjects;
+        this.slots = new HashMap<>(attributes.length * 2);
+        this.rowIndexes = new int[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            DBDAttributeBinding attribute = attributes[i];
+            String name = useLabels ? attribute.getLabel() : attribute.getName();
+            if (name != null && !name.equals(selfName) && !contextObjects.containsKey(name)) {
+                slots.putIfAbsent(name, i);
+            }
+            rowIndexes[i] = attribute.isCustom() || attribute.getParentObject() != null ? -1 : attribute.getOrdinalPosition();
+        }
+    }
+
+    @NotNull
+    public JexlExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns true if this expression was compiled for the specified attributes
+     */
+    public boolean isCompiledFor(@NotNull DBDAttributeBinding[] attributes) {
+        return this.attributes == attributes;
+    }
+
+    /**
+     * Evaluates expression for the specified row.
+     */
+    @Nullable
+    public Object evaluate(@NotNull Object[] row) {
+        return expression.evaluate(new RowContext(row));
+    }
+
+    private class RowContext implements JexlContext {
+        @NotNull
+        private final Object[] row;
+
+        RowContext(@NotNull Object[] row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(String name) {
+            Object object = contextObjects.get(name);
+            if (object != null) {
+                return object;
+            }
+            Integer slot = slots.get(name);
+            if (slot == null) {
+                return null;
+            }
+            int rowIndex = rowIndexes[slot];
+            if (rowIndex >= 0) {
+                return rowIndex < row.length ? row[rowIndex] : null;
+            }
+            return DBUtils.getAttributeValue(attributes[slot], attributes, row);
+        }
+
+        @Override
+        public void set(String name, Object value) {
+            // Attribute values are read-only
+        }
+
+        @Override
+        public boolean has(String name) {
+            return get(name) != null;
+        }
+    }
+
+}
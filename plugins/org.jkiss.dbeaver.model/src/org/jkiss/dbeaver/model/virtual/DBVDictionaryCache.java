@@ -0,0 +1,275 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.virtual;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDLabelValuePair;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Cache of dictionary labels (descriptions of referenced entity keys).
+ *
+ * There is one cache per data source, limited by the number of cached keys (least recently used keys are evicted).
+ * Keys which are not found in the dictionary are cached too.
+ * Labels of an entity are invalidated when entity data is modified, all labels are invalidated on data source
+ * refresh and on results refresh.
+ * Entities are referenced weakly: they reference their data source which is a weak key of the cache map.
+ */
+public final class DBVDictionaryCache {
+
+    public static final int MAX_CACHED_LABELS = 10000;
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private static final Map<DBPDataSource, DBVDictionaryCache> caches = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final DBDLabelValuePair MISSING_LABEL = new DBDLabelValuePair(null, null);
+    private static final Object NULL_KEY = new Object();
+
+    /**
+     * Reads labels of keys missing in cache
+     */
+    @FunctionalInterface
+    public interface LabelReader {
+        @NotNull
+        List<DBDLabelValuePair> readLabels(@NotNull List<Object[]> keyValues) throws DBException;
+    }
+
+    private static final class LabelKey {
+        private final WeakReference<DBSEntity> entity;
+        private final String descColumns;
+        private final List<Object> keyValue;
+        private final int hashCode;
+
+        LabelKey(@NotNull DBSEntity entity, @Nullable String descColumns, @NotNull List<Object> keyValue) {
+            this.entity = new WeakReference<>(entity);
+            this.descColumns = descColumns;
+            this.keyValue = keyValue;
+            this.hashCode = System.identityHashCode(entity) * 31 + Objects.hashCode(descColumns) * 17 + keyValue.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LabelKey key)) {
+                return false;
+            }
+            DBSEntity keyEntity = entity.get();
+            return keyEntity != null && keyEntity == key.entity.get() &&
+                Objects.equals(descColumns, key.descColumns) && keyValue.equals(key.keyValue);
+        }
+
+        boolean isEntityKey(@NotNull DBSEntity keyEntity) {
+            DBSEntity curEntity = entity.get();
+            // Labels of collected entities are useless
+            return curEntity == null || curEntity == keyEntity;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private final Map<LabelKey, DBDLabelValuePair> labels = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LabelKey, DBDLabelValuePair> eldest) {
+            return size() > MAX_CACHED_LABELS;
+        }
+    };
+
+    DBVDictionaryCache() {
+    }
+
+    @NotNull
+    public static DBVDictionaryCache getCache(@NotNull DBPDataSource dataSource) {
+        synchronized (caches) {
+            return caches.computeIfAbsent(dataSource, ds -> new DBVDictionaryCache());
+        }
+    }
+
+    /**
+     * Removes cached labels of the entity (e.g. after entity data modification)
+     */
+    public static void invalidate(@NotNull DBSEntity entity) {
+        DBPDataSource dataSource = entity.getDataSource();
+        DBVDictionaryCache cache = dataSource == null ? null : caches.get(dataSource);
+        if (cache != null) {
+            cache.removeLabels(entity);
+        }
+    }
+
+    /**
+     * Removes all cached labels of the data source (e.g. after data source or results refresh)
+     */
+    public static void invalidate(@NotNull DBPDataSource dataSource) {
+        DBVDictionaryCache cache = caches.get(dataSource);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns labels of distinct keys found in the dictionary, in order of keys.
+     * Keys missing in cache are read by the reader in batches.
+     *
+     * @param keyColumns key columns of the dictionary entity
+     * @param keyHandlers value handlers of key columns
+     * @param descColumns description columns used in labels
+     */
+    @NotNull
+    public List<DBDLabelValuePair> getLabels(
+        @NotNull DBSEntity entity,
+        @NotNull List<DBSEntityAttribute> keyColumns,
+        @NotNull List<DBDValueHandler> keyHandlers,
+        @Nullable String descColumns,
+        @NotNull List<Object[]> keyValues,
+        @NotNull LabelReader reader
+    ) throws DBException {
+        Map<LabelKey, DBDLabelValuePair> result = new LinkedHashMap<>();
+        Map<LabelKey, Object[]> missingKeys = new LinkedHashMap<>();
+        List<Object[]> uncachedKeys = new ArrayList<>();
+        synchronized (labels) {
+            for (Object[] keyValue : keyValues) {
+                List<Object> normalizedKey = normalizeKey(keyColumns, keyHandlers, keyValue);
+                if (normalizedKey == null) {
+                    uncachedKeys.add(keyValue);
+                    continue;
+                }
+                LabelKey labelKey = new LabelKey(entity, descColumns, normalizedKey);
+                if (result.containsKey(labelKey) || missingKeys.containsKey(labelKey)) {
+                    continue;
+                }
+                DBDLabelValuePair label = labels.get(labelKey);
+                if (label == null) {
+                    missingKeys.put(labelKey, keyValue);
+                }
+                // Keep key order
+                result.put(labelKey, label);
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(missingKeys.size(), MAX_BATCH_SIZE));
+            Iterator<Object[]> keyIterator = missingKeys.values().iterator();
+            while (keyIterator.hasNext()) {
+                batch.add(keyIterator.next());
+                if (batch.size() >= MAX_BATCH_SIZE || !keyIterator.hasNext()) {
+                    for (DBDLabelValuePair label : reader.readLabels(batch)) {
+                        Object value = label.getValue();
+                        List<Object> normalizedKey = normalizeKey(
+                            keyColumns,
+                            keyHandlers,
+                            value instanceof Object[] values && keyColumns.size() > 1 ? values : new Object[] { value });
+                        if (normalizedKey != null) {
+                            result.put(new LabelKey(entity, descColumns, normalizedKey), label);
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+            synchronized (labels) {
+                for (LabelKey labelKey : missingKeys.keySet()) {
+                    DBDLabelValuePair label = result.get(labelKey);
+                    labels.put(labelKey, label == null ? MISSING_LABEL : label);
+                }
+            }
+        }
+
+        List<DBDLabelValuePair> values = new ArrayList<>(result.size());
+        for (DBDLabelValuePair label : result.values()) {
+            if (label != null && label != MISSING_LABEL) {
+                values.add(label);
+            }
+        }
+        if (!uncachedKeys.isEmpty()) {
+            values.addAll(reader.readLabels(uncachedKeys));
+        }
+        return values;
+    }
+
+    public int getSize() {
+        synchronized (labels) {
+            return labels.size();
+        }
+    }
+
+    private void removeLabels(@NotNull DBSEntity entity) {
+        synchronized (labels) {
+            labels.keySet().removeIf(key -> key.isEntityKey(entity));
+        }
+    }
+
+    private void clear() {
+        synchronized (labels) {
+            labels.clear();
+        }
+    }
+
+    /**
+     * Converts key to the form comparable with keys read from dictionary.
+     * Returns null if key can't be cached.
+     */
+    @Nullable
+    private static List<Object> normalizeKey(
+        @NotNull List<DBSEntityAttribute> keyColumns,
+        @NotNull List<DBDValueHandler> keyHandlers,
+        @NotNull Object[] keyValue
+    ) {
+        if (keyValue.length != keyColumns.size()) {
+            return null;
+        }
+        Object[] normalized = new Object[keyValue.length];
+        for (int i = 0; i < keyValue.length; i++) {
+            Object value = keyValue[i];
+            if (value == null) {
+                normalized[i] = NULL_KEY;
+            } else if (value instanceof String || value instanceof Boolean || value instanceof Character || value instanceof UUID) {
+                normalized[i] = value;
+            } else if (value instanceof Date) {
+                // Dictionary rows contain formatted dates
+                normalized[i] = keyHandlers.get(i).getValueDisplayString(keyColumns.get(i), value, DBDDisplayFormat.UI);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                // Key types may differ in result set and in dictionary
+                normalized[i] = normalizeNumber(BigDecimal.valueOf(((Number) value).longValue()));
+            } else if (value instanceof BigInteger bigInteger) {
+                normalized[i] = normalizeNumber(new BigDecimal(bigInteger));
+            } else if (value instanceof BigDecimal bigDecimal) {
+                normalized[i] = normalizeNumber(bigDecimal);
+            } else {
+                // Values without reliable equality (floats, arrays, LOBs, driver specific objects)
+                return null;
+            }
+        }
+        return Arrays.asList(normalized);
+    }
+
+    @NotNull
+    private static BigDecimal normalizeNumber(@NotNull BigDecimal value) {
+        return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+    }
+
+}
@@ -20,6 +20,7 @@ import org.apache.commons.jexl3.JexlExpression;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.model.*;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDAttributeTransformerDescriptor;
 import org.jkiss.dbeaver.model.data.json.JSONUtils;
 import org.jkiss.dbeaver.model.meta.Property;
@@ -53,6 +54,7 @@ public class DBVEntityAttribute implements DBSEntityAttribute, DBPNamedObject2,
     private DBVTransformSettings transformSettings;
     private Map<String, Object> properties;
     private JexlExpression parsedExpression;
+    private volatile DBVCompiledExpression compiledExpression;
 
     public DBVEntityAttribute(DBVEntity entity, DBVEntityAttribute parent, String name) {
         this.entity = entity;
@@ -276,6 +278,7 @@ public class DBVEntityAttribute implements DBSEntityAttribute, DBPNamedObject2,
     public void setExpression(String expression) {
         this.expression = expression;
         this.parsedExpression = null;
+        this.compiledExpression = null;
     }
 
     public List<DBVEntityAttribute> getChildren() {
@@ -345,6 +348,24 @@ public class DBVEntityAttribute implements DBSEntityAttribute, DBPNamedObject2,
         return parsedExpression;
     }
 
+    /**
+     * Returns expression bound to the specified result set attributes.
+     * Compiled expression is cached until attributes change.
+     */
+    @Nullable
+    public DBVCompiledExpression getCompiledExpression(@NotNull DBDAttributeBinding[] allAttributes) {
+        DBVCompiledExpression compiled = compiledExpression;
+        if (compiled == null || !compiled.isCompiledFor(allAttributes)) {
+            JexlExpression parsed = getParsedExpression();
+            if (parsed == null) {
+                return null;
+            }
+            compiled = DBVUtils.compileDataExpression(parsed, allAttributes, getName());
+            compiledExpression = compiled;
+        }
+        return compiled;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -17,7 +17,6 @@
 package org.jkiss.dbeaver.model.virtual;
 
 import org.apache.commons.jexl3.JexlBuilder;
-import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlExpression;
 import org.eclipse.core.runtime.IAdaptable;
@@ -418,52 +417,38 @@ public abstract class DBVUtils {
         if (CommonUtils.isEmpty(exprString)) {
             return null;
         }
-        JexlExpression expression = attribute.getParsedExpression();
+        DBVCompiledExpression expression = attribute.getCompiledExpression(allAttributes);
         if (expression == null) {
             return null;
         }
-
-        return evaluateDataExpression(allAttributes, row, expression, attribute.getName());
+        try {
+            return expression.evaluate(row);
+        } catch (Exception e) {
+            return GeneralUtils.getExpressionParseMessage(e);
+        }
     }
 
     public static Object evaluateDataExpression(DBDAttributeBinding[] allAttributes, Object[] row, JexlExpression expression, String attributeName) {
-        Map<String, Object> nsList = getExpressionNamespaces();
-
-        JexlContext context = new JexlContext() {
-            @Override
-            public Object get(String s) {
-                Object ns = nsList.get(s);
-                if (ns != null) {
-                    return ns;
-                }
-                if (s.equals(attributeName)) {
-                    return null;
-                }
-                for (DBDAttributeBinding attr : allAttributes) {
-                    if (s.equals(attr.getLabel())) {
-                        return DBUtils.getAttributeValue(attr, allAttributes, row);
-                    }
-                }
-                return null;
-            }
-
-            @Override
-            public void set(String s, Object o) {
-
-            }
-
-            @Override
-            public boolean has(String s) {
-                return get(s) != null;
-            }
-        };
         try {
-            return expression.evaluate(context);
+            return compileDataExpression(expression, allAttributes, attributeName).evaluate(row);
         } catch (Exception e) {
             return GeneralUtils.getExpressionParseMessage(e);
         }
     }
 
+    /**
+     * Binds virtual column expression to result set attributes.
+     * Variables refer to attribute labels and expression namespaces.
+     */
+    @NotNull
+    public static DBVCompiledExpression compileDataExpression(
+        @NotNull JexlExpression expression,
+        @NotNull DBDAttributeBinding[] allAttributes,
+        @Nullable String attributeName
+    ) {
+        return new DBVCompiledExpression(expression, allAttributes, true, attributeName, getExpressionNamespaces());
+    }
+
     @NotNull
     private static Map<String, Object> getExpressionNamespaces() {
         Map<String, Object> nsList = new HashMap<>();
@@ -0,0 +1,244 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.meta.QMMConnectionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMProjectInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Query execution persisted in the query history store.
+ * Keeps only plain values, meta objects are reconstructed on read.
+ */
+final class QMHistoryRecord {
+
+    final long id;
+    final long openTime;
+    final long closeTime;
+    @Nullable
+    final String projectId;
+    @Nullable
+    final String projectName;
+    @Nullable
+    final String containerId;
+    @Nullable
+    final String containerName;
+    @Nullable
+    final String driverId;
+    @Nullable
+    final String userName;
+    @Nullable
+    final String url;
+    @Nullable
+    final String instanceId;
+    @Nullable
+    final String contextName;
+    @Nullable
+    final String purpose;
+    @Nullable
+    final String queryString;
+    final long rowCount;
+    final int errorCode;
+    @Nullable
+    final String errorMessage;
+    final long fetchBeginTime;
+    final long fetchEndTime;
+    final boolean transactional;
+    @Nullable
+    final String schema;
+    @Nullable
+    final String catalog;
+
+    QMHistoryRecord(long id, @NotNull QMMStatementExecuteInfo exec) {
+        QMMStatementInfo statement = exec.getStatement();
+        QMMConnectionInfo connection = exec.getConnection();
+        QMMProjectInfo project = connection == null ? null : connection.getProjectInfo();
+        this.id = id;
+        this.openTime = exec.getOpenTime();
+        this.closeTime = exec.getCloseTime();
+        this.projectId = project == null ? null : project.getId();
+        this.projectName = project == null ? null : project.getName();
+        this.containerId = connection == null ? null : connection.getContainerId();
+        this.containerName = connection == null ? null : connection.getContainerName();
+        this.driverId = connection == null ? null : connection.getDriverId();
+        this.userName = connection == null ? null : connection.getConnectionUserName();
+        this.url = connection == null ? null : connection.getConnectionUrl();
+        this.instanceId = connection == null ? null : connection.getInstanceId();
+        this.contextName = connection == null ? null : connection.getContextName();
+        this.purpose = statement == null || statement.getPurpose() == null ? null : statement.getPurpose().name();
+        this.queryString = exec.getQueryString();
+        this.rowCount = exec.getFetchRowCount() > 0 ? exec.getFetchRowCount() : exec.getUpdateRowCount();
+        this.errorCode = exec.getErrorCode();
+        this.errorMessage = exec.getErrorMessage();
+        this.fetchBeginTime = exec.getFetchBeginTime();
+        this.fetchEndTime = exec.getFetchEndTime();
+        this.transactional = exec.isTransactional();
+        this.schema = exec.getSchema();
+        this.catalog = exec.getCatalog();
+    }
+
+    QMHistoryRecord(@NotNull DataInput in) throws IOException {
+        this.id = in.readLong();
+        this.openTime = in.readLong();
+        this.closeTime = in.readLong();
+        this.projectId = readString(in);
+        this.projectName = readString(in);
+        this.containerId = readString(in);
+        this.containerName = readString(in);
+        this.driverId = readString(in);
+        this.userName = readString(in);
+        this.url = readString(in);
+        this.instanceId = readString(in);
+        this.contextName = readString(in);
+        this.purpose = readString(in);
+        this.queryString = readString(in);
+        this.rowCount = in.readLong();
+        this.errorCode = in.readInt();
+        this.errorMessage = readString(in);
+        this.fetchBeginTime = in.readLong();
+        this.fetchEndTime = in.readLong();
+        this.transactional = in.readBoolean();
+        this.schema = readString(in);
+        this.catalog = readString(in);
+    }
+
+    void write(@NotNull DataOutput out) throws IOException {
+        out.writeLong(id);
+        out.writeLong(openTime);
+        out.writeLong(closeTime);
+        writeString(out, projectId);
+        writeString(out, projectName);
+        writeString(out, containerId);
+        writeString(out, containerName);
+        writeString(out, driverId);
+        writeString(out, userName);
+        writeString(out, url);
+        writeString(out, instanceId);
+        writeString(out, contextName);
+        writeString(out, purpose);
+        writeString(out, queryString);
+        out.writeLong(rowCount);
+        out.writeInt(errorCode);
+        writeString(out, errorMessage);
+        out.writeLong(fetchBeginTime);
+        out.writeLong(fetchEndTime);
+        out.writeBoolean(transactional);
+        writeString(out, schema);
+        writeString(out, catalog);
+    }
+
+    boolean hasError() {
+        return errorCode != 0 || errorMessage != null;
+    }
+
+    @Nullable
+    DBCExecutionPurpose getPurpose() {
+        if (purpose == null) {
+            return null;
+        }
+        return CommonUtils.valueOf(DBCExecutionPurpose.class, purpose, DBCExecutionPurpose.USER);
+    }
+
+    /**
+     * Reconstructs execution meta object. Connection and statement objects are detached copies.
+     */
+    @NotNull
+    QMMStatementExecuteInfo toExecuteInfo() {
+        QMMProjectInfo projectInfo = QMMProjectInfo.builder()
+            .setId(projectId)
+            .setName(projectName)
+            .build();
+        QMMConnectionInfo connectionInfo = QMMConnectionInfo.builder()
+            .setProjectInfo(projectInfo)
+            .setContainerId(containerId)
+            .setContainerName(containerName)
+            .setDriverId(driverId)
+            .setConnectionUserName(userName)
+            .setConnectionUrl(url)
+            .setInstanceId(instanceId)
+            .setContextName(contextName)
+            .setOpenTime(openTime)
+            .setCloseTime(closeTime)
+            .build();
+        QMMStatementInfo statementInfo = new QMMStatementInfo(openTime, closeTime, connectionInfo, getPurpose());
+        return new QMMStatementExecuteInfo(
+            openTime,
+            closeTime,
+            statementInfo,
+            queryString,
+            rowCount,
+            errorCode,
+            errorMessage,
+            fetchBeginTime,
+            fetchEndTime,
+            transactional,
+            schema,
+            catalog);
+    }
+
+    static void writeVarInt(@NotNull DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(@NotNull DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static void writeString(@NotNull DataOutput out, @Nullable String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    @Nullable
+    static String readString(@NotNull DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
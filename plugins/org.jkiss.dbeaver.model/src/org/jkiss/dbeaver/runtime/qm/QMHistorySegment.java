@@ -0,0 +1,570 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Query history segment.
+ *
+ * Data file is a sequence of compressed blocks. Block header keeps compressed length and record count,
+ * records are ordered by id and record ordinal is its id minus segment first id.
+ * Active segment is append-only, each appended batch becomes a separate block.
+ * When segment is sealed its records are recompressed into large blocks and the index file is written:
+ * time range, connections, block table and the token index.
+ * Active segment keeps its index in memory and rebuilds it from data file on startup.
+ */
+final class QMHistorySegment {
+
+    static final String ACTIVE_FILE_EXT = ".qmh";
+    static final String SEALED_FILE_EXT = ".qms";
+    static final String INDEX_FILE_EXT = ".qmi";
+
+    private static final int INDEX_VERSION = 1;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int BLOCK_HEADER_SIZE = 8;
+    private static final int SEALED_BLOCK_RECORDS = 256;
+
+    /**
+     * Compressed records block
+     */
+    record Block(long offset, int length, int firstOrdinal, int recordCount) {
+        long getEndOffset() {
+            return offset + BLOCK_HEADER_SIZE + length;
+        }
+    }
+
+    private final long number;
+    private final Path activeFile;
+    private final Path sealedFile;
+    private final Path indexFile;
+
+    private long firstId;
+    private int recordCount;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private final Set<String> containers = new HashSet<>();
+    private List<Block> blocks = new ArrayList<>();
+    private long dataSize;
+
+    // Token index of the active segment
+    @Nullable
+    private Map<String, Postings> activeTokens;
+    // Token index of a sealed segment, loaded on demand
+    @Nullable
+    private SoftReference<Map<String, byte[]>> sealedTokens;
+
+    private QMHistorySegment(@NotNull Path folder, long number) {
+        this.number = number;
+        this.activeFile = folder.resolve(getFileName(number, ACTIVE_FILE_EXT));
+        this.sealedFile = folder.resolve(getFileName(number, SEALED_FILE_EXT));
+        this.indexFile = folder.resolve(getFileName(number, INDEX_FILE_EXT));
+    }
+
+    @NotNull
+    static QMHistorySegment create(@NotNull Path folder, long number, long firstId) {
+        QMHistorySegment segment = new QMHistorySegment(folder, number);
+        segment.firstId = firstId;
+        segment.activeTokens = new HashMap<>();
+        return segment;
+    }
+
+    /**
+     * Opens existing segment. Segments without index file are treated as active and rescanned.
+     */
+    @NotNull
+    static QMHistorySegment open(@NotNull Path folder, long number) throws IOException {
+        QMHistorySegment segment = new QMHistorySegment(folder, number);
+        if (Files.exists(segment.indexFile) && Files.exists(segment.sealedFile)) {
+            // Seal could be interrupted after index was written
+            Files.deleteIfExists(segment.activeFile);
+            segment.readIndexHeader();
+            segment.dataSize = Files.size(segment.sealedFile);
+        } else {
+            segment.rebuildIndex();
+        }
+        return segment;
+    }
+
+    long getNumber() {
+        return number;
+    }
+
+    long getFirstId() {
+        return firstId;
+    }
+
+    long getNextId() {
+        return firstId + recordCount;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    boolean isSealed() {
+        return activeTokens == null;
+    }
+
+    boolean hasContainer(@NotNull String containerId) {
+        return containers.contains(containerId);
+    }
+
+    @NotNull
+    Path getDataFile() {
+        return isSealed() ? sealedFile : activeFile;
+    }
+
+    /**
+     * Returns blocks snapshot. Sealed segment blocks never change.
+     */
+    @NotNull
+    List<Block> getBlocks() {
+        return isSealed() ? blocks : new ArrayList<>(blocks);
+    }
+
+    /**
+     * Size of segment files on disk
+     */
+    long getDiskSize() {
+        long size = dataSize;
+        if (isSealed()) {
+            try {
+                size += Files.size(indexFile);
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Appends records as a single compressed block. Records ids must continue segment ids.
+     */
+    void append(@NotNull List<QMHistoryRecord> records) throws IOException {
+        if (isSealed()) {
+            throw new IOException("Segment " + number + " is sealed");
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        try (OutputStream out = new BufferedOutputStream(
+            Files.newOutputStream(activeFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))
+        {
+            Block block = writeBlock(out, dataSize, recordCount, records);
+            blocks.add(block);
+            dataSize = block.getEndOffset();
+        }
+        for (QMHistoryRecord record : records) {
+            indexRecord(record);
+        }
+    }
+
+    /**
+     * Recompresses segment data into large blocks, writes index file and drops in-memory token index.
+     */
+    void seal() throws IOException {
+        if (isSealed()) {
+            return;
+        }
+        List<Block> sealedBlocks = new ArrayList<>();
+        Path tempDataFile = sealedFile.resolveSibling(sealedFile.getFileName() + ".tmp");
+        long sealedSize = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempDataFile));
+             FileChannel channel = FileChannel.open(activeFile, StandardOpenOption.READ))
+        {
+            List<QMHistoryRecord> buffer = new ArrayList<>(SEALED_BLOCK_RECORDS);
+            int ordinal = 0;
+            for (Block block : blocks) {
+                for (QMHistoryRecord record : readBlock(channel, block)) {
+                    buffer.add(record);
+                    if (buffer.size() == SEALED_BLOCK_RECORDS) {
+                        Block sealedBlock = writeBlock(out, sealedSize, ordinal, buffer);
+                        sealedBlocks.add(sealedBlock);
+                        sealedSize = sealedBlock.getEndOffset();
+                        ordinal += buffer.size();
+                        buffer.clear();
+                    }
+                }
+            }
+            if (!buffer.isEmpty()) {
+                Block sealedBlock = writeBlock(out, sealedSize, ordinal, buffer);
+                sealedBlocks.add(sealedBlock);
+                sealedSize = sealedBlock.getEndOffset();
+            }
+        }
+        Files.move(tempDataFile, sealedFile, StandardCopyOption.REPLACE_EXISTING);
+
+        Path tempIndexFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+            new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempIndexFile)))))
+        {
+            writeIndexHeader(out, sealedBlocks);
+            out.writeInt(activeTokens.size());
+            for (Map.Entry<String, Postings> token : activeTokens.entrySet()) {
+                QMHistoryRecord.writeString(out, token.getKey());
+                byte[] postings = token.getValue().encode();
+                QMHistoryRecord.writeVarInt(out, postings.length);
+                out.write(postings);
+            }
+        }
+        Files.move(tempIndexFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(activeFile);
+
+        blocks = List.copyOf(sealedBlocks);
+        dataSize = sealedSize;
+        activeTokens = null;
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(indexFile);
+        Files.deleteIfExists(sealedFile);
+        Files.deleteIfExists(activeFile);
+    }
+
+    /**
+     * Returns ordinals of records which may contain all search tokens
+     * or null if tokens don't restrict the search.
+     * Each search token must be a substring of some record token, so token dictionary is scanned for substrings.
+     */
+    @Nullable
+    BitSet findCandidates(@NotNull Collection<String> searchTokens) throws IOException {
+        if (searchTokens.isEmpty()) {
+            return null;
+        }
+        Map<String, Postings> tokens = activeTokens;
+        Map<String, byte[]> storedTokens = tokens == null ? getSealedTokens() : null;
+        BitSet result = null;
+        for (String searchToken : searchTokens) {
+            BitSet tokenMatches = new BitSet();
+            if (tokens != null) {
+                for (Map.Entry<String, Postings> token : tokens.entrySet()) {
+                    if (token.getKey().contains(searchToken)) {
+                        token.getValue().addTo(tokenMatches);
+                    }
+                }
+            } else {
+                for (Map.Entry<String, byte[]> token : storedTokens.entrySet()) {
+                    if (token.getKey().contains(searchToken)) {
+                        Postings.decodeTo(token.getValue(), tokenMatches);
+                    }
+                }
+            }
+            if (result == null) {
+                result = tokenMatches;
+            } else {
+                result.and(tokenMatches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads all records of the block
+     */
+    @NotNull
+    static List<QMHistoryRecord> readBlock(@NotNull FileChannel channel, @NotNull Block block) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(block.length());
+        readFully(channel, data, block.offset() + BLOCK_HEADER_SIZE);
+        List<QMHistoryRecord> records = new ArrayList<>(block.recordCount());
+        try (DataInputStream in = new DataInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(data.array()))))
+        {
+            for (int i = 0; i < block.recordCount(); i++) {
+                records.add(readRecord(in));
+            }
+        }
+        return records;
+    }
+
+    private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of query history segment");
+            }
+        }
+    }
+
+    @NotNull
+    private static Block writeBlock(
+        @NotNull OutputStream out,
+        long offset,
+        int firstOrdinal,
+        @NotNull List<QMHistoryRecord> records
+    ) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (DataOutputStream dataOut = new DataOutputStream(new GZIPOutputStream(data))) {
+            ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+            DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+            for (QMHistoryRecord record : records) {
+                recordBuffer.reset();
+                record.write(recordOut);
+                dataOut.writeInt(recordBuffer.size());
+                recordBuffer.writeTo(dataOut);
+            }
+        }
+        DataOutputStream headerOut = new DataOutputStream(out);
+        headerOut.writeInt(data.size());
+        headerOut.writeInt(records.size());
+        data.writeTo(out);
+        return new Block(offset, data.size(), firstOrdinal, records.size());
+    }
+
+    @NotNull
+    private static QMHistoryRecord readRecord(@NotNull DataInputStream in) throws IOException {
+        byte[] recordData = new byte[in.readInt()];
+        in.readFully(recordData);
+        return new QMHistoryRecord(new DataInputStream(new ByteArrayInputStream(recordData)));
+    }
+
+    private void indexRecord(@NotNull QMHistoryRecord record) {
+        int ordinal = recordCount++;
+        minTime = Math.min(minTime, record.openTime);
+        maxTime = Math.max(maxTime, record.openTime);
+        if (record.containerId != null) {
+            containers.add(record.containerId);
+        }
+        if (activeTokens != null && record.queryString != null) {
+            for (String token : tokenize(record.queryString)) {
+                activeTokens.computeIfAbsent(token, t -> new Postings()).add(ordinal);
+            }
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        activeTokens = new HashMap<>();
+        if (!Files.exists(activeFile)) {
+            return;
+        }
+        List<QMHistoryRecord> records = new ArrayList<>();
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(activeFile)))) {
+            while (true) {
+                int blockLength;
+                try {
+                    blockLength = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int blockRecords = in.readInt();
+                byte[] data = new byte[blockLength];
+                in.readFully(data);
+                List<QMHistoryRecord> blockRecordList = new ArrayList<>(blockRecords);
+                try (DataInputStream blockIn = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+                    for (int i = 0; i < blockRecords; i++) {
+                        blockRecordList.add(readRecord(blockIn));
+                    }
+                }
+                blocks.add(new Block(validLength, blockLength, records.size(), blockRecords));
+                records.addAll(blockRecordList);
+                validLength += BLOCK_HEADER_SIZE + blockLength;
+            }
+        } catch (IOException e) {
+            // Last block is incomplete or corrupted (e.g. crash during append). Keep complete blocks only.
+            try (FileChannel channel = FileChannel.open(activeFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        dataSize = validLength;
+        if (!records.isEmpty()) {
+            firstId = records.get(0).id;
+        }
+        for (QMHistoryRecord record : records) {
+            indexRecord(record);
+        }
+    }
+
+    private void writeIndexHeader(@NotNull DataOutputStream out, @NotNull List<Block> indexBlocks) throws IOException {
+        out.writeInt(INDEX_VERSION);
+        out.writeLong(firstId);
+        out.writeInt(recordCount);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        out.writeInt(containers.size());
+        for (String container : containers) {
+            QMHistoryRecord.writeString(out, container);
+        }
+        out.writeInt(indexBlocks.size());
+        for (Block block : indexBlocks) {
+            out.writeLong(block.offset());
+            out.writeInt(block.length());
+            out.writeInt(block.firstOrdinal());
+            out.writeInt(block.recordCount());
+        }
+    }
+
+    /**
+     * Opens index file and reads its header
+     */
+    @NotNull
+    private DataInputStream openIndex(boolean loadHeader) throws IOException {
+        DataInputStream in = new DataInputStream(
+            new GZIPInputStream(new BufferedInputStream(Files.newInputStream(indexFile))));
+        try {
+            int version = in.readInt();
+            if (version != INDEX_VERSION) {
+                throw new IOException("Unsupported query history index version: " + version);
+            }
+            long headerFirstId = in.readLong();
+            int headerRecordCount = in.readInt();
+            long headerMinTime = in.readLong();
+            long headerMaxTime = in.readLong();
+            Set<String> headerContainers = new HashSet<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                headerContainers.add(QMHistoryRecord.readString(in));
+            }
+            List<Block> headerBlocks = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                headerBlocks.add(new Block(in.readLong(), in.readInt(), in.readInt(), in.readInt()));
+            }
+            if (loadHeader) {
+                firstId = headerFirstId;
+                recordCount = headerRecordCount;
+                minTime = headerMinTime;
+                maxTime = headerMaxTime;
+                containers.addAll(headerContainers);
+                blocks = List.copyOf(headerBlocks);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    private void readIndexHeader() throws IOException {
+        openIndex(true).close();
+    }
+
+    @NotNull
+    private synchronized Map<String, byte[]> getSealedTokens() throws IOException {
+        Map<String, byte[]> tokens = sealedTokens == null ? null : sealedTokens.get();
+        if (tokens != null) {
+            return tokens;
+        }
+        try (DataInputStream in = openIndex(false)) {
+            int tokenCount = in.readInt();
+            tokens = new HashMap<>(tokenCount * 4 / 3 + 1);
+            for (int i = 0; i < tokenCount; i++) {
+                String token = QMHistoryRecord.readString(in);
+                byte[] postings = new byte[QMHistoryRecord.readVarInt(in)];
+                in.readFully(postings);
+                tokens.put(token, postings);
+            }
+        }
+        sealedTokens = new SoftReference<>(tokens);
+        return tokens;
+    }
+
+    /**
+     * Splits text into distinct lower-case word tokens.
+     */
+    @NotNull
+    static Set<String> tokenize(@NotNull String text) {
+        Set<String> tokens = new HashSet<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                if (token.length() >= MIN_TOKEN_LENGTH) {
+                    tokens.add(token.toString());
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    @NotNull
+    static String getFileName(long number, @NotNull String extension) {
+        return String.format("%010d", number) + extension;
+    }
+
+    /**
+     * Sorted list of record ordinals
+     */
+    private static class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        void addTo(@NotNull BitSet bitSet) {
+            for (int i = 0; i < size; i++) {
+                bitSet.set(ordinals[i]);
+            }
+        }
+
+        @NotNull
+        byte[] encode() throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(size + 4);
+            DataOutputStream out = new DataOutputStream(buffer);
+            QMHistoryRecord.writeVarInt(out, size);
+            int prev = 0;
+            for (int i = 0; i < size; i++) {
+                QMHistoryRecord.writeVarInt(out, ordinals[i] - prev);
+                prev = ordinals[i];
+            }
+            return buffer.toByteArray();
+        }
+
+        static void decodeTo(@NotNull byte[] encoded, @NotNull BitSet bitSet) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+            int count = QMHistoryRecord.readVarInt(in);
+            int ordinal = 0;
+            for (int i = 0; i < count; i++) {
+                ordinal += QMHistoryRecord.readVarInt(in);
+                bitSet.set(ordinal);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,759 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.filters.QMCursorFilter;
+import org.jkiss.dbeaver.model.qm.filters.QMDateRange;
+import org.jkiss.dbeaver.model.qm.filters.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.filters.QMEventStatus;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Persistent query history.
+ *
+ * Finished query executions are appended to segment files in the history folder (see {@link QMHistorySegment}).
+ * Segments are skipped by time range, connection and id range, the token index narrows full-text search
+ * to candidate records. Oldest segments are removed when history exceeds size or age limit.
+ * Only query executions are persisted, sessions and transactions are read from the in-memory log.
+ */
+public class QMHistoryStore implements QMMetaListener, QMEventBrowser {
+
+    private static final Log log = Log.getLog(QMHistoryStore.class);
+
+    public static final String HISTORY_FOLDER = "query-history";
+
+    private static final int DEFAULT_SEGMENT_MAX_RECORDS = 50000;
+    private static final long SEGMENT_MAX_SIZE = 16L * 1024 * 1024;
+    // Executions are persisted after their results were fetched (or after this timeout)
+    private static final long FETCH_WAIT_TIMEOUT = 60000;
+    private static final long FLUSH_PERIOD = 10000;
+
+    private final Path folder;
+    private final int segmentMaxRecords;
+    // Segments ordered from the oldest to the newest one, the last segment is active
+    private final List<QMHistorySegment> segments = new ArrayList<>();
+    private final List<QMMStatementExecuteInfo> pendingExecutions = new ArrayList<>();
+    private long maxSize;
+    private int maxDays;
+    @Nullable
+    private volatile QMEventBrowser memoryBrowser;
+    @Nullable
+    private FlushJob flushJob;
+
+    /**
+     * @param maxSize maximum history size in bytes, 0 means no limit
+     * @param maxDays maximum history age in days, 0 means no limit
+     */
+    public QMHistoryStore(@NotNull Path folder, long maxSize, int maxDays) throws IOException {
+        this(folder, maxSize, maxDays, DEFAULT_SEGMENT_MAX_RECORDS);
+    }
+
+    QMHistoryStore(@NotNull Path folder, long maxSize, int maxDays, int segmentMaxRecords) throws IOException {
+        this.folder = folder;
+        this.segmentMaxRecords = segmentMaxRecords;
+        this.maxSize = maxSize;
+        this.maxDays = maxDays;
+        openSegments();
+        applyRetention();
+    }
+
+    @NotNull
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Sets browser of the in-memory event log. Sessions and transactions are not persisted, they are read from it.
+     */
+    public void setMemoryBrowser(@Nullable QMEventBrowser memoryBrowser) {
+        this.memoryBrowser = memoryBrowser;
+    }
+
+    /**
+     * Starts periodic flush of pending executions, so they are persisted even if no new events arrive
+     */
+    public synchronized void startFlushJob() {
+        if (flushJob == null) {
+            flushJob = new FlushJob();
+            flushJob.schedule(FLUSH_PERIOD);
+        }
+    }
+
+    public synchronized void setRetention(long maxSize, int maxDays) {
+        this.maxSize = maxSize;
+        this.maxDays = maxDays;
+        applyRetention();
+    }
+
+    public synchronized long getRecordCount() {
+        long count = 0;
+        for (QMHistorySegment segment : segments) {
+            count += segment.getRecordCount();
+        }
+        return count;
+    }
+
+    public synchronized long getDiskSize() {
+        long size = 0;
+        for (QMHistorySegment segment : segments) {
+            size += segment.getDiskSize();
+        }
+        return size;
+    }
+
+    /**
+     * Persists all pending executions
+     */
+    public synchronized void flush() {
+        flushPendingExecutions(true);
+    }
+
+    @Override
+    public synchronized void metaInfoChanged(@NotNull DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events) {
+        for (QMMetaEvent event : events) {
+            if (event.getAction() == QMEventAction.END && event.getObject() instanceof QMMStatementExecuteInfo exec) {
+                pendingExecutions.add(exec);
+            }
+        }
+        flushPendingExecutions(false);
+    }
+
+    /**
+     * Appends executions to the history
+     */
+    public synchronized void addExecutions(@NotNull List<QMMStatementExecuteInfo> executions) throws IOException {
+        if (executions.isEmpty()) {
+            return;
+        }
+        QMHistorySegment segment = getActiveSegment();
+        long nextId = segment.getNextId();
+        List<QMHistoryRecord> records = new ArrayList<>(executions.size());
+        for (QMMStatementExecuteInfo exec : executions) {
+            records.add(new QMHistoryRecord(nextId++, exec));
+        }
+        segment.append(records);
+        if (segment.getRecordCount() >= segmentMaxRecords || segment.getDiskSize() >= SEGMENT_MAX_SIZE) {
+            segment.seal();
+            segments.add(QMHistorySegment.create(folder, segment.getNumber() + 1, segment.getNextId()));
+            applyRetention();
+        }
+    }
+
+    @NotNull
+    @Override
+    public QMEventCursor getQueryHistoryCursor(@NotNull QMCursorFilter cursorFilter) throws DBException {
+        QMEventCriteria criteria = cursorFilter.getCriteria();
+        QMEventBrowser memoryBrowser = this.memoryBrowser;
+        List<QMObjectType> memoryTypes = new ArrayList<>();
+        for (QMObjectType type : QMObjectType.values()) {
+            if (type != QMObjectType.query && (criteria.getObjectTypes().length == 0 || criteria.hasObjectType(type))) {
+                memoryTypes.add(type);
+            }
+        }
+        boolean readQueries = criteria.getObjectTypes().length == 0 || criteria.hasObjectType(QMObjectType.query);
+        if (!readQueries) {
+            return memoryBrowser == null ? new QMUtils.EmptyCursorImpl() : memoryBrowser.getQueryHistoryCursor(cursorFilter);
+        }
+        QMEventCursor historyCursor = openHistoryCursor(cursorFilter);
+        if (memoryBrowser == null || memoryTypes.isEmpty()) {
+            return historyCursor;
+        }
+        QMEventCriteria memoryCriteria = new QMEventCriteria();
+        memoryCriteria.setContainerId(criteria.getContainerId());
+        memoryCriteria.setSessionId(criteria.getSessionId());
+        memoryCriteria.setObjectTypes(memoryTypes.toArray(new QMObjectType[0]));
+        memoryCriteria.setQueryTypes(criteria.getQueryTypes());
+        memoryCriteria.setSearchString(criteria.getSearchString());
+        memoryCriteria.setFetchingSize(criteria.getFetchingSize());
+        memoryCriteria.setDesc(criteria.isDesc());
+        QMEventCursor memoryCursor;
+        try {
+            memoryCursor = memoryBrowser.getQueryHistoryCursor(
+                new QMCursorFilter(cursorFilter.getSessionId(), memoryCriteria, cursorFilter.getFilter()));
+        } catch (DBException e) {
+            historyCursor.close();
+            throw e;
+        }
+        return new MergedCursor(historyCursor, memoryCursor, criteria.isDesc());
+    }
+
+    @NotNull
+    private QMEventCursor openHistoryCursor(@NotNull QMCursorFilter cursorFilter) throws DBException {
+        QMEventCriteria criteria = cursorFilter.getCriteria();
+        HistoryQuery query = new HistoryQuery(criteria, cursorFilter.getFilter());
+        List<SegmentScan> scans = new ArrayList<>();
+        synchronized (this) {
+            for (QMHistorySegment segment : segments) {
+                if (segment.getRecordCount() == 0 || !query.matchesSegment(segment)) {
+                    continue;
+                }
+                BitSet candidates = null;
+                if (!segment.isSealed()) {
+                    // Active segment index changes on append, so search it right now
+                    try {
+                        candidates = segment.findCandidates(query.searchTokens);
+                    } catch (IOException e) {
+                        throw new DBException("Error searching query history", e);
+                    }
+                }
+                scans.add(new SegmentScan(segment, segment.getDataFile(), segment.getBlocks(), candidates));
+            }
+        }
+        if (criteria.isDesc()) {
+            Collections.reverse(scans);
+        }
+        return new HistoryCursor(query, scans);
+    }
+
+    /**
+     * Persists pending executions and stops accepting new ones
+     */
+    public synchronized void close() {
+        if (flushJob != null) {
+            flushJob.cancel();
+            flushJob = null;
+        }
+        flushPendingExecutions(true);
+    }
+
+    private void flushPendingExecutions(boolean force) {
+        if (pendingExecutions.isEmpty()) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        List<QMMStatementExecuteInfo> executions = new ArrayList<>();
+        for (Iterator<QMMStatementExecuteInfo> iter = pendingExecutions.iterator(); iter.hasNext(); ) {
+            QMMStatementExecuteInfo exec = iter.next();
+            if (force || isExecutionFinished(exec) || currentTime - exec.getCloseTime() > FETCH_WAIT_TIMEOUT) {
+                executions.add(exec);
+                iter.remove();
+            }
+        }
+        try {
+            addExecutions(executions);
+        } catch (IOException e) {
+            log.error("Error writing query history", e);
+        }
+    }
+
+    private static boolean isExecutionFinished(@NotNull QMMStatementExecuteInfo exec) {
+        if (exec.getFetchBeginTime() > 0) {
+            return exec.getFetchEndTime() > 0;
+        }
+        return exec.hasError() || exec.getStatement() == null || exec.getStatement().isClosed();
+    }
+
+    private void openSegments() throws IOException {
+        Files.createDirectories(folder);
+        SortedSet<Long> numbers = new TreeSet<>();
+        try (Stream<Path> files = Files.list(folder)) {
+            files.forEach(file -> {
+                String fileName = file.getFileName().toString();
+                int divPos = fileName.indexOf('.');
+                if (divPos > 0 && !fileName.endsWith(".tmp")) {
+                    try {
+                        numbers.add(Long.parseLong(fileName.substring(0, divPos)));
+                    } catch (NumberFormatException e) {
+                        // Not a segment file
+                    }
+                }
+            });
+        }
+        for (Long number : numbers) {
+            try {
+                QMHistorySegment segment = QMHistorySegment.open(folder, number);
+                if (segment.getRecordCount() == 0) {
+                    segment.delete();
+                    continue;
+                }
+                if (!segments.isEmpty() &&
+                    segment.getFirstId() < segments.get(segments.size() - 1).getNextId())
+                {
+                    throw new IOException("Segment ids overlap with previous segment");
+                }
+                segments.add(segment);
+            } catch (IOException e) {
+                log.warn("Query history segment " + number + " is corrupted and will be removed", e);
+                QMHistorySegment.create(folder, number, 0).delete();
+            }
+        }
+        // Only the last segment can be active
+        for (int i = 0; i < segments.size() - 1; i++) {
+            segments.get(i).seal();
+        }
+        getActiveSegment();
+    }
+
+    @NotNull
+    private QMHistorySegment getActiveSegment() {
+        QMHistorySegment lastSegment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (lastSegment != null && !lastSegment.isSealed()) {
+            return lastSegment;
+        }
+        QMHistorySegment segment = lastSegment == null ?
+            QMHistorySegment.create(folder, 1, 1) :
+            QMHistorySegment.create(folder, lastSegment.getNumber() + 1, lastSegment.getNextId());
+        segments.add(segment);
+        return segment;
+    }
+
+    private void applyRetention() {
+        try {
+            if (maxDays > 0) {
+                long minTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxDays);
+                QMHistorySegment activeSegment = getActiveSegment();
+                if (activeSegment.getRecordCount() > 0 && activeSegment.getMaxTime() < minTime) {
+                    // The whole active segment is outdated
+                    activeSegment.seal();
+                    getActiveSegment();
+                }
+                while (segments.size() > 1 && segments.get(0).getMaxTime() < minTime) {
+                    deleteSegment(segments.get(0));
+                }
+            }
+            if (maxSize > 0) {
+                long totalSize = getDiskSize();
+                while (segments.size() > 1 && totalSize > maxSize) {
+                    QMHistorySegment segment = segments.get(0);
+                    totalSize -= segment.getDiskSize();
+                    deleteSegment(segment);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error applying query history retention policy", e);
+        }
+    }
+
+    private void deleteSegment(@NotNull QMHistorySegment segment) throws IOException {
+        segments.remove(segment);
+        segment.delete();
+        log.debug("Query history segment " + segment.getNumber() + " removed by retention policy");
+    }
+
+    private class FlushJob extends AbstractJob {
+        FlushJob() {
+            super("Query history flush");
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            synchronized (QMHistoryStore.this) {
+                if (flushJob != this) {
+                    return Status.OK_STATUS;
+                }
+                flushPendingExecutions(false);
+            }
+            schedule(FLUSH_PERIOD);
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Merges persisted queries with in-memory events by event time
+     */
+    private static class MergedCursor implements QMEventCursor {
+        private final QMEventCursor[] cursors;
+        private final QMMetaEventEntity[] nextEvents;
+        private final boolean desc;
+
+        MergedCursor(@NotNull QMEventCursor historyCursor, @NotNull QMEventCursor memoryCursor, boolean desc) {
+            this.cursors = new QMEventCursor[] {historyCursor, memoryCursor};
+            this.nextEvents = new QMMetaEventEntity[cursors.length];
+            this.desc = desc;
+        }
+
+        @Override
+        public long getTotalSize() {
+            long totalSize = 0;
+            for (QMEventCursor cursor : cursors) {
+                totalSize += cursor.getTotalSize();
+            }
+            return totalSize;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            for (int i = 0; i < position; i++) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + i + ")");
+                }
+                nextEvent(monitor);
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            boolean hasEvents = false;
+            for (int i = 0; i < cursors.length; i++) {
+                if (nextEvents[i] == null && cursors[i].hasNextEvent(monitor)) {
+                    nextEvents[i] = cursors[i].nextEvent(monitor);
+                }
+                hasEvents |= nextEvents[i] != null;
+            }
+            return hasEvents;
+        }
+
+        @Override
+        public QMMetaEventEntity nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more query history events");
+            }
+            int next = -1;
+            for (int i = 0; i < nextEvents.length; i++) {
+                if (nextEvents[i] == null) {
+                    continue;
+                }
+                if (next < 0) {
+                    next = i;
+                } else {
+                    long time = nextEvents[i].getObject().getOpenTime();
+                    long nextTime = nextEvents[next].getObject().getOpenTime();
+                    if (desc ? time > nextTime : time < nextTime) {
+                        next = i;
+                    }
+                }
+            }
+            QMMetaEventEntity event = nextEvents[next];
+            nextEvents[next] = null;
+            return event;
+        }
+
+        @Override
+        public void close() {
+            for (QMEventCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    private record SegmentScan(
+        @NotNull QMHistorySegment segment,
+        @NotNull Path dataFile,
+        @NotNull List<QMHistorySegment.Block> blocks,
+        @Nullable BitSet activeCandidates
+    ) {
+    }
+
+    /**
+     * Criteria checks over persisted records
+     */
+    private static class HistoryQuery {
+        private final QMEventCriteria criteria;
+        @Nullable
+        private final QMEventFilter filter;
+        @Nullable
+        private final String searchString;
+        @NotNull
+        private final Set<String> searchTokens;
+        private final long minTime;
+        private final long maxTime;
+
+        HistoryQuery(@NotNull QMEventCriteria criteria, @Nullable QMEventFilter filter) {
+            this.criteria = criteria;
+            this.filter = filter;
+            this.searchString = CommonUtils.isEmpty(criteria.getSearchString()) ? null : criteria.getSearchString().toLowerCase();
+            this.searchTokens = searchString == null ? Collections.emptySet() : QMHistorySegment.tokenize(searchString);
+            QMDateRange dateRange = criteria.getStartDateRange();
+            this.minTime = dateRange == null ? Long.MIN_VALUE : parseTime(dateRange.getFrom(), Long.MIN_VALUE);
+            this.maxTime = dateRange == null ? Long.MAX_VALUE : parseTime(dateRange.getTo(), Long.MAX_VALUE);
+        }
+
+        boolean matchesSegment(@NotNull QMHistorySegment segment) {
+            if (criteria.getContainerId() != null && !segment.hasContainer(criteria.getContainerId())) {
+                return false;
+            }
+            if (segment.getMaxTime() < minTime || segment.getMinTime() > maxTime) {
+                return false;
+            }
+            Long lastEventId = criteria.getLastEventId();
+            if (lastEventId != null) {
+                return criteria.isDesc() ? segment.getFirstId() < lastEventId : segment.getNextId() - 1 > lastEventId;
+            }
+            return true;
+        }
+
+        boolean matchesRecord(@NotNull QMHistoryRecord record) {
+            Long lastEventId = criteria.getLastEventId();
+            if (lastEventId != null && (criteria.isDesc() ? record.id >= lastEventId : record.id <= lastEventId)) {
+                return false;
+            }
+            if (record.openTime < minTime || record.openTime > maxTime) {
+                return false;
+            }
+            if (criteria.getContainerId() != null && !criteria.getContainerId().equals(record.containerId)) {
+                return false;
+            }
+            if (criteria.hasDriverIds() && !criteria.getDriverIds().contains(record.driverId)) {
+                return false;
+            }
+            if (criteria.hasProjectIds() && !criteria.getProjectIds().contains(record.projectId)) {
+                return false;
+            }
+            if (!criteria.getSchemas().isEmpty() && !criteria.getSchemas().contains(record.schema)) {
+                return false;
+            }
+            if (!criteria.getCatalogs().isEmpty() && !criteria.getCatalogs().contains(record.catalog)) {
+                return false;
+            }
+            if (criteria.hasQueryTypes()) {
+                DBCExecutionPurpose purpose = record.getPurpose();
+                if (purpose != null && !ArrayUtils.contains(criteria.getQueryTypes(), purpose)) {
+                    return false;
+                }
+            }
+            if (criteria.hasEventStatuses() &&
+                !criteria.getEventStatuses().contains(record.hasError() ? QMEventStatus.FAILED : QMEventStatus.SUCCESS))
+            {
+                return false;
+            }
+            if (criteria.isSkipEmptyQueries() && CommonUtils.isEmptyTrimmed(record.queryString)) {
+                return false;
+            }
+            return searchString == null ||
+                (record.queryString != null && record.queryString.toLowerCase().contains(searchString));
+        }
+
+        boolean matchesEvent(@NotNull QMMetaEvent event) {
+            return filter == null || filter.accept(event);
+        }
+
+        private static long parseTime(@Nullable String value, long defaultValue) {
+            if (CommonUtils.isEmpty(value)) {
+                return defaultValue;
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                // Not a timestamp
+            }
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // Not an instant
+            }
+            try {
+                return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // Not a local date time
+            }
+            try {
+                return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                log.debug("Unsupported query history date '" + value + "'");
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Reads matching records block by block, in the requested order
+     */
+    private static class HistoryCursor implements QMEventCursor {
+        private final HistoryQuery query;
+        private final List<SegmentScan> scans;
+        private final boolean desc;
+        private final Deque<QMMetaEventEntity> buffer = new ArrayDeque<>();
+
+        private int scanIndex;
+        private int blockIndex;
+        @Nullable
+        private BitSet candidates;
+        @Nullable
+        private FileChannel channel;
+        private long totalSize = -1;
+
+        HistoryCursor(@NotNull HistoryQuery query, @NotNull List<SegmentScan> scans) {
+            this.query = query;
+            this.scans = scans;
+            this.desc = query.criteria.isDesc();
+            this.scanIndex = -1;
+        }
+
+        @Override
+        public long getTotalSize() {
+            if (totalSize < 0) {
+                HistoryCursor counter = new HistoryCursor(query, scans);
+                long count = 0;
+                try {
+                    while (counter.hasNextEvent(null)) {
+                        count += counter.buffer.size();
+                        counter.buffer.clear();
+                    }
+                } catch (DBException e) {
+                    log.debug("Error counting query history events", e);
+                } finally {
+                    counter.close();
+                }
+                totalSize = count;
+            }
+            return totalSize;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            closeSegment();
+            buffer.clear();
+            scanIndex = -1;
+            for (int i = 0; i < position; i++) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + i + ")");
+                }
+                buffer.poll();
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            while (buffer.isEmpty()) {
+                if (monitor != null && monitor.isCanceled()) {
+                    return false;
+                }
+                if (!readNextBlock()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public QMMetaEventEntity nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more query history events");
+            }
+            return buffer.poll();
+        }
+
+        @Override
+        public void close() {
+            closeSegment();
+            buffer.clear();
+        }
+
+        private boolean readNextBlock() throws DBException {
+            while (scanIndex < scans.size()) {
+                if (scanIndex < 0 || blockIndex < 0 || blockIndex >= getCurrentScan().blocks().size()) {
+                    closeSegment();
+                    if (!openNextSegment()) {
+                        return false;
+                    }
+                    continue;
+                }
+                SegmentScan scan = getCurrentScan();
+                QMHistorySegment.Block block = scan.blocks().get(blockIndex);
+                blockIndex += desc ? -1 : 1;
+                if (candidates != null) {
+                    int nextCandidate = candidates.nextSetBit(block.firstOrdinal());
+                    if (nextCandidate < 0 || nextCandidate >= block.firstOrdinal() + block.recordCount()) {
+                        continue;
+                    }
+                }
+                List<QMHistoryRecord> records;
+                try {
+                    records = QMHistorySegment.readBlock(channel, block);
+                } catch (IOException e) {
+                    throw new DBException("Error reading query history", e);
+                }
+                if (desc) {
+                    Collections.reverse(records);
+                }
+                for (QMHistoryRecord record : records) {
+                    int ordinal = (int) (record.id - scan.segment().getFirstId());
+                    if ((candidates != null && !candidates.get(ordinal)) || !query.matchesRecord(record)) {
+                        continue;
+                    }
+                    QMMStatementExecuteInfo exec = record.toExecuteInfo();
+                    if (query.matchesEvent(new QMMetaEvent(exec, QMEventAction.END, ""))) {
+                        buffer.add(new QMMetaEventEntity(exec, QMEventAction.END, record.id, "", null));
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @NotNull
+        private SegmentScan getCurrentScan() {
+            return scans.get(scanIndex);
+        }
+
+        private boolean openNextSegment() throws DBException {
+            while (++scanIndex < scans.size()) {
+                SegmentScan scan = getCurrentScan();
+                try {
+                    candidates = scan.activeCandidates() != null ?
+                        scan.activeCandidates() :
+                        scan.segment().findCandidates(query.searchTokens);
+                    if (candidates != null && candidates.isEmpty()) {
+                        continue;
+                    }
+                    channel = FileChannel.open(scan.dataFile(), StandardOpenOption.READ);
+                } catch (NoSuchFileException e) {
+                    // Removed by retention policy or sealed after cursor was opened
+                    log.debug("Query history segment " + scan.segment().getNumber() + " is not available anymore");
+                    continue;
+                } catch (IOException e) {
+                    throw new DBException("Error opening query history", e);
+                }
+                blockIndex = desc ? scan.blocks().size() - 1 : 0;
+                return true;
+            }
+            return false;
+        }
+
+        private void closeSegment() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug(e);
+                }
+                channel = null;
+            }
+            candidates = null;
+        }
+    }
+
+}
@@ -19,13 +19,17 @@ package org.jkiss.dbeaver.runtime.qm;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.qm.*;
 import org.jkiss.dbeaver.model.qm.filters.QMCursorFilter;
 import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -47,6 +51,16 @@ public class QMRegistryImpl implements QMRegistry {
     private final List<QMExecutionHandler> handlers = new ArrayList<>();
     private QMEventBrowser eventBrowser;
     private DefaultEventBrowser defaultEventBrowser = new DefaultEventBrowser();
+    private QMHistoryStore historyStore;
+    private final DBPPreferenceListener historyPreferenceListener = event -> {
+        String property = event.getProperty();
+        if (QMConstants.PROP_STORE_HISTORY.equals(property) ||
+            QMConstants.PROP_HISTORY_MAX_SIZE.equals(property) ||
+            QMConstants.PROP_HISTORY_DAYS.equals(property))
+        {
+            updateHistoryStore();
+        }
+    };
 
     public QMRegistryImpl() {
         defaultHandler = (QMExecutionHandler) Proxy.newProxyInstance(
@@ -56,10 +70,15 @@ public class QMRegistryImpl implements QMRegistry {
 
         metaHandler = new QMMCollectorImpl();
         registerHandler(metaHandler);
+
+        DBWorkbench.getPlatform().getPreferenceStore().addPropertyChangeListener(historyPreferenceListener);
+        updateHistoryStore();
     }
 
     public void dispose()
     {
+        DBWorkbench.getPlatform().getPreferenceStore().removePropertyChangeListener(historyPreferenceListener);
+        closeHistoryStore();
         if (metaHandler != null) {
             unregisterHandler(metaHandler);
             metaHandler.dispose();
@@ -98,10 +117,53 @@ public class QMRegistryImpl implements QMRegistry {
                 this.eventBrowser = defaultEventBrowser;
             }
         }
+        if (eventBrowser == defaultEventBrowser && historyStore != null) {
+            return historyStore;
+        }
 
         return eventBrowser;
     }
 
+    /**
+     * Persistent query history or null if history storing is disabled
+     */
+    public synchronized QMHistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    private synchronized void updateHistoryStore() {
+        DBPPreferenceStore preferences = DBWorkbench.getPlatform().getPreferenceStore();
+        long maxSize = preferences.getInt(QMConstants.PROP_HISTORY_MAX_SIZE) * 1024L * 1024L;
+        int maxDays = preferences.getInt(QMConstants.PROP_HISTORY_DAYS);
+        if (!preferences.getBoolean(QMConstants.PROP_STORE_HISTORY)) {
+            closeHistoryStore();
+        } else if (historyStore != null) {
+            historyStore.setRetention(maxSize, maxDays);
+        } else if (metaHandler != null) {
+            try {
+                historyStore = new QMHistoryStore(
+                    GeneralUtils.getMetadataFolder().resolve(QMHistoryStore.HISTORY_FOLDER),
+                    maxSize,
+                    maxDays);
+                historyStore.setMemoryBrowser(defaultEventBrowser);
+                historyStore.startFlushJob();
+                metaHandler.addListener(historyStore);
+            } catch (IOException e) {
+                log.error("Can't open query history store", e);
+            }
+        }
+    }
+
+    private synchronized void closeHistoryStore() {
+        if (historyStore != null) {
+            if (metaHandler != null) {
+                metaHandler.removeListener(historyStore);
+            }
+            historyStore.close();
+            historyStore = null;
+        }
+    }
+
     @Override
     public void registerHandler(QMExecutionHandler handler) {
         synchronized (handlers) {
@@ -17,8 +17,7 @@
 package org.jkiss.dbeaver.model.net.ssh;
 
 import net.schmizz.sshj.SSHClient;
-import net.schmizz.sshj.connection.channel.direct.LocalPortForwarder;
-import net.schmizz.sshj.connection.channel.direct.Parameters;
+import net.schmizz.sshj.connection.channel.direct.DirectConnection;
 import net.schmizz.sshj.sftp.SFTPClient;
 import net.schmizz.sshj.xfer.InMemoryDestFile;
 import net.schmizz.sshj.xfer.InMemorySourceFile;
@@ -26,6 +25,7 @@ import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHHostConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -33,17 +33,13 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.InetAddress;
-import java.net.ServerSocket;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
 
 public class SSHJSession extends AbstractSession {
     private static final Log log = Log.getLog(SSHJSession.class);
 
-    private final Map<SSHPortForwardConfiguration, LocalPortListener> listeners = new ConcurrentHashMap<>();
+    private final Map<SSHPortForwardConfiguration, SSHLocalPortForwarder> forwarders = new ConcurrentHashMap<>();
     private final SSHJSessionController controller;
 
     private SSHClient client;
@@ -67,8 +63,11 @@ public class SSHJSession extends AbstractSession {
         @NotNull DBWHandlerConfiguration configuration,
         long timeout
     ) throws DBException {
-        // Listeners will be closed by the client itself
-        listeners.clear();
+        for (SSHLocalPortForwarder forwarder : forwarders.values()) {
+            forwarder.close();
+        }
+        forwarders.clear();
+        log.debug("SSH session traffic: " + getStatistics());
 
         try {
             // FIXME: timeout is not used
@@ -82,10 +81,10 @@ public class SSHJSession extends AbstractSession {
     @Override
     public SSHPortForwardConfiguration setupPortForward(@NotNull SSHPortForwardConfiguration config) throws DBException {
         try {
-            final LocalPortListener listener = LocalPortListener.setup(client, config);
-            final SSHPortForwardConfiguration resolved = Objects.requireNonNull(listener.resolved);
+            final SSHLocalPortForwarder forwarder = new SSHLocalPortForwarder(this, config);
+            final SSHPortForwardConfiguration resolved = forwarder.getResolvedConfiguration();
 
-            listeners.put(resolved, listener);
+            forwarders.put(resolved, forwarder);
 
             return resolved;
         } catch (Exception e) {
@@ -95,11 +94,45 @@ public class SSHJSession extends AbstractSession {
 
     @Override
     public void removePortForward(@NotNull SSHPortForwardConfiguration configuration) throws DBException {
-        final LocalPortListener listener = listeners.remove(configuration);
-        if (listener == null) {
+        final SSHLocalPortForwarder forwarder = forwarders.remove(configuration);
+        if (forwarder == null) {
             throw new DBException("No such port forward configuration: " + configuration);
         }
-        listener.disconnect();
+        forwarder.close();
+    }
+
+    @Override
+    public boolean supportsDirectChannels() {
+        return true;
+    }
+
+    @NotNull
+    @Override
+    protected DBWTunnelChannel createDirectChannel(@NotNull String host, int port) throws IOException {
+        final DirectConnection connection = client.newDirectConnection(host, port);
+        return new DBWTunnelChannel() {
+            @NotNull
+            @Override
+            public InputStream getInputStream() {
+                return connection.getInputStream();
+            }
+
+            @NotNull
+            @Override
+            public OutputStream getOutputStream() {
+                return connection.getOutputStream();
+            }
+
+            @Override
+            public boolean isOpen() {
+                return connection.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                connection.close();
+            }
+        };
     }
 
     @Override
@@ -172,67 +205,4 @@ public class SSHJSession extends AbstractSession {
         sftpClient.getFileTransfer().setPreserveAttributes(false);
         return sftpClient;
     }
-
-    private static class LocalPortListener extends Thread {
-        private final SSHClient client;
-        private final SSHPortForwardConfiguration config;
-        private final CountDownLatch started = new CountDownLatch(1);
-
-        private volatile LocalPortForwarder forwarder;
-        private volatile SSHPortForwardConfiguration resolved;
-
-        public LocalPortListener(@NotNull SSHClient client, @NotNull SSHPortForwardConfiguration config) {
-            this.client = client;
-            this.config = config;
-        }
-
-        @NotNull
-        public static LocalPortListener setup(
-            @NotNull SSHClient client,
-            @NotNull SSHPortForwardConfiguration config
-        ) throws InterruptedException {
-            final LocalPortListener listener = new LocalPortListener(client, config);
-
-            listener.start();
-            listener.await();
-
-            return listener;
-        }
-
-        @Override
-        public void run() {
-            try {
-                final ServerSocket socket = new ServerSocket(config.localPort(), 0, InetAddress.getByName(config.localHost()));
-                final Parameters parameters = new Parameters(config.localHost(), socket.getLocalPort(), config.remoteHost(), config.remotePort());
-
-                forwarder = client.newLocalPortForwarder(parameters, socket);
-                resolved = new SSHPortForwardConfiguration(config.localHost(), socket.getLocalPort(), config.remoteHost(), config.remotePort());
-
-                setName("Port forwarder listener (" + resolved + ")");
-
-                started.countDown();
-                forwarder.listen();
-            } catch (IOException e) {
-                log.error("Error while listening on the port forwarder", e);
-            }
-        }
-
-        public void disconnect() {
-            try {
-                forwarder.close();
-                forwarder = null;
-            } catch (Exception e) {
-                log.error("Error while stopping port forwarding", e);
-            }
-        }
-
-        private void await() throws InterruptedException {
-            started.await();
-
-            while (!forwarder.isRunning()) {
-                // Wait for the forwarder to actually start
-                Thread.yield();
-            }
-        }
-    }
 }
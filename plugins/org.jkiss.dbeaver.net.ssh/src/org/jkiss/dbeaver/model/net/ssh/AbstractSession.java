@@ -18,12 +18,17 @@ package org.jkiss.dbeaver.model.net.ssh;
 
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
 import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHHostConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 
+import java.io.IOException;
+
 public abstract class AbstractSession implements SSHSession {
+    private final SSHTunnelStatistics statistics = new SSHTunnelStatistics();
+
     public abstract void connect(
         @NotNull DBRProgressMonitor monitor,
         @NotNull SSHHostConfiguration destination,
@@ -44,4 +49,32 @@ public abstract class AbstractSession implements SSHSession {
     public abstract void removePortForward(
         @NotNull SSHPortForwardConfiguration configuration
     ) throws DBException;
+
+    /**
+     * Checks whether session can open direct-tcpip channels, i.e. connections to remote endpoints
+     * without a local port listener.
+     */
+    public boolean supportsDirectChannels() {
+        return false;
+    }
+
+    /**
+     * Opens direct-tcpip channel to the remote endpoint. Channel traffic is counted in session statistics.
+     */
+    @NotNull
+    public DBWTunnelChannel openDirectChannel(@NotNull String host, int port) throws IOException {
+        long startTime = System.nanoTime();
+        DBWTunnelChannel channel = createDirectChannel(host, port);
+        return statistics.trackChannel(channel, System.nanoTime() - startTime);
+    }
+
+    @NotNull
+    public SSHTunnelStatistics getStatistics() {
+        return statistics;
+    }
+
+    @NotNull
+    protected DBWTunnelChannel createDirectChannel(@NotNull String host, int port) throws IOException {
+        throw new IOException("Direct channels are not supported by " + getClass().getSimpleName());
+    }
 }
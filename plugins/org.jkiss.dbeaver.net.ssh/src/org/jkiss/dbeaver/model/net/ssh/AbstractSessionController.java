@@ -26,6 +26,7 @@ import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.exec.DBCInvalidatePhase;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHHostConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -414,6 +415,11 @@ public abstract class AbstractSessionController<T extends AbstractSession> imple
                 .collect(Collectors.joining(", "));
         }
 
+        @Property(viewable = true, order = 4, name = "Traffic")
+        public String getTrafficInfo() {
+            return getStatistics().toString();
+        }
+
         @Override
         public synchronized void connect(
             @NotNull DBRProgressMonitor monitor,
@@ -562,6 +568,23 @@ public abstract class AbstractSessionController<T extends AbstractSession> imple
             return getSession().getServerVersion();
         }
 
+        @Override
+        public boolean supportsDirectChannels() {
+            return getSession().supportsDirectChannels();
+        }
+
+        @NotNull
+        @Override
+        public DBWTunnelChannel openDirectChannel(@NotNull String host, int port) throws IOException {
+            return getSession().openDirectChannel(host, port);
+        }
+
+        @NotNull
+        @Override
+        public SSHTunnelStatistics getStatistics() {
+            return getSession().getStatistics();
+        }
+
         @NotNull
         protected abstract AbstractSession getSession();
 
@@ -0,0 +1,266 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net.ssh;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
+import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local port forwarding over session direct-tcpip channels.
+ *
+ * Listening sockets of all forwarders are served by a single NIO selector thread,
+ * so forwarders without connections do not own threads.
+ * Data of accepted connections is pumped by a shared thread pool. SSH channel streams are blocking,
+ * so each open connection (even an idle one) occupies two pool threads, one per direction.
+ */
+public class SSHLocalPortForwarder implements Closeable {
+
+    private static final Log log = Log.getLog(SSHLocalPortForwarder.class);
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+    private static final ExecutorService pumpExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "SSH tunnel pump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AbstractSession session;
+    private final SSHPortForwardConfiguration resolved;
+    private final ServerSocketChannel serverChannel;
+    private final Acceptor acceptor;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    public SSHLocalPortForwarder(@NotNull AbstractSession session, @NotNull SSHPortForwardConfiguration config) throws IOException {
+        this.session = session;
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(InetAddress.getByName(config.localHost()), config.localPort()));
+            serverChannel.configureBlocking(false);
+            int localPort = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+            this.resolved = new SSHPortForwardConfiguration(config.localHost(), localPort, config.remoteHost(), config.remotePort());
+            this.acceptor = Acceptor.getInstance();
+            acceptor.register(this);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    public SSHPortForwardConfiguration getResolvedConfiguration() {
+        return resolved;
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+            // Registered channel releases its port after deregistration in the selector thread.
+            // Wait for it, so the same local port may be bound again right away.
+            acceptor.wakeup();
+            for (int i = 0; i < 100 && serverChannel.isRegistered(); i++) {
+                Thread.sleep(10);
+            }
+        } catch (IOException e) {
+            log.debug("Error closing port forwarder listener", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void handleConnection(@NotNull SocketChannel socket) {
+        pumpExecutor.execute(() -> {
+            DBWTunnelChannel channel;
+            try {
+                socket.socket().setTcpNoDelay(true);
+                channel = session.openDirectChannel(resolved.remoteHost(), resolved.remotePort());
+            } catch (IOException e) {
+                log.error("Error opening forwarded connection to " + resolved.remoteHost() + ":" + resolved.remotePort(), e);
+                closeQuietly(socket);
+                return;
+            }
+            Connection connection = new Connection(socket, channel);
+            connections.add(connection);
+            if (!serverChannel.isOpen()) {
+                // Forwarder was closed concurrently
+                connection.close();
+                return;
+            }
+            pumpExecutor.execute(connection::pumpRemoteToLocal);
+            connection.pumpLocalToRemote();
+        });
+    }
+
+    private static void closeQuietly(@NotNull Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Error closing forwarded connection", e);
+        }
+    }
+
+    private class Connection {
+        private final SocketChannel socket;
+        private final DBWTunnelChannel channel;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Connection(@NotNull SocketChannel socket, @NotNull DBWTunnelChannel channel) {
+            this.socket = socket;
+            this.channel = channel;
+        }
+
+        void pumpLocalToRemote() {
+            try {
+                OutputStream out = channel.getOutputStream();
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (socket.read(buffer) >= 0) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    out.flush();
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                logPumpError(e);
+            } finally {
+                close();
+            }
+        }
+
+        void pumpRemoteToLocal() {
+            try {
+                InputStream in = channel.getInputStream();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for (int count; (count = in.read(buffer)) >= 0; ) {
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, count);
+                    while (data.hasRemaining()) {
+                        socket.write(data);
+                    }
+                }
+            } catch (IOException e) {
+                logPumpError(e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                connections.remove(this);
+                closeQuietly(socket);
+                closeQuietly(channel);
+            }
+        }
+
+        private void logPumpError(@NotNull IOException e) {
+            if (!closed.get()) {
+                log.debug("Forwarded connection to " + resolved.remoteHost() + ":" + resolved.remotePort() + " broken: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Accepts connections of all forwarders
+     */
+    private static final class Acceptor implements Runnable {
+        private static Acceptor instance;
+
+        private final Selector selector;
+        private final Queue<SSHLocalPortForwarder> pendingForwarders = new ConcurrentLinkedQueue<>();
+
+        private Acceptor() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        @NotNull
+        static synchronized Acceptor getInstance() throws IOException {
+            if (instance == null) {
+                instance = new Acceptor();
+                Thread thread = new Thread(instance, "SSH port forwarders listener");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return instance;
+        }
+
+        void register(@NotNull SSHLocalPortForwarder forwarder) {
+            pendingForwarders.add(forwarder);
+            selector.wakeup();
+        }
+
+        void wakeup() {
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    for (SSHLocalPortForwarder forwarder; (forwarder = pendingForwarders.poll()) != null; ) {
+                        try {
+                            forwarder.serverChannel.register(selector, SelectionKey.OP_ACCEPT, forwarder);
+                        } catch (ClosedChannelException e) {
+                            // Closed before registration
+                        }
+                    }
+                    for (Iterator<SelectionKey> iter = selector.selectedKeys().iterator(); iter.hasNext(); ) {
+                        SelectionKey key = iter.next();
+                        iter.remove();
+                        acceptConnection(key);
+                    }
+                } catch (Throwable e) {
+                    log.error("Error in port forwarders listener", e);
+                }
+            }
+        }
+
+        private static void acceptConnection(@NotNull SelectionKey key) {
+            SSHLocalPortForwarder forwarder = (SSHLocalPortForwarder) key.attachment();
+            try {
+                if (key.isValid() && key.isAcceptable()) {
+                    SocketChannel socket = forwarder.serverChannel.accept();
+                    if (socket != null) {
+                        forwarder.handleConnection(socket);
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Error accepting forwarded connection on " + forwarder.resolved + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
 import org.jkiss.dbeaver.model.exec.DBCInvalidatePhase;
 import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
 import org.jkiss.dbeaver.model.net.DBWTunnel;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
 import org.jkiss.dbeaver.model.net.DBWUtils;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHAuthConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHHostConfiguration;
@@ -52,6 +53,7 @@ public class SSHTunnelImpl implements DBWTunnel {
     private DBWHandlerConfiguration configuration;
     private SSHSessionController controller;
     private SSHSession session;
+    private SSHPortForwardConfiguration portForward;
     private final List<Runnable> listeners = new ArrayList<>();
 
     @Nullable
@@ -97,6 +99,21 @@ public class SSHTunnelImpl implements DBWTunnel {
         return initTunnel(monitor, configuration, connectionInfo, controller);
     }
 
+    @Override
+    public boolean supportsDirectChannels() {
+        return session instanceof AbstractSession abstractSession && abstractSession.supportsDirectChannels();
+    }
+
+    @NotNull
+    @Override
+    public DBWTunnelChannel openDirectChannel() throws IOException {
+        final SSHSession curSession = session;
+        if (!(curSession instanceof AbstractSession abstractSession) || portForward == null) {
+            throw new IOException("SSH tunnel is not initialized");
+        }
+        return abstractSession.openDirectChannel(portForward.remoteHost(), portForward.remotePort());
+    }
+
     @Override
     public boolean matchesParameters(@NotNull String host, int port) {
         if (host.equals(configuration.getStringProperty(DBWHandlerConfiguration.PROP_HOST))) {
@@ -205,6 +222,7 @@ public class SSHTunnelImpl implements DBWTunnel {
         }
 
         session = sessions[sessions.length - 1];
+        this.portForward = portForward;
 
         connectionInfo = new DBPConnectionConfiguration(connectionInfo);
         DBWUtils.updateConfigWithTunnelInfo(configuration, connectionInfo, portForward.localHost(), portForward.localPort());
@@ -0,0 +1,164 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net.ssh;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic counters of an SSH session: transferred bytes and channel open latency.
+ */
+public final class SSHTunnelStatistics {
+
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder channelsOpened = new LongAdder();
+    private final AtomicInteger channelsActive = new AtomicInteger();
+    private final LongAdder channelOpenTime = new LongAdder();
+    private final LongAccumulator maxChannelOpenTime = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Wraps a just opened channel to count its traffic.
+     *
+     * @param openTime time spent on channel opening (in nanoseconds), i.e. the round trip to the remote endpoint
+     */
+    @NotNull
+    public DBWTunnelChannel trackChannel(@NotNull DBWTunnelChannel channel, long openTime) {
+        channelsOpened.increment();
+        channelsActive.incrementAndGet();
+        channelOpenTime.add(openTime);
+        maxChannelOpenTime.accumulate(openTime);
+        return new TrackedChannel(channel);
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    public long getChannelsOpened() {
+        return channelsOpened.sum();
+    }
+
+    public int getChannelsActive() {
+        return channelsActive.get();
+    }
+
+    /**
+     * Average channel open time in milliseconds
+     */
+    public double getAverageOpenLatency() {
+        long count = channelsOpened.sum();
+        return count == 0 ? 0 : channelOpenTime.sum() / (count * 1000000.0);
+    }
+
+    /**
+     * Maximum channel open time in milliseconds
+     */
+    public double getMaxOpenLatency() {
+        return maxChannelOpenTime.get() / 1000000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "sent=" + getBytesSent() +
+            ", received=" + getBytesReceived() +
+            ", channels=" + getChannelsActive() + "/" + getChannelsOpened() +
+            String.format(", open latency=%.1fms (max %.1fms)", getAverageOpenLatency(), getMaxOpenLatency());
+    }
+
+    private class TrackedChannel implements DBWTunnelChannel {
+        private final DBWTunnelChannel channel;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private InputStream inputStream;
+        private OutputStream outputStream;
+
+        TrackedChannel(@NotNull DBWTunnelChannel channel) {
+            this.channel = channel;
+        }
+
+        @NotNull
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new FilterInputStream(channel.getInputStream()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b != -1) {
+                            bytesReceived.increment();
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+                        int count = super.read(b, off, len);
+                        if (count > 0) {
+                            bytesReceived.add(count);
+                        }
+                        return count;
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @NotNull
+        @Override
+        public synchronized OutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new FilterOutputStream(channel.getOutputStream()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytesSent.increment();
+                    }
+
+                    @Override
+                    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        bytesSent.add(len);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed.get() && channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                channelsActive.decrementAndGet();
+                channel.close();
+            }
+        }
+    }
+}
@@ -55,6 +55,7 @@ import org.jkiss.dbeaver.model.struct.DBSInstance;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectFilter;
 import org.jkiss.dbeaver.model.struct.DBSObjectState;
+import org.jkiss.dbeaver.model.virtual.DBVDictionaryCache;
 import org.jkiss.dbeaver.model.virtual.DBVModel;
 import org.jkiss.dbeaver.registry.driver.DriverDescriptor;
 import org.jkiss.dbeaver.registry.formatter.DataFormatterProfile;
@@ -793,6 +794,9 @@ public class DataSourceDescriptor
     @Override
     public DBSObject refreshObject(@NotNull DBRProgressMonitor monitor)
         throws DBException {
+        if (dataSource != null) {
+            DBVDictionaryCache.invalidate(dataSource);
+        }
         if (dataSource instanceof DBPRefreshableObject) {
             dataSource = (DBPDataSource) ((DBPRefreshableObject) dataSource).refreshObject(monitor);
         } else {
@@ -0,0 +1,409 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.registry.task;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
+import org.jkiss.dbeaver.model.task.*;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task chain handler.
+ *
+ * Task chain is a DAG of steps, each step runs another task of the same project.
+ * A step starts when all steps it depends on have finished successfully, independent steps run in parallel.
+ * Steps which depend on a failed step are skipped, other branches of the chain continue
+ * (unless {@code failFast} is set: then running steps are canceled and the rest are skipped).
+ *
+ * Chain configuration (task properties):
+ * <pre>
+ * "parallelism": 4,
+ * "failFast": false,
+ * "steps": [
+ *   { "id": "export", "task": "&lt;task id&gt;", "dependsOn": [], "concurrencyLimit": 0 },
+ *   ...
+ * ]
+ * </pre>
+ * {@code parallelism} is the maximum number of concurrently running steps.
+ * Step's {@code concurrencyLimit} (if positive) is the maximum number of running steps (including the step itself)
+ * which is allowed while the step runs, e.g. 1 makes the step exclusive.
+ */
+public class TaskChainHandler implements DBTTaskHandler {
+
+    public static final String PROP_STEPS = "steps";
+    public static final String PROP_PARALLELISM = "parallelism";
+    public static final String PROP_FAIL_FAST = "failFast";
+    public static final String PROP_STEP_ID = "id";
+    public static final String PROP_STEP_TASK = "task";
+    public static final String PROP_STEP_DEPENDS_ON = "dependsOn";
+    public static final String PROP_STEP_CONCURRENCY_LIMIT = "concurrencyLimit";
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final long STATE_POLL_TIMEOUT = 200;
+
+    static class Step {
+        final int index;
+        final String id;
+        final String taskId;
+        final List<String> dependsOn;
+        final int concurrencyLimit;
+
+        Step(int index, @NotNull String id, @NotNull String taskId, @NotNull List<String> dependsOn, int concurrencyLimit) {
+            this.index = index;
+            this.id = id;
+            this.taskId = taskId;
+            this.dependsOn = dependsOn;
+            this.concurrencyLimit = concurrencyLimit;
+        }
+
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+
+    @NotNull
+    @Override
+    public DBTTaskRunStatus executeTask(
+        @NotNull DBRRunnableContext runnableContext,
+        @NotNull DBTTask task,
+        @NotNull Locale locale,
+        @NotNull Log log,
+        @NotNull PrintStream logStream,
+        @NotNull DBTTaskExecutionListener listener
+    ) throws DBException {
+        List<Step> steps = parseSteps(task.getProperties());
+        validateSteps(steps);
+        TaskManagerImpl taskManager = (TaskManagerImpl) task.getProject().getTaskManager();
+        Map<Step, DBTTask> stepTasks = new HashMap<>();
+        for (Step step : steps) {
+            DBTTask stepTask = taskManager.getTaskById(step.taskId);
+            if (stepTask == null) {
+                throw new DBException("Task '" + step.taskId + "' of chain step '" + step.id + "' not found");
+            }
+            if (stepTask.getId().equals(task.getId())) {
+                throw new DBException("Chain step '" + step.id + "' refers to the chain itself");
+            }
+            stepTasks.put(step, stepTask);
+        }
+        int parallelism = JSONUtils.getInteger(task.getProperties(), PROP_PARALLELISM, DEFAULT_PARALLELISM);
+        boolean failFast = JSONUtils.getBoolean(task.getProperties(), PROP_FAIL_FAST);
+
+        listener.taskStarted(task);
+        ChainRun chainRun = new ChainRun(steps, parallelism, failFast) {
+            private final Map<Step, TaskRunJob> stepJobs = new HashMap<>();
+
+            @Override
+            protected void startStep(@NotNull Step step) {
+                DBTTask stepTask = stepTasks.get(step);
+                log.info(String.format("Start step '%s': task '%s' (%s)", step.id, stepTask.getName(), stepTask.getId()));
+                TaskRunJob job = taskManager.scheduleTask(stepTask, new StepExecutionListener(listener), new JobChangeAdapter() {
+                    @Override
+                    public void done(IJobChangeEvent event) {
+                        TaskRunJob stepJob = (TaskRunJob) event.getJob();
+                        Throwable error = stepJob.getTaskError();
+                        if (error == null && event.getResult().getSeverity() == IStatus.CANCEL) {
+                            error = new InterruptedException("Step canceled");
+                        }
+                        stepFinished(step, error);
+                    }
+                });
+                stepJobs.put(step, job);
+            }
+
+            @Override
+            protected void cancelSteps() {
+                for (TaskRunJob job : stepJobs.values()) {
+                    job.cancel();
+                }
+            }
+        };
+        Throwable error = null;
+        try {
+            runnableContext.run(true, true, monitor -> {
+                try {
+                    chainRun.run(monitor, log);
+                } catch (Exception e) {
+                    throw new InvocationTargetException(e);
+                }
+            });
+        } catch (InvocationTargetException e) {
+            error = e.getTargetException();
+        } catch (InterruptedException e) {
+            log.debug("Task canceled");
+        }
+        if (error == null && !chainRun.getFailedSteps().isEmpty()) {
+            error = new DBException("Chain steps failed: " + chainRun.getFailedSteps());
+        }
+        if (error != null) {
+            log.error(error);
+        }
+        listener.taskFinished(task, null, error, null);
+
+        DBTTaskRunStatus status = new DBTTaskRunStatus();
+        status.setResultMessage(chainRun.getSummary());
+        return status;
+    }
+
+    @NotNull
+    static List<Step> parseSteps(@NotNull Map<String, Object> properties) throws DBException {
+        List<Step> steps = new ArrayList<>();
+        for (Map<String, Object> stepConfig : JSONUtils.getObjectList(properties, PROP_STEPS)) {
+            String taskId = JSONUtils.getString(stepConfig, PROP_STEP_TASK);
+            if (CommonUtils.isEmpty(taskId)) {
+                throw new DBException("Task not specified for chain step #" + (steps.size() + 1));
+            }
+            steps.add(new Step(
+                steps.size(),
+                JSONUtils.getString(stepConfig, PROP_STEP_ID, taskId),
+                taskId,
+                JSONUtils.getStringList(stepConfig, PROP_STEP_DEPENDS_ON),
+                JSONUtils.getInteger(stepConfig, PROP_STEP_CONCURRENCY_LIMIT, 0)));
+        }
+        return steps;
+    }
+
+    /**
+     * Checks step identifiers and dependencies. Dependency cycles are detected with topological sorting.
+     */
+    static void validateSteps(@NotNull List<Step> steps) throws DBException {
+        Map<String, Step> stepMap = new HashMap<>();
+        for (Step step : steps) {
+            if (stepMap.put(step.id, step) != null) {
+                throw new DBException("Duplicate chain step '" + step.id + "'");
+            }
+        }
+        Map<String, Integer> inDegree = new HashMap<>();
+        Map<String, List<Step>> dependents = new HashMap<>();
+        for (Step step : steps) {
+            for (String dependency : step.dependsOn) {
+                if (!stepMap.containsKey(dependency)) {
+                    throw new DBException("Chain step '" + step.id + "' depends on unknown step '" + dependency + "'");
+                }
+                dependents.computeIfAbsent(dependency, id -> new ArrayList<>()).add(step);
+            }
+            inDegree.put(step.id, step.dependsOn.size());
+        }
+        Deque<Step> queue = new ArrayDeque<>();
+        for (Step step : steps) {
+            if (step.dependsOn.isEmpty()) {
+                queue.add(step);
+            }
+        }
+        int sortedCount = 0;
+        while (!queue.isEmpty()) {
+            Step step = queue.poll();
+            sortedCount++;
+            for (Step dependent : dependents.getOrDefault(step.id, List.of())) {
+                if (inDegree.merge(dependent.id, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (sortedCount < steps.size()) {
+            List<String> cycle = new ArrayList<>();
+            for (Step step : steps) {
+                if (inDegree.get(step.id) > 0) {
+                    cycle.add(step.id);
+                }
+            }
+            throw new DBException("Chain steps have cyclic dependencies: " + cycle);
+        }
+    }
+
+    /**
+     * Single run of a chain.
+     * Ready steps start in declaration order, so a step blocked by its concurrency limit also delays the following steps.
+     */
+    abstract static class ChainRun {
+        private final List<Step> steps;
+        private final int parallelism;
+        private final boolean failFast;
+        private final BlockingQueue<Map.Entry<Step, Throwable>> finishedSteps = new LinkedBlockingQueue<>();
+        private final Set<Step> failedSteps = new LinkedHashSet<>();
+        private final Set<Step> skippedSteps = new LinkedHashSet<>();
+        private int completedCount;
+
+        ChainRun(@NotNull List<Step> steps, int parallelism, boolean failFast) {
+            this.steps = steps;
+            this.parallelism = Math.max(1, parallelism);
+            this.failFast = failFast;
+        }
+
+        /**
+         * Starts step asynchronously. Implementation must call {@link #stepFinished(Step, Throwable)} when step ends.
+         */
+        protected abstract void startStep(@NotNull Step step);
+
+        /**
+         * Cancels running steps. They still must report {@link #stepFinished(Step, Throwable)}.
+         */
+        protected abstract void cancelSteps();
+
+        protected void stepFinished(@NotNull Step step, @Nullable Throwable error) {
+            finishedSteps.add(new AbstractMap.SimpleEntry<>(step, error));
+        }
+
+        void run(@NotNull DBRProgressMonitor monitor, @NotNull Log log) throws InterruptedException {
+            Map<String, List<Step>> dependents = new HashMap<>();
+            Map<Step, Integer> pendingDependencies = new HashMap<>();
+            NavigableSet<Step> readySteps = new TreeSet<>(Comparator.comparingInt(s -> s.index));
+            for (Step step : steps) {
+                for (String dependency : step.dependsOn) {
+                    dependents.computeIfAbsent(dependency, id -> new ArrayList<>()).add(step);
+                }
+                pendingDependencies.put(step, step.dependsOn.size());
+                if (step.dependsOn.isEmpty()) {
+                    readySteps.add(step);
+                }
+            }
+
+            monitor.beginTask("Run task chain", steps.size());
+            Set<Step> runningSteps = new HashSet<>();
+            Set<Step> startedSteps = new HashSet<>();
+            boolean canceled = false;
+            try {
+                while (!runningSteps.isEmpty() || (!readySteps.isEmpty() && !canceled)) {
+                    if (!canceled && monitor.isCanceled()) {
+                        canceled = true;
+                        cancelSteps();
+                    }
+                    // Running steps limit the number of concurrent steps too
+                    int runLimit = parallelism;
+                    for (Step step : runningSteps) {
+                        runLimit = getRunLimit(runLimit, step);
+                    }
+                    while (!canceled && !readySteps.isEmpty() && runningSteps.size() < runLimit) {
+                        Step step = readySteps.first();
+                        if (runningSteps.size() >= getRunLimit(runLimit, step)) {
+                            break;
+                        }
+                        readySteps.pollFirst();
+                        runningSteps.add(step);
+                        startedSteps.add(step);
+                        runLimit = getRunLimit(runLimit, step);
+                        monitor.subTask("Run step '" + step.id + "'");
+                        startStep(step);
+                    }
+                    Map.Entry<Step, Throwable> finished = finishedSteps.poll(STATE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (finished == null) {
+                        continue;
+                    }
+                    Step step = finished.getKey();
+                    runningSteps.remove(step);
+                    monitor.worked(1);
+                    if (finished.getValue() == null) {
+                        completedCount++;
+                        for (Step dependent : dependents.getOrDefault(step.id, List.of())) {
+                            if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                                readySteps.add(dependent);
+                            }
+                        }
+                    } else {
+                        log.error("Chain step '" + step.id + "' failed", finished.getValue());
+                        failedSteps.add(step);
+                        skipDependents(step, dependents, log);
+                        if (failFast && !canceled) {
+                            canceled = true;
+                            cancelSteps();
+                        }
+                    }
+                }
+            } finally {
+                monitor.done();
+            }
+            if (canceled) {
+                for (Step step : steps) {
+                    if (!startedSteps.contains(step)) {
+                        skippedSteps.add(step);
+                    }
+                }
+            }
+        }
+
+        @NotNull
+        Set<Step> getFailedSteps() {
+            return failedSteps;
+        }
+
+        @NotNull
+        Set<Step> getSkippedSteps() {
+            return skippedSteps;
+        }
+
+        @NotNull
+        String getSummary() {
+            return completedCount + " of " + steps.size() + " steps completed" +
+                (failedSteps.isEmpty() ? "" : ", " + failedSteps.size() + " failed") +
+                (skippedSteps.isEmpty() ? "" : ", " + skippedSteps.size() + " skipped");
+        }
+
+        private static int getRunLimit(int runLimit, @NotNull Step step) {
+            return step.concurrencyLimit > 0 ? Math.min(runLimit, step.concurrencyLimit) : runLimit;
+        }
+
+        private void skipDependents(@NotNull Step failedStep, @NotNull Map<String, List<Step>> dependents, @NotNull Log log) {
+            Deque<Step> queue = new ArrayDeque<>(dependents.getOrDefault(failedStep.id, List.of()));
+            while (!queue.isEmpty()) {
+                Step step = queue.poll();
+                if (skippedSteps.add(step)) {
+                    log.info("Chain step '" + step.id + "' skipped");
+                    queue.addAll(dependents.getOrDefault(step.id, List.of()));
+                }
+            }
+        }
+    }
+
+    private static class StepExecutionListener implements DBTTaskExecutionListener {
+        private final DBTTaskExecutionListener chainListener;
+
+        StepExecutionListener(@NotNull DBTTaskExecutionListener chainListener) {
+            this.chainListener = chainListener;
+        }
+
+        @Override
+        public void taskStarted(@Nullable DBTTask task) {
+            // ignore
+        }
+
+        @Override
+        public void taskFinished(@Nullable DBTTask task, @Nullable Object result, @Nullable Throwable error, @Nullable Object settings) {
+            chainListener.subTaskFinished(task, error, settings);
+        }
+
+        @Override
+        public void subTaskFinished(@Nullable DBTTask task, @Nullable Throwable error, @Nullable Object settings) {
+            // ignore
+        }
+    }
+}
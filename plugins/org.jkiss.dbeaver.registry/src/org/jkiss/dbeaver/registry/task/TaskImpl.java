@@ -23,18 +23,19 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPNamedObject2;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.task.*;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -44,7 +45,6 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
     public static String META_FILE_NAME = "meta.json";
 
     private static final Log log = Log.getLog(TaskImpl.class);
-    private static final int MAX_RUNS_IN_STATS = 100;
     private static final Gson gson = new GsonBuilder()
         .setStrictness(Strictness.LENIENT)
         .setDateFormat(GeneralUtils.DEFAULT_TIMESTAMP_PATTERN)
@@ -58,7 +58,9 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
     private Date updateTime;
     private DBTTaskType type;
     private Map<String, Object> properties;
-    private volatile List<DBTTaskRun> runs;
+    private volatile TaskRunHistory runHistory;
+    private volatile DBTTaskRun lastRun;
+    private volatile boolean lastRunLoaded;
     private DBTTaskFolder taskFolder;
     private int maxExecutionTime;
 
@@ -159,15 +161,28 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
     @Nullable
     @Override
     public DBTTaskRun getLastRun() {
-        loadRunsIfNeeded();
-        return runs.isEmpty() ? null : runs.get(runs.size() - 1);
+        if (!lastRunLoaded) {
+            synchronized (this) {
+                if (!lastRunLoaded) {
+                    List<TaskRunImpl> recentRuns = getRunHistory().readRecentRuns(1);
+                    lastRun = recentRuns.isEmpty() ? null : recentRuns.get(0);
+                    lastRunLoaded = true;
+                }
+            }
+        }
+        return lastRun;
     }
 
     @NotNull
     @Override
     public DBTTaskRun[] getAllRuns() {
-        loadRunsIfNeeded();
-        return runs.toArray(DBTTaskRun[]::new);
+        return getRecentRuns(Integer.MAX_VALUE);
+    }
+
+    @NotNull
+    @Override
+    public DBTTaskRun[] getRecentRuns(int maxCount) {
+        return getRunHistory().readRecentRuns(maxCount).toArray(DBTTaskRun[]::new);
     }
 
     @Nullable
@@ -185,10 +200,9 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
     @Override
     public void removeRun(DBTTaskRun taskRun) {
         synchronized (this) {
-            loadRunsIfNeeded();
-
-            if (!runs.remove(taskRun)) {
-                return;
+            getRunHistory().removeRun(taskRun.getId());
+            if (lastRun != null && lastRun.getId().equals(taskRun.getId())) {
+                lastRunLoaded = false;
             }
 
             Path runLog = getRunLog(taskRun);
@@ -200,8 +214,6 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
                     log.error("Can't delete log file '" + runLog.toAbsolutePath() + "'", e);
                 }
             }
-
-            flushRunStatistics(runs);
         }
 
         TaskRegistry.getInstance().notifyTaskListeners(new DBTTaskEvent(this, DBTTaskEvent.Action.TASK_UPDATE));
@@ -225,16 +237,25 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
                 log.error("Can't delete logs folder '" + statsFolder.toAbsolutePath() + "'", e);
             }
         }
-        if (runs != null) {
-            runs.clear();
+        synchronized (this) {
+            if (runHistory != null) {
+                runHistory.reset();
+            }
+            lastRun = null;
+            lastRunLoaded = true;
         }
-        flushRunStatistics(List.of());
         TaskRegistry.getInstance().notifyTaskListeners(new DBTTaskEvent(this, DBTTaskEvent.Action.TASK_UPDATE));
     }
 
     @Override
     public void refreshRunStatistics() {
-        runs = new ArrayList<>(loadRunStatistics());
+        synchronized (this) {
+            // History may be updated by another process
+            if (runHistory != null) {
+                runHistory.reset();
+            }
+            lastRunLoaded = false;
+        }
     }
 
     @Override
@@ -267,17 +288,11 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
         return taskStatsFolder;
     }
 
-    void addNewRun(@NotNull DBTTaskRun taskRun) {
+    void addNewRun(@NotNull TaskRunImpl taskRun) {
         synchronized (this) {
-            loadRunsIfNeeded();
-
-            runs.add(taskRun);
-
-            while (runs.size() > MAX_RUNS_IN_STATS) {
-                runs.remove(0);
-            }
-
-            flushRunStatistics(runs);
+            getRunHistory().addRun(taskRun);
+            lastRun = taskRun;
+            lastRunLoaded = true;
         }
 
         TaskRegistry.getInstance().notifyTaskListeners(new DBTTaskEvent(this, DBTTaskEvent.Action.TASK_UPDATE));
@@ -285,16 +300,10 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
 
     void updateRun(@NotNull TaskRunImpl taskRun) {
         synchronized (this) {
-            loadRunsIfNeeded();
-
-            for (int i = 0; i < runs.size(); i++) {
-                if (runs.get(i).getId().equals(taskRun.getId())) {
-                    runs.set(i, taskRun);
-                    break;
-                }
+            getRunHistory().updateRun(taskRun);
+            if (lastRun != null && lastRun.getId().equals(taskRun.getId())) {
+                lastRun = taskRun;
             }
-
-            flushRunStatistics(runs);
         }
 
         TaskRegistry.getInstance().notifyTaskListeners(new DBTTaskEvent(this, DBTTaskEvent.Action.TASK_UPDATE));
@@ -305,31 +314,41 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
         return id + " " + label + " (" + type.getName() + ")";
     }
 
+    /**
+     * Reads runs from the legacy statistics file (replaced by the run history)
+     */
     @NotNull
-    protected List<? extends DBTTaskRun> loadRunStatistics() {
+    protected List<TaskRunImpl> loadRunStatistics() {
         return TaskUtils.loadRunStatistics(getTaskStatsFolder(false).resolve(META_FILE_NAME), gson);
     }
 
-    protected void flushRunStatistics(@NotNull List<? extends DBTTaskRun> runs) {
-        Path metaFile = getTaskStatsFolder(true).resolve(META_FILE_NAME);
-        try (Writer writer = Files.newBufferedWriter(metaFile)) {
-            final List<TaskRunImpl> filteredRuns = runs.stream()
-                .filter(run -> run instanceof TaskRunImpl)
-                .map(run -> (TaskRunImpl) run)
-                .collect(Collectors.toList());
-            writer.write(gson.toJson(new RunStatistics(filteredRuns)));
-        } catch (IOException e) {
-            log.error("Error writing task run statistics", e);
-        }
-    }
-
-    private void loadRunsIfNeeded() {
-        if (runs == null) {
+    @NotNull
+    private TaskRunHistory getRunHistory() {
+        if (runHistory == null) {
             synchronized (this) {
-                if (runs == null) {
-                    runs = new ArrayList<>(loadRunStatistics());
+                if (runHistory == null) {
+                    TaskRunHistory history = new TaskRunHistory(
+                        getTaskStatsFolder(false),
+                        gson,
+                        DBWorkbench.getPlatform().getPreferenceStore().getInt(ModelPreferences.TASK_RUN_HISTORY_SIZE));
+                    Path metaFile = getTaskStatsFolder(false).resolve(META_FILE_NAME);
+                    if (!history.exists() && Files.exists(metaFile)) {
+                        // Legacy file is kept as a backup, and as is if the import can't be verified
+                        if (history.importRuns(loadRunStatistics())) {
+                            Path backupFile = metaFile.resolveSibling(META_FILE_NAME + ".bak");
+                            try {
+                                Files.move(metaFile, backupFile, StandardCopyOption.REPLACE_EXISTING);
+                            } catch (IOException e) {
+                                log.debug("Can't rename legacy task statistics file '" + metaFile.toAbsolutePath() + "'", e);
+                            }
+                        } else {
+                            log.warn("Task run statistics import from '" + metaFile.toAbsolutePath() + "' not verified, legacy file is kept");
+                        }
+                    }
+                    runHistory = history;
                 }
             }
         }
+        return runHistory;
     }
 }
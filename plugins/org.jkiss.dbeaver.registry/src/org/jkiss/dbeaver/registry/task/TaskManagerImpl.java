@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.jkiss.code.NotNull;
@@ -335,7 +336,22 @@ public class TaskManagerImpl implements DBTTaskManager {
     @NotNull
     @Override
     public TaskRunJob scheduleTask(@NotNull DBTTask task, @NotNull DBTTaskExecutionListener listener) {
+        return scheduleTask(task, listener, null);
+    }
+
+    /**
+     * Schedules task job. Job listener is registered before the job is scheduled, so it can't miss job events.
+     */
+    @NotNull
+    TaskRunJob scheduleTask(
+        @NotNull DBTTask task,
+        @NotNull DBTTaskExecutionListener listener,
+        @Nullable IJobChangeListener jobListener
+    ) {
         final TaskRunJob runJob = createJob((TaskImpl) task, listener);
+        if (jobListener != null) {
+            runJob.addJobChangeListener(jobListener);
+        }
         runJob.schedule();
         if (serviceJob == null) {
             serviceJob = new ServiceJob();
@@ -0,0 +1,385 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.registry.task;
+
+import com.google.gson.Gson;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Task run history store.
+ *
+ * Runs are kept in an append-only log (one JSON record per line): new runs, run updates and removals
+ * are appended, the latest record of a run wins. A separate index file contains offsets of all log records,
+ * so the most recent runs are read from the end of the log without parsing the whole history.
+ * The log is compacted when it contains twice as many records as the retention limit,
+ * logs of runs dropped by the retention are deleted.
+ */
+final class TaskRunHistory {
+
+    private static final Log log = Log.getLog(TaskRunHistory.class);
+
+    static final String HISTORY_FILE_NAME = "runs.jsonl";
+    static final String INDEX_FILE_NAME = "runs.idx";
+
+    private static final int READ_CHUNK_SIZE = 64;
+
+    private static final String OP_ADD = "add";
+    private static final String OP_UPDATE = "update";
+    private static final String OP_REMOVE = "remove";
+
+    private static class RunRecord {
+        String op;
+        String id;
+        TaskRunImpl run;
+
+        RunRecord(String op, String id, TaskRunImpl run) {
+            this.op = op;
+            this.id = id;
+            this.run = run;
+        }
+    }
+
+    private final Path folder;
+    private final Gson gson;
+    private final int maxRuns;
+    private boolean indexChecked;
+
+    TaskRunHistory(@NotNull Path folder, @NotNull Gson gson, int maxRuns) {
+        this.folder = folder;
+        this.gson = gson;
+        this.maxRuns = maxRuns;
+    }
+
+    boolean exists() {
+        return Files.exists(folder.resolve(HISTORY_FILE_NAME));
+    }
+
+    /**
+     * Returns up to {@code maxCount} most recent runs in the order they were added.
+     */
+    @NotNull
+    synchronized List<TaskRunImpl> readRecentRuns(int maxCount) {
+        if (maxCount <= 0 || !exists()) {
+            return new ArrayList<>();
+        }
+        try {
+            checkIndex();
+            return readRuns(maxCount);
+        } catch (Exception e) {
+            log.error("Error reading task run history", e);
+            return new ArrayList<>();
+        }
+    }
+
+    synchronized void addRun(@NotNull TaskRunImpl run) {
+        appendRecords(List.of(new RunRecord(OP_ADD, run.getId(), run)));
+    }
+
+    synchronized void updateRun(@NotNull TaskRunImpl run) {
+        appendRecords(List.of(new RunRecord(OP_UPDATE, run.getId(), run)));
+    }
+
+    synchronized void removeRun(@NotNull String runId) {
+        appendRecords(List.of(new RunRecord(OP_REMOVE, runId, null)));
+    }
+
+    /**
+     * Appends runs imported from the legacy statistics file.
+     * Returns true if imported runs were read back from the history (compaction may keep only the last of them).
+     */
+    synchronized boolean importRuns(@NotNull List<TaskRunImpl> runs) {
+        if (runs.isEmpty()) {
+            return false;
+        }
+        List<RunRecord> records = new ArrayList<>(runs.size());
+        for (TaskRunImpl run : runs) {
+            records.add(new RunRecord(OP_ADD, run.getId(), run));
+        }
+        appendRecords(records);
+
+        List<TaskRunImpl> importedRuns = readRecentRuns(runs.size());
+        int expectedCount = maxRuns > 0 ? Math.min(runs.size(), maxRuns) : runs.size();
+        return importedRuns.size() >= expectedCount &&
+            importedRuns.get(importedRuns.size() - 1).getId().equals(runs.get(runs.size() - 1).getId());
+    }
+
+    synchronized void reset() {
+        indexChecked = false;
+    }
+
+    private void appendRecords(@NotNull List<RunRecord> records) {
+        try {
+            Files.createDirectories(folder);
+            checkIndex();
+            long recordCount;
+            try (FileChannel logChannel = FileChannel.open(getHistoryFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileChannel indexChannel = FileChannel.open(getIndexFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+            ) {
+                long offset = logChannel.size();
+                ByteBuffer offsets = ByteBuffer.allocate(records.size() * Long.BYTES);
+                for (RunRecord record : records) {
+                    offsets.putLong(offset);
+                    offset += writeRecord(logChannel, record, offset);
+                }
+                offsets.flip();
+                long indexSize = indexChannel.size();
+                writeFully(indexChannel, offsets, indexSize);
+                recordCount = indexSize / Long.BYTES + records.size();
+            }
+            if (maxRuns > 0 && recordCount > maxRuns * 2L) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.error("Error writing task run history", e);
+        }
+    }
+
+    @NotNull
+    private List<TaskRunImpl> readRuns(int maxCount) throws IOException {
+        Map<String, TaskRunImpl> latestRuns = new HashMap<>();
+        Set<String> skippedRuns = new HashSet<>();
+        List<TaskRunImpl> result = new ArrayList<>();
+        try (FileChannel logChannel = FileChannel.open(getHistoryFile(), StandardOpenOption.READ);
+             FileChannel indexChannel = FileChannel.open(getIndexFile(), StandardOpenOption.READ)
+        ) {
+            long logSize = logChannel.size();
+            long recordCount = indexChannel.size() / Long.BYTES;
+            long nextOffset = logSize;
+            for (long chunkEnd = recordCount; chunkEnd > 0 && result.size() < maxCount; ) {
+                long chunkStart = Math.max(0, chunkEnd - READ_CHUNK_SIZE);
+                long[] offsets = readOffsets(indexChannel, chunkStart, (int) (chunkEnd - chunkStart));
+                for (int i = offsets.length - 1; i >= 0 && result.size() < maxCount; i--) {
+                    RunRecord record = readRecord(logChannel, offsets[i], nextOffset);
+                    nextOffset = offsets[i];
+                    if (record == null || record.id == null || skippedRuns.contains(record.id)) {
+                        continue;
+                    }
+                    switch (record.op) {
+                        // Earlier records of removed runs are ignored
+                        case OP_REMOVE -> skippedRuns.add(record.id);
+                        case OP_UPDATE -> {
+                            if (record.run != null) {
+                                latestRuns.putIfAbsent(record.id, record.run);
+                            }
+                        }
+                        case OP_ADD -> {
+                            // The first record of the run defines its position, the last one - its state
+                            TaskRunImpl run = latestRuns.getOrDefault(record.id, record.run);
+                            if (run != null) {
+                                result.add(run);
+                            }
+                            skippedRuns.add(record.id);
+                        }
+                        default -> log.debug("Unknown task run history record: " + record.op);
+                    }
+                }
+                chunkEnd = chunkStart;
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Rewrites the log keeping only the last {@code maxRuns} runs
+     */
+    private void compact() throws IOException {
+        List<TaskRunImpl> allRuns = readRuns(Integer.MAX_VALUE);
+        List<TaskRunImpl> keptRuns = allRuns.subList(Math.max(0, allRuns.size() - maxRuns), allRuns.size());
+        Path tempHistory = folder.resolve(HISTORY_FILE_NAME + ".tmp");
+        Path tempIndex = folder.resolve(INDEX_FILE_NAME + ".tmp");
+        try (FileChannel logChannel = FileChannel.open(tempHistory, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel indexChannel = FileChannel.open(tempIndex, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+        ) {
+            ByteBuffer offsets = ByteBuffer.allocate(keptRuns.size() * Long.BYTES);
+            long offset = 0;
+            for (TaskRunImpl run : keptRuns) {
+                offsets.putLong(offset);
+                offset += writeRecord(logChannel, new RunRecord(OP_ADD, run.getId(), run), offset);
+            }
+            offsets.flip();
+            writeFully(indexChannel, offsets, 0);
+        }
+        // Index is replaced first: stale index is detected and rebuilt on the next read
+        Files.move(tempIndex, getIndexFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tempHistory, getHistoryFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (TaskRunImpl run : allRuns.subList(0, allRuns.size() - keptRuns.size())) {
+            Path runLog = folder.resolve(TaskUtils.buildRunLogFileName(run.getId()));
+            try {
+                Files.deleteIfExists(runLog);
+            } catch (IOException e) {
+                log.debug("Can't delete run log '" + runLog.toAbsolutePath() + "'", e);
+            }
+        }
+        log.debug("Task run history compacted: " + keptRuns.size() + " of " + allRuns.size() + " runs kept");
+    }
+
+    /**
+     * Verifies that the index matches the log (e.g. after an interrupted write) and rebuilds it if needed.
+     */
+    private void checkIndex() throws IOException {
+        if (indexChecked || !exists()) {
+            return;
+        }
+        Path indexFile = getIndexFile();
+        boolean valid = false;
+        if (Files.exists(indexFile)) {
+            try (FileChannel logChannel = FileChannel.open(getHistoryFile(), StandardOpenOption.READ);
+                 FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)
+            ) {
+                long indexSize = indexChannel.size();
+                long logSize = logChannel.size();
+                if (indexSize % Long.BYTES == 0) {
+                    if (indexSize == 0) {
+                        valid = logSize == 0;
+                    } else {
+                        long lastOffset = readOffsets(indexChannel, indexSize / Long.BYTES - 1, 1)[0];
+                        // Last indexed record must be the last complete line of the log
+                        valid = lastOffset < logSize && isLastRecord(logChannel, lastOffset, logSize);
+                    }
+                }
+            }
+        }
+        if (!valid) {
+            log.debug("Rebuild task run history index in '" + folder.toAbsolutePath() + "'");
+            rebuildIndex();
+        }
+        indexChecked = true;
+    }
+
+    private void rebuildIndex() throws IOException {
+        byte[] data = Files.readAllBytes(getHistoryFile());
+        ByteBuffer offsets = ByteBuffer.allocate(Long.BYTES * 16);
+        int lineStart = 0;
+        int validLength = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                if (i > lineStart) {
+                    if (offsets.remaining() < Long.BYTES) {
+                        offsets = ByteBuffer.allocate(offsets.capacity() * 2).put(offsets.flip());
+                    }
+                    offsets.putLong(lineStart);
+                }
+                lineStart = i + 1;
+                validLength = lineStart;
+            }
+        }
+        if (validLength < data.length) {
+            // Drop incomplete record
+            try (FileChannel logChannel = FileChannel.open(getHistoryFile(), StandardOpenOption.WRITE)) {
+                logChannel.truncate(validLength);
+            }
+        }
+        offsets.flip();
+        try (FileChannel indexChannel = FileChannel.open(getIndexFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(indexChannel, offsets, 0);
+        }
+    }
+
+    @NotNull
+    private static long[] readOffsets(@NotNull FileChannel indexChannel, long first, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count * Long.BYTES);
+        long position = first * Long.BYTES;
+        while (buffer.hasRemaining()) {
+            int read = indexChannel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of task run history index");
+            }
+        }
+        buffer.flip();
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = buffer.getLong();
+        }
+        return offsets;
+    }
+
+    private static boolean isLastRecord(@NotNull FileChannel logChannel, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (logChannel.read(buffer, start + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        byte[] data = buffer.array();
+        for (int i = 0; i < data.length - 1; i++) {
+            if (data[i] == '\n') {
+                return false;
+            }
+        }
+        return data.length > 0 && data[data.length - 1] == '\n';
+    }
+
+    @Nullable
+    private RunRecord readRecord(@NotNull FileChannel logChannel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (logChannel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        String line = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).trim();
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            return gson.fromJson(line, RunRecord.class);
+        } catch (Exception e) {
+            log.debug("Bad task run history record: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private int writeRecord(@NotNull FileChannel logChannel, @NotNull RunRecord record, long position) throws IOException {
+        byte[] data = (gson.toJson(record) + '\n').getBytes(StandardCharsets.UTF_8);
+        writeFully(logChannel, ByteBuffer.wrap(data), position);
+        return data.length;
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    @NotNull
+    private Path getHistoryFile() {
+        return folder.resolve(HISTORY_FILE_NAME);
+    }
+
+    @NotNull
+    private Path getIndexFile() {
+        return folder.resolve(INDEX_FILE_NAME);
+    }
+
+}
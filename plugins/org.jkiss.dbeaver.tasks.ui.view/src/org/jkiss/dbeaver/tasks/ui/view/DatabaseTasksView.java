@@ -86,6 +86,7 @@ public class DatabaseTasksView extends ViewPart implements DBTTaskListener {
     public static final String GROUP_TASK_CMD_ID = "org.jkiss.dbeaver.task.group";
 
     private static final ArrayList<Object> EMPTY_TASK_RUN_LIST = new ArrayList<>();
+    private static final int MAX_VISIBLE_TASK_RUNS = 200;
 
     private DatabaseTasksTree tasksTree;
 
@@ -420,7 +421,7 @@ public class DatabaseTasksView extends ViewPart implements DBTTaskListener {
             taskRunViewer.setInput(EMPTY_TASK_RUN_LIST);
         } else {
             selectedTask.refreshRunStatistics();
-            DBTTaskRun[] runs = selectedTask.getAllRuns();
+            DBTTaskRun[] runs = selectedTask.getRecentRuns(MAX_VISIBLE_TASK_RUNS);
             if (ArrayUtils.isEmpty(runs)) {
                 taskRunViewer.setInput(EMPTY_TASK_RUN_LIST);
             } else {
@@ -37,7 +37,11 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Data pump for SQL queries
+ * Data pump for SQL queries.
+ *
+ * If {@link ResultSetPreferences#RESULT_SET_PROGRESSIVE_FETCH} is enabled then rows are delivered to the viewer
+ * progressively, see {@link ResultSetRowDelivery}.
+ * Results with complex attributes are delivered at once because their bindings depend on all fetched values.
  */
 class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteractive {
 
@@ -60,6 +64,9 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     private List<Throwable> errorList = new ArrayList<>();
     private int focusRow;
     private DBSDataContainer targetDataContainer;
+
+    // Progressive rows delivery of the current fetch
+    private ResultSetRowDelivery rowDelivery;
     
     ResultSetDataReceiver(@NotNull ResultSetViewer resultSetViewer) {
         this.resultSetViewer = resultSetViewer;
@@ -96,6 +103,7 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         this.rows.clear();
         this.offset = offset;
         this.maxRows = maxRows;
+        this.rowDelivery = null;
 
         if (!nextSegmentRead) {
             // Get columns metadata
@@ -112,6 +120,61 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
             resultSetViewer.setMetaData(resultSet, metaColumns);
         }
+        if (isProgressive()) {
+            rowDelivery = createRowDelivery(session, resultSet);
+        }
+    }
+
+    private boolean isProgressive() {
+        if (metaColumns == null || (maxRows > 0 && maxRows <= ResultSetRowDelivery.FIRST_ROWS) ||
+            !resultSetViewer.getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH)) {
+            return false;
+        }
+        for (DBDAttributeBinding binding : metaColumns) {
+            if (binding.getDataKind().isComplex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private ResultSetRowDelivery createRowDelivery(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) {
+        final boolean nextSegmentRead = this.nextSegmentRead;
+        final DBRProgressMonitor monitor = session.getProgressMonitor();
+        ResultSetRowDelivery.Target target = new ResultSetRowDelivery.Target() {
+            @Override
+            public void setRows(@NotNull List<Object[]> rows) {
+                bindAttributes(session, resultSet, rows);
+                resultSetViewer.setData(monitor, rows, focusRow);
+            }
+
+            @Override
+            public void showRows() {
+                updateViewer(resultSet, false);
+            }
+
+            @Override
+            public void appendRows(@NotNull List<Object[]> rows, boolean resetOldRows, boolean lastBatch) {
+                resultSetViewer.appendData(monitor, rows, resetOldRows);
+                resultSetViewer.getActivePresentation().refreshData(false, true, true);
+                if (lastBatch && !nextSegmentRead) {
+                    resultSetViewer.updateStatusMessage();
+                }
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return resultSetViewer.getControl().isDisposed();
+            }
+        };
+        return new ResultSetRowDelivery(
+            target,
+            UIUtils::asyncExec,
+            System::currentTimeMillis,
+            nextSegmentRead,
+            nextSegmentRead && isResetOldRows(),
+            focusRow);
     }
 
     @Override
@@ -149,27 +212,24 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 }
             }
         }
-        rows.add(row);
+        if (rowDelivery != null) {
+            rowDelivery.addRow(session.getProgressMonitor(), row);
+        } else {
+            rows.add(row);
+        }
     }
 
     @Override
     public void fetchEnd(@NotNull DBCSession session, @NotNull final DBCResultSet resultSet) {
+        if (rowDelivery != null) {
+            rowDelivery.finish(session.getProgressMonitor());
+            // Check for more data
+            hasMoreData = maxRows > 0 && rowDelivery.getDeliveredRows() >= maxRows;
+            rowDelivery = null;
+            return;
+        }
         if (!nextSegmentRead) {
-            if (metaColumns != null) {
-                try {
-                    // Read locators' metadata
-                    DBSEntity entity = null;
-                    DBSDataContainer dataContainer = getDataContainer();
-                    if (dataContainer instanceof DBSEntity) {
-                        entity = (DBSEntity) dataContainer;
-                    }
-                    DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rows);
-                } catch (Throwable e) {
-                    errorList.add(e);
-                }
-            } else {
-                // fetchStart was failed
-            }
+            bindAttributes(session, resultSet, rows);
         }
 
         final List<Object[]> tmpRows = rows;
@@ -184,27 +244,49 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
             resultSetViewer.setData(monitor, tmpRows, focusRow);
         } else {
             monitor.subTask("Append data");
-            boolean resetOldRows = getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
-            resultSetViewer.appendData(monitor, tmpRows, resetOldRows);
+            resultSetViewer.appendData(monitor, tmpRows, isResetOldRows());
         }
         // Check for more data
         hasMoreData = maxRows > 0 && tmpRows.size() >= maxRows;
         monitor.done();
 
-        UIUtils.syncExec(() -> {
-            // Push data into viewer
-            if (resultSetViewer.getControl().isDisposed()) {
-                return;
-            }
-            if (!nextSegmentRead) {
-                boolean metadataChanged = resultSetViewer.getModel().isMetadataChanged();
-                resultSetViewer.updatePresentation(resultSet, metadataChanged);
-                resultSetViewer.getActivePresentation().refreshData(true, false, !metadataChanged);
-                resultSetViewer.updateStatusMessage();
-            } else {
-                resultSetViewer.getActivePresentation().refreshData(false, true, true);
+        UIUtils.syncExec(() -> updateViewer(resultSet, nextSegmentRead));
+    }
+
+    private void bindAttributes(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, @NotNull List<Object[]> rows) {
+        if (metaColumns == null) {
+            // fetchStart was failed
+            return;
+        }
+        try {
+            // Read locators' metadata
+            DBSEntity entity = null;
+            DBSDataContainer dataContainer = getDataContainer();
+            if (dataContainer instanceof DBSEntity) {
+                entity = (DBSEntity) dataContainer;
             }
-        });
+            DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rows);
+        } catch (Throwable e) {
+            errorList.add(e);
+        }
+    }
+
+    private void updateViewer(@NotNull DBCResultSet resultSet, boolean appended) {
+        if (resultSetViewer.getControl().isDisposed()) {
+            return;
+        }
+        if (!appended) {
+            boolean metadataChanged = resultSetViewer.getModel().isMetadataChanged();
+            resultSetViewer.updatePresentation(resultSet, metadataChanged);
+            resultSetViewer.getActivePresentation().refreshData(true, false, !metadataChanged);
+            resultSetViewer.updateStatusMessage();
+        } else {
+            resultSetViewer.getActivePresentation().refreshData(false, true, true);
+        }
+    }
+
+    private boolean isResetOldRows() {
+        return getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
     }
 
     private DBSDataContainer getDataContainer() {
@@ -217,6 +299,7 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
         attrErrors.clear();
         rows = new ArrayList<>();
+        rowDelivery = null;
     }
 
     @Override
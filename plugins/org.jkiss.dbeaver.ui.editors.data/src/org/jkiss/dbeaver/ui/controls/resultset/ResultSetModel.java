@@ -34,6 +34,7 @@ import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVUtils;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.runtime.jobs.DataSourceJob;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
@@ -60,7 +61,7 @@ public class ResultSetModel implements DBDResultSetModel {
     private final ResultSetHintContext hintContext;
 
     // Data
-    private List<ResultSetRow> curRows = new ArrayList<>();
+    private List<ResultSetRow> curRows = createRowStore();
     private Long totalRowCount = null;
     private int changesCount = 0;
     private volatile boolean hasData = false;
@@ -381,6 +382,19 @@ public class ResultSetModel implements DBDResultSetModel {
         return executionSource == null ? null : executionSource.getDataContainer();
     }
 
+    @NotNull
+    private ResultSetRowStore createRowStore() {
+        return new ResultSetRowStore(this::getRowsHeapBudget, null, rows -> updateRowColors(false, rows));
+    }
+
+    private long getRowsHeapBudget() {
+        DBSDataContainer dataContainer = getDataContainer();
+        DBPPreferenceStore store = dataContainer == null || dataContainer.getDataSource() == null ?
+            DBWorkbench.getPlatform().getPreferenceStore() :
+            dataContainer.getDataSource().getContainer().getPreferenceStore();
+        return store.getLong(ResultSetPreferences.RESULT_SET_ROWS_HEAP_BUDGET) * 1024 * 1024;
+    }
+
     public boolean isEmpty() {
         return getRowCount() <= 0 || visibleAttributes.size() <= 0;
     }
@@ -397,7 +411,7 @@ public class ResultSetModel implements DBDResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -475,7 +489,8 @@ public class ResultSetModel implements DBDResultSetModel {
         }
 
         Object oldHistoricValue = updateChanges ? row.changes.get(topAttribute) : null;
-        Object currentValue = row.values[rootIndex];
+        Object[] rowValues = row.getValues();
+        Object currentValue = rowValues[rootIndex];
         Object valueToEdit = currentValue;
 
         if (currentValue instanceof DBDValue) {
@@ -516,7 +531,7 @@ public class ResultSetModel implements DBDResultSetModel {
         } else {
             valueToEdit = value;
         }
-        row.values[rootIndex] = valueToEdit;
+        rowValues[rootIndex] = valueToEdit;
 
         if (updateChanges && row.getState() == ResultSetRow.STATE_NORMAL) {
             changesCount++;
@@ -893,7 +908,7 @@ public class ResultSetModel implements DBDResultSetModel {
 
     void clearData() {
         // Refresh all rows
-        this.curRows = new ArrayList<>();
+        this.curRows = createRowStore();
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -992,8 +1007,12 @@ public class ResultSetModel implements DBDResultSetModel {
         // Sometimes model cleanup takes much time (e.g. freeing LOB values)
         // So let's do it in separate job to avoid UI locking
         RuntimeUtils.runTask(monitor -> {
-            for (ResultSetRow row : oldRows) {
-                row.release();
+            if (oldRows instanceof ResultSetRowStore rowStore) {
+                rowStore.dispose(ResultSetRow::release);
+            } else {
+                for (ResultSetRow row : oldRows) {
+                    row.release();
+                }
             }
         }, "Release values", 5000);
     }
@@ -50,9 +50,12 @@ public class ResultSetRow implements DBDValueRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
-    @NotNull
-    public Object[] values;
+    // Column values. Null if values were moved to the temporary file by the rows store.
+    @Nullable
+    private Object[] values;
+    // Rows of the page written to the temporary file
+    @Nullable
+    ResultSetRowStore.SpilledValues spilledValues;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -70,9 +73,31 @@ public class ResultSetRow implements DBDValueRow {
     @Override
     @NotNull
     public Object[] getValues() {
+        Object[] rowValues = values;
+        if (rowValues == null) {
+            rowValues = ResultSetRowStore.restoreValues(this);
+        }
+        return rowValues;
+    }
+
+    public void setValues(@NotNull Object[] values) {
+        this.values = values;
+        this.spilledValues = null;
+    }
+
+    /**
+     * Returns values kept in heap or null if they were moved to the temporary file
+     */
+    @Nullable
+    Object[] getHeapValues() {
         return values;
     }
 
+    void setHeapValues(@Nullable Object[] values, @Nullable ResultSetRowStore.SpilledValues spilledValues) {
+        this.values = values;
+        this.spilledValues = spilledValues;
+    }
+
     public boolean isChanged() {
         return changes != null && !changes.isEmpty();
     }
@@ -122,8 +147,11 @@ public class ResultSetRow implements DBDValueRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
+        // Spilled values are simple and don't need to be released
+        if (values != null) {
+            for (Object value : values) {
+                DBUtils.releaseValue(value);
+            }
         }
         if (changes != null) {
             for (Object oldValue : changes.values()) {
@@ -0,0 +1,193 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Progressive delivery of fetched rows to the results viewer.
+ *
+ * The first screen of rows is delivered as soon as it is fetched, then rows are delivered in batches,
+ * at most once per {@link #FRAME_TIME} ms. The viewer model is read by the UI thread, so once rows are shown
+ * batches are appended in the UI thread only: the fetch thread hands a batch over and continues fetching.
+ * Only one batch is handed over at a time. If the UI thread doesn't keep up then fetch waits
+ * when {@link #MAX_PENDING_ROWS} rows are pending.
+ */
+class ResultSetRowDelivery {
+
+    static final int FIRST_ROWS = 100;
+    static final int MAX_PENDING_ROWS = 10000;
+    static final long FRAME_TIME = 200;
+
+    interface Target {
+
+        /**
+         * Sets rows of a new result. Called in the fetch thread, rows are not shown yet.
+         */
+        void setRows(@NotNull List<Object[]> rows);
+
+        /**
+         * Shows rows passed to {@link #setRows(List)}. Called in the UI thread.
+         */
+        void showRows();
+
+        /**
+         * Appends rows to the shown rows and refreshes the view. Called in the UI thread.
+         */
+        void appendRows(@NotNull List<Object[]> rows, boolean resetOldRows, boolean lastBatch);
+
+        boolean isDisposed();
+    }
+
+    @NotNull
+    private final Target target;
+    @NotNull
+    private final Executor uiExecutor;
+    @NotNull
+    private final LongSupplier clock;
+    private final boolean nextSegmentRead;
+    private final boolean resetOldRows;
+    private final int firstRows;
+    // Batch handed over to the UI thread. Next batch waits for it.
+    private final Semaphore uiPermit = new Semaphore(1);
+
+    private List<Object[]> rows = new ArrayList<>();
+    private boolean started;
+    private long deliveredRows;
+    private long lastDeliveryTime;
+
+    /**
+     * @param nextSegmentRead rows are appended to the shown rows of the previous segment
+     * @param resetOldRows    rows of the previous segment are removed when the first batch is appended
+     * @param focusRow        first batch includes the focused row
+     */
+    ResultSetRowDelivery(
+        @NotNull Target target,
+        @NotNull Executor uiExecutor,
+        @NotNull LongSupplier clock,
+        boolean nextSegmentRead,
+        boolean resetOldRows,
+        int focusRow
+    ) {
+        this.target = target;
+        this.uiExecutor = uiExecutor;
+        this.clock = clock;
+        this.nextSegmentRead = nextSegmentRead;
+        this.resetOldRows = resetOldRows;
+        this.firstRows = Math.max(FIRST_ROWS, focusRow + 1);
+        this.lastDeliveryTime = clock.getAsLong();
+    }
+
+    /**
+     * Rows handed over to the viewer
+     */
+    long getDeliveredRows() {
+        return deliveredRows;
+    }
+
+    void addRow(@NotNull DBRProgressMonitor monitor, @NotNull Object[] row) {
+        rows.add(row);
+        deliver(monitor, false);
+    }
+
+    /**
+     * Delivers the rest of rows and waits until the UI thread has shown them.
+     */
+    void finish(@NotNull DBRProgressMonitor monitor) {
+        if (deliver(monitor, true) && acquirePermit(monitor)) {
+            uiPermit.release();
+        }
+    }
+
+    private boolean deliver(@NotNull DBRProgressMonitor monitor, boolean lastBatch) {
+        boolean firstBatch = !started;
+        boolean overflow = rows.size() >= MAX_PENDING_ROWS;
+        if (!lastBatch && !overflow) {
+            if (firstBatch && !nextSegmentRead) {
+                // Wait for the whole first screen (including focused row)
+                if (rows.size() < firstRows) {
+                    return false;
+                }
+            } else if (clock.getAsLong() - lastDeliveryTime < FRAME_TIME) {
+                return false;
+            }
+        }
+        if (lastBatch || overflow) {
+            if (!acquirePermit(monitor)) {
+                return false;
+            }
+        } else if (!uiPermit.tryAcquire()) {
+            // UI thread is still busy with the previous batch
+            return false;
+        }
+        final List<Object[]> batch = rows;
+        rows = new ArrayList<>();
+        started = true;
+        deliveredRows += batch.size();
+        lastDeliveryTime = clock.getAsLong();
+
+        if (firstBatch && !nextSegmentRead) {
+            // Rows are not shown yet, so they are set in the fetch thread
+            try {
+                target.setRows(batch);
+            } catch (RuntimeException e) {
+                uiPermit.release();
+                throw e;
+            }
+            executeInUI(target::showRows);
+        } else {
+            boolean resetRows = firstBatch && resetOldRows;
+            executeInUI(() -> target.appendRows(batch, resetRows, lastBatch));
+        }
+        return true;
+    }
+
+    private void executeInUI(@NotNull Runnable runnable) {
+        uiExecutor.execute(() -> {
+            try {
+                if (!target.isDisposed()) {
+                    runnable.run();
+                }
+            } finally {
+                uiPermit.release();
+            }
+        });
+    }
+
+    private boolean acquirePermit(@NotNull DBRProgressMonitor monitor) {
+        try {
+            while (!uiPermit.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                if (monitor.isCanceled() || target.isDisposed()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
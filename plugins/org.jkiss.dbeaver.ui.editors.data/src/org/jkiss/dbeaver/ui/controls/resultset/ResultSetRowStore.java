@@ -0,0 +1,679 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.impl.data.RowValuesCodec;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Result set rows list with limited heap usage.
+ *
+ * Rows are kept in pages. When estimated heap size of rows exceeds the budget, least recently used pages
+ * are written to a temporary file. A written page keeps only a compact index in heap: row numbers and
+ * the file region. Row objects of a written page are referenced weakly, so they stay the same objects
+ * while somebody uses them (current row, selection, grid), and are recreated from the index otherwise.
+ * Values are read back when {@link ResultSetRow#getValues()} is called for any row of the page.
+ * Only pages of unmodified rows whose values can be restored exactly
+ * (see {@link RowValuesCodec#isEncodable(Object)}) are written, other pages always stay in heap.
+ * File regions of restored pages are reused, free space at the end of the file is truncated.
+ */
+final class ResultSetRowStore extends AbstractList<ResultSetRow> implements RandomAccess {
+
+    private static final Log log = Log.getLog(ResultSetRowStore.class);
+
+    static final int PAGE_SIZE = 1000;
+    private static final String SPILL_FOLDER = "resultset-rows";
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private static final class Page {
+        // Rows of the page. Null if the page was written to the temporary file.
+        @Nullable
+        List<ResultSetRow> rows = new ArrayList<>();
+        @Nullable
+        SpilledPage spilled;
+        // Page can't be written (or is written already). Reset on page modification.
+        boolean spillChecked;
+
+        int size() {
+            return rows != null ? rows.size() : spilled.rowNumbers.length;
+        }
+    }
+
+    /**
+     * Heap index of page rows written to the temporary file
+     */
+    private static final class SpilledPage {
+        @NotNull
+        private final ResultSetRowStore store;
+        @NotNull
+        private final Page page;
+        @NotNull
+        private final int[] rowNumbers;
+        @NotNull
+        private final int[] visualNumbers;
+        private final int columnCount;
+        private final long fileOffset;
+        private final int fileLength;
+        // Row objects of the page, while they are referenced outside the store
+        @Nullable
+        private WeakReference<SpilledValues> rowsRef;
+        // Store was cleared, values are lost
+        private boolean detached;
+
+        private SpilledPage(
+            @NotNull ResultSetRowStore store,
+            @NotNull Page page,
+            @NotNull int[] rowNumbers,
+            @NotNull int[] visualNumbers,
+            int columnCount,
+            long fileOffset,
+            int fileLength
+        ) {
+            this.store = store;
+            this.page = page;
+            this.rowNumbers = rowNumbers;
+            this.visualNumbers = visualNumbers;
+            this.columnCount = columnCount;
+            this.fileOffset = fileOffset;
+            this.fileLength = fileLength;
+        }
+    }
+
+    /**
+     * Row objects of a page written to the temporary file.
+     * Each row references this object, so all rows of the page are kept together while any of them is used.
+     */
+    static final class SpilledValues {
+        @NotNull
+        private final SpilledPage page;
+        @NotNull
+        private final ResultSetRow[] rows;
+
+        private SpilledValues(@NotNull SpilledPage page, @NotNull ResultSetRow[] rows) {
+            this.page = page;
+            this.rows = rows;
+        }
+    }
+
+    private final LongSupplier heapBudget;
+    @Nullable
+    private final Path spillFolder;
+    @Nullable
+    private final Consumer<List<ResultSetRow>> rowsRecreateListener;
+
+    private final List<Page> pages = new ArrayList<>();
+    // All pages, in access order
+    private final Map<Page, Boolean> recentPages = new LinkedHashMap<>(16, 0.75f, true);
+    @Nullable
+    private int[] pageStarts;
+    private int size;
+    private long heapSize;
+
+    // Free regions of the temporary file, sorted by offset: {offset, length}
+    private final List<long[]> freeRegions = new ArrayList<>();
+    @Nullable
+    private Path spillFile;
+    @Nullable
+    private FileChannel spillChannel;
+    private long spillFileSize;
+    private boolean spillDisabled;
+    private boolean sortInProgress;
+
+    /**
+     * @param heapBudget           max heap size of rows (in bytes), zero means unlimited
+     * @param spillFolder          folder for the temporary file, workbench temporary folder is used if not specified
+     * @param rowsRecreateListener called when row objects of a written page are recreated (e.g. to update row colors)
+     */
+    ResultSetRowStore(
+        @NotNull LongSupplier heapBudget,
+        @Nullable Path spillFolder,
+        @Nullable Consumer<List<ResultSetRow>> rowsRecreateListener
+    ) {
+        this.heapBudget = heapBudget;
+        this.spillFolder = spillFolder;
+        this.rowsRecreateListener = rowsRecreateListener;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized ResultSetRow get(int index) {
+        Objects.checkIndex(index, size);
+        int pageIndex = findPage(index);
+        Page page = pages.get(pageIndex);
+        recentPages.get(page);
+        int rowIndex = index - pageStarts[pageIndex];
+        return page.rows != null ? page.rows.get(rowIndex) : getSpilledValues(page.spilled).rows[rowIndex];
+    }
+
+    @Override
+    public synchronized ResultSetRow set(int index, ResultSetRow row) {
+        Objects.checkIndex(index, size);
+        int pageIndex = findPage(index);
+        List<ResultSetRow> pageRows = loadPage(pages.get(pageIndex));
+        ResultSetRow oldRow = pageRows.set(index - pageStarts[pageIndex], row);
+        heapSize += estimateHeapSize(row) - estimateHeapSize(oldRow);
+        checkHeapBudget(pages.get(pageIndex));
+        return oldRow;
+    }
+
+    @Override
+    public synchronized void add(int index, ResultSetRow row) {
+        Objects.checkIndex(index, size + 1);
+        modCount++;
+        Page page = null;
+        if (index == size) {
+            appendRow(row);
+        } else {
+            int pageIndex = findPage(index);
+            page = pages.get(pageIndex);
+            loadPage(page).add(index - pageStarts[pageIndex], row);
+            size++;
+            pageStarts = null;
+            heapSize += estimateHeapSize(row);
+        }
+        checkHeapBudget(page);
+    }
+
+    @Override
+    public synchronized ResultSetRow remove(int index) {
+        Objects.checkIndex(index, size);
+        modCount++;
+        int pageIndex = findPage(index);
+        Page page = pages.get(pageIndex);
+        List<ResultSetRow> pageRows = loadPage(page);
+        ResultSetRow row = pageRows.remove(index - pageStarts[pageIndex]);
+        size--;
+        pageStarts = null;
+        heapSize -= estimateHeapSize(row);
+        if (pageRows.isEmpty()) {
+            pages.remove(pageIndex);
+            recentPages.remove(page);
+        }
+        checkHeapBudget(page);
+        return row;
+    }
+
+    @Override
+    public synchronized void clear() {
+        modCount++;
+        for (Page page : pages) {
+            if (page.spilled != null) {
+                page.spilled.detached = true;
+            }
+        }
+        pages.clear();
+        recentPages.clear();
+        pageStarts = null;
+        size = 0;
+        heapSize = 0;
+        // Reuse temporary file
+        freeRegions.clear();
+        truncateSpillFile(0);
+    }
+
+    @Override
+    public synchronized Object[] toArray() {
+        // Values of written pages are not read here
+        Object[] result = new Object[size];
+        int offset = 0;
+        for (Page page : pages) {
+            if (page.rows != null) {
+                for (ResultSetRow row : page.rows) {
+                    result[offset++] = row;
+                }
+            } else {
+                ResultSetRow[] rows = getSpilledValues(page.spilled).rows;
+                System.arraycopy(rows, 0, result, offset, rows.length);
+                offset += rows.length;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Client-side sort needs values of all rows, so they are kept in heap while sorting.
+     * The budget is applied after the sort.
+     */
+    @Override
+    public synchronized void sort(@Nullable Comparator<? super ResultSetRow> comparator) {
+        sortInProgress = true;
+        Object[] rows;
+        try {
+            for (Page page : pages) {
+                loadPage(page);
+            }
+            rows = toArray();
+            @SuppressWarnings("unchecked")
+            Comparator<Object> rowComparator = (Comparator<Object>) comparator;
+            Arrays.sort(rows, rowComparator);
+        } finally {
+            sortInProgress = false;
+        }
+        modCount++;
+        pages.clear();
+        recentPages.clear();
+        pageStarts = null;
+        size = 0;
+        heapSize = 0;
+        for (Object row : rows) {
+            appendRow((ResultSetRow) row);
+        }
+        checkHeapBudget(null);
+    }
+
+    /**
+     * Passes all rows kept in heap to the consumer and deletes the temporary file.
+     * Values of written pages are simple and don't need to be released.
+     */
+    synchronized void dispose(@NotNull Consumer<ResultSetRow> rowConsumer) {
+        for (Page page : pages) {
+            if (page.rows != null) {
+                page.rows.forEach(rowConsumer);
+            }
+        }
+        clear();
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException e) {
+                log.debug("Error closing rows spill file", e);
+            }
+            spillChannel = null;
+        }
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                log.debug("Error deleting rows spill file '" + spillFile + "'", e);
+            }
+            spillFile = null;
+        }
+    }
+
+    synchronized long getHeapSize() {
+        return heapSize;
+    }
+
+    synchronized int getSpilledPageCount() {
+        int count = 0;
+        for (Page page : pages) {
+            if (page.spilled != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Size of the temporary file, including free regions
+     */
+    synchronized long getSpillFileSize() {
+        return spillFileSize;
+    }
+
+    /**
+     * Reads values of the row from the temporary file. Values of other rows of the page are restored too.
+     */
+    @NotNull
+    static Object[] restoreValues(@NotNull ResultSetRow row) {
+        SpilledValues spilled = row.spilledValues;
+        if (spilled != null) {
+            return spilled.page.store.restoreValues(row, spilled);
+        }
+        Object[] values = row.getHeapValues();
+        if (values == null) {
+            throw new IllegalStateException("Row " + row.getRowNumber() + " has no values");
+        }
+        return values;
+    }
+
+    @NotNull
+    private synchronized Object[] restoreValues(@NotNull ResultSetRow row, @NotNull SpilledValues spilled) {
+        Object[] rowValues = row.getHeapValues();
+        if (rowValues != null) {
+            // Restored by another thread
+            return rowValues;
+        }
+        if (spilled.page.detached) {
+            // Rows of cleared store. Their values are not needed anymore.
+            rowValues = new Object[spilled.page.columnCount];
+            row.setHeapValues(rowValues, null);
+            return rowValues;
+        }
+        restorePage(spilled);
+        recentPages.get(spilled.page.page);
+        checkHeapBudget(spilled.page.page);
+        return row.getHeapValues();
+    }
+
+    /**
+     * Returns rows of the page, reads them from the temporary file if needed
+     */
+    @NotNull
+    private List<ResultSetRow> loadPage(@NotNull Page page) {
+        page.spillChecked = false;
+        if (page.rows == null) {
+            SpilledValues values = getSpilledValues(page.spilled);
+            if (page.rows == null) {
+                // Rows recreate listener could read the page already
+                restorePage(values);
+            }
+        }
+        return page.rows;
+    }
+
+    /**
+     * Returns row objects of a written page. Creates them from the page index if they were garbage collected.
+     */
+    @NotNull
+    private SpilledValues getSpilledValues(@NotNull SpilledPage spilled) {
+        SpilledValues values = spilled.rowsRef == null ? null : spilled.rowsRef.get();
+        if (values != null) {
+            return values;
+        }
+        ResultSetRow[] rows = new ResultSetRow[spilled.rowNumbers.length];
+        values = new SpilledValues(spilled, rows);
+        for (int i = 0; i < rows.length; i++) {
+            ResultSetRow row = new ResultSetRow(spilled.rowNumbers[i], EMPTY_VALUES);
+            row.setVisualNumber(spilled.visualNumbers[i]);
+            row.setHeapValues(null, values);
+            rows[i] = row;
+        }
+        spilled.rowsRef = new WeakReference<>(values);
+        if (rowsRecreateListener != null) {
+            rowsRecreateListener.accept(Arrays.asList(rows));
+        }
+        return values;
+    }
+
+    private void restorePage(@NotNull SpilledValues spilledValues) {
+        SpilledPage spilled = spilledValues.page;
+        List<Object[]> values;
+        try {
+            values = readValues(spilled);
+        } catch (IOException e) {
+            // Shouldn't happen, temporary file is exclusively ours
+            throw new IllegalStateException("Error reading result set rows from '" + spillFile + "'", e);
+        }
+        Page page = spilled.page;
+        page.rows = new ArrayList<>(spilledValues.rows.length);
+        for (int i = 0; i < spilledValues.rows.length; i++) {
+            ResultSetRow row = spilledValues.rows[i];
+            // Values could be replaced after they were written
+            if (row.spilledValues == spilledValues) {
+                row.setHeapValues(values.get(i), null);
+            }
+            page.rows.add(row);
+            heapSize += estimateHeapSize(row);
+        }
+        page.spilled = null;
+        page.spillChecked = false;
+        freeRegion(spilled.fileOffset, spilled.fileLength);
+    }
+
+    private void appendRow(@NotNull ResultSetRow row) {
+        Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        if (page == null || page.size() >= PAGE_SIZE) {
+            if (pageStarts != null) {
+                if (pageStarts.length <= pages.size()) {
+                    pageStarts = Arrays.copyOf(pageStarts, pageStarts.length * 2 + 1);
+                }
+                pageStarts[pages.size()] = size;
+            }
+            page = new Page();
+            pages.add(page);
+        }
+        recentPages.put(page, Boolean.TRUE);
+        loadPage(page).add(row);
+        size++;
+        heapSize += estimateHeapSize(row);
+    }
+
+    private int findPage(int index) {
+        if (pageStarts == null) {
+            int[] starts = new int[pages.size() + 1];
+            int start = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                starts[i] = start;
+                start += pages.get(i).size();
+            }
+            pageStarts = starts;
+        }
+        int pageIndex = Arrays.binarySearch(pageStarts, 0, pages.size(), index);
+        return pageIndex >= 0 ? pageIndex : -pageIndex - 2;
+    }
+
+    private void checkHeapBudget(@Nullable Page usedPage) {
+        if (spillDisabled || sortInProgress || pages.isEmpty()) {
+            return;
+        }
+        long budget = heapBudget.getAsLong();
+        if (budget <= 0 || heapSize <= budget) {
+            return;
+        }
+        // Spill some extra pages to avoid spilling on each added row
+        long targetSize = budget - budget / 4;
+        Page lastPage = pages.get(pages.size() - 1);
+        for (Iterator<Page> iter = recentPages.keySet().iterator(); iter.hasNext() && heapSize > targetSize; ) {
+            Page page = iter.next();
+            if (page == usedPage || page == lastPage || page.spillChecked) {
+                continue;
+            }
+            try {
+                spillPage(page);
+            } catch (IOException e) {
+                log.error("Error writing result set rows to temporary file. Rows will be kept in memory.", e);
+                spillDisabled = true;
+                return;
+            }
+        }
+    }
+
+    private void spillPage(@NotNull Page page) throws IOException {
+        page.spillChecked = true;
+        List<ResultSetRow> rows = page.rows;
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> values = new ArrayList<>(rows.size());
+        int[] rowNumbers = new int[rows.size()];
+        int[] visualNumbers = new int[rows.size()];
+        int columnCount = 0;
+        long rowsHeapSize = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            ResultSetRow row = rows.get(i);
+            Object[] rowValues = row.getHeapValues();
+            if (rowValues == null || !isSpillable(row, rowValues)) {
+                return;
+            }
+            values.add(rowValues);
+            rowNumbers[i] = row.getRowNumber();
+            visualNumbers[i] = row.getVisualNumber();
+            columnCount = Math.max(columnCount, rowValues.length);
+            rowsHeapSize += estimateHeapSize(row);
+        }
+        byte[] data = RowValuesCodec.encode(values, columnCount);
+        long offset = allocateRegion(data.length);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            FileChannel channel = getSpillChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+        } catch (IOException e) {
+            freeRegion(offset, data.length);
+            throw e;
+        }
+        SpilledPage spilled = new SpilledPage(this, page, rowNumbers, visualNumbers, columnCount, offset, data.length);
+        SpilledValues spilledValues = new SpilledValues(spilled, rows.toArray(new ResultSetRow[0]));
+        for (ResultSetRow row : spilledValues.rows) {
+            row.setHeapValues(null, spilledValues);
+        }
+        spilled.rowsRef = new WeakReference<>(spilledValues);
+        page.rows = null;
+        page.spilled = spilled;
+        heapSize -= rowsHeapSize;
+    }
+
+    private static boolean isSpillable(@NotNull ResultSetRow row, @NotNull Object[] values) {
+        if (row.getState() != ResultSetRow.STATE_NORMAL || row.changes != null) {
+            return false;
+        }
+        for (Object value : values) {
+            if (!RowValuesCodec.isEncodable(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long allocateRegion(int length) {
+        for (int i = 0; i < freeRegions.size(); i++) {
+            long[] region = freeRegions.get(i);
+            if (region[1] >= length) {
+                long offset = region[0];
+                if (region[1] == length) {
+                    freeRegions.remove(i);
+                } else {
+                    region[0] += length;
+                    region[1] -= length;
+                }
+                return offset;
+            }
+        }
+        long offset = spillFileSize;
+        spillFileSize += length;
+        return offset;
+    }
+
+    /**
+     * Returns region to the free list. Adjacent free regions are merged, free space at the end of file is truncated.
+     */
+    private void freeRegion(long offset, long length) {
+        int index = 0;
+        while (index < freeRegions.size() && freeRegions.get(index)[0] < offset) {
+            index++;
+        }
+        long[] region = new long[]{offset, length};
+        if (index > 0) {
+            long[] prevRegion = freeRegions.get(index - 1);
+            if (prevRegion[0] + prevRegion[1] == offset) {
+                prevRegion[1] += length;
+                region = prevRegion;
+                index--;
+            } else {
+                freeRegions.add(index, region);
+            }
+        } else {
+            freeRegions.add(index, region);
+        }
+        if (index + 1 < freeRegions.size()) {
+            long[] nextRegion = freeRegions.get(index + 1);
+            if (region[0] + region[1] == nextRegion[0]) {
+                region[1] += nextRegion[1];
+                freeRegions.remove(index + 1);
+            }
+        }
+        if (region[0] + region[1] == spillFileSize) {
+            freeRegions.remove(index);
+            truncateSpillFile(region[0]);
+        }
+    }
+
+    private void truncateSpillFile(long newSize) {
+        spillFileSize = newSize;
+        if (spillChannel != null) {
+            try {
+                spillChannel.truncate(newSize);
+            } catch (IOException e) {
+                log.debug("Error truncating rows spill file", e);
+            }
+        }
+    }
+
+    @NotNull
+    private List<Object[]> readValues(@NotNull SpilledPage spilled) throws IOException {
+        FileChannel channel = getSpillChannel();
+        ByteBuffer buffer = ByteBuffer.allocate(spilled.fileLength);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, spilled.fileOffset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of rows spill file");
+            }
+        }
+        return RowValuesCodec.decode(buffer.array());
+    }
+
+    @NotNull
+    private FileChannel getSpillChannel() throws IOException {
+        if (spillChannel == null) {
+            Path folder = spillFolder != null ?
+                spillFolder :
+                DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), SPILL_FOLDER);
+            spillFile = Files.createTempFile(folder, "rows", ".dat");
+            spillChannel = FileChannel.open(
+                spillFile,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        return spillChannel;
+    }
+
+    private static long estimateHeapSize(@Nullable ResultSetRow row) {
+        Object[] values = row == null ? null : row.getHeapValues();
+        if (values == null) {
+            return 0;
+        }
+        // Row object itself
+        long valuesSize = 48 + 16 + 4L * values.length;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof String str) {
+                valuesSize += 40 + str.length() * 2L;
+            } else if (value instanceof byte[] bytes) {
+                valuesSize += 16 + bytes.length;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                valuesSize += 24;
+            } else {
+                valuesSize += 64;
+            }
+        }
+        return valuesSize;
+    }
+}
@@ -3990,6 +3990,11 @@ public class ResultSetViewer extends Viewer
 
         DataEditorFeatures.RESULT_SET_REFRESH.use();
 
+        DBPDataSource dataSource = getDataSource();
+        if (dataSource != null) {
+            // Refresh must show actual dictionary labels too
+            DBVDictionaryCache.invalidate(dataSource);
+        }
         DBSDataContainer dataContainer = getDataContainer();
         if (dataContainer != null) {
             int segmentSize = getSegmentMaxRows();
@@ -358,6 +358,8 @@ public class ResultSetMessages extends NLS {
 
     public static String pref_page_content_cache_clob;
     public static String pref_page_content_cache_blob;
+    public static String pref_page_content_lob_paged_read;
+    public static String pref_page_content_lob_paged_read_tip;
     public static String pref_page_database_general_label_cache_max_size;
     public static String pref_page_database_general_checkbox_keep_cursor;
     public static String pref_page_database_general_group_queries;
@@ -366,6 +368,10 @@ public class ResultSetMessages extends NLS {
     public static String pref_page_database_general_label_result_set_max_size;
     public static String pref_page_database_general_label_result_set_cancel_timeout;
     public static String pref_page_database_general_label_result_set_cancel_timeout_tip;
+    public static String pref_page_database_resultsets_label_rows_heap_budget;
+    public static String pref_page_database_resultsets_label_rows_heap_budget_tip;
+    public static String pref_page_database_resultsets_label_progressive_fetch;
+    public static String pref_page_database_resultsets_label_progressive_fetch_tip;
 
     public static String pref_page_results_group_advanced;
     public static String pref_page_sql_editor_group_misc;
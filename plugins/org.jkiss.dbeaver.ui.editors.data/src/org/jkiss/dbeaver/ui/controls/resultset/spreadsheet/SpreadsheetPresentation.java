@@ -1913,6 +1913,8 @@ public class SpreadsheetPresentation extends AbstractPresentation
             } else {
                 // rows
                 if (!recordMode) {
+                    // Only row objects are collected here. Values of rows are read
+                    // when cells are painted, so values of rows kept on disk are not loaded.
                     return model.getAllRows().toArray();
                 } else {
                     DBDAttributeBinding[] columns = model.getVisibleAttributes().toArray(new DBDAttributeBinding[model.getVisibleAttributeCount()]);
@@ -56,6 +56,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
     private Button contentCacheClob;
     private Button contentCacheBlob;
     private Spinner contentCacheMaxSize;
+    private Button contentPagedRead;
 
     private Spinner maxTextContentSize;
     private Button editLongAsLobCheck;
@@ -84,6 +85,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             store.contains(ModelPreferences.CONTENT_CACHE_CLOB) ||
             store.contains(ModelPreferences.CONTENT_CACHE_BLOB) ||
             store.contains(ModelPreferences.CONTENT_CACHE_MAX_SIZE) ||
+            store.contains(ModelPreferences.CONTENT_LOB_PAGED_READ) ||
             store.contains(ResultSetPreferences.RS_EDIT_LONG_AS_LOB) ||
 
             store.contains(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE) ||
@@ -149,6 +151,11 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             contentCacheMaxSize.setDigits(0);
             contentCacheMaxSize.setIncrement(100000);
             contentCacheMaxSize.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+            contentPagedRead = UIUtils.createLabelCheckbox(
+                binaryGroup,
+                ResultSetMessages.pref_page_content_lob_paged_read,
+                ResultSetMessages.pref_page_content_lob_paged_read_tip,
+                false);
             editLongAsLobCheck = UIUtils.createLabelCheckbox(binaryGroup, ResultSetMessages.pref_page_content_editor_checkbox_edit_long_as_lobs, false);
         }
 
@@ -197,6 +204,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             contentCacheClob.setSelection(store.getBoolean(ModelPreferences.CONTENT_CACHE_CLOB));
             contentCacheBlob.setSelection(store.getBoolean(ModelPreferences.CONTENT_CACHE_BLOB));
             contentCacheMaxSize.setSelection(store.getInt(ModelPreferences.CONTENT_CACHE_MAX_SIZE));
+            contentPagedRead.setSelection(store.getBoolean(ModelPreferences.CONTENT_LOB_PAGED_READ));
             editLongAsLobCheck.setSelection(store.getBoolean(ResultSetPreferences.RS_EDIT_LONG_AS_LOB));
 
             maxTextContentSize.setSelection(store.getInt(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE));
@@ -232,6 +240,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             store.setValue(ModelPreferences.CONTENT_CACHE_CLOB, contentCacheClob.getSelection());
             store.setValue(ModelPreferences.CONTENT_CACHE_BLOB, contentCacheBlob.getSelection());
             store.setValue(ModelPreferences.CONTENT_CACHE_MAX_SIZE, contentCacheMaxSize.getSelection());
+            store.setValue(ModelPreferences.CONTENT_LOB_PAGED_READ, contentPagedRead.getSelection());
             store.setValue(ResultSetPreferences.RS_EDIT_LONG_AS_LOB, editLongAsLobCheck.getSelection());
 
             store.setValue(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE, maxTextContentSize.getSelection());
@@ -256,6 +265,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
         store.setToDefault(ModelPreferences.CONTENT_CACHE_CLOB);
         store.setToDefault(ModelPreferences.CONTENT_CACHE_BLOB);
         store.setToDefault(ModelPreferences.CONTENT_CACHE_MAX_SIZE);
+        store.setToDefault(ModelPreferences.CONTENT_LOB_PAGED_READ);
         store.setToDefault(ResultSetPreferences.RS_EDIT_LONG_AS_LOB);
 
         store.setToDefault(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE);
@@ -275,6 +285,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
         contentCacheClob.setSelection(store.getDefaultBoolean(ModelPreferences.CONTENT_CACHE_CLOB));
         contentCacheBlob.setSelection(store.getDefaultBoolean(ModelPreferences.CONTENT_CACHE_BLOB));
         contentCacheMaxSize.setSelection(store.getDefaultInt(ModelPreferences.CONTENT_CACHE_MAX_SIZE));
+        contentPagedRead.setSelection(store.getDefaultBoolean(ModelPreferences.CONTENT_LOB_PAGED_READ));
         maxTextContentSize.setSelection(store.getDefaultInt(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE));
         editLongAsLobCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RS_EDIT_LONG_AS_LOB));
         commitOnEditApplyCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RS_COMMIT_ON_EDIT_APPLY));
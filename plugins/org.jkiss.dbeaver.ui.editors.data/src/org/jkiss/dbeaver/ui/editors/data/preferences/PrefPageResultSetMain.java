@@ -57,10 +57,12 @@ public class PrefPageResultSetMain extends TargetPrefPage
     private Button autoFetchNextSegmentCheck;
     private Button automaticRowCountCheck;
     private Button rereadOnScrollingCheck;
+    private Button progressiveFetchCheck;
     private Text resultSetSize;
     private Button resultSetUseSQLCheck;
     private Combo orderingModeCombo;
     private Text queryCancelTimeout;
+    private Spinner rowsHeapBudgetSpinner;
     private Button filterForceSubselect;
 
     private Button keepStatementOpenCheck;
@@ -96,6 +98,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL) ||
             store.contains(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT) ||
             store.contains(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT) ||
+            store.contains(ResultSetPreferences.RESULT_SET_ROWS_HEAP_BUDGET) ||
+            store.contains(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH) ||
             store.contains(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT) ||
             store.contains(ResultSetPreferences.RS_EDIT_USE_ALL_COLUMNS) ||
             store.contains(ResultSetPreferences.RS_EDIT_DISABLE_IF_KEY_MISSING) ||
@@ -145,6 +149,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             autoFetchNextSegmentCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_auto_fetch_segment, ResultSetMessages.pref_page_database_resultsets_label_auto_fetch_segment_tip, true, 2);
             rereadOnScrollingCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_reread_on_scrolling, ResultSetMessages.pref_page_database_resultsets_label_reread_on_scrolling_tip, true, 2);
+            progressiveFetchCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_progressive_fetch, ResultSetMessages.pref_page_database_resultsets_label_progressive_fetch_tip, false, 2);
             resultSetUseSQLCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_use_sql, ResultSetMessages.pref_page_database_resultsets_label_use_sql_tip, false, 2);
             automaticRowCountCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_automatic_row_count, ResultSetMessages.pref_page_database_resultsets_label_automatic_row_count_tip, false, 2);
             orderingModeCombo = UIUtils.createLabelCombo(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_order_mode, ResultSetMessages.pref_page_database_resultsets_label_order_mode_tip, SWT.DROP_DOWN | SWT.READ_ONLY);
@@ -155,6 +160,13 @@ public class PrefPageResultSetMain extends TargetPrefPage
             queryCancelTimeout.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
             queryCancelTimeout.setToolTipText(ResultSetMessages.pref_page_database_general_label_result_set_cancel_timeout_tip);
             queryCancelTimeout.setEnabled(false);
+            rowsHeapBudgetSpinner = UIUtils.createLabelSpinner(
+                queriesGroup,
+                ResultSetMessages.pref_page_database_resultsets_label_rows_heap_budget,
+                ResultSetMessages.pref_page_database_resultsets_label_rows_heap_budget_tip,
+                256,
+                0,
+                Integer.MAX_VALUE);
 
             filterForceSubselect = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_filter_force_subselect,
                 ResultSetMessages.pref_page_database_resultsets_label_filter_force_subselect_tip, false, 2);
@@ -250,6 +262,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
         try {
             autoFetchNextSegmentCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT));
             rereadOnScrollingCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING));
+            progressiveFetchCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH));
             useDateTimeEditor.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_DATETIME_EDITOR));
             int rsSegmentSize = store.getInt(ModelPreferences.RESULT_SET_MAX_ROWS);
             if (rsSegmentSize > 0 && rsSegmentSize < ResultSetPreferences.MIN_SEGMENT_SIZE) {
@@ -260,6 +273,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             automaticRowCountCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT));
             orderingModeCombo.select(CommonUtils.valueOf(ResultSetUtils.OrderingMode.class, store.getString(ResultSetPreferences.RESULT_SET_ORDERING_MODE), ResultSetUtils.OrderingMode.SMART).ordinal());
             queryCancelTimeout.setText(store.getString(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT));
+            rowsHeapBudgetSpinner.setSelection(store.getInt(ResultSetPreferences.RESULT_SET_ROWS_HEAP_BUDGET));
             filterForceSubselect.setSelection(store.getBoolean(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT));
             useBrowserCheckbox.setSelection(store.getBoolean(ResultSetPreferences.RESULT_IMAGE_USE_BROWSER_BASED_RENDERER));
 
@@ -291,11 +305,13 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.setValue(ModelPreferences.RESULT_SET_USE_DATETIME_EDITOR, useDateTimeEditor.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT, autoFetchNextSegmentCheck.getSelection());
             store.setValue(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING, rereadOnScrollingCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH, progressiveFetchCheck.getSelection());
             store.setValue(ModelPreferences.RESULT_SET_MAX_ROWS, resultSetSize.getText());
             store.setValue(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL, resultSetUseSQLCheck.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT, automaticRowCountCheck.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_ORDERING_MODE, ResultSetUtils.OrderingMode.values()[orderingModeCombo.getSelectionIndex()].toString());
             store.setValue(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT, queryCancelTimeout.getText());
+            store.setValue(ResultSetPreferences.RESULT_SET_ROWS_HEAP_BUDGET, rowsHeapBudgetSpinner.getSelection());
             store.setValue(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT, filterForceSubselect.getSelection());
             store.setValue(ResultSetPreferences.RESULT_IMAGE_USE_BROWSER_BASED_RENDERER, useBrowserCheckbox.getSelection());
 
@@ -326,11 +342,13 @@ public class PrefPageResultSetMain extends TargetPrefPage
         store.setToDefault(ModelPreferences.RESULT_SET_USE_DATETIME_EDITOR);
         store.setToDefault(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT);
         store.setToDefault(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH);
         store.setToDefault(ModelPreferences.RESULT_SET_MAX_ROWS);
         store.setToDefault(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL);
         store.setToDefault(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT);
         store.setToDefault(ResultSetPreferences.RESULT_SET_ORDERING_MODE);
         store.setToDefault(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_ROWS_HEAP_BUDGET);
         store.setToDefault(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT);
 
         store.setToDefault(ResultSetPreferences.KEEP_STATEMENT_OPEN);
@@ -355,11 +373,13 @@ public class PrefPageResultSetMain extends TargetPrefPage
         DBPPreferenceStore store = DBWorkbench.getPlatform().getPreferenceStore();
         autoFetchNextSegmentCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT));
         rereadOnScrollingCheck.setSelection(store.getDefaultBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING));
+        progressiveFetchCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH));
         resultSetSize.setText(String.valueOf(store.getDefaultInt(ModelPreferences.RESULT_SET_MAX_ROWS)));
         resultSetUseSQLCheck.setSelection(store.getDefaultBoolean(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL));
         automaticRowCountCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT));
         orderingModeCombo.select(ResultSetUtils.OrderingMode.SMART.ordinal());
         queryCancelTimeout.setText(String.valueOf(store.getDefaultInt(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT)));
+        rowsHeapBudgetSpinner.setSelection(store.getDefaultInt(ResultSetPreferences.RESULT_SET_ROWS_HEAP_BUDGET));
         filterForceSubselect.setSelection(store.getDefaultBoolean(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT));
         keepStatementOpenCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.KEEP_STATEMENT_OPEN));
         alwaysUseAllColumns.setSelection(store.getDefaultBoolean(ResultSetPreferences.RS_EDIT_USE_ALL_COLUMNS));
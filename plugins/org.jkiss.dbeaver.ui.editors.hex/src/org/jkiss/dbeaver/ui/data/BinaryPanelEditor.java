@@ -28,6 +28,7 @@ import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.app.DBPDataSourceRegistry;
 import org.jkiss.dbeaver.model.data.DBDContent;
 import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDContentStorageRandomAccess;
 import org.jkiss.dbeaver.model.data.storage.BytesContentStorage;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
@@ -93,6 +94,18 @@ public class BinaryPanelEditor implements IStreamValueEditor<HexEditControl> {
         monitor.beginTask("Prime content value", 1);
         try {
             DBDContentStorage data = value.getContents(monitor);
+            if (data instanceof DBDContentStorageRandomAccess randomAccessData) {
+                // Do not read the whole value, hex control reads visible pages on demand
+                BinaryContent content = new BinaryContent(randomAccessData);
+                UIUtils.syncExec(() -> {
+                    if (data.getCharset() != null) {
+                        control.setCharset(data.getCharset());
+                    }
+                    control.setContentProvider(content, false);
+                    control.setReadOnly(value.getDataSource().getContainer().isConnectionReadOnly());
+                });
+                return;
+            }
             String charset = null;
             monitor.subTask("Read binary value");
             ByteArrayOutputStream buffer = new ByteArrayOutputStream();
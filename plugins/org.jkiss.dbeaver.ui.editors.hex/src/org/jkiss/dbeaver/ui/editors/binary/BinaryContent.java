@@ -17,6 +17,7 @@
 package org.jkiss.dbeaver.ui.editors.binary;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.data.DBDContentStorageRandomAccess;
 import org.jkiss.dbeaver.utils.ContentUtils;
 
 import java.io.Closeable;
@@ -76,6 +77,14 @@ public class BinaryContent {
             dirty = isDirty;
         }
 
+        Range(long aPosition, DBDContentStorageRandomAccess aStorage, boolean isDirty)
+            throws IOException
+        {
+            this(aPosition, aStorage.getContentLength());
+            data = aStorage;
+            dirty = isDirty;
+        }
+
         Range(long aPosition, File aFile, boolean isDirty)
             throws IOException
         {
@@ -161,6 +170,23 @@ public class BinaryContent {
         ranges.add(new Range(0L, aFile, false));
     }
 
+    /**
+     * Create new content from a random access content storage.
+     * Content is read from the storage on demand, storage is not released on dispose.
+     *
+     * @param storage the backing content provider
+     * @throws IOException when i/o problems occur. The content will be empty but valid
+     */
+    public BinaryContent(DBDContentStorageRandomAccess storage)
+        throws IOException
+    {
+        this();
+        if (storage == null || storage.getContentLength() < 1L)
+            return;
+
+        ranges.add(new Range(0L, storage, false));
+    }
+
 
     void actionsOn(boolean on)
     {
@@ -411,6 +437,14 @@ public class BinaryContent {
             src.getChannel().read(dst, start);
             if (limit > 0)
                 dst.limit(limit);
+        } else if (sourceRange.data instanceof DBDContentStorageRandomAccess) {
+            DBDContentStorageRandomAccess src = (DBDContentStorageRandomAccess) sourceRange.data;
+            long start = sourceRange.dataOffset + overlapBytes;
+            int length = (int) Math.min(Math.min(sourceRange.length - overlapBytes, maxCopyLength), dst.remaining());
+            byte[] buffer = new byte[length];
+            int count = src.readBytes(start, buffer, 0, length);
+            if (count > 0)
+                dst.put(buffer, 0, count);
         }
 
         return dst.position() - dstInitialPosition;
@@ -616,6 +650,10 @@ public class BinaryContent {
                 RandomAccessFile randomFile = (RandomAccessFile) value;
                 randomFile.seek(position);
                 result = randomFile.read();
+            } else if (value instanceof DBDContentStorageRandomAccess) {
+                byte[] buffer = new byte[1];
+                if (((DBDContentStorageRandomAccess) value).readBytes(range.dataOffset + position - range.position, buffer, 0, 1) > 0)
+                    result = buffer[0] & 0x0ff;
             }
         }
 
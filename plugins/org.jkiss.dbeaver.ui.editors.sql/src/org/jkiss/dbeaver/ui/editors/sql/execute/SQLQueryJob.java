@@ -51,6 +51,7 @@ import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableParametrized;
 import org.jkiss.dbeaver.model.sql.*;
+import org.jkiss.dbeaver.model.sql.commands.SQLCommandParallel;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
 import org.jkiss.dbeaver.model.sql.parser.SQLSemanticProcessor;
 import org.jkiss.dbeaver.model.sql.registry.SQLCommandsRegistry;
@@ -77,6 +78,7 @@ import org.jkiss.utils.CommonUtils;
 import java.lang.reflect.InvocationTargetException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -124,6 +126,11 @@ public class SQLQueryJob extends DataSourceJob
     private long fetchFlags;
     private SQLQueryResult curResult;
 
+    private int parallelConnections;
+    private SQLQueryParallelExecutor parallelExecutor;
+    private boolean parallelUnavailable;
+    private final BitSet parallelExecuted = new BitSet();
+
     private transient int rowsFetched;
 
     public SQLQueryJob(
@@ -154,6 +161,7 @@ public class SQLQueryJob extends DataSourceJob
                 preferenceStore.getBoolean(SQLPreferenceConstants.SCRIPT_FETCH_RESULT_SETS) && !isDisableFetchResultSet
             );
             this.rsMaxRows = preferenceStore.getInt(ModelPreferences.RESULT_SET_MAX_ROWS);
+            this.parallelConnections = preferenceStore.getInt(SQLPreferenceConstants.SCRIPT_PARALLEL_CONNECTIONS);
         }
     }
 
@@ -236,9 +244,33 @@ public class SQLQueryJob extends DataSourceJob
                 for (int queryNum = 0; queryNum < queries.size(); ) {
                     // Execute query
                     SQLScriptElement query = queries.get(queryNum);
+                    if (parallelExecuted.get(queryNum)) {
+                        // Already executed in parallel block
+                        monitor.worked(1);
+                        queryNum++;
+                        continue;
+                    }
 
                     fetchResultSetNumber = resultSetNumber;
-                    boolean runNext = executeSingleQuery(session, query, true);
+                    boolean runNext;
+                    int parallelEnd = getParallelBlockEnd(session, queryNum);
+                    int failedNum = parallelEnd > queryNum + 1 ? executeParallelBlock(session, queryNum, parallelEnd) : -1;
+                    if (failedNum == parallelEnd) {
+                        monitor.worked(parallelEnd - queryNum);
+                        queryNum = parallelEnd;
+                        if (monitor.isCanceled()) {
+                            break;
+                        }
+                        continue;
+                    } else if (failedNum >= 0) {
+                        // Handle error of the earliest failed statement
+                        monitor.worked(failedNum - queryNum);
+                        queryNum = failedNum;
+                        query = queries.get(queryNum);
+                        runNext = false;
+                    } else {
+                        runNext = executeSingleQuery(session, query, true);
+                    }
 
                     if (txnManager != null && txnManager.isSupportsTransactions()
                         && !oldAutoCommit && commitType != SQLScriptCommitType.AUTOCOMMIT
@@ -337,6 +369,10 @@ public class SQLQueryJob extends DataSourceJob
                 "Error during SQL job execution: " + ex.getMessage());
         }
         finally {
+            if (parallelExecutor != null) {
+                parallelExecutor.close();
+                parallelExecutor = null;
+            }
             monitor.done();
 
             // Notify job end
@@ -361,6 +397,151 @@ public class SQLQueryJob extends DataSourceJob
         }
     }
 
+    /**
+     * Returns end (exclusive) of the block of independent statements starting at the specified position
+     * or the same position if statement must be executed sequentially.
+     * Statements already executed in parallel are skipped.
+     */
+    private int getParallelBlockEnd(@NotNull DBCSession session, int queryNum) {
+        if (getParallelConnections() < 2 || queries.size() < 2 || parallelUnavailable || !scriptContext.getPragmas().isEmpty()) {
+            return queryNum;
+        }
+        if (!skipConfirmation && session.getDataSource().getContainer().getConnectionConfiguration().getConnectionType().isConfirmExecute()) {
+            // Each statement must be confirmed
+            return queryNum;
+        }
+        boolean explicitBlock = scriptContext.getData(SQLCommandParallel.DATA_PARALLEL_CONNECTIONS) != null;
+        return SQLCommandParallel.getParallelBlockEnd(queries, queryNum, parallelExecuted, explicitBlock);
+    }
+
+    /**
+     * Number of connections for independent statements: set by @parallel command or script settings
+     */
+    private int getParallelConnections() {
+        Integer scriptConnections = scriptContext.getData(SQLCommandParallel.DATA_PARALLEL_CONNECTIONS);
+        return Math.min(SQLCommandParallel.MAX_CONNECTIONS, scriptConnections != null ? scriptConnections : parallelConnections);
+    }
+
+    /**
+     * Executes block of independent statements in isolated connections.
+     * Returns block end if there were no errors to handle, position of the earliest failed statement
+     * or -1 if parallel execution isn't possible.
+     */
+    private int executeParallelBlock(@NotNull DBCSession session, int blockStart, int blockEnd) {
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        List<Integer> positions = new ArrayList<>();
+        List<SQLQuery> blockQueries = new ArrayList<>();
+        for (int i = blockStart; i < blockEnd; i++) {
+            if (!parallelExecuted.get(i)) {
+                positions.add(i);
+                blockQueries.add((SQLQuery) queries.get(i));
+            }
+        }
+        int connections = Math.min(blockQueries.size(), getParallelConnections());
+        if (connections < 2) {
+            return -1;
+        }
+        if (!finishEditorTransaction(session)) {
+            // Retry executes statements sequentially
+            parallelUnavailable = true;
+            return blockStart;
+        }
+        if (parallelExecutor == null) {
+            parallelExecutor = new SQLQueryParallelExecutor(
+                getExecutionContext(),
+                dataContainer,
+                partSite.getPart(),
+                scriptContext,
+                getDataSourceContainer().getPreferenceStore().getInt(SQLPreferenceConstants.STATEMENT_TIMEOUT));
+        }
+        if (!parallelExecutor.open(monitor, connections)) {
+            log.debug("Can't open isolated connections for parallel script execution. Execute statements sequentially");
+            parallelUnavailable = true;
+            return -1;
+        }
+
+        monitor.subTask("Execute " + blockQueries.size() + " statement(s) in " + Math.min(connections, parallelExecutor.getConnectionCount()) + " connection(s)");
+        lastError = null;
+        SQLQueryResult[] blockResults = new SQLQueryResult[blockQueries.size()];
+        int failedIndex = parallelExecutor.execute(
+            monitor,
+            blockQueries,
+            connections,
+            errorHandling != SQLScriptErrorHandling.IGNORE,
+            (index, result) -> {
+                blockResults[index] = result;
+                parallelExecuted.set(positions.get(index));
+                lastError = result.getError();
+                if (!result.hasError() || errorHandling == SQLScriptErrorHandling.IGNORE) {
+                    lastGoodQuery = result.getStatement();
+                }
+                notifyParallelQueryEnd(session, result);
+            });
+        if (failedIndex >= 0 && errorHandling != SQLScriptErrorHandling.IGNORE) {
+            int failedNum = positions.get(failedIndex);
+            parallelExecuted.clear(failedNum);
+            lastError = blockResults[failedIndex].getError();
+            return failedNum;
+        }
+        for (int i = blockStart; i < blockEnd; i++) {
+            if (!parallelExecuted.get(i)) {
+                // Canceled
+                lastError = null;
+                return i;
+            }
+        }
+        return blockEnd;
+    }
+
+    /**
+     * Isolated connections work in auto-commit mode. They would wait for locks held by the editor transaction
+     * while the editor waits for them, so the editor transaction is committed before the parallel block.
+     * If the script mustn't commit then uncommitted changes are reported as error.
+     */
+    private boolean finishEditorTransaction(@NotNull DBCSession session) {
+        DBCExecutionContext executionContext = session.getExecutionContext();
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(executionContext);
+        if (txnManager == null || !txnManager.isSupportsTransactions() || txnManager.isAutoCommit()) {
+            return true;
+        }
+        if (commitType == SQLScriptCommitType.NO_COMMIT) {
+            if (!QMUtils.isTransactionActive(executionContext)) {
+                return true;
+            }
+            lastError = new DBCException(
+                "Statements can't be executed in parallel: the current transaction has uncommitted changes " +
+                "and the script commit mode is 'No commit'. Commit or rollback the transaction, " +
+                "or retry to execute statements sequentially.");
+            return false;
+        }
+        try {
+            txnManager.commit(session);
+            return true;
+        } catch (DBCException e) {
+            lastError = e;
+            return false;
+        }
+    }
+
+    private void notifyParallelQueryEnd(@NotNull DBCSession session, @NotNull SQLQueryResult result) {
+        statistics.setQueryText(result.getStatement().getText());
+        statistics.addStatementsCount();
+        statistics.addExecuteTime(result.getQueryTime());
+        for (SQLQueryResult.ExecuteResult executeResult : result.getExecuteResults()) {
+            if (executeResult.getUpdateCount() != null) {
+                statistics.addRowsUpdated(executeResult.getUpdateCount());
+            }
+        }
+        if (listener != null) {
+            try {
+                listener.onStartQuery(session, result.getStatement());
+            } catch (Exception e) {
+                log.error(e);
+            }
+            notifyQueryExecutionEnd(session, result);
+        }
+    }
+
     protected void handleTransactionStatements(
         @NotNull DBCTransactionManager txnManager,
         @NotNull DBCSession session,
@@ -965,6 +1146,7 @@ public class SQLQueryJob extends DataSourceJob
         }
         if (updateStatistics) {
             statistics.setRowsFetched(fetchProgress.getRowCount());
+            DBExecUtils.dumpFetchSizeStatistics(resultSet, statistics);
         }
         monitor.subTask(fetchProgress.getRowCount() + " rows fetched");
 
@@ -0,0 +1,300 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.editors.sql.execute;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLQueryResult;
+import org.jkiss.dbeaver.model.sql.SQLScriptContext;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes independent script statements in parallel in a pool of isolated connections.
+ *
+ * Each connection takes the next statement as soon as it finishes the previous one. Statements are executed
+ * in auto-commit mode, result sets are not fetched. Results are reported in script order: the result of a statement
+ * is reported after all preceding statements are finished.
+ * The caller finishes the editor connection transaction first: statements would wait for its locks.
+ *
+ * If execution stops on error, the first failed statement stops dispatching: running statements are finished,
+ * the rest are not executed. The earliest failed statement is reported, so the result doesn't depend on timing.
+ */
+final class SQLQueryParallelExecutor {
+
+    private static final Log log = Log.getLog(SQLQueryParallelExecutor.class);
+
+    private static final long WAIT_INTERVAL = 100;
+
+    interface ResultHandler {
+        void handleResult(int index, @NotNull SQLQueryResult result);
+    }
+
+    private final DBCExecutionContext mainContext;
+    private final DBSDataContainer dataContainer;
+    private final Object controller;
+    private final SQLScriptContext scriptContext;
+    private final int statementTimeout;
+
+    private final List<DBCExecutionContext> contexts = new ArrayList<>();
+    private final List<Worker> workers = new ArrayList<>();
+    private int requestedCount;
+
+    private List<SQLQuery> queries;
+    private SQLQueryResult[] results;
+    private AtomicInteger nextQuery;
+    private CountDownLatch finishLatch;
+    private boolean stopOnError;
+    private volatile boolean stopped;
+
+    private class Worker extends AbstractJob {
+        private final int index;
+        private final DBCExecutionContext context;
+        private volatile DBCStatement curStatement;
+
+        Worker(int index, @NotNull DBCExecutionContext context) {
+            super("SQL script worker [" + index + "]");
+            setSystem(true);
+            this.index = index;
+            this.context = context;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor jobMonitor) {
+            try (DBCSession session = context.openSession(jobMonitor, DBCExecutionPurpose.USER_SCRIPT, "SQL script worker [" + index + "]")) {
+                DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                    txnManager.setAutoCommit(jobMonitor, true);
+                }
+                while (!stopped && !jobMonitor.isCanceled()) {
+                    int queryIndex = nextQuery.getAndIncrement();
+                    if (queryIndex >= queries.size()) {
+                        break;
+                    }
+                    SQLQueryResult result = executeQuery(session, queries.get(queryIndex));
+                    synchronized (SQLQueryParallelExecutor.this) {
+                        results[queryIndex] = result;
+                    }
+                    if (result.hasError() && stopOnError) {
+                        stopped = true;
+                    }
+                }
+            } catch (Throwable e) {
+                log.error("SQL script worker [" + index + "] failed", e);
+                stopped = true;
+            } finally {
+                finishLatch.countDown();
+            }
+            return Status.OK_STATUS;
+        }
+
+        @NotNull
+        private SQLQueryResult executeQuery(@NotNull DBCSession session, @NotNull SQLQuery query) {
+            SQLQueryResult result = new SQLQueryResult(query);
+            long startTime = System.currentTimeMillis();
+            try {
+                AbstractExecutionSource source = new AbstractExecutionSource(dataContainer, context, controller, query);
+                source.setScriptContext(scriptContext);
+                try (DBCStatement dbcStatement = DBUtils.makeStatement(source, session, DBCStatementType.SCRIPT, query, 0, 0)) {
+                    if (statementTimeout > 0) {
+                        try {
+                            dbcStatement.setStatementTimeout(statementTimeout);
+                        } catch (Throwable e) {
+                            log.debug("Can't set statement timeout:" + e.getMessage());
+                        }
+                    }
+                    curStatement = dbcStatement;
+                    boolean hasResultSet = dbcStatement.executeStatement();
+                    result.setHasResultSet(hasResultSet);
+                    if (hasResultSet) {
+                        // Result sets are not fetched in parallel mode
+                        result.addExecuteResult(true);
+                    } else {
+                        long updateCount = dbcStatement.getUpdateRowCount();
+                        SQLQueryResult.ExecuteResult executeResult = result.addExecuteResult(false);
+                        if (updateCount >= 0) {
+                            executeResult.setUpdateCount(updateCount);
+                        }
+                    }
+                    result.addWarnings(dbcStatement.getStatementWarnings());
+                } finally {
+                    curStatement = null;
+                }
+            } catch (Throwable e) {
+                result.setError(e);
+            }
+            result.setQueryTime(System.currentTimeMillis() - startTime);
+            return result;
+        }
+    }
+
+    SQLQueryParallelExecutor(
+        @NotNull DBCExecutionContext mainContext,
+        @Nullable DBSDataContainer dataContainer,
+        @Nullable Object controller,
+        @NotNull SQLScriptContext scriptContext,
+        int statementTimeout
+    ) {
+        this.mainContext = mainContext;
+        this.dataContainer = dataContainer;
+        this.controller = controller;
+        this.scriptContext = scriptContext;
+        this.statementTimeout = statementTimeout;
+    }
+
+    int getConnectionCount() {
+        return contexts.size();
+    }
+
+    /**
+     * Opens worker connections (or reuses connections opened before if there are enough of them).
+     * Connections are initialized with default catalog/schema of the main context.
+     * Returns false if less than two connections were opened, in this case statements must be executed by the caller.
+     */
+    boolean open(@NotNull DBRProgressMonitor monitor, int connectionCount) {
+        if (!contexts.isEmpty() && connectionCount <= requestedCount) {
+            return true;
+        }
+        close();
+        requestedCount = connectionCount;
+        monitor.subTask("Open script worker connections");
+        for (int i = 0; i < connectionCount && !monitor.isCanceled(); i++) {
+            try {
+                contexts.add(mainContext.getOwnerInstance().openIsolatedContext(monitor, "SQL script worker", mainContext));
+            } catch (DBException e) {
+                // Probably connections limit. Use what we have
+                log.debug("Can't open script worker connection", e);
+                break;
+            }
+        }
+        if (contexts.size() < 2) {
+            close();
+            return false;
+        }
+        log.debug("Parallel script execution with " + contexts.size() + " connection(s)");
+        return true;
+    }
+
+    /**
+     * Executes statements and reports their results in order.
+     * Returns index of the earliest failed statement or -1 if there were no errors.
+     * Statements after the failed one may be executed as well, their results are reported too.
+     * Statements which weren't executed (because of error or cancel) are not reported.
+     */
+    int execute(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull List<SQLQuery> queries,
+        int connectionCount,
+        boolean stopOnError,
+        @NotNull ResultHandler resultHandler
+    ) {
+        this.queries = queries;
+        this.results = new SQLQueryResult[queries.size()];
+        this.nextQuery = new AtomicInteger();
+        this.stopOnError = stopOnError;
+        this.stopped = false;
+
+        int workerCount = Math.min(Math.min(contexts.size(), connectionCount), queries.size());
+        finishLatch = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker(i + 1, contexts.get(i));
+            workers.add(worker);
+            worker.schedule();
+        }
+
+        int reportedCount = 0;
+        int failedIndex = -1;
+        try {
+            for (;;) {
+                boolean finished = finishLatch.await(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+                if (monitor.isCanceled() && !stopped) {
+                    stopped = true;
+                    cancelStatements(monitor);
+                }
+                // Statements are dispatched in order, so all finished statements form a contiguous prefix
+                // once all workers are finished
+                for (SQLQueryResult result; reportedCount < queries.size() && (result = getResult(reportedCount)) != null; reportedCount++) {
+                    if (result.hasError() && failedIndex < 0) {
+                        failedIndex = reportedCount;
+                    }
+                    resultHandler.handleResult(reportedCount, result);
+                }
+                if (finished) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        } finally {
+            workers.clear();
+        }
+        return failedIndex;
+    }
+
+    /**
+     * Stops workers (if they are still running) and closes worker connections
+     */
+    void close() {
+        if (finishLatch != null && finishLatch.getCount() > 0) {
+            stopped = true;
+            try {
+                finishLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (DBCExecutionContext context : contexts) {
+            context.close();
+        }
+        contexts.clear();
+        requestedCount = 0;
+    }
+
+    @Nullable
+    private synchronized SQLQueryResult getResult(int index) {
+        return results[index];
+    }
+
+    private void cancelStatements(@NotNull DBRProgressMonitor monitor) {
+        for (Worker worker : workers) {
+            DBCStatement statement = worker.curStatement;
+            if (statement != null) {
+                try {
+                    statement.cancelBlock(monitor, null);
+                } catch (DBException e) {
+                    log.debug("Can't cancel statement of SQL script worker [" + worker.index + "]", e);
+                }
+            }
+        }
+    }
+}
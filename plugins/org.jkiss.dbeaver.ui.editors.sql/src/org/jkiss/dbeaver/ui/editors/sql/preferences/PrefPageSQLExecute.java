@@ -30,6 +30,7 @@ import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.sql.SQLScriptCommitType;
 import org.jkiss.dbeaver.model.sql.SQLScriptErrorHandling;
+import org.jkiss.dbeaver.model.sql.commands.SQLCommandParallel;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.ShellUtils;
 import org.jkiss.dbeaver.ui.UIUtils;
@@ -60,6 +61,7 @@ public class PrefPageSQLExecute extends TargetPrefPage
     private Combo commitTypeCombo;
     private Combo errorHandlingCombo;
     private Spinner commitLinesText;
+    private Spinner parallelConnectionsText;
     private Button fetchResultSetsCheck;
     private Button resetCursorCheck;
     private Button maxEditorCheck;
@@ -97,6 +99,7 @@ public class PrefPageSQLExecute extends TargetPrefPage
             store.contains(SQLPreferenceConstants.SCRIPT_ERROR_HANDLING) ||
             store.contains(SQLPreferenceConstants.SCRIPT_COMMIT_LINES) ||
             store.contains(SQLPreferenceConstants.SCRIPT_FETCH_RESULT_SETS) ||
+            store.contains(SQLPreferenceConstants.SCRIPT_PARALLEL_CONNECTIONS) ||
 
             store.contains(ModelPreferences.SCRIPT_STATEMENT_DELIMITER) ||
             store.contains(ModelPreferences.SCRIPT_IGNORE_NATIVE_DELIMITER) ||
@@ -216,6 +219,17 @@ public class PrefPageSQLExecute extends TargetPrefPage
                 errorHandlingCombo.add(SQLEditorMessages.pref_page_sql_editor_combo_item_ignore, SQLScriptErrorHandling.IGNORE.ordinal());
             }
 
+            {
+                UIUtils.createControlLabel(scriptsGroup, SQLEditorMessages.pref_page_sql_editor_label_parallel_connections);
+                parallelConnectionsText = new Spinner(scriptsGroup, SWT.BORDER);
+                parallelConnectionsText.setSelection(0);
+                parallelConnectionsText.setDigits(0);
+                parallelConnectionsText.setIncrement(1);
+                parallelConnectionsText.setMinimum(0);
+                parallelConnectionsText.setMaximum(SQLCommandParallel.MAX_CONNECTIONS);
+                parallelConnectionsText.setToolTipText(SQLEditorMessages.pref_page_sql_editor_label_parallel_connections_tip);
+            }
+
             fetchResultSetsCheck = UIUtils.createCheckbox(scriptsGroup, SQLEditorMessages.pref_page_sql_editor_checkbox_fetch_resultsets, null, false, 2);
             resetCursorCheck = UIUtils.createCheckbox(scriptsGroup, SQLEditorMessages.pref_page_sql_editor_checkbox_reset_cursor, null, false, 2);
             maxEditorCheck = UIUtils.createCheckbox(scriptsGroup, SQLEditorMessages.pref_page_sql_editor_checkbox_max_editor_on_script_exec, null, false, 2);
@@ -317,6 +331,7 @@ public class PrefPageSQLExecute extends TargetPrefPage
             store.setValue(SQLPreferenceConstants.SCRIPT_COMMIT_LINES, commitLinesText.getSelection());
             store.setValue(SQLPreferenceConstants.SCRIPT_ERROR_HANDLING, CommonUtils.fromOrdinal(SQLScriptErrorHandling.class, errorHandlingCombo.getSelectionIndex()).name());
             store.setValue(SQLPreferenceConstants.SCRIPT_FETCH_RESULT_SETS, fetchResultSetsCheck.getSelection());
+            store.setValue(SQLPreferenceConstants.SCRIPT_PARALLEL_CONNECTIONS, parallelConnectionsText.getSelection());
             store.setValue(SQLPreferenceConstants.RESET_CURSOR_ON_EXECUTE, resetCursorCheck.getSelection());
             store.setValue(SQLPreferenceConstants.MAXIMIZE_EDITOR_ON_SCRIPT_EXECUTE, maxEditorCheck.getSelection());
             store.setValue(
@@ -362,6 +377,7 @@ public class PrefPageSQLExecute extends TargetPrefPage
         store.setToDefault(SQLPreferenceConstants.SCRIPT_ERROR_HANDLING);
         store.setToDefault(SQLPreferenceConstants.SCRIPT_COMMIT_LINES);
         store.setToDefault(SQLPreferenceConstants.SCRIPT_FETCH_RESULT_SETS);
+        store.setToDefault(SQLPreferenceConstants.SCRIPT_PARALLEL_CONNECTIONS);
 
         store.setToDefault(SQLPreferenceConstants.RESET_CURSOR_ON_EXECUTE);
         store.setToDefault(SQLPreferenceConstants.MAXIMIZE_EDITOR_ON_SCRIPT_EXECUTE);
@@ -442,6 +458,11 @@ public class PrefPageSQLExecute extends TargetPrefPage
                     ? store.getDefaultInt(SQLPreferenceConstants.SCRIPT_COMMIT_LINES)
                     : store.getInt(SQLPreferenceConstants.SCRIPT_COMMIT_LINES)
             );
+            parallelConnectionsText.setSelection(
+                useDefaults
+                    ? store.getDefaultInt(SQLPreferenceConstants.SCRIPT_PARALLEL_CONNECTIONS)
+                    : store.getInt(SQLPreferenceConstants.SCRIPT_PARALLEL_CONNECTIONS)
+            );
             fetchResultSetsCheck.setSelection(
                 useDefaults
                     ? store.getDefaultBoolean(SQLPreferenceConstants.SCRIPT_FETCH_RESULT_SETS)
@@ -42,6 +42,7 @@ import org.jkiss.dbeaver.model.DBPNamedObject;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
+import org.jkiss.dbeaver.model.navigator.DBNUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableParametrized;
 import org.jkiss.dbeaver.model.sql.SQLUtils;
@@ -374,7 +375,7 @@ public class GotoObjectDialog extends FilteredItemsSelectionDialog {
                 params.setParentObject(container);
                 params.setGlobalSearch(true);
                 params.setMaxResults(MAX_RESULT_COUNT);
-                result = structureAssistant.findObjectsByMask(monitor, executionContext, params);
+                result = DBNUtils.findObjectsByMask(monitor, structureAssistant, executionContext, params);
                 hasMoreResults = result.size() >= MAX_RESULT_COUNT;
             } catch (Exception e) {
                 throw new InvocationTargetException(e);
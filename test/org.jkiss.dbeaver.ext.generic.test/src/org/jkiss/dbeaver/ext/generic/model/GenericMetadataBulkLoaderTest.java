@@ -0,0 +1,204 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.generic.model;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.ext.generic.model.meta.GenericMetaModel;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCDatabaseMetaData;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCRemoteInstance;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCompositeCache;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GenericMetadataBulkLoaderTest extends DBeaverUnitTest {
+
+    private static final int TABLE_COUNT = 6;
+
+    private final DBRProgressMonitor monitor = new VoidProgressMonitor();
+    private GenericDataSource dataSource;
+    private GenericMetaModel metaModel;
+    private JDBCRemoteInstance instance;
+    private GenericObjectContainer container;
+    private List<GenericTableBase> tables;
+    private final List<JDBCExecutionContext> contexts = Collections.synchronizedList(new ArrayList<>());
+    private final List<JDBCSession> sessions = Collections.synchronizedList(new ArrayList<>());
+    // Metadata reads: "<cache>:<table>"
+    private final Queue<String> metadataReads = new ConcurrentLinkedQueue<>();
+
+    @Before
+    public void setUp() throws DBException {
+        dataSource = Mockito.mock(GenericDataSource.class);
+        metaModel = Mockito.mock(GenericMetaModel.class);
+        instance = Mockito.mock(JDBCRemoteInstance.class);
+        Mockito.when(dataSource.getMetaModel()).thenReturn(metaModel);
+        Mockito.when(dataSource.getDefaultInstance()).thenReturn(instance);
+        Mockito.when(metaModel.getMetadataReadThreads(dataSource)).thenReturn(3);
+
+        container = Mockito.mock(GenericObjectContainer.class);
+        Mockito.when(container.getDataSource()).thenReturn(dataSource);
+        tables = new ArrayList<>();
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            GenericTableBase table = Mockito.mock(GenericTable.class);
+            Mockito.when(table.getName()).thenReturn("TABLE_" + i);
+            Mockito.when(table.getFullyQualifiedName(Mockito.any())).thenReturn("TABLE_" + i);
+            Mockito.when(table.isPersisted()).thenReturn(true);
+            tables.add(table);
+        }
+        Mockito.doReturn(tables).when(container).getTables(Mockito.any());
+
+        Mockito.when(instance.openIsolatedContext(Mockito.any(), Mockito.anyString(), Mockito.any())).thenAnswer(invocation -> openContext());
+    }
+
+    @Test
+    public void testTablesAreReadConcurrently() throws Exception {
+        // Primary keys reading waits until two connections read keys at the same time
+        CountDownLatch concurrentReads = new CountDownLatch(2);
+        Set<JDBCSession> keySessions = Collections.synchronizedSet(new HashSet<>());
+        JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> keysCache = mockCache((table, session) -> {
+            if (keySessions.add(session)) {
+                concurrentReads.countDown();
+            }
+            Assert.assertTrue(concurrentReads.await(10, TimeUnit.SECONDS));
+            session.getMetaData().getPrimaryKeys(null, null, table.getName());
+            metadataReads.add("pk:" + table.getName());
+        });
+        JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> foreignKeysCache = mockCache((table, session) -> {
+            session.getMetaData().getImportedKeys(null, null, table.getName());
+            metadataReads.add("fk:" + table.getName());
+        });
+
+        Assert.assertTrue(GenericMetadataBulkLoader.loadTablesMetadata(monitor, container, List.of(keysCache, foreignKeysCache)));
+
+        List<String> reads = new ArrayList<>(metadataReads);
+        Assert.assertEquals(TABLE_COUNT * 2, reads.size());
+        for (GenericTableBase table : tables) {
+            Assert.assertTrue(reads.contains("pk:" + table.getName()));
+            Assert.assertTrue(reads.contains("fk:" + table.getName()));
+            Mockito.verify(keysCache).loadObjects(Mockito.any(), Mockito.eq(container), Mockito.eq(table), Mockito.any());
+        }
+        // Foreign keys are read after all unique keys
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            Assert.assertTrue(reads.get(i).startsWith("pk:"));
+        }
+        Assert.assertTrue(keySessions.size() >= 2);
+
+        // Each connection reads metadata table by table and is closed in the end
+        Assert.assertEquals(3, contexts.size());
+        int pkReads = 0;
+        for (JDBCSession session : sessions) {
+            pkReads += Mockito.mockingDetails(session.getMetaData()).getInvocations().stream()
+                .filter(i -> i.getMethod().getName().equals("getPrimaryKeys")).count();
+        }
+        Assert.assertEquals(TABLE_COUNT, pkReads);
+        for (JDBCExecutionContext context : contexts) {
+            Mockito.verify(context).close();
+        }
+        for (JDBCSession session : sessions) {
+            Mockito.verify(session, Mockito.times(2)).close();
+        }
+    }
+
+    @Test
+    public void testTableErrorsAreNotFatal() throws Exception {
+        JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> keysCache = mockCache((table, session) -> {
+            if (table == tables.get(1)) {
+                throw new DBException("Table is not accessible");
+            }
+            session.getMetaData().getPrimaryKeys(null, null, table.getName());
+            metadataReads.add("pk:" + table.getName());
+        });
+
+        Assert.assertTrue(GenericMetadataBulkLoader.loadTablesMetadata(monitor, container, List.of(keysCache)));
+        Assert.assertEquals(TABLE_COUNT - 1, metadataReads.size());
+        Assert.assertFalse(metadataReads.contains("pk:TABLE_1"));
+    }
+
+    @Test
+    public void testSequentialReadingFallback() throws Exception {
+        JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> keysCache = mockCache((table, session) -> {});
+
+        // Concurrent reading is disabled by default
+        Mockito.when(metaModel.getMetadataReadThreads(dataSource)).thenReturn(1);
+        Assert.assertFalse(GenericMetadataBulkLoader.loadTablesMetadata(monitor, container, List.of(keysCache)));
+
+        // Nothing to parallelize
+        Mockito.when(metaModel.getMetadataReadThreads(dataSource)).thenReturn(3);
+        Mockito.doReturn(tables.subList(0, 1)).when(container).getTables(Mockito.any());
+        Assert.assertFalse(GenericMetadataBulkLoader.loadTablesMetadata(monitor, container, List.of(keysCache)));
+
+        Mockito.verify(instance, Mockito.never()).openIsolatedContext(Mockito.any(), Mockito.anyString(), Mockito.any());
+        Mockito.verify(keysCache, Mockito.never()).loadObjects(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testConnectionLimitFallback() throws Exception {
+        JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> keysCache = mockCache((table, session) -> {});
+        // The second connection can't be opened, tables are read on demand then
+        Mockito.doAnswer(invocation -> openContext())
+            .doThrow(new DBException("Too many connections"))
+            .when(instance).openIsolatedContext(Mockito.any(), Mockito.anyString(), Mockito.any());
+
+        Assert.assertFalse(GenericMetadataBulkLoader.loadTablesMetadata(monitor, container, List.of(keysCache)));
+        Assert.assertEquals(1, contexts.size());
+        Mockito.verify(contexts.get(0)).close();
+        Mockito.verify(keysCache, Mockito.never()).loadObjects(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private JDBCExecutionContext openContext() throws SQLException {
+        JDBCDatabaseMetaData metaData = Mockito.mock(JDBCDatabaseMetaData.class);
+        Mockito.when(metaData.getPrimaryKeys(Mockito.any(), Mockito.any(), Mockito.anyString()))
+            .thenReturn(Mockito.mock(ResultSet.class));
+        Mockito.when(metaData.getImportedKeys(Mockito.any(), Mockito.any(), Mockito.anyString()))
+            .thenReturn(Mockito.mock(ResultSet.class));
+        JDBCSession session = Mockito.mock(JDBCSession.class);
+        Mockito.when(session.getMetaData()).thenReturn(metaData);
+        JDBCExecutionContext context = Mockito.mock(JDBCExecutionContext.class);
+        Mockito.when(context.openSession(Mockito.any(), Mockito.eq(DBCExecutionPurpose.META), Mockito.anyString())).thenReturn(session);
+        contexts.add(context);
+        sessions.add(session);
+        return context;
+    }
+
+    private interface TableReader {
+        void readTable(GenericTableBase table, JDBCSession session) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> mockCache(TableReader reader) throws DBException {
+        JDBCCompositeCache<GenericStructContainer, GenericTableBase, ?, ?> cache = Mockito.mock(JDBCCompositeCache.class);
+        Mockito.doAnswer(invocation -> {
+            reader.readTable(invocation.getArgument(2), invocation.getArgument(3));
+            return null;
+        }).when(cache).loadObjects(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        return cache;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model;
+
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class DiagramObjectCollectorTest extends DBeaverUnitTest {
+
+    @Test
+    public void testBulkLoadThresholdIsRelative() throws Exception {
+        DBSObjectContainer hugeSchema = createContainer("huge", 1000);
+        DBSObjectContainer smallSchema = createContainer("small", 40);
+        DBSObjectContainer fewTablesSchema = createContainer("few", 40);
+        DBSObjectContainer scannedSchema = createContainer("scanned", 1000);
+
+        List<DBSEntity> tables = new ArrayList<>();
+        tables.addAll(createTables(hugeSchema, 15));
+        tables.addAll(createTables(smallSchema, 15));
+        tables.addAll(createTables(fewTablesSchema, 5));
+        tables.addAll(createTables(scannedSchema, 1));
+
+        Collection<DBSObjectContainer> containers = DiagramObjectCollector.getBulkLoadContainers(
+            new VoidProgressMonitor(),
+            tables,
+            Set.of(scannedSchema));
+        Assert.assertEquals(List.of(smallSchema, scannedSchema), new ArrayList<>(containers));
+    }
+
+    @Test
+    public void testCanceledLoadWaitsForJobs() throws Exception {
+        int containerCount = 3;
+        CountDownLatch startLatch = new CountDownLatch(containerCount);
+        AtomicInteger activeLoads = new AtomicInteger();
+        AtomicInteger finishedLoads = new AtomicInteger();
+        List<DBSObjectContainer> containers = new ArrayList<>();
+        for (int i = 0; i < containerCount; i++) {
+            DBSObjectContainer container = createContainer("schema" + i, 0);
+            doAnswer(invocation -> {
+                activeLoads.incrementAndGet();
+                startLatch.countDown();
+                // Emulate a long catalog query which is not interrupted by cancel
+                startLatch.await(10, TimeUnit.SECONDS);
+                Thread.sleep(300);
+                activeLoads.decrementAndGet();
+                finishedLoads.incrementAndGet();
+                return null;
+            }).when(container).cacheStructure(any(), anyInt());
+            containers.add(container);
+        }
+
+        DBRProgressMonitor monitor = new VoidProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                return startLatch.getCount() == 0;
+            }
+        };
+        DiagramStructureLoader.loadStructure(monitor, containers);
+        Assert.assertEquals("Metadata is still read after cancel", 0, activeLoads.get());
+        Assert.assertEquals(containerCount, finishedLoads.get());
+    }
+
+    private static DBSObjectContainer createContainer(String name, int tableCount) throws Exception {
+        DBSObjectContainer container = mock(DBSObjectContainer.class);
+        when(container.getName()).thenReturn(name);
+        List<DBSObject> children = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++) {
+            children.add(mock(DBSEntity.class));
+        }
+        doReturn(children).when(container).getChildren(any());
+        return container;
+    }
+
+    private static List<DBSEntity> createTables(DBSObjectContainer container, int count) {
+        List<DBSEntity> tables = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DBSEntity table = mock(DBSEntity.class);
+            when(table.getParentObject()).thenReturn(container);
+            tables.add(table);
+        }
+        return tables;
+    }
+}
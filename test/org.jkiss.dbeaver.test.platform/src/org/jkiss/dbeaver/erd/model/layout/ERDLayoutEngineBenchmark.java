@@ -0,0 +1,51 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+/**
+ * Measures layout time of synthetic schema-like diagrams from 100 to 5000 entities
+ */
+public class ERDLayoutEngineBenchmark {
+
+    private static final int[] DIAGRAM_SIZES = {100, 500, 1000, 2000, 5000};
+
+    public static void main(String[] args) throws Exception {
+        // Warm up
+        new ERDLayoutEngine().layout(new VoidProgressMonitor(), ERDLayoutEngineTest.createGraph(500, 0));
+
+        for (int size : DIAGRAM_SIZES) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                ERDLayoutGraph graph = ERDLayoutEngineTest.createGraph(size, 1);
+                ERDLayoutEngine engine = new ERDLayoutEngine();
+                engine.setParallel(parallel);
+                long startTime = System.nanoTime();
+                engine.layout(new VoidProgressMonitor(), graph);
+                long layoutTime = System.nanoTime() - startTime;
+
+                long width = 0, height = 0;
+                for (ERDLayoutGraph.Node node : graph.getNodes()) {
+                    width = Math.max(width, node.getX() + node.getWidth());
+                    height = Math.max(height, node.getY() + node.getHeight());
+                }
+                System.out.println(size + " entities, " + graph.getEdges().size() + " relations" +
+                    (parallel ? " (parallel)" : "") + ": " + layoutTime / 1000000 + "ms, diagram " + width + "x" + height);
+            }
+        }
+    }
+}
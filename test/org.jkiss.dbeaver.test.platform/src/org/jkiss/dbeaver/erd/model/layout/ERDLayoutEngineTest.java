@@ -0,0 +1,149 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.erd.model.layout;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class ERDLayoutEngineTest extends DBeaverUnitTest {
+
+    @Test
+    public void testLayoutHasNoOverlaps() throws Exception {
+        ERDLayoutGraph graph = createGraph(300, 42);
+        ERDLayoutEngine engine = new ERDLayoutEngine();
+        engine.layout(new VoidProgressMonitor(), graph);
+        assertNoOverlaps(engine, graph);
+    }
+
+    @Test
+    public void testGridFallback() throws Exception {
+        ERDLayoutGraph graph = createGraph(120, 3);
+        ERDLayoutEngine engine = new ERDLayoutEngine();
+        // Overlap removal always fails
+        engine.setOverlapRemovalPasses(0);
+        engine.layout(new VoidProgressMonitor(), graph);
+        assertNoOverlaps(engine, graph);
+    }
+
+    @Test
+    public void testComponentFailureIsReported() {
+        ERDLayoutGraph graph = createGraph(200, 5);
+        ERDLayoutEngine engine = new ERDLayoutEngine();
+        DBRProgressMonitor brokenMonitor = new VoidProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                throw new IllegalStateException("Broken monitor");
+            }
+        };
+        for (boolean parallel : new boolean[]{true, false}) {
+            engine.setParallel(parallel);
+            try {
+                engine.layout(brokenMonitor, graph);
+                Assert.fail("Component failure must be reported");
+            } catch (DBException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    private static void assertNoOverlaps(ERDLayoutEngine engine, ERDLayoutGraph graph) {
+        List<ERDLayoutGraph.Node> nodes = new ArrayList<>(graph.getNodes());
+        nodes.sort(Comparator.comparingInt(ERDLayoutGraph.Node::getX));
+        for (int i = 0; i < nodes.size(); i++) {
+            ERDLayoutGraph.Node node = nodes.get(i);
+            Assert.assertTrue(node.getX() >= 0 && node.getY() >= 0);
+            Assert.assertEquals(0, node.getX() % engine.getGridSize());
+            Assert.assertEquals(0, node.getY() % engine.getGridSize());
+            for (int k = i + 1; k < nodes.size() && nodes.get(k).getX() < node.getX() + node.getWidth(); k++) {
+                ERDLayoutGraph.Node other = nodes.get(k);
+                boolean overlaps = other.getY() < node.getY() + node.getHeight() && node.getY() < other.getY() + other.getHeight();
+                Assert.assertFalse("Nodes " + node + " and " + other + " overlap", overlaps);
+            }
+        }
+    }
+
+    @Test
+    public void testEdgesAreOrthogonal() throws Exception {
+        ERDLayoutGraph graph = createGraph(100, 7);
+        new ERDLayoutEngine().layout(new VoidProgressMonitor(), graph);
+
+        for (ERDLayoutGraph.Edge edge : graph.getEdges()) {
+            if (edge.getSource() == edge.getTarget()) {
+                continue;
+            }
+            List<int[]> bends = edge.getBends();
+            Assert.assertFalse(bends.isEmpty());
+            for (int i = 1; i < bends.size(); i++) {
+                int[] prev = bends.get(i - 1);
+                int[] next = bends.get(i);
+                Assert.assertTrue(prev[0] == next[0] || prev[1] == next[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testLayoutIsDeterministic() throws Exception {
+        ERDLayoutGraph graph1 = createGraph(200, 1);
+        ERDLayoutGraph graph2 = createGraph(200, 1);
+        new ERDLayoutEngine().layout(new VoidProgressMonitor(), graph1);
+        new ERDLayoutEngine().layout(new VoidProgressMonitor(), graph2);
+        for (int i = 0; i < graph1.getNodes().size(); i++) {
+            ERDLayoutGraph.Node node1 = graph1.getNodes().get(i);
+            ERDLayoutGraph.Node node2 = graph2.getNodes().get(i);
+            Assert.assertEquals(node1.getX(), node2.getX());
+            Assert.assertEquals(node1.getY(), node2.getY());
+        }
+    }
+
+    /**
+     * Schema-like graph: clusters of related tables with a few cross-cluster links and isolated tables
+     */
+    static ERDLayoutGraph createGraph(int size, long seed) {
+        Random random = new Random(seed);
+        ERDLayoutGraph graph = new ERDLayoutGraph();
+        List<ERDLayoutGraph.Node> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(graph.addNode("table" + i, 100 + random.nextInt(120), 60 + 18 * random.nextInt(12)));
+        }
+        int clusterSize = 40;
+        for (int i = 0; i < size; i++) {
+            if (random.nextDouble() < 0.15) {
+                continue;
+            }
+            int cluster = i / clusterSize;
+            int fkCount = random.nextInt(3);
+            for (int k = 0; k < fkCount; k++) {
+                int target = random.nextDouble() < 0.9 ?
+                    cluster * clusterSize + random.nextInt(Math.min(clusterSize, size - cluster * clusterSize)) :
+                    random.nextInt(size);
+                if (target != i) {
+                    graph.addEdge(null, nodes.get(i), nodes.get(target));
+                }
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.ai.metadata;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPEvent;
+import org.jkiss.dbeaver.model.DBPEventListener;
+import org.jkiss.dbeaver.model.ai.AIEngineSettings;
+import org.jkiss.dbeaver.model.ai.completion.*;
+import org.jkiss.dbeaver.model.ai.format.IAIFormatter;
+import org.jkiss.dbeaver.model.app.DBPDataSourceRegistry;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContextDefaults;
+import org.jkiss.dbeaver.model.logical.DBSLogicalDataSource;
+import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
+import org.jkiss.dbeaver.model.navigator.DBNEvent;
+import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.navigator.INavigatorListener;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAssociation;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
+import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests metadata context selection and caching with a local completion engine which records prompts
+ */
+public class MetadataContextCacheTest extends DBeaverUnitTest {
+
+    private final Map<String, List<String>> tableColumns = new LinkedHashMap<>();
+    private final Map<String, DBSEntity> tables = new LinkedHashMap<>();
+    private final List<DBPEventListener> dataSourceListeners = new ArrayList<>();
+    private final List<INavigatorListener> navigatorListeners = new ArrayList<>();
+    private DBSSchema schema;
+    private final IAIFormatter formatter = mock(IAIFormatter.class);
+    private DAICompletionContext completionContext;
+    private LocalCompletionEngine engine;
+
+    @Before
+    public void init() {
+        tableColumns.put("customers", List.of("customer_id", "name", "email"));
+        tableColumns.put("orders", List.of("order_id", "customer_id", "order_date", "total_amount"));
+        tableColumns.put("warehouses", List.of("warehouse_id", "address", "capacity"));
+        tableColumns.put("products", List.of("product_id", "title", "price"));
+
+        SQLDialect dialect = mock(SQLDialect.class);
+        when(dialect.getDialectName()).thenReturn("Test");
+        when(dialect.getQuotedIdentifier(anyString(), anyBoolean(), anyBoolean())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DBNModel navigatorModel = mock(DBNModel.class);
+        DBNDatabaseNode objectNode = mock(DBNDatabaseNode.class);
+        when(navigatorModel.getNodeByObject(any(), any(), anyBoolean())).thenReturn(objectNode);
+        doAnswer(invocation -> navigatorListeners.add(invocation.getArgument(0))).when(navigatorModel).addListener(any());
+        DBPProject project = mock(DBPProject.class);
+        when(project.getNavigatorModel()).thenReturn(navigatorModel);
+        DBPDataSourceRegistry registry = mock(DBPDataSourceRegistry.class);
+        when(registry.getProject()).thenReturn(project);
+        doAnswer(invocation -> dataSourceListeners.add(invocation.getArgument(0))).when(registry).addDataSourceListener(any());
+        DBPDataSourceContainer dataSourceContainer = mock(DBPDataSourceContainer.class);
+        when(dataSourceContainer.getRegistry()).thenReturn(registry);
+        DBPDataSource dataSource = mock(DBPDataSource.class);
+        when(dataSource.getContainer()).thenReturn(dataSourceContainer);
+        when(dataSource.getSQLDialect()).thenReturn(dialect);
+
+        schema = mock(DBSSchema.class);
+        when(schema.getName()).thenReturn("public");
+        when(schema.getDataSource()).thenReturn(dataSource);
+        for (String tableName : tableColumns.keySet()) {
+            tables.put(tableName, createTable(tableName, dataSource));
+        }
+        try {
+            doReturn(new ArrayList<>(tables.values())).when(schema).getChildren(any());
+        } catch (DBException e) {
+            throw new IllegalStateException(e);
+        }
+
+        DBCExecutionContextDefaults<?, ?> contextDefaults = mock(DBCExecutionContextDefaults.class);
+        doReturn(schema).when(contextDefaults).getDefaultSchema();
+        DBCExecutionContext executionContext = mock(DBCExecutionContext.class);
+        when(executionContext.getDataSource()).thenReturn(dataSource);
+        doReturn(contextDefaults).when(executionContext).getContextDefaults();
+
+        completionContext = new DAICompletionContext.Builder()
+            .setScope(DAICompletionScope.CURRENT_SCHEMA)
+            .setDataSource(mock(DBSLogicalDataSource.class))
+            .setExecutionContext(executionContext)
+            .build();
+        engine = new LocalCompletionEngine();
+    }
+
+    @Test
+    public void testRelevantTablesAreDescribedFirst() throws Exception {
+        String prompt = complete("products sold last month");
+        Assert.assertTrue(prompt.indexOf("products(") < prompt.indexOf("customers("));
+
+        prompt = complete("email of customers");
+        Assert.assertTrue(prompt.indexOf("customers(") < prompt.indexOf("products("));
+        // References customers
+        Assert.assertTrue(prompt.indexOf("orders(") < prompt.indexOf("warehouses("));
+    }
+
+    @Test
+    public void testNavigatorRefreshInvalidatesCache() throws Exception {
+        Assert.assertTrue(complete("product prices").contains("products(product_id,title,price)"));
+
+        tableColumns.put("products", List.of("product_id", "title", "list_price"));
+        Assert.assertTrue("Description must be cached", complete("product prices").contains("products(product_id,title,price)"));
+
+        // Selection doesn't change metadata
+        fireNavigatorEvent(DBNEvent.Action.UPDATE, DBNEvent.NodeChange.SELECT);
+        Assert.assertTrue(complete("product prices").contains("products(product_id,title,price)"));
+
+        fireNavigatorEvent(DBNEvent.Action.UPDATE, DBNEvent.NodeChange.REFRESH);
+        Assert.assertTrue(complete("product prices").contains("products(product_id,title,list_price)"));
+    }
+
+    @Test
+    public void testObjectUpdateInvalidatesCache() throws Exception {
+        Assert.assertTrue(complete("product prices").contains("products(product_id,title,price)"));
+
+        tableColumns.put("products", List.of("product_id", "title", "list_price"));
+        Assert.assertFalse(dataSourceListeners.isEmpty());
+        for (DBPEventListener listener : dataSourceListeners) {
+            listener.handleDataSourceEvent(new DBPEvent(DBPEvent.Action.OBJECT_UPDATE, tables.get("products")));
+        }
+        Assert.assertTrue(complete("product prices").contains("products(product_id,title,list_price)"));
+    }
+
+    @NotNull
+    private String complete(@NotNull String request) throws DBException {
+        List<DAICompletionResponse> responses = engine.performQueryCompletion(
+            new VoidProgressMonitor(),
+            completionContext,
+            new DAICompletionMessage(DAICompletionMessage.Role.USER, request),
+            formatter);
+        Assert.assertEquals(LocalCompletionEngine.COMPLETION, responses.get(0).getResultCompletion());
+        return engine.prompts.get(engine.prompts.size() - 1);
+    }
+
+    private void fireNavigatorEvent(@NotNull DBNEvent.Action action, @NotNull DBNEvent.NodeChange nodeChange) {
+        DBNDatabaseNode schemaNode = mock(DBNDatabaseNode.class);
+        when(schemaNode.getObject()).thenReturn(schema);
+        Assert.assertFalse(navigatorListeners.isEmpty());
+        for (INavigatorListener listener : navigatorListeners) {
+            listener.nodeChanged(new DBNEvent(this, action, nodeChange, schemaNode));
+        }
+    }
+
+    @NotNull
+    private DBSEntity createTable(@NotNull String name, @NotNull DBPDataSource dataSource) {
+        DBSEntity table = mock(DBSEntity.class);
+        when(table.getName()).thenReturn(name);
+        when(table.getDataSource()).thenReturn(dataSource);
+        when(table.getParentObject()).thenReturn(schema);
+        try {
+            doAnswer(invocation -> {
+                List<DBSEntityAttribute> attributes = new ArrayList<>();
+                for (String columnName : tableColumns.get(name)) {
+                    DBSEntityAttribute attribute = mock(DBSEntityAttribute.class);
+                    when(attribute.getName()).thenReturn(columnName);
+                    attributes.add(attribute);
+                }
+                return attributes;
+            }).when(table).getAttributes(any());
+            doAnswer(invocation -> {
+                if (name.equals("orders")) {
+                    DBSEntityAssociation association = mock(DBSEntityAssociation.class);
+                    when(association.getAssociatedEntity()).thenReturn(tables.get("customers"));
+                    return List.of(association);
+                }
+                return List.of();
+            }).when(table).getAssociations(any());
+        } catch (DBException e) {
+            throw new IllegalStateException(e);
+        }
+        return table;
+    }
+
+    /**
+     * Completion engine which doesn't call any service and records generated prompts
+     */
+    private static class LocalCompletionEngine extends AbstractAICompletionEngine<Object, List<DAICompletionMessage>> {
+
+        static final String COMPLETION = "SELECT 1;";
+
+        private final List<String> prompts = new ArrayList<>();
+
+        @Override
+        public String getEngineName() {
+            return "Local";
+        }
+
+        @Override
+        public boolean isValidConfiguration() {
+            return true;
+        }
+
+        @Override
+        public Map<String, Object> getServiceMap() {
+            return Map.of();
+        }
+
+        @Override
+        protected int getMaxTokens() {
+            return 100000;
+        }
+
+        @Nullable
+        @Override
+        protected String requestCompletion(
+            @NotNull DBRProgressMonitor monitor,
+            @NotNull DAICompletionContext context,
+            @NotNull List<DAICompletionMessage> messages,
+            @NotNull IAIFormatter formatter,
+            boolean chatCompletion
+        ) throws DBException {
+            DBCExecutionContext executionContext = context.getExecutionContext();
+            DBSObjectContainer mainObject = getScopeObject(context, executionContext);
+            DAICompletionMessage metadataMessage = MetadataProcessor.INSTANCE.createMetadataMessage(
+                monitor,
+                context,
+                mainObject,
+                formatter,
+                getInstructions(chatCompletion),
+                getMaxTokens(),
+                getRequestText(messages)
+            );
+            List<DAICompletionMessage> mergedMessages = new ArrayList<>();
+            mergedMessages.add(metadataMessage);
+            mergedMessages.addAll(messages);
+            return callCompletion(
+                monitor,
+                chatCompletion,
+                mergedMessages,
+                getServiceInstance(executionContext),
+                createCompletionRequest(chatCompletion, mergedMessages));
+        }
+
+        @Nullable
+        @Override
+        protected String callCompletion(
+            @NotNull DBRProgressMonitor monitor,
+            boolean chatMode,
+            @NotNull List<DAICompletionMessage> messages,
+            @NotNull Object service,
+            @NotNull List<DAICompletionMessage> completionRequest
+        ) {
+            prompts.add(completionRequest.get(0).getContent());
+            return COMPLETION;
+        }
+
+        @Override
+        protected List<DAICompletionMessage> createCompletionRequest(boolean chatMode, @NotNull List<DAICompletionMessage> messages) {
+            return messages;
+        }
+
+        @Override
+        protected List<DAICompletionMessage> createCompletionRequest(boolean chatMode, @NotNull List<DAICompletionMessage> messages, int maxTokens) {
+            return messages;
+        }
+
+        @Override
+        protected Object getServiceInstance(@NotNull DBCExecutionContext executionContext) {
+            return executionContext;
+        }
+
+        @Override
+        protected AIEngineSettings getSettings() {
+            return null;
+        }
+    }
+}
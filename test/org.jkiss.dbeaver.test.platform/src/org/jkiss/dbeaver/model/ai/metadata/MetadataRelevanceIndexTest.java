@@ -0,0 +1,97 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.ai.metadata;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class MetadataRelevanceIndexTest extends DBeaverUnitTest {
+
+    @Test
+    public void testTokenize() {
+        Assert.assertEquals(List.of("customer", "order", "id"), MetadataRelevanceIndex.tokenize("CustomerOrdersID"));
+        Assert.assertEquals(List.of("customer", "order", "id"), MetadataRelevanceIndex.tokenize("CUSTOMER_ORDERS_ID"));
+        Assert.assertEquals(List.of("http", "request", "2"), MetadataRelevanceIndex.tokenize("HTTPRequest2"));
+        Assert.assertEquals(List.of("category"), MetadataRelevanceIndex.tokenize("categories"));
+    }
+
+    @Test
+    public void testRankByRelevance() {
+        MetadataRelevanceIndex<String> index = createIndex();
+        List<String> ranked = index.rank("Show total amount of orders for each customer");
+        Assert.assertEquals(index.size(), ranked.size());
+        Assert.assertTrue(ranked.indexOf("orders") < 2);
+        Assert.assertTrue(ranked.indexOf("customers") < 2);
+        Assert.assertTrue(ranked.indexOf("orders") < ranked.indexOf("audit_log"));
+        Assert.assertTrue(ranked.indexOf("customers") < ranked.indexOf("warehouses"));
+    }
+
+    @Test
+    public void testLinkedObjectsAreBoosted() {
+        MetadataRelevanceIndex<String> index = createLinkIndex();
+        // line_items has no matching terms and is added last, so without the link it stays last
+        Assert.assertEquals(List.of("products", "warehouses", "audit_log", "line_items"), index.rank("products sold last month"));
+
+        index.addLink("line_items", "products");
+        Assert.assertEquals(List.of("products", "line_items", "warehouses", "audit_log"), index.rank("products sold last month"));
+    }
+
+    @Test
+    public void testCommentsAreIndexed() {
+        MetadataRelevanceIndex<String> index = createIndex();
+        Assert.assertEquals("audit_log", index.rank("who changed the record").get(0));
+    }
+
+    @Test
+    public void testNoRelevantObjects() {
+        MetadataRelevanceIndex<String> index = createIndex();
+        // Original order is kept
+        Assert.assertEquals(
+            List.of("customers", "orders", "order_items", "products", "warehouses", "audit_log"),
+            index.rank("show all tables"));
+        Assert.assertEquals(
+            List.of("customers", "orders", "order_items", "products", "warehouses", "audit_log"),
+            index.rank(null));
+    }
+
+    private static MetadataRelevanceIndex<String> createLinkIndex() {
+        MetadataRelevanceIndex<String> index = new MetadataRelevanceIndex<>();
+        index.addObject("products", "products", List.of("product_id", "title", "price"), null);
+        index.addObject("warehouses", "warehouses", List.of("warehouse_id", "address", "capacity"), null);
+        index.addObject("audit_log", "audit_log", List.of("log_id", "user_name", "changed_at"), null);
+        index.addObject("line_items", "line_items", List.of("line_id", "item_ref", "quantity"), null);
+        return index;
+    }
+
+    private static MetadataRelevanceIndex<String> createIndex() {
+        MetadataRelevanceIndex<String> index = new MetadataRelevanceIndex<>();
+        index.addObject("customers", "customers", List.of("customer_id", "name", "email", "created_at"), null);
+        index.addObject("orders", "orders", List.of("order_id", "customer_id", "order_date", "total_amount"), null);
+        index.addObject("order_items", "order_items", List.of("order_id", "product_id", "quantity", "price"), null);
+        index.addObject("products", "products", List.of("product_id", "title", "price", "warehouse_id"), null);
+        index.addObject("warehouses", "warehouses", List.of("warehouse_id", "address", "capacity"), null);
+        index.addObject("audit_log", "audit_log", List.of("log_id", "user_name", "changed_at"), "Record changes made by users");
+        index.addLink("orders", "customers");
+        index.addLink("order_items", "orders");
+        index.addLink("order_items", "products");
+        index.addLink("products", "warehouses");
+        return index;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.storage;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TemporaryContentSpaceTest extends DBeaverUnitTest {
+
+    private static final long MAX_SIZE = 1000;
+
+    private Path folder;
+
+    @Before
+    public void prepareFolder() throws IOException {
+        folder = Files.createTempDirectory("lob-space");
+    }
+
+    @Test
+    public void testForeignFilesAreNotDeleted() throws IOException {
+        TemporaryContentSpace space = new TemporaryContentSpace(() -> MAX_SIZE);
+        // Content editor file and LOB file which is still being filled: both are not registered
+        Path editorFile = createFile("editor.data", 800);
+        Path lobFile = createFile("lob.data", 800);
+
+        TemporaryContentFile contentFile = new TemporaryContentFile(createFile("content.data", 600), 600);
+        space.registerFile(contentFile);
+        TemporaryContentFile bigFile = new TemporaryContentFile(createFile("big.data", 600), 600);
+        space.registerFile(bigFile);
+
+        Assert.assertEquals(1200, space.getTotalSize());
+        Assert.assertTrue(Files.exists(editorFile));
+        Assert.assertTrue(Files.exists(lobFile));
+        Assert.assertTrue(Files.exists(contentFile.getFile()));
+        Assert.assertTrue(Files.exists(bigFile.getFile()));
+    }
+
+    @Test
+    public void testReleasedFileIsDeleted() throws IOException {
+        TemporaryContentSpace space = new TemporaryContentSpace(() -> MAX_SIZE);
+        TemporaryContentFile contentFile = new TemporaryContentFile(createFile("content.data", 300), 300);
+        space.registerFile(contentFile);
+        Assert.assertEquals(300, space.getTotalSize());
+
+        space.releaseFile(contentFile);
+        Assert.assertFalse(Files.exists(contentFile.getFile()));
+        Assert.assertEquals(0, space.getTotalSize());
+
+        // Second release doesn't change accounting
+        space.releaseFile(contentFile);
+        Assert.assertEquals(0, space.getTotalSize());
+    }
+
+    @Test
+    public void testUndeletedReleasedFileIsEvicted() throws IOException {
+        TemporaryContentSpace space = new TemporaryContentSpace(() -> MAX_SIZE);
+        // Non-empty directory can't be deleted: emulates file locked by some reader
+        Path lockedFile = Files.createDirectory(folder.resolve("locked.data"));
+        Path lockContent = createFile("locked.data/lock", 1);
+        TemporaryContentFile contentFile = new TemporaryContentFile(lockedFile, 700);
+        space.registerFile(contentFile);
+        space.releaseFile(contentFile);
+        Assert.assertTrue(Files.exists(lockedFile));
+        Assert.assertEquals(1, space.getReleasedFileCount());
+        Assert.assertEquals(700, space.getTotalSize());
+
+        // "Unlock" file. It is deleted only when the limit is exceeded
+        Files.delete(lockContent);
+        TemporaryContentFile smallFile = new TemporaryContentFile(createFile("small.data", 200), 200);
+        space.registerFile(smallFile);
+        Assert.assertTrue(Files.exists(lockedFile));
+
+        TemporaryContentFile newFile = new TemporaryContentFile(createFile("new.data", 200), 200);
+        space.registerFile(newFile);
+        Assert.assertFalse(Files.exists(lockedFile));
+        Assert.assertEquals(0, space.getReleasedFileCount());
+        Assert.assertEquals(400, space.getTotalSize());
+        Assert.assertTrue(Files.exists(smallFile.getFile()));
+        Assert.assertTrue(Files.exists(newFile.getFile()));
+    }
+
+    private Path createFile(String name, int size) throws IOException {
+        return Files.write(folder.resolve(name), new byte[size]);
+    }
+}
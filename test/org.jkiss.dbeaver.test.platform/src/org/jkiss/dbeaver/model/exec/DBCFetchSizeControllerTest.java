@@ -0,0 +1,98 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.exec;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DBCFetchSizeControllerTest extends DBeaverUnitTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final long ROUND_TRIP_TIME = 10_000_000;
+    private static final long ROW_PROCESS_TIME = 1_000;
+
+    private long time = 1;
+
+    @Test
+    public void testGrowWhileWaitingForServer() {
+        DBCFetchSizeController controller = new DBCFetchSizeController(200, 10000, 64 * MB);
+        Assert.assertEquals(200, controller.getFetchSize());
+        Assert.assertTrue(fetchRoundTrip(controller, 100));
+        Assert.assertEquals(400, controller.getFetchSize());
+        Assert.assertTrue(fetchRoundTrip(controller, 100));
+        Assert.assertEquals(800, controller.getFetchSize());
+        Assert.assertEquals(2, controller.getRoundTripCount());
+    }
+
+    @Test
+    public void testShrinkWideRows() {
+        DBCFetchSizeController controller = new DBCFetchSizeController(200, 10000, MB);
+        Assert.assertTrue(fetchRoundTrip(controller, 50_000));
+        // About 20 rows of 50Kb fit into 1Mb
+        int fetchSize = controller.getFetchSize();
+        Assert.assertTrue(fetchSize >= 19 && fetchSize <= 21);
+        Assert.assertEquals(fetchSize, controller.getMinUsedFetchSize());
+    }
+
+    @Test
+    public void testKeepSizeWhenConsumerIsSlow() {
+        DBCFetchSizeController controller = new DBCFetchSizeController(200, 10000, 64 * MB);
+        int fetchSize = controller.getFetchSize();
+        for (int i = 0; i < fetchSize; i++) {
+            // Consumer spends more time than the driver
+            time += ROUND_TRIP_TIME;
+            Assert.assertFalse(fetchRow(controller, 100, i == 0 ? ROUND_TRIP_TIME : 0));
+        }
+        Assert.assertEquals(200, controller.getFetchSize());
+    }
+
+    @Test
+    public void testLimitsAndStatistics() {
+        DBCFetchSizeController controller = new DBCFetchSizeController(200, 500, 64 * MB);
+        for (int i = 0; i < 20 && controller.isAdaptive(); i++) {
+            fetchRoundTrip(controller, 100);
+        }
+        Assert.assertFalse(controller.isAdaptive());
+        Assert.assertEquals(500, controller.getFetchSize());
+        Assert.assertEquals(500, controller.getMaxUsedFetchSize());
+
+        DBCStatistics statistics = new DBCStatistics();
+        controller.dumpStatistics(statistics);
+        Assert.assertEquals(200, statistics.getInitialFetchSize());
+        Assert.assertEquals(500, statistics.getFetchSize());
+        Assert.assertTrue(statistics.getInfo().containsKey("Fetch size"));
+    }
+
+    private boolean fetchRoundTrip(DBCFetchSizeController controller, long rowSize) {
+        boolean changed = false;
+        int fetchSize = controller.getFetchSize();
+        for (int i = 0; i < fetchSize; i++) {
+            time += ROW_PROCESS_TIME;
+            changed = fetchRow(controller, rowSize, i == 0 ? ROUND_TRIP_TIME : 0);
+        }
+        return changed;
+    }
+
+    private boolean fetchRow(DBCFetchSizeController controller, long rowSize, long waitTime) {
+        long startTime = time;
+        time += waitTime;
+        boolean changed = controller.rowFetched(startTime, time, true);
+        controller.addValueSize(rowSize);
+        return changed;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.List;
+
+/**
+ * Measures tile loading of a million-point dataset in a 1920x1080 viewport at different zoom levels
+ */
+public class GisFeatureIndexBenchmark {
+
+    private static final int POINT_COUNT = 1_000_000;
+
+    public static void main(String[] args) {
+        List<Geometry> points = GisFeatureIndexTest.createPoints(POINT_COUNT, 1);
+
+        long startTime = System.nanoTime();
+        GisFeatureIndex index = new GisFeatureIndex(points, true);
+        System.out.println("Index " + index.getFeatureCount() + " points: " + (System.nanoTime() - startTime) / 1000000 + "ms");
+
+        Envelope dataBounds = index.getBounds();
+        for (int zoom : new int[] {1, 3, 5, 7, 9, 11, 13}) {
+            // Viewport centered at the densest area
+            Envelope viewport = getViewport(index, zoom, dataBounds);
+            GisTileSession session = new GisTileSession(index);
+            startTime = System.nanoTime();
+            GisTileSession.Update update = session.loadViewport(zoom, viewport);
+            long loadTime = System.nanoTime() - startTime;
+
+            int clustered = 0;
+            for (GisFeatureIndex.Cluster cluster : update.getClusters()) {
+                clustered += cluster.getFeatureCount();
+            }
+            System.out.println("Zoom " + zoom + ": " + update.getFeatureIds().length + " features, " +
+                update.getClusters().size() + " clusters (" + clustered + " points) in " + loadTime / 1000000 + "ms");
+        }
+    }
+
+    private static Envelope getViewport(GisFeatureIndex index, int zoom, Envelope dataBounds) {
+        // Degrees of longitude per pixel
+        double pixelSize = 360.0 / (Math.pow(2, zoom) * GisFeatureIndex.TILE_SIZE);
+        Geometry center = index.getGeometry(0);
+        double x = center == null ? dataBounds.centre().x : center.getCoordinate().x;
+        double y = center == null ? dataBounds.centre().y : center.getCoordinate().y;
+        return new Envelope(x - 960 * pixelSize, x + 960 * pixelSize, y - 540 * pixelSize, y + 540 * pixelSize);
+    }
+}
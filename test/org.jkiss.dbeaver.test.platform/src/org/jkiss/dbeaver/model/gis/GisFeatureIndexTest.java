@@ -0,0 +1,155 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class GisFeatureIndexTest extends DBeaverUnitTest {
+
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+    private static final Envelope WORLD = new Envelope(-180, 180, -85, 85);
+
+    @Test
+    public void testPointsAreClusteredAtLowZoom() {
+        GisFeatureIndex index = new GisFeatureIndex(createPoints(10000, 1), true);
+        Assert.assertEquals(10000, index.getFeatureCount());
+
+        int featureCount = 0;
+        int clusteredCount = 0;
+        for (GisFeatureIndex.Tile tile : index.getTiles(2, WORLD)) {
+            featureCount += tile.getFeatureIds().length;
+            for (GisFeatureIndex.Cluster cluster : tile.getClusters()) {
+                clusteredCount += cluster.getFeatureCount();
+                Assert.assertTrue(cluster.getBounds().contains(cluster.getX(), cluster.getY()));
+            }
+        }
+        // Each point is either rendered or clustered exactly once
+        Assert.assertEquals(10000, featureCount + clusteredCount);
+        Assert.assertTrue(featureCount < 1000);
+    }
+
+    @Test
+    public void testPointsAreNotClusteredAtStreetLevel() {
+        GisFeatureIndex index = new GisFeatureIndex(List.of(
+            point(10.0, 20.0), point(10.00001, 20.0), point(10.0, 20.00001)), true);
+        Envelope area = new Envelope(9.99, 10.01, 19.99, 20.01);
+        int featureCount = 0;
+        for (GisFeatureIndex.Tile tile : index.getTiles(18, area)) {
+            featureCount += tile.getFeatureIds().length;
+            Assert.assertTrue(tile.getClusters().isEmpty());
+        }
+        Assert.assertEquals(3, featureCount);
+    }
+
+    @Test
+    public void testPolygonsAreSimplified() {
+        Coordinate[] coordinates = new Coordinate[1001];
+        for (int i = 0; i < 1000; i++) {
+            double angle = 2 * Math.PI * i / 1000;
+            coordinates[i] = new Coordinate(Math.cos(angle) * 10, Math.sin(angle) * 10);
+        }
+        coordinates[1000] = coordinates[0];
+        Geometry polygon = geometryFactory.createPolygon(coordinates);
+        GisFeatureIndex index = new GisFeatureIndex(List.of(polygon), true);
+
+        Geometry lowZoom = index.getGeometry(0, 2);
+        Geometry highZoom = index.getGeometry(0, 12);
+        Assert.assertTrue(lowZoom.getNumPoints() < 100);
+        Assert.assertTrue(highZoom.getNumPoints() > lowZoom.getNumPoints());
+        Assert.assertTrue(highZoom.getNumPoints() <= 1001);
+        Assert.assertSame(lowZoom, index.getGeometry(0, 2));
+    }
+
+    @Test
+    public void testSessionSendsFeaturesOnce() {
+        List<Geometry> geometries = new ArrayList<>();
+        // Large line crossing many tiles
+        geometries.add(geometryFactory.createLineString(new Coordinate[] {
+            new Coordinate(-100, 0), new Coordinate(100, 0)
+        }));
+        geometries.add(point(-50, 10));
+        geometries.add(point(50, -10));
+        GisTileSession session = new GisTileSession(new GisFeatureIndex(geometries, true));
+
+        GisTileSession.Update update = session.loadViewport(4, new Envelope(-120, 0, -40, 40));
+        Assert.assertTrue(update.isReset());
+        Assert.assertArrayEquals(new int[] {0, 1}, sorted(update.getFeatureIds()));
+
+        update = session.loadViewport(4, new Envelope(-60, 60, -40, 40));
+        Assert.assertFalse(update.isReset());
+        Assert.assertArrayEquals(new int[] {2}, sorted(update.getFeatureIds()));
+
+        update = session.loadViewport(5, new Envelope(-60, 60, -40, 40));
+        Assert.assertTrue(update.isReset());
+        Assert.assertArrayEquals(new int[] {0, 1, 2}, sorted(update.getFeatureIds()));
+    }
+
+    @Test
+    public void testSimpleCoordinates() {
+        List<Geometry> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(point(i * 100, i * 100));
+        }
+        GisFeatureIndex index = new GisFeatureIndex(points, false);
+        Envelope bounds = index.getBounds();
+        Assert.assertEquals(new Envelope(0, 9900, 0, 9900), bounds);
+
+        int featureCount = 0;
+        for (GisFeatureIndex.Tile tile : index.getTiles(0, bounds)) {
+            featureCount += tile.getFeatureIds().length;
+            Assert.assertTrue(tile.getClusters().isEmpty());
+        }
+        Assert.assertEquals(100, featureCount);
+    }
+
+    static List<Geometry> createPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<Geometry> points = new ArrayList<>(count);
+        double[][] centers = new double[20][];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = new double[] {random.nextDouble() * 300 - 150, random.nextDouble() * 120 - 60};
+        }
+        for (int i = 0; i < count; i++) {
+            double[] center = centers[random.nextInt(centers.length)];
+            double x = Math.max(-180, Math.min(180, center[0] + random.nextGaussian() * 5));
+            double y = Math.max(-80, Math.min(80, center[1] + random.nextGaussian() * 5));
+            points.add(point(x, y));
+        }
+        return points;
+    }
+
+    private static Geometry point(double x, double y) {
+        return geometryFactory.createPoint(new Coordinate(x, y));
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] result = values.clone();
+        Arrays.sort(result);
+        return result;
+    }
+}
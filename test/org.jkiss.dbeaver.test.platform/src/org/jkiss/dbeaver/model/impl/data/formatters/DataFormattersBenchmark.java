@@ -0,0 +1,103 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data.formatters;
+
+import java.sql.Timestamp;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Compares data formatters with synchronized DecimalFormat/SimpleDateFormat (previous implementation)
+ * when several threads format values concurrently (e.g. parallel export jobs).
+ */
+public class DataFormattersBenchmark {
+
+    private static final int VALUE_COUNT = 1_000_000;
+    private static final int[] THREAD_COUNTS = {1, 4, 8};
+
+    public static void main(String[] args) throws Exception {
+        Long[] numbers = new Long[VALUE_COUNT];
+        Timestamp[] timestamps = new Timestamp[VALUE_COUNT];
+        long baseTime = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            numbers[i] = (long) i * 7919;
+            // Many repeated values, like in a typical date column
+            timestamps[i] = new Timestamp(baseTime + (i % 5000) * 60000L);
+        }
+
+        DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getNumberInstance(Locale.US);
+        NumberDataFormatter numberFormatter = new NumberDataFormatter();
+        numberFormatter.init(null, Locale.US, Map.of());
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        DateTimeDataFormatter dateFormatter = new DateTimeDataFormatter();
+        dateFormatter.init(null, Locale.US, Map.of(DateTimeDataFormatter.PROP_PATTERN, "yyyy-MM-dd HH:mm:ss.SSS"));
+
+        for (int threads : THREAD_COUNTS) {
+            run("Numbers, synchronized DecimalFormat", threads, numbers, synchronizedFormat(decimalFormat));
+            run("Numbers, NumberDataFormatter", threads, numbers, numberFormatter::formatValue);
+            run("Dates, synchronized SimpleDateFormat", threads, timestamps, synchronizedFormat(dateFormat));
+            run("Dates, DateTimeDataFormatter", threads, timestamps, dateFormatter::formatValue);
+        }
+    }
+
+    private static Function<Object, Object> synchronizedFormat(java.text.Format format) {
+        StringBuffer buffer = new StringBuffer();
+        FieldPosition position = new FieldPosition(0);
+        return value -> {
+            synchronized (format) {
+                buffer.setLength(0);
+                return format.format(value, buffer, position).toString();
+            }
+        };
+    }
+
+    private static void run(String name, int threads, Object[] values, Function<Object, Object> format) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long bestTime = Long.MAX_VALUE;
+            for (int iteration = 0; iteration < 5; iteration++) {
+                long startTime = System.nanoTime();
+                Future<?>[] futures = new Future[threads];
+                for (int t = 0; t < threads; t++) {
+                    futures[t] = executor.submit(() -> {
+                        int length = 0;
+                        for (Object value : values) {
+                            length += format.apply(value).hashCode();
+                        }
+                        return length;
+                    });
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+            }
+            System.out.printf("%-45s threads=%d: %6dms (%d values per thread)%n",
+                name, threads, bestTime / 1000000, values.length);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
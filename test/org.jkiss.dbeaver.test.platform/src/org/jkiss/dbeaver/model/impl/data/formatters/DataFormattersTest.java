@@ -0,0 +1,130 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data.formatters;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class DataFormattersTest extends DBeaverUnitTest {
+
+    private static final Locale[] LOCALES = {
+        Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("ru", "RU"), new Locale("de", "CH"),
+        new Locale("ar", "EG"), new Locale("hi", "IN"), new Locale("fa", "IR")
+    };
+
+    @Test
+    public void testIntegersAreFormattedAsDecimalFormat() {
+        Random random = new Random(1);
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() >> random.nextInt(64);
+        }
+        values[0] = 0;
+        values[1] = Long.MAX_VALUE;
+        values[2] = Long.MIN_VALUE;
+        values[3] = -1;
+        for (Locale locale : LOCALES) {
+            for (Map<String, Object> properties : List.of(
+                Map.<String, Object>of(),
+                Map.<String, Object>of(NumberFormatSample.PROP_USE_GROUPING, false),
+                Map.<String, Object>of(NumberFormatSample.PROP_GROUPING_SIZE, 2, NumberFormatSample.PROP_MIN_INT_DIGITS, 8),
+                Map.<String, Object>of(NumberFormatSample.PROP_GROUPING_SIZE, 0),
+                Map.<String, Object>of(NumberFormatSample.PROP_MIN_INT_DIGITS, 0),
+                Map.<String, Object>of(NumberFormatSample.PROP_MAX_INT_DIGITS, 5)))
+            {
+                NumberDataFormatter formatter = new NumberDataFormatter();
+                formatter.init(null, locale, properties);
+                DecimalFormat expected = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+                if (properties.containsKey(NumberFormatSample.PROP_USE_GROUPING)) {
+                    expected.setGroupingUsed((Boolean) properties.get(NumberFormatSample.PROP_USE_GROUPING));
+                }
+                if (properties.containsKey(NumberFormatSample.PROP_GROUPING_SIZE)) {
+                    expected.setGroupingSize((Integer) properties.get(NumberFormatSample.PROP_GROUPING_SIZE));
+                }
+                if (properties.containsKey(NumberFormatSample.PROP_MIN_INT_DIGITS)) {
+                    expected.setMinimumIntegerDigits((Integer) properties.get(NumberFormatSample.PROP_MIN_INT_DIGITS));
+                }
+                if (properties.containsKey(NumberFormatSample.PROP_MAX_INT_DIGITS)) {
+                    expected.setMaximumIntegerDigits((Integer) properties.get(NumberFormatSample.PROP_MAX_INT_DIGITS));
+                }
+                for (long value : values) {
+                    String message = locale + " " + properties + " " + value;
+                    Assert.assertEquals(message, expected.format(value), formatter.formatValue(value));
+                    Assert.assertEquals(message, expected.format((int) value), formatter.formatValue((int) value));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDatesAreFormattedAsDateFormat() {
+        Random random = new Random(1);
+        for (Locale locale : LOCALES) {
+            for (String pattern : List.of("yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss.SSS", "dd MMM yy, EEE hh:mm a", "yyyy-MM-dd'T'HH:mm:ss", "D 'day' k:K")) {
+                DateTimeDataFormatter formatter = new DateTimeDataFormatter();
+                formatter.init(null, locale, Map.of(DateTimeDataFormatter.PROP_PATTERN, pattern));
+                SimpleDateFormat expected = new SimpleDateFormat(pattern, locale);
+                for (int i = 0; i < 1000; i++) {
+                    Timestamp value = new Timestamp(random.nextLong() % (i % 2 == 0 ? 4000000000000L : 100000000000000L));
+                    value.setNanos(random.nextInt(1000000000));
+                    String message = locale + " " + pattern + " " + value;
+                    Assert.assertEquals(message, expected.format(value), formatter.formatValue(value));
+                    // Cached value
+                    Assert.assertEquals(message, expected.format(value), formatter.formatValue(new Timestamp(value.getTime())));
+                    Date date = new Date(value.getTime());
+                    Assert.assertEquals(message, expected.format(date), formatter.formatValue(date));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNonGregorianCalendars() {
+        Random random = new Random(1);
+        for (Locale locale : List.of(new Locale("th", "TH"), new Locale("ja", "JP", "JP"))) {
+            DateTimeDataFormatter formatter = new DateTimeDataFormatter();
+            formatter.init(null, locale, Map.of(DateTimeDataFormatter.PROP_PATTERN, "yyyy-MM-dd HH:mm:ss"));
+            SimpleDateFormat expected = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", locale);
+            for (int i = 0; i < 100; i++) {
+                Date value = new Date(random.nextLong() % 4000000000000L);
+                Assert.assertEquals(locale + " " + value, expected.format(value), formatter.formatValue(value));
+            }
+        }
+    }
+
+    @Test
+    public void testCachedDatesAreUpdated() {
+        DateTimeDataFormatter formatter = new DateTimeDataFormatter();
+        formatter.init(null, Locale.US, Map.of(DateTimeDataFormatter.PROP_PATTERN, "yyyy-MM-dd HH:mm:ss.ffffff"));
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 20, 30, 123456000);
+        Assert.assertEquals(formatter.formatValue(time), formatter.formatValue(LocalDateTime.of(2024, 5, 1, 10, 20, 30, 123456000)));
+        Assert.assertNotEquals(formatter.formatValue(time), formatter.formatValue(time.plusNanos(1000)));
+
+        Date date = new Date(1000000000000L);
+        String text = formatter.formatValue(date);
+        date.setTime(date.getTime() + 86400000L);
+        Assert.assertNotEquals(text, formatter.formatValue(date));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.dpi;
+
+import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+import org.jkiss.dbeaver.model.impl.data.RowValuesCodec;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DPIResultSetPageTest extends DBeaverUnitTest {
+
+    @Test
+    public void testValuesRoundTrip() throws Exception {
+        Timestamp timestamp = new Timestamp(1700000000000L);
+        timestamp.setNanos(123456789);
+        List<Object[]> rows = List.of(
+            new Object[]{1, "first", new BigDecimal("12345.678"), timestamp, new byte[]{1, 2, 3}, true, null},
+            new Object[]{null, "", BigDecimal.ZERO, null, null, false, (short) 7},
+            new Object[]{3, "caf\u00e9 \u2615", new BigDecimal("-1E+20"), new java.sql.Date(0), new byte[0], null, 42L}
+        );
+
+        List<Object[]> decoded = RowValuesCodec.decode(RowValuesCodec.encode(rows, 7));
+
+        Assert.assertEquals(rows.size(), decoded.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertArrayEquals(rows.get(i), decoded.get(i));
+        }
+        Assert.assertEquals(123456789, ((Timestamp) decoded.get(0)[3]).getNanos());
+    }
+
+    @Test
+    public void testUnsupportedValues() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{new DBDValueError(new IllegalStateException("broken")), new StringBuilder("text")});
+
+        Object[] row = RowValuesCodec.decode(RowValuesCodec.encode(rows, 2)).get(0);
+
+        Assert.assertTrue(row[0] instanceof DBDValueError);
+        Assert.assertEquals("text", row[1]);
+    }
+
+    @Test
+    public void testPagedIteration() throws Exception {
+        DPIResultSet source = new DPIResultSet(null, null);
+        int rowCount = DPIResultSet.DEFAULT_PAGE_SIZE * 2 + 10;
+        for (int i = 0; i < rowCount; i++) {
+            source.addRow(i, "row " + i);
+        }
+        source.flushRows();
+
+        // First page is local, others are read on demand
+        List<byte[]> pages = List.of(source.pollPage());
+        DPIResultSet target = new DPIResultSet(null, null, List.of(), pages, new DPIResultSetPageReader() {
+            @Override
+            public byte[] readPage() {
+                return source.pollPage();
+            }
+
+            @Override
+            public void close() {
+                Assert.fail("Completely read result set shouldn't be closed remotely");
+            }
+        });
+        int index = 0;
+        while (target.nextRow()) {
+            Assert.assertEquals(index, target.getAttributeValue(0));
+            index++;
+        }
+        Assert.assertEquals(rowCount, index);
+        Assert.assertNull(target.getFetchError());
+        target.close();
+    }
+}
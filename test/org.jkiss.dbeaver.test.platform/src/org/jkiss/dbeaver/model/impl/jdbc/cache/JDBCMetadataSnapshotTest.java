@@ -0,0 +1,154 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+public class JDBCMetadataSnapshotTest extends DBeaverUnitTest {
+
+    private static final String KEY = "tables:PUBLIC";
+    private static final String[] COLUMNS = {"TABLE_NAME", "ROW_COUNT", "CREATED", "REMARKS", "DATA"};
+
+    private final DBRProgressMonitor monitor = new VoidProgressMonitor();
+    private Path snapshotFolder;
+    private Path snapshotFile;
+    private JDBCDataSource dataSource;
+    private List<Object[]> rows;
+
+    @Before
+    public void prepareDataSource() throws Exception {
+        snapshotFolder = Files.createTempDirectory("metadata-snapshot-test");
+        snapshotFile = snapshotFolder.resolve("snapshot.dat");
+        DBPDataSourceContainer container = Mockito.mock(DBPDataSourceContainer.class);
+        Mockito.when(container.getName()).thenReturn("Test");
+        dataSource = Mockito.mock(JDBCDataSource.class);
+        Mockito.when(dataSource.getContainer()).thenReturn(container);
+        Mockito.when(dataSource.readMetadataChangeSignal(Mockito.any())).thenReturn("v1");
+
+        Timestamp created = new Timestamp(1700000000123L);
+        created.setNanos(123456789);
+        rows = List.of(
+            new Object[]{"ORDERS", 100L, created, "x".repeat(100000), new byte[]{1, 2, 3}},
+            new Object[]{"ORDER_ITEMS", new BigDecimal("12345678901234567890"), null, null, null}
+        );
+    }
+
+    @After
+    public void deleteFiles() throws Exception {
+        try (var files = Files.list(snapshotFolder)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(snapshotFolder);
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        saveSnapshot();
+
+        JDBCMetadataSnapshot snapshot = loadSnapshot();
+        Assert.assertTrue(snapshot.isReady());
+        List<Object[]> loadedRows = snapshot.getEntryRows(KEY);
+        Assert.assertNotNull(loadedRows);
+        Assert.assertEquals(rows.size(), loadedRows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertTrue(Arrays.deepEquals(rows.get(i), loadedRows.get(i)));
+        }
+        Assert.assertEquals(123456789, ((Timestamp) loadedRows.get(0)[2]).getNanos());
+    }
+
+    @Test
+    public void testChangedSignalDiscardsSnapshot() throws Exception {
+        saveSnapshot();
+        Mockito.when(dataSource.readMetadataChangeSignal(Mockito.any())).thenReturn("v2");
+
+        JDBCMetadataSnapshot snapshot = loadSnapshot();
+        Assert.assertTrue(snapshot.isReady());
+        Assert.assertNull(snapshot.getEntryRows(KEY));
+
+        // Fresh entries are saved with the new signal
+        snapshot.putEntry(KEY, COLUMNS, rows);
+        snapshot.saveSnapshot();
+        Assert.assertNotNull(loadSnapshot().getEntryRows(KEY));
+    }
+
+    @Test
+    public void testMissingSignalDisablesSnapshot() throws Exception {
+        saveSnapshot();
+        Mockito.when(dataSource.readMetadataChangeSignal(Mockito.any())).thenReturn(null);
+
+        JDBCMetadataSnapshot snapshot = loadSnapshot();
+        Assert.assertTrue(snapshot.isReady());
+        Assert.assertNull(snapshot.getEntryRows(KEY));
+
+        Files.delete(snapshotFile);
+        snapshot.putEntry(KEY, COLUMNS, rows);
+        snapshot.saveSnapshot();
+        Assert.assertFalse(Files.exists(snapshotFile));
+    }
+
+    @Test
+    public void testCorruptedFileIsIgnored() throws Exception {
+        saveSnapshot();
+        byte[] data = Files.readAllBytes(snapshotFile);
+
+        // Truncated file
+        Files.write(snapshotFile, Arrays.copyOf(data, data.length / 2));
+        JDBCMetadataSnapshot snapshot = loadSnapshot();
+        Assert.assertTrue(snapshot.isReady());
+        Assert.assertNull(snapshot.getEntryRows(KEY));
+
+        // Not a snapshot at all
+        Files.write(snapshotFile, new byte[]{0x1f, (byte) 0x8b, 1, 2, 3, 4, 5, 6, 7, 8});
+        Assert.assertNull(loadSnapshot().getEntryRows(KEY));
+
+        // Corrupted file is overwritten by the next save
+        snapshot.putEntry(KEY, COLUMNS, rows);
+        snapshot.saveSnapshot();
+        Assert.assertNotNull(loadSnapshot().getEntryRows(KEY));
+    }
+
+    private void saveSnapshot() {
+        JDBCMetadataSnapshot snapshot = loadSnapshot();
+        snapshot.putEntry(KEY, COLUMNS, rows);
+        snapshot.saveSnapshot();
+        Assert.assertTrue(Files.exists(snapshotFile));
+    }
+
+    private JDBCMetadataSnapshot loadSnapshot() {
+        JDBCMetadataSnapshot snapshot = new JDBCMetadataSnapshot(dataSource, snapshotFile, 10 * 1024 * 1024);
+        snapshot.load(monitor);
+        return snapshot;
+    }
+}
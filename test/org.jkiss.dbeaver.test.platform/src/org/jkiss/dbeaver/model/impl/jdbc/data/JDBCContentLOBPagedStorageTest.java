@@ -0,0 +1,160 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.util.Arrays;
+import java.util.Random;
+
+public class JDBCContentLOBPagedStorageTest extends DBeaverUnitTest {
+
+    private static final int PAGE_SIZE = JDBCContentLOBPagedStorage.PAGE_SIZE;
+
+    @Test
+    public void testBlobPageBoundaries() throws Exception {
+        byte[] content = new byte[PAGE_SIZE * 2 + 100];
+        new Random(1).nextBytes(content);
+        Blob blob = mockBlob(content);
+        JDBCContentBLOBPagedStorage storage = new JDBCContentBLOBPagedStorage(blob, content.length, "UTF-8");
+
+        byte[] buffer = new byte[20];
+        Assert.assertEquals(20, storage.readBytes(PAGE_SIZE - 10, buffer, 0, 20));
+        Assert.assertArrayEquals(Arrays.copyOfRange(content, PAGE_SIZE - 10, PAGE_SIZE + 10), buffer);
+        // Last page is shorter
+        Assert.assertEquals(10, storage.readBytes(content.length - 10, buffer, 0, 20));
+        Assert.assertArrayEquals(Arrays.copyOfRange(content, content.length - 10, content.length), Arrays.copyOf(buffer, 10));
+        Assert.assertEquals(-1, storage.readBytes(content.length, buffer, 0, 20));
+
+        try (InputStream is = storage.getContentStream()) {
+            Assert.assertArrayEquals(content, is.readAllBytes());
+        }
+        // Pages are read once, JDBC positions are 1-based
+        Mockito.verify(blob).getBytes(1, PAGE_SIZE);
+        Mockito.verify(blob).getBytes(PAGE_SIZE + 1, PAGE_SIZE);
+        Mockito.verify(blob).getBytes(PAGE_SIZE * 2 + 1, 100);
+        Mockito.verify(blob, Mockito.never()).free();
+    }
+
+    @Test
+    public void testBlobPageCache() throws Exception {
+        byte[] content = new byte[PAGE_SIZE * 20];
+        new Random(1).nextBytes(content);
+        Blob blob = mockBlob(content);
+        JDBCContentBLOBPagedStorage storage = new JDBCContentBLOBPagedStorage(blob, content.length, "UTF-8");
+
+        byte[] buffer = new byte[1];
+        for (int page = 0; page < 20; page++) {
+            storage.readBytes((long) page * PAGE_SIZE, buffer, 0, 1);
+        }
+        // Recent pages are cached, the first ones are evicted
+        storage.readBytes(19L * PAGE_SIZE + 1, buffer, 0, 1);
+        storage.readBytes(0, buffer, 0, 1);
+        Assert.assertEquals(content[0], buffer[0]);
+        Mockito.verify(blob).getBytes(19L * PAGE_SIZE + 1, PAGE_SIZE);
+        Mockito.verify(blob, Mockito.times(2)).getBytes(1, PAGE_SIZE);
+    }
+
+    @Test
+    public void testBlobRelease() throws Exception {
+        byte[] content = new byte[PAGE_SIZE + 1];
+        Blob blob = mockBlob(content);
+        JDBCContentBLOBPagedStorage storage = new JDBCContentBLOBPagedStorage(blob, content.length, "UTF-8");
+
+        InputStream is = storage.getContentStream();
+        Assert.assertEquals(0, is.read());
+        // Stream close doesn't free the LOB
+        is.close();
+        Mockito.verify(blob, Mockito.never()).free();
+        Assert.assertEquals(1, storage.readBytes(PAGE_SIZE, new byte[1], 0, 1));
+
+        storage.release();
+        storage.release();
+        Mockito.verify(blob, Mockito.times(1)).free();
+        Assert.assertThrows(IOException.class, () -> storage.readBytes(0, new byte[1], 0, 1));
+    }
+
+    @Test
+    public void testClobSurrogatePairs() throws Exception {
+        // Surrogate pair crosses the page boundary (pages are read by the stream chunk by chunk)
+        StringBuilder text = new StringBuilder("x".repeat(PAGE_SIZE - 1));
+        while (text.length() < PAGE_SIZE * 2 + 10) {
+            text.append(text.length() % 7 == 0 ? "x" : "\uD83D\uDE00");
+        }
+        String content = text.toString();
+        Assert.assertTrue(Character.isHighSurrogate(content.charAt(PAGE_SIZE - 1)));
+        Clob clob = mockClob(content);
+        JDBCContentCLOBPagedStorage storage = new JDBCContentCLOBPagedStorage(clob, content.length(), "UTF-8");
+
+        try (Reader reader = storage.getContentReader()) {
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            Assert.assertEquals(content, writer.toString());
+        }
+        try (InputStream is = storage.getContentStream()) {
+            Assert.assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), is.readAllBytes());
+        }
+        try (InputStream is = storage.getContentStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (int b = is.read(); b >= 0; b = is.read()) {
+                bytes.write(b);
+            }
+            Assert.assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+        }
+        Mockito.verify(clob).getSubString(1, PAGE_SIZE);
+        Mockito.verify(clob).getSubString(PAGE_SIZE * 2 + 1, content.length() - PAGE_SIZE * 2);
+    }
+
+    @Test
+    public void testClobRelease() throws Exception {
+        Clob clob = mockClob("text");
+        JDBCContentCLOBPagedStorage storage = new JDBCContentCLOBPagedStorage(clob, 4, "UTF-8");
+
+        Reader reader = storage.getContentReader();
+        reader.close();
+        Mockito.verify(clob, Mockito.never()).free();
+
+        storage.release();
+        Mockito.verify(clob).free();
+        Assert.assertThrows(IOException.class, () -> storage.getContentReader().read());
+    }
+
+    private static Blob mockBlob(byte[] content) throws Exception {
+        Blob blob = Mockito.mock(Blob.class);
+        Mockito.when(blob.getBytes(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            int offset = (int) (invocation.<Long>getArgument(0) - 1);
+            return Arrays.copyOfRange(content, offset, offset + invocation.<Integer>getArgument(1));
+        });
+        return blob;
+    }
+
+    private static Clob mockClob(String content) throws Exception {
+        Clob clob = Mockito.mock(Clob.class);
+        Mockito.when(clob.getSubString(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            int offset = (int) (invocation.<Long>getArgument(0) - 1);
+            return content.substring(offset, offset + invocation.<Integer>getArgument(1));
+        });
+        return clob;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.navigator;
+
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.impl.struct.RelationalObjectType;
+import org.jkiss.dbeaver.model.navigator.meta.DBXTreeNode;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectType;
+import org.jkiss.dbeaver.model.struct.DBSStructureAssistant;
+import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+public class DBNNodeRegistryTest extends DBeaverUnitTest {
+
+    private DBNNodeRegistry registry;
+    private DBPDataSourceContainer container;
+    private DBSSchema schema;
+
+    @Before
+    public void prepareRegistry() {
+        registry = new DBNNodeRegistry();
+        container = Mockito.mock(DBPDataSourceContainer.class);
+        DBPDataSource dataSource = Mockito.mock(DBPDataSource.class);
+        Mockito.when(dataSource.getContainer()).thenReturn(container);
+        schema = mockObject(DBSSchema.class, "PUBLIC", dataSource);
+    }
+
+    @Test
+    public void testRegisterAndLookup() {
+        DBSTable table = mockObject(DBSTable.class, "ORDERS", schema);
+        DBNDatabaseNode node = mockNode(DBNDatabaseItem.class, table, false);
+        Assert.assertNull(registry.getNode(table));
+        Assert.assertNull(registry.getNameIndex(container));
+
+        registry.addNode(node);
+        Assert.assertSame(node, registry.getNode(table));
+        Assert.assertEquals(List.of(node), registry.getNodes(table));
+        Assert.assertEquals(List.of(), registry.getNodes(schema));
+        Assert.assertEquals(1, registry.getSize());
+        Assert.assertEquals(1, registry.getRegisteredCount());
+
+        DBNObjectNameIndex nameIndex = registry.getNameIndex(container);
+        Assert.assertNotNull(nameIndex);
+        Assert.assertEquals(1, nameIndex.getSize());
+    }
+
+    @Test
+    public void testPrimaryNode() {
+        DBSTable table = mockObject(DBSTable.class, "ORDERS", schema);
+        // Object is shown in a virtual folder and in its regular place
+        DBNDatabaseNode virtualNode = mockNode(DBNDatabaseItem.class, table, true);
+        DBNDatabaseNode itemNode = mockNode(DBNDatabaseItem.class, table, false);
+        registry.addNodes(List.of(virtualNode, itemNode));
+
+        Assert.assertSame(itemNode, registry.getNode(table));
+        Assert.assertEquals(List.of(virtualNode, itemNode), registry.getNodes(table));
+        Assert.assertEquals(1, registry.getSize());
+        Assert.assertEquals(1, registry.getNameIndex(container).getSize());
+
+        Assert.assertTrue(registry.removeNode(itemNode));
+        Assert.assertSame(virtualNode, registry.getNode(table));
+    }
+
+    @Test
+    public void testRemoveNode() {
+        DBSTable table = mockObject(DBSTable.class, "ORDERS", schema);
+        DBNDatabaseNode node = mockNode(DBNDatabaseItem.class, table, false);
+        DBNDatabaseNode otherNode = mockNode(DBNDatabaseItem.class, table, false);
+        registry.addNode(node);
+        registry.addNode(otherNode);
+
+        // Disposed node is unregistered, object stays while it has other nodes
+        Assert.assertTrue(registry.removeNode(node));
+        Assert.assertEquals(List.of(otherNode), registry.getNodes(table));
+        Assert.assertEquals(1, registry.getNameIndex(container).getSize());
+        Assert.assertFalse(registry.removeNode(node));
+
+        Assert.assertTrue(registry.removeNode(otherNode));
+        Assert.assertNull(registry.getNode(table));
+        Assert.assertEquals(0, registry.getSize());
+        Assert.assertEquals(0, registry.getNameIndex(container).getSize());
+        Assert.assertEquals(2, registry.getRemovedCount());
+    }
+
+    @Test
+    public void testChildrenLoaded() {
+        DBSTable orders = mockObject(DBSTable.class, "ORDERS", schema);
+        DBSTable customers = mockObject(DBSTable.class, "CUSTOMERS", schema);
+        List<DBNDatabaseNode> children = List.of(
+            mockNode(DBNDatabaseItem.class, orders, false),
+            mockNode(DBNDatabaseItem.class, customers, false));
+        registry.addNodes(children);
+        DBSStructureAssistant.ObjectsSearchParams params = new DBSStructureAssistant.ObjectsSearchParams(
+            new DBSObjectType[]{ RelationalObjectType.TYPE_TABLE }, "cust%");
+        params.setParentObject(schema);
+        Assert.assertFalse(registry.getNameIndex(container).isComplete(params));
+
+        registry.setChildrenLoaded(children);
+        Assert.assertTrue(registry.getNameIndex(container).isComplete(params));
+        Assert.assertEquals(1, registry.getNameIndex(container).findObjects(params).size());
+    }
+
+    @Test
+    public void testCollectedNodes() throws Exception {
+        DBSTable table = mockObject(DBSTable.class, "ORDERS", schema);
+        registry.addNode(mockNode(DBNDatabaseItem.class, table, false));
+        Assert.assertEquals(1, registry.getSize());
+
+        // Node dropped from the tree without disposal
+        for (int i = 0; i < 50 && registry.getCollectedCount() == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+            registry.getNameIndex(container);
+        }
+        Assert.assertEquals(1, registry.getCollectedCount());
+        Assert.assertEquals(0, registry.getSize());
+        Assert.assertNull(registry.getNode(table));
+        Assert.assertEquals(0, registry.getNameIndex(container).getSize());
+    }
+
+    @Test
+    public void testClear() {
+        registry.addNode(mockNode(DBNDatabaseItem.class, mockObject(DBSTable.class, "ORDERS", schema), false));
+        registry.clear();
+        Assert.assertEquals(0, registry.getSize());
+        Assert.assertNull(registry.getNameIndex(container));
+    }
+
+    private static <T extends DBNDatabaseNode> T mockNode(Class<T> type, DBSObject object, boolean virtual) {
+        DBXTreeNode meta = Mockito.mock(DBXTreeNode.class);
+        Mockito.when(meta.isVirtual()).thenReturn(virtual);
+        T node = Mockito.mock(type);
+        Mockito.when(node.getObject()).thenReturn(object);
+        Mockito.when(node.getMeta()).thenReturn(meta);
+        return node;
+    }
+
+    private static <T extends DBSObject> T mockObject(Class<T> type, String name, DBSObject parent) {
+        T object = Mockito.mock(type);
+        Mockito.when(object.getName()).thenReturn(name);
+        Mockito.when(object.getParentObject()).thenReturn(parent);
+        DBPDataSource dataSource = parent instanceof DBPDataSource ? (DBPDataSource) parent : parent.getDataSource();
+        Mockito.when(object.getDataSource()).thenReturn(dataSource);
+        return object;
+    }
+}
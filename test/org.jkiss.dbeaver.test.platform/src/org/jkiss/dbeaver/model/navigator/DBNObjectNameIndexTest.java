@@ -0,0 +1,169 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.navigator;
+
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.impl.struct.RelationalObjectType;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectReference;
+import org.jkiss.dbeaver.model.struct.DBSObjectType;
+import org.jkiss.dbeaver.model.struct.DBSStructureAssistant;
+import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DBNObjectNameIndexTest extends DBeaverUnitTest {
+
+    private DBNObjectNameIndex index;
+    private DBPDataSource dataSource;
+    private DBSSchema publicSchema;
+    private DBSSchema salesSchema;
+    private DBSTable orderLines;
+
+    @Before
+    public void prepareIndex() {
+        index = new DBNObjectNameIndex();
+        dataSource = Mockito.mock(DBPDataSource.class);
+        publicSchema = mockObject(DBSSchema.class, "PUBLIC", dataSource);
+        salesSchema = mockObject(DBSSchema.class, "SALES", dataSource);
+        index.addObject(publicSchema);
+        index.addObject(salesSchema);
+        index.addObject(mockObject(DBSTable.class, "ORDER_ITEMS", publicSchema));
+        index.addObject(mockObject(DBSTable.class, "ORDERS", publicSchema));
+        index.addObject(mockObject(DBSTable.class, "customer_orders", salesSchema));
+        orderLines = mockObject(DBSTable.class, "OrderLines", salesSchema);
+        index.addObject(orderLines);
+        index.setScopeLoaded(publicSchema, DBSTable.class);
+    }
+
+    @Test
+    public void testPrefixSearch() {
+        Assert.assertEquals(List.of("ORDER_ITEMS", "OrderLines", "ORDERS"), findNames("ord%", null));
+        Assert.assertEquals(List.of("ORDERS"), findNames("orders", null));
+        Assert.assertEquals(List.of(), findNames("ORDERS", salesSchema));
+    }
+
+    @Test
+    public void testCamelCaseSearch() {
+        Assert.assertEquals(List.of("ORDER_ITEMS"), findNames("ordIt%", null));
+        Assert.assertEquals(List.of("OrderLines"), findNames("OrdLi%", null));
+        Assert.assertEquals(List.of("order", "lines", "2", "x", "ab"), DBNObjectNameIndex.getCamelHumps("OrderLines2X_ab"));
+    }
+
+    @Test
+    public void testContainsSearch() {
+        Assert.assertEquals(List.of("customer_orders", "ORDER_ITEMS", "OrderLines", "ORDERS"), findNames("%order%", null));
+        Assert.assertEquals(List.of("customer_orders", "OrderLines"), findNames("%order%", salesSchema));
+        Assert.assertEquals(List.of("ORDER_ITEMS"), findNames("%_item_", null));
+    }
+
+    @Test
+    public void testIndexUpdates() {
+        DBSTable table = mockObject(DBSTable.class, "ORDER_HISTORY", publicSchema);
+        index.addObject(table);
+        Assert.assertEquals(List.of("ORDER_HISTORY"), findNames("%hist%", null));
+        index.removeObject(table);
+        Assert.assertEquals(List.of(), findNames("%hist%", null));
+        Assert.assertEquals(6, index.getSize());
+    }
+
+    @Test
+    public void testCompleteness() {
+        Assert.assertTrue(index.isComplete(makeParams("missing%", publicSchema)));
+        Assert.assertFalse(index.isComplete(makeParams("missing%", salesSchema)));
+        Assert.assertFalse(index.isComplete(makeParams("missing%", null)));
+        index.removeObject(publicSchema);
+        Assert.assertFalse(index.isComplete(makeParams("missing%", publicSchema)));
+    }
+
+    @Test
+    public void testRemovedChildResetsCompleteness() {
+        DBSTable table = mockObject(DBSTable.class, "ORDER_HISTORY", publicSchema);
+        index.addObject(table);
+        Assert.assertTrue(index.isComplete(makeParams("order%", publicSchema)));
+        // Collected or filtered out node
+        index.removeObject(table);
+        Assert.assertFalse(index.isComplete(makeParams("order%", publicSchema)));
+        index.setScopeLoaded(publicSchema, table.getClass());
+        Assert.assertTrue(index.isComplete(makeParams("order%", publicSchema)));
+    }
+
+    @Test
+    public void testGlobalCompleteness() {
+        DBSStructureAssistant.ObjectsSearchParams params = makeParams("missing%", publicSchema);
+        params.setGlobalSearch(true);
+        // Schemas list wasn't loaded
+        Assert.assertFalse(index.isComplete(params));
+        index.setScopeLoaded(dataSource, publicSchema.getClass());
+        // Tables of SALES weren't loaded
+        Assert.assertFalse(index.isComplete(params));
+        index.setScopeLoaded(salesSchema, DBSTable.class);
+        Assert.assertTrue(index.isComplete(params));
+        params.setParentObject(null);
+        Assert.assertTrue(index.isComplete(params));
+
+        // New schema appeared in the navigator, its tables weren't loaded
+        DBSSchema newSchema = mockObject(DBSSchema.class, "NEW_SCHEMA", dataSource);
+        index.addObject(newSchema);
+        Assert.assertFalse(index.isComplete(params));
+        index.removeObject(newSchema);
+        index.setScopeLoaded(dataSource, publicSchema.getClass());
+        Assert.assertTrue(index.isComplete(params));
+
+        index.removeObject(orderLines);
+        Assert.assertFalse(index.isComplete(params));
+    }
+
+    @Test
+    public void testSearchInCommentsIsNotComplete() {
+        DBSStructureAssistant.ObjectsSearchParams params = makeParams("missing%", publicSchema);
+        params.setSearchInComments(true);
+        Assert.assertFalse(index.isComplete(params));
+    }
+
+    private List<String> findNames(String mask, DBSObject parent) {
+        List<String> names = new ArrayList<>();
+        for (DBSObjectReference reference : index.findObjects(makeParams(mask, parent))) {
+            names.add(reference.getName());
+        }
+        return names;
+    }
+
+    private static DBSStructureAssistant.ObjectsSearchParams makeParams(String mask, DBSObject parent) {
+        DBSStructureAssistant.ObjectsSearchParams params = new DBSStructureAssistant.ObjectsSearchParams(
+            new DBSObjectType[]{ RelationalObjectType.TYPE_TABLE }, mask);
+        params.setParentObject(parent);
+        params.setMaxResults(10);
+        return params;
+    }
+
+    private static <T extends DBSObject> T mockObject(Class<T> type, String name, DBSObject parent) {
+        T object = Mockito.mock(type);
+        Mockito.when(object.getName()).thenReturn(name);
+        Mockito.when(object.getParentObject()).thenReturn(parent);
+        DBPDataSource dataSource = parent instanceof DBPDataSource ? (DBPDataSource) parent : parent == null ? null : parent.getDataSource();
+        Mockito.when(object.getDataSource()).thenReturn(dataSource);
+        return object;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net.ssh;
+
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.connection.channel.direct.DirectConnection;
+import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.forward.AcceptAllForwardingFilter;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
+import org.jkiss.dbeaver.model.net.DBWTunnel;
+import org.jkiss.dbeaver.model.net.DBWTunnelChannel;
+import org.jkiss.dbeaver.model.net.DBWTunnelSocketFactory;
+import org.jkiss.dbeaver.model.net.ssh.config.SSHHostConfiguration;
+import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Direct channels, tunnel socket factory and local port forwarding against an embedded SSH server
+ */
+public class SSHDirectChannelsTest extends DBeaverUnitTest {
+
+    private static final String LOCALHOST = "127.0.0.1";
+
+    private ServerSocket echoServer;
+    private SshServer sshServer;
+    private SSHClient sshClient;
+    private TestSession session;
+
+    @Before
+    public void startServers() throws Exception {
+        echoServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread echoThread = new Thread(this::runEchoServer, "Echo server");
+        echoThread.setDaemon(true);
+        echoThread.start();
+
+        sshServer = SshServer.setUpDefaultServer();
+        sshServer.setHost(LOCALHOST);
+        sshServer.setPort(0);
+        sshServer.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        sshServer.setPasswordAuthenticator((username, password, serverSession) -> "secret".equals(password));
+        sshServer.setForwardingFilter(AcceptAllForwardingFilter.INSTANCE);
+        sshServer.start();
+
+        sshClient = new SSHClient();
+        sshClient.addHostKeyVerifier(new PromiscuousVerifier());
+        sshClient.connect(LOCALHOST, sshServer.getPort());
+        sshClient.authPassword("test", "secret");
+        session = new TestSession(sshClient);
+    }
+
+    @After
+    public void stopServers() throws Exception {
+        sshClient.disconnect();
+        sshServer.stop(true);
+        echoServer.close();
+    }
+
+    @Test
+    public void testSocketFactory() throws Exception {
+        try (Socket socket = createFactory().createSocket("database", 5432)) {
+            assertEcho(socket, "hello");
+            assertEcho(socket, "again");
+        }
+        Assert.assertEquals(1, session.getStatistics().getChannelsOpened());
+        Assert.assertEquals(10, session.getStatistics().getBytesSent());
+        Assert.assertEquals(10, session.getStatistics().getBytesReceived());
+    }
+
+    @Test
+    public void testSocketReadTimeout() throws Exception {
+        try (Socket socket = createFactory().createSocket("database", 5432)) {
+            socket.setSoTimeout(200);
+            long startTime = System.currentTimeMillis();
+            try {
+                socket.getInputStream().read();
+                Assert.fail("Read must time out");
+            } catch (SocketTimeoutException e) {
+                // Expected
+            }
+            Assert.assertTrue(System.currentTimeMillis() - startTime >= 190);
+            // Socket remains usable after timeout
+            assertEcho(socket, "after timeout");
+        }
+    }
+
+    @Test
+    public void testLocalPortForwarder() throws Exception {
+        SSHPortForwardConfiguration config = new SSHPortForwardConfiguration(LOCALHOST, 0, LOCALHOST, echoServer.getLocalPort());
+        SSHLocalPortForwarder forwarder = new SSHLocalPortForwarder(session, config);
+        try {
+            int localPort = forwarder.getResolvedConfiguration().localPort();
+            Assert.assertNotEquals(0, localPort);
+            try (Socket first = new Socket(LOCALHOST, localPort); Socket second = new Socket(LOCALHOST, localPort)) {
+                assertEcho(first, "first");
+                assertEcho(second, "second");
+                assertEcho(first, "first again");
+            }
+        } finally {
+            forwarder.close();
+        }
+        Assert.assertEquals(2, session.getStatistics().getChannelsOpened());
+    }
+
+    @NotNull
+    private DBWTunnelSocketFactory createFactory() throws IOException {
+        DBWTunnel tunnel = Mockito.mock(DBWTunnel.class);
+        Mockito.when(tunnel.openDirectChannel()).thenAnswer(
+            invocation -> session.openDirectChannel(LOCALHOST, echoServer.getLocalPort()));
+        return new DBWTunnelSocketFactory(DBWTunnelSocketFactory.registerTunnel(tunnel));
+    }
+
+    private static void assertEcho(@NotNull Socket socket, @NotNull String message) throws IOException {
+        byte[] data = message.getBytes(StandardCharsets.UTF_8);
+        OutputStream out = socket.getOutputStream();
+        out.write(data);
+        out.flush();
+        InputStream in = socket.getInputStream();
+        byte[] reply = new byte[data.length];
+        for (int offset = 0; offset < reply.length; ) {
+            int count = in.read(reply, offset, reply.length - offset);
+            Assert.assertTrue("Unexpected end of stream", count > 0);
+            offset += count;
+        }
+        Assert.assertEquals(message, new String(reply, StandardCharsets.UTF_8));
+    }
+
+    private void runEchoServer() {
+        while (!echoServer.isClosed()) {
+            try {
+                Socket socket = echoServer.accept();
+                Thread thread = new Thread(() -> {
+                    try (socket) {
+                        socket.getInputStream().transferTo(socket.getOutputStream());
+                    } catch (IOException e) {
+                        // Connection closed
+                    }
+                }, "Echo connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                // Server closed
+            }
+        }
+    }
+
+    private static class TestSession extends AbstractSession {
+        private final SSHClient client;
+
+        TestSession(@NotNull SSHClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public boolean supportsDirectChannels() {
+            return true;
+        }
+
+        @NotNull
+        @Override
+        protected DBWTunnelChannel createDirectChannel(@NotNull String host, int port) throws IOException {
+            DirectConnection connection = client.newDirectConnection(host, port);
+            return new DBWTunnelChannel() {
+                @NotNull
+                @Override
+                public InputStream getInputStream() {
+                    return connection.getInputStream();
+                }
+
+                @NotNull
+                @Override
+                public OutputStream getOutputStream() {
+                    return connection.getOutputStream();
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return connection.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    connection.close();
+                }
+            };
+        }
+
+        @Override
+        public void connect(
+            @NotNull DBRProgressMonitor monitor,
+            @NotNull SSHHostConfiguration destination,
+            @NotNull DBWHandlerConfiguration configuration
+        ) {
+            // Already connected
+        }
+
+        @Override
+        public void disconnect(@NotNull DBRProgressMonitor monitor, @NotNull DBWHandlerConfiguration configuration, long timeout) {
+            // Client is disconnected by the test
+        }
+
+        @NotNull
+        @Override
+        public SSHPortForwardConfiguration setupPortForward(@NotNull SSHPortForwardConfiguration configuration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removePortForward(@NotNull SSHPortForwardConfiguration configuration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void getFile(@NotNull String src, @NotNull OutputStream dst, @NotNull DBRProgressMonitor monitor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putFile(@NotNull InputStream src, @NotNull String dst, @NotNull DBRProgressMonitor monitor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @NotNull
+        @Override
+        public String getClientVersion() {
+            return client.getTransport().getClientVersion();
+        }
+
+        @NotNull
+        @Override
+        public String getServerVersion() {
+            return client.getTransport().getServerVersion();
+        }
+    }
+}
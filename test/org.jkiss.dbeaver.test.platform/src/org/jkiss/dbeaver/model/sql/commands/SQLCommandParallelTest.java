@@ -0,0 +1,163 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.commands;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPContextProvider;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.sql.*;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.StringWriter;
+import java.util.BitSet;
+import java.util.List;
+
+public class SQLCommandParallelTest extends DBeaverUnitTest {
+
+    @Test
+    public void testParseCommand() throws DBException {
+        Assert.assertEquals(SQLCommandParallel.DEFAULT_CONNECTIONS, handleCommand(null));
+        Assert.assertEquals(SQLCommandParallel.DEFAULT_CONNECTIONS, handleCommand(" "));
+        Assert.assertEquals(SQLCommandParallel.DEFAULT_CONNECTIONS, handleCommand("ON"));
+        Assert.assertEquals(0, handleCommand("off"));
+        Assert.assertEquals(0, handleCommand("0"));
+        Assert.assertEquals(8, handleCommand(" 8 "));
+        Assert.assertEquals(SQLCommandParallel.MAX_CONNECTIONS, handleCommand(String.valueOf(SQLCommandParallel.MAX_CONNECTIONS)));
+
+        Assert.assertThrows(DBException.class, () -> handleCommand("yes"));
+        Assert.assertThrows(DBException.class, () -> handleCommand("-1"));
+        Assert.assertThrows(DBException.class, () -> handleCommand(String.valueOf(SQLCommandParallel.MAX_CONNECTIONS + 1)));
+    }
+
+    @Test
+    public void testParallelStatements() {
+        Assert.assertTrue(isParallel(query("INSERT INTO t1 (id) VALUES (1)")));
+        Assert.assertTrue(isParallel(query("UPDATE t1 SET id = 2 WHERE id = 1")));
+        Assert.assertTrue(isParallel(query("DELETE FROM t1 WHERE id = 2")));
+        Assert.assertTrue(isParallel(query("CREATE INDEX t1_idx ON t1 (id)")));
+        Assert.assertTrue(isParallel(query("CREATE TABLE t2 (id INT)")));
+
+        // Results are not fetched in parallel blocks
+        Assert.assertFalse(isParallel(query("SELECT * FROM t1")));
+        // Transaction and session statements
+        Assert.assertFalse(isParallel(query("BEGIN")));
+        Assert.assertFalse(isParallel(query("START TRANSACTION")));
+        Assert.assertFalse(isParallel(query("COMMIT")));
+        Assert.assertFalse(isParallel(query("SET search_path = test")));
+        Assert.assertFalse(isParallel(query("SET ROLE admin")));
+        Assert.assertFalse(isParallel(query("ALTER SESSION SET CURRENT_SCHEMA = test")));
+        Assert.assertFalse(isParallel(query("CREATE TEMPORARY TABLE tmp1 (id INT)")));
+        Assert.assertFalse(isParallel(query("CREATE TABLE #tmp1 (id INT)")));
+        Assert.assertFalse(isParallel(query("CREATE GLOBAL TEMPORARY TABLE tmp1 (id INT)")));
+        // Unknown statements are barriers unless they follow explicit @parallel command
+        Assert.assertFalse(isParallel(query("ANALYZE t1")));
+
+        SQLQuery parametrizedQuery = query("DELETE FROM t1 WHERE id = ?");
+        parametrizedQuery.setParameters(List.of(Mockito.mock(SQLQueryParameter.class)));
+        Assert.assertFalse(isParallel(parametrizedQuery));
+        Assert.assertFalse(isParallel(Mockito.mock(SQLControlCommand.class)));
+    }
+
+    @Test
+    public void testExplicitBlock() {
+        // Maintenance statements unknown to the parser
+        Assert.assertTrue(isParallelInBlock(query("ANALYZE t1")));
+        Assert.assertTrue(isParallelInBlock(query("VACUUM ANALYZE t1")));
+        Assert.assertTrue(isParallelInBlock(query("REINDEX TABLE t1")));
+        Assert.assertTrue(isParallelInBlock(query("TRUNCATE TABLE t1")));
+        Assert.assertTrue(isParallelInBlock(query("GRANT SELECT ON t1 TO reader")));
+        Assert.assertTrue(isParallelInBlock(query("CREATE FUNCTION f1() RETURNS INT AS 'SELECT 1' LANGUAGE SQL")));
+        Assert.assertTrue(isParallelInBlock(query("CREATE INDEX t1_idx ON t1 (id)")));
+        Assert.assertTrue(isParallelInBlock(query("INSERT INTO t1 (id) VALUES (1)")));
+
+        // Session and transaction statements, temporary tables and queries are still barriers
+        Assert.assertFalse(isParallelInBlock(query("SET search_path = test")));
+        Assert.assertFalse(isParallelInBlock(query("set role admin")));
+        Assert.assertFalse(isParallelInBlock(query("BEGIN")));
+        Assert.assertFalse(isParallelInBlock(query("START TRANSACTION")));
+        Assert.assertFalse(isParallelInBlock(query("COMMIT")));
+        Assert.assertFalse(isParallelInBlock(query("ROLLBACK")));
+        Assert.assertFalse(isParallelInBlock(query("USE test")));
+        Assert.assertFalse(isParallelInBlock(query("ALTER SESSION SET CURRENT_SCHEMA = test")));
+        Assert.assertFalse(isParallelInBlock(query("-- Switch schema\nSET search_path = test")));
+        Assert.assertFalse(isParallelInBlock(query("CREATE TEMP TABLE tmp1 (id INT)")));
+        Assert.assertFalse(isParallelInBlock(query("CREATE LOCAL TEMPORARY TABLE tmp1 (id INT)")));
+        Assert.assertFalse(isParallelInBlock(query("DECLARE GLOBAL TEMPORARY TABLE tmp1 (id INT)")));
+        Assert.assertFalse(isParallelInBlock(query("SELECT * FROM t1")));
+        Assert.assertFalse(isParallelInBlock(query("SHOW search_path")));
+
+        List<SQLScriptElement> queries = List.of(
+            query("VACUUM t1"),
+            query("VACUUM t2"),
+            query("ANALYZE t1"),
+            query("SET search_path = test"),
+            query("ANALYZE t2")
+        );
+        Assert.assertEquals(3, SQLCommandParallel.getParallelBlockEnd(queries, 0, new BitSet(), true));
+        Assert.assertEquals(0, SQLCommandParallel.getParallelBlockEnd(queries, 0, new BitSet(), false));
+    }
+
+    @Test
+    public void testBlockSplitting() {
+        List<SQLScriptElement> queries = List.of(
+            query("CREATE INDEX t1_idx ON t1 (id)"),
+            query("CREATE INDEX t2_idx ON t2 (id)"),
+            query("SET search_path = test"),
+            query("UPDATE t1 SET id = 2"),
+            query("SELECT * FROM t1"),
+            query("DELETE FROM t1"),
+            query("DELETE FROM t2"),
+            query("DELETE FROM t3")
+        );
+        BitSet executed = new BitSet();
+        Assert.assertEquals(2, SQLCommandParallel.getParallelBlockEnd(queries, 0, executed, false));
+        Assert.assertEquals(2, SQLCommandParallel.getParallelBlockEnd(queries, 2, executed, false));
+        Assert.assertEquals(4, SQLCommandParallel.getParallelBlockEnd(queries, 3, executed, false));
+        Assert.assertEquals(4, SQLCommandParallel.getParallelBlockEnd(queries, 4, executed, false));
+        Assert.assertEquals(8, SQLCommandParallel.getParallelBlockEnd(queries, 5, executed, false));
+        Assert.assertEquals(8, SQLCommandParallel.getParallelBlockEnd(queries, 8, executed, false));
+
+        // Block of a retried statement continues over statements already executed in parallel
+        executed.set(6);
+        executed.set(7);
+        Assert.assertEquals(8, SQLCommandParallel.getParallelBlockEnd(queries, 5, executed, false));
+    }
+
+    private static int handleCommand(String parameter) throws DBException {
+        SQLControlCommand command = Mockito.mock(SQLControlCommand.class);
+        Mockito.when(command.getParameter()).thenReturn(parameter);
+        SQLScriptContext scriptContext = new SQLScriptContext(
+            null, Mockito.mock(DBPContextProvider.class), null, new StringWriter(), null);
+        new SQLCommandParallel().handleCommand(new VoidProgressMonitor(), command, scriptContext);
+        return scriptContext.<Integer>getData(SQLCommandParallel.DATA_PARALLEL_CONNECTIONS);
+    }
+
+    private static boolean isParallel(SQLScriptElement element) {
+        return SQLCommandParallel.isParallelStatement(element, false);
+    }
+
+    private static boolean isParallelInBlock(SQLScriptElement element) {
+        return SQLCommandParallel.isParallelStatement(element, true);
+    }
+
+    private static SQLQuery query(String text) {
+        return new SQLQuery(null, text);
+    }
+}
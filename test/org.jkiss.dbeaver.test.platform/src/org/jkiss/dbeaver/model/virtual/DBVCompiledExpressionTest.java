@@ -0,0 +1,253 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.virtual;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlExpression;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDRowIdentifier;
+import org.jkiss.dbeaver.model.exec.DBCAttributeMetaData;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSEntityReferrer;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DBVCompiledExpressionTest extends DBeaverUnitTest {
+
+    @Test
+    public void testVariablesAreResolvedToAttributes() {
+        DBDAttributeBinding[] attributes = createAttributes("price", "quantity", "price");
+        DBVCompiledExpression expression = new DBVCompiledExpression(
+            parse("price * quantity"), attributes, false, null, Collections.emptyMap());
+
+        // Duplicate names refer to the first attribute
+        Assert.assertEquals(30, evaluateInt(expression, 10, 3, 100));
+        Assert.assertEquals(8, evaluateInt(expression, 4, 2, 100));
+        Assert.assertTrue(expression.isCompiledFor(attributes));
+        Assert.assertFalse(expression.isCompiledFor(createAttributes("price", "quantity", "price")));
+    }
+
+    @Test
+    public void testContextObjects() {
+        DBDAttributeBinding[] attributes = createAttributes("a", "factor");
+        DBVCompiledExpression expression = new DBVCompiledExpression(
+            parse("a * factor"), attributes, true, null, Map.of("factor", 5));
+
+        // Context objects take precedence over attributes
+        Assert.assertEquals(15, evaluateInt(expression, 3, 2));
+    }
+
+    @Test
+    public void testMissingValues() {
+        DBDAttributeBinding[] attributes = createAttributes("a", "b");
+        DBVCompiledExpression expression = new DBVCompiledExpression(
+            parse("b == null ? a : b"), attributes, false, null, Collections.emptyMap());
+
+        Assert.assertEquals("x", expression.evaluate(new Object[] {"x", null}));
+        // Short row (e.g. row of a different result set)
+        Assert.assertEquals("y", expression.evaluate(new Object[] {"y"}));
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        DBDAttributeBinding[] attributes = createAttributes("a", "b");
+        DBVCompiledExpression expression = new DBVCompiledExpression(
+            parse("a * 1000 + b"), attributes, false, null, Collections.emptyMap());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int threadIndex = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        if (evaluateInt(expression, threadIndex, i) != threadIndex * 1000 + i) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int evaluateInt(@NotNull DBVCompiledExpression expression, @NotNull Object... row) {
+        return ((Number) expression.evaluate(row)).intValue();
+    }
+
+    @NotNull
+    static JexlExpression parse(@NotNull String expression) {
+        return new JexlBuilder().cache(100).create().createExpression(expression);
+    }
+
+    @NotNull
+    static DBDAttributeBinding[] createAttributes(@NotNull String... names) {
+        DBDAttributeBinding[] attributes = new DBDAttributeBinding[names.length];
+        for (int i = 0; i < names.length; i++) {
+            attributes[i] = new TestAttribute(names[i], i);
+        }
+        return attributes;
+    }
+
+    private static class TestAttribute extends DBDAttributeBinding {
+        private final String name;
+        private final int position;
+
+        TestAttribute(@NotNull String name, int position) {
+            super(null);
+            this.name = name;
+            this.position = position;
+        }
+
+        @Nullable
+        @Override
+        public DBDAttributeBinding getParentObject() {
+            return null;
+        }
+
+        @NotNull
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+
+        @Override
+        public int getOrdinalPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean isRequired() {
+            return false;
+        }
+
+        @Override
+        public boolean isAutoGenerated() {
+            return false;
+        }
+
+        @NotNull
+        @Override
+        public String getLabel() {
+            return name;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public DBCAttributeMetaData getMetaAttribute() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBSEntityAttribute getEntityAttribute() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBDRowIdentifier getRowIdentifier() {
+            return null;
+        }
+
+        @Override
+        public String getRowIdentifierStatus() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public List<DBSEntityReferrer> getReferrers() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Object extractNestedValue(@NotNull Object ownerValue, int itemIndex) {
+            return null;
+        }
+
+        @NotNull
+        @Override
+        public String getTypeName() {
+            return "varchar";
+        }
+
+        @NotNull
+        @Override
+        public String getFullTypeName() {
+            return "varchar";
+        }
+
+        @Override
+        public int getTypeID() {
+            return 0;
+        }
+
+        @NotNull
+        @Override
+        public DBPDataKind getDataKind() {
+            return DBPDataKind.STRING;
+        }
+
+        @Nullable
+        @Override
+        public Integer getScale() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Integer getPrecision() {
+            return null;
+        }
+
+        @Override
+        public long getMaxLength() {
+            return 0;
+        }
+
+        @Override
+        public long getTypeModifiers() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.virtual;
+
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDLabelValuePair;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DBVDictionaryCacheTest extends DBeaverUnitTest {
+
+    private DBPDataSource dataSource;
+    private DBSEntity entity;
+    private DBVDictionaryCache cache;
+    private List<DBSEntityAttribute> keyColumns;
+    private List<DBDValueHandler> keyHandlers;
+    private final List<List<Object[]>> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        dataSource = mock(DBPDataSource.class);
+        entity = mock(DBSEntity.class);
+        when(entity.getDataSource()).thenReturn(dataSource);
+        cache = DBVDictionaryCache.getCache(dataSource);
+        keyColumns = List.of(mock(DBSEntityAttribute.class));
+        keyHandlers = List.of(mock(DBDValueHandler.class));
+    }
+
+    @Test
+    public void testLabelsAreCached() throws Exception {
+        // Result set keys are integers, dictionary keys are longs
+        List<DBDLabelValuePair> labels = getLabels(1, 2, 2, 3, 1);
+        Assert.assertEquals(List.of("label 1", "label 2", "label 3"), labels.stream().map(DBDLabelValuePair::getLabel).toList());
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(3, requests.get(0).size());
+
+        labels = getLabels(3, 2, 4);
+        Assert.assertEquals(List.of("label 3", "label 2", "label 4"), labels.stream().map(DBDLabelValuePair::getLabel).toList());
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals(1, requests.get(1).size());
+    }
+
+    @Test
+    public void testMissingKeysAreCached() throws Exception {
+        Assert.assertEquals(1, getLabels(-1, 5).size());
+        Assert.assertEquals(1, getLabels(-1, 5).size());
+        Assert.assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testLabelsAreInvalidated() throws Exception {
+        getLabels(1, 2);
+        DBVDictionaryCache.invalidate(entity);
+        getLabels(1, 2);
+        Assert.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testDataSourceLabelsAreInvalidated() throws Exception {
+        getLabels(1, 2);
+        Assert.assertEquals(2, cache.getSize());
+        DBVDictionaryCache.invalidate(dataSource);
+        Assert.assertEquals(0, cache.getSize());
+        getLabels(1, 2);
+        Assert.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testCacheDoesNotHoldDataSource() throws Exception {
+        WeakReference<DBPDataSource> dataSourceRef = fillCacheOfNewDataSource();
+        for (int i = 0; i < 100 && dataSourceRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull("Closed data source is held by dictionary cache", dataSourceRef.get());
+    }
+
+    @Test
+    public void testKeysAreReadInBatches() throws Exception {
+        Object[] keys = new Object[DBVDictionaryCache.MAX_BATCH_SIZE * 2 + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 1;
+        }
+        Assert.assertEquals(keys.length, getLabels(keys).size());
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals(DBVDictionaryCache.MAX_BATCH_SIZE, requests.get(0).size());
+        Assert.assertEquals(1, requests.get(2).size());
+    }
+
+    private WeakReference<DBPDataSource> fillCacheOfNewDataSource() throws Exception {
+        // Plain proxies: mock frameworks may keep references to mocks
+        DBPDataSource closedDataSource = createProxy(DBPDataSource.class, null);
+        // Entities reference their data source
+        DBSEntity closedEntity = createProxy(DBSEntity.class, closedDataSource);
+        DBVDictionaryCache.getCache(closedDataSource).getLabels(
+            closedEntity,
+            keyColumns,
+            keyHandlers,
+            "name",
+            List.<Object[]>of(new Object[] { 1 }),
+            batch -> List.of(new DBDLabelValuePair("label 1", 1L)));
+        Assert.assertEquals(1, DBVDictionaryCache.getCache(closedDataSource).getSize());
+        return new WeakReference<>(closedDataSource);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T createProxy(Class<T> type, DBPDataSource dataSource) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> type.getSimpleName();
+                case "getDataSource" -> dataSource;
+                default -> null;
+            });
+    }
+
+    private List<DBDLabelValuePair> getLabels(Object... keys) throws Exception {
+        List<Object[]> keyValues = new ArrayList<>();
+        for (Object key : keys) {
+            keyValues.add(new Object[] { key });
+        }
+        return cache.getLabels(entity, keyColumns, keyHandlers, "name", keyValues, batch -> {
+            requests.add(new ArrayList<>(batch));
+            List<DBDLabelValuePair> result = new ArrayList<>();
+            for (Object[] key : batch) {
+                long id = ((Number) key[0]).longValue();
+                if (id > 0) {
+                    // Only positive keys exist
+                    result.add(new DBDLabelValuePair("label " + id, id));
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.registry.task;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+public class TaskChainHandlerTest extends DBeaverUnitTest {
+
+    private static final Log log = Log.getLog(TaskChainHandlerTest.class);
+
+    /**
+     * Chain run with stub steps. Started steps are finished manually or automatically (see {@link #autoFinish}).
+     */
+    private static class TestChainRun extends TaskChainHandler.ChainRun {
+        private final List<String> startedSteps = Collections.synchronizedList(new ArrayList<>());
+        private final Set<TaskChainHandler.Step> runningSteps = new LinkedHashSet<>();
+        @Nullable
+        private Predicate<TaskChainHandler.Step> autoFinish;
+        private final Set<String> failingSteps = new HashSet<>();
+        private int maxRunningCount;
+        private boolean limitViolated;
+        private int cancelCount;
+
+        TestChainRun(@NotNull List<TaskChainHandler.Step> steps, int parallelism, boolean failFast) {
+            super(steps, parallelism, failFast);
+        }
+
+        @Override
+        protected synchronized void startStep(@NotNull TaskChainHandler.Step step) {
+            startedSteps.add(step.id);
+            runningSteps.add(step);
+            maxRunningCount = Math.max(maxRunningCount, runningSteps.size());
+            for (TaskChainHandler.Step running : runningSteps) {
+                if (running.concurrencyLimit > 0 && runningSteps.size() > running.concurrencyLimit) {
+                    limitViolated = true;
+                }
+            }
+            if (autoFinish == null || autoFinish.test(step)) {
+                finish(step);
+            }
+        }
+
+        @Override
+        protected synchronized void cancelSteps() {
+            cancelCount++;
+            for (TaskChainHandler.Step step : List.copyOf(runningSteps)) {
+                runningSteps.remove(step);
+                stepFinished(step, new InterruptedException("Step canceled"));
+            }
+        }
+
+        synchronized void finish(@NotNull TaskChainHandler.Step step) {
+            if (runningSteps.remove(step)) {
+                stepFinished(step, failingSteps.contains(step.id) ? new DBException("Step " + step.id + " failed") : null);
+            }
+        }
+
+        synchronized boolean hasRunningSteps() {
+            return !runningSteps.isEmpty();
+        }
+
+        synchronized void finishAll() {
+            for (TaskChainHandler.Step step : List.copyOf(runningSteps)) {
+                finish(step);
+            }
+        }
+    }
+
+    @Test
+    public void testDependencyOrder() throws Exception {
+        List<TaskChainHandler.Step> steps = List.of(
+            step(0, "load", 0),
+            step(1, "report", 0, "transform", "validate"),
+            step(2, "transform", 0, "load"),
+            step(3, "validate", 0, "load"),
+            step(4, "cleanup", 0));
+        TaskChainHandler.validateSteps(steps);
+        TestChainRun chainRun = new TestChainRun(steps, 4, false);
+        chainRun.run(new VoidProgressMonitor(), log);
+
+        List<String> started = chainRun.startedSteps;
+        Assert.assertEquals(5, started.size());
+        Assert.assertTrue(started.indexOf("load") < started.indexOf("transform"));
+        Assert.assertTrue(started.indexOf("load") < started.indexOf("validate"));
+        Assert.assertTrue(started.indexOf("transform") < started.indexOf("report"));
+        Assert.assertTrue(started.indexOf("validate") < started.indexOf("report"));
+        Assert.assertEquals("5 of 5 steps completed", chainRun.getSummary());
+    }
+
+    @Test
+    public void testConcurrencyLimits() throws Exception {
+        List<TaskChainHandler.Step> steps = List.of(
+            step(0, "a", 0),
+            step(1, "b", 0),
+            step(2, "c", 0),
+            step(3, "exclusive", 1),
+            step(4, "d", 0));
+        TestChainRun chainRun = new TestChainRun(steps, 2, false);
+        chainRun.autoFinish = step -> false;
+        Thread finisher = new Thread(() -> {
+            try {
+                while (chainRun.startedSteps.size() < steps.size() || chainRun.hasRunningSteps()) {
+                    Thread.sleep(50);
+                    chainRun.finishAll();
+                }
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        });
+        finisher.start();
+        chainRun.run(new VoidProgressMonitor(), log);
+        finisher.join();
+
+        Assert.assertEquals(List.of("a", "b", "c", "exclusive", "d"), chainRun.startedSteps);
+        Assert.assertEquals(2, chainRun.maxRunningCount);
+        Assert.assertFalse(chainRun.limitViolated);
+        Assert.assertEquals("5 of 5 steps completed", chainRun.getSummary());
+    }
+
+    @Test
+    public void testFailedStepSkipsDependents() throws Exception {
+        List<TaskChainHandler.Step> steps = List.of(
+            step(0, "load", 0),
+            step(1, "transform", 0, "load"),
+            step(2, "report", 0, "transform"),
+            step(3, "cleanup", 0));
+        TestChainRun chainRun = new TestChainRun(steps, 1, false);
+        chainRun.failingSteps.add("transform");
+        chainRun.run(new VoidProgressMonitor(), log);
+
+        Assert.assertEquals(List.of("load", "transform", "cleanup"), chainRun.startedSteps);
+        Assert.assertEquals(List.of("transform"), getIds(chainRun.getFailedSteps()));
+        Assert.assertEquals(List.of("report"), getIds(chainRun.getSkippedSteps()));
+        Assert.assertEquals(0, chainRun.cancelCount);
+        Assert.assertEquals("2 of 4 steps completed, 1 failed, 1 skipped", chainRun.getSummary());
+    }
+
+    @Test
+    public void testFailFastCancelsSteps() throws Exception {
+        List<TaskChainHandler.Step> steps = List.of(
+            step(0, "export", 0),
+            step(1, "import", 0),
+            step(2, "report", 0, "export"),
+            step(3, "cleanup", 0));
+        TestChainRun chainRun = new TestChainRun(steps, 2, true);
+        chainRun.failingSteps.add("import");
+        // Export keeps running until it is canceled
+        chainRun.autoFinish = step -> !step.id.equals("export");
+        chainRun.run(new VoidProgressMonitor(), log);
+
+        Assert.assertEquals(List.of("export", "import"), chainRun.startedSteps);
+        Assert.assertEquals(1, chainRun.cancelCount);
+        Assert.assertEquals(List.of("import", "export"), getIds(chainRun.getFailedSteps()));
+        Assert.assertEquals(List.of("report", "cleanup"), getIds(chainRun.getSkippedSteps()));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        List<TaskChainHandler.Step> steps = List.of(
+            step(0, "first", 0),
+            step(1, "second", 0, "first"),
+            step(2, "third", 0, "second"));
+        TestChainRun chainRun = new TestChainRun(steps, 4, false);
+        chainRun.autoFinish = step -> false;
+        VoidProgressMonitor monitor = new VoidProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                return !chainRun.startedSteps.isEmpty();
+            }
+        };
+        chainRun.run(monitor, log);
+
+        Assert.assertEquals(List.of("first"), chainRun.startedSteps);
+        Assert.assertEquals(1, chainRun.cancelCount);
+        Assert.assertEquals(List.of("first"), getIds(chainRun.getFailedSteps()));
+        Assert.assertEquals(List.of("second", "third"), getIds(chainRun.getSkippedSteps()));
+    }
+
+    @Test
+    public void testInvalidSteps() {
+        Assert.assertThrows(DBException.class, () -> TaskChainHandler.validateSteps(List.of(
+            step(0, "a", 0, "c"),
+            step(1, "b", 0, "a"),
+            step(2, "c", 0, "b"))));
+        Assert.assertThrows(DBException.class, () -> TaskChainHandler.validateSteps(List.of(
+            step(0, "a", 0, "missing"))));
+        Assert.assertThrows(DBException.class, () -> TaskChainHandler.validateSteps(List.of(
+            step(0, "a", 0),
+            step(1, "a", 0))));
+    }
+
+    @NotNull
+    private static TaskChainHandler.Step step(int index, @NotNull String id, int concurrencyLimit, @NotNull String... dependsOn) {
+        return new TaskChainHandler.Step(index, id, "task-" + id, List.of(dependsOn), concurrencyLimit);
+    }
+
+    @NotNull
+    private static List<String> getIds(@NotNull Collection<TaskChainHandler.Step> steps) {
+        List<String> ids = new ArrayList<>();
+        for (TaskChainHandler.Step step : steps) {
+            ids.add(step.id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.registry.task;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class TaskRunHistoryTest extends DBeaverUnitTest {
+
+    private final Gson gson = new GsonBuilder().create();
+    private Path folder;
+
+    @Before
+    public void prepareFolder() throws IOException {
+        folder = Files.createTempDirectory("task-history");
+    }
+
+    @Test
+    public void testRecentRuns() {
+        TaskRunHistory history = new TaskRunHistory(folder, gson, 100);
+        for (int i = 0; i < 4; i++) {
+            history.addRun(createRun("run" + i));
+        }
+        TaskRunImpl updatedRun = createRun("run1");
+        updatedRun.setErrorMessage("Failed");
+        history.updateRun(updatedRun);
+        history.removeRun("run2");
+
+        Assert.assertEquals(List.of("run1", "run3"), getRunIds(history.readRecentRuns(2)));
+        List<TaskRunImpl> allRuns = history.readRecentRuns(Integer.MAX_VALUE);
+        Assert.assertEquals(List.of("run0", "run1", "run3"), getRunIds(allRuns));
+        Assert.assertEquals("Failed", allRuns.get(1).getErrorMessage());
+    }
+
+    @Test
+    public void testRetention() throws IOException {
+        TaskRunHistory history = new TaskRunHistory(folder, gson, 3);
+        for (int i = 0; i < 7; i++) {
+            history.addRun(createRun("run" + i));
+            Files.writeString(folder.resolve(TaskUtils.buildRunLogFileName("run" + i)), "log");
+        }
+        Assert.assertEquals(List.of("run4", "run5", "run6"), getRunIds(history.readRecentRuns(Integer.MAX_VALUE)));
+        Assert.assertFalse(Files.exists(folder.resolve(TaskUtils.buildRunLogFileName("run3"))));
+        Assert.assertTrue(Files.exists(folder.resolve(TaskUtils.buildRunLogFileName("run4"))));
+    }
+
+    @Test
+    public void testImport() {
+        TaskRunHistory history = new TaskRunHistory(folder, gson, 3);
+        Assert.assertFalse(history.importRuns(List.of()));
+        List<TaskRunImpl> legacyRuns = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            legacyRuns.add(createRun("run" + i));
+        }
+        Assert.assertTrue(history.importRuns(legacyRuns));
+        Assert.assertEquals(List.of("run4", "run5", "run6"), getRunIds(history.readRecentRuns(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void testIndexRecovery() throws IOException {
+        TaskRunHistory history = new TaskRunHistory(folder, gson, 100);
+        history.addRun(createRun("run0"));
+        history.addRun(createRun("run1"));
+        // Interrupted write
+        Files.writeString(folder.resolve(TaskRunHistory.HISTORY_FILE_NAME), "{\"op\":\"add\",", StandardOpenOption.APPEND);
+
+        TaskRunHistory reopenedHistory = new TaskRunHistory(folder, gson, 100);
+        Assert.assertEquals(List.of("run0", "run1"), getRunIds(reopenedHistory.readRecentRuns(10)));
+        reopenedHistory.addRun(createRun("run2"));
+        Assert.assertEquals(List.of("run1", "run2"), getRunIds(reopenedHistory.readRecentRuns(2)));
+    }
+
+    private static TaskRunImpl createRun(String id) {
+        return new TaskRunImpl(id, new Date(), "user", "test", null, null);
+    }
+
+    private static List<String> getRunIds(List<TaskRunImpl> runs) {
+        return runs.stream().map(TaskRunImpl::getId).toList();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMEventAction;
+import org.jkiss.dbeaver.model.qm.QMEventCursor;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.QMObjectType;
+import org.jkiss.dbeaver.model.qm.QMUtils;
+import org.jkiss.dbeaver.model.qm.filters.QMCursorFilter;
+import org.jkiss.dbeaver.model.qm.filters.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.filters.QMEventStatus;
+import org.jkiss.dbeaver.model.qm.meta.QMMConnectionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMProjectInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMTransactionInfo;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class QMHistoryStoreTest extends DBeaverUnitTest {
+
+    private Path folder;
+
+    @Before
+    public void prepareFolder() throws IOException {
+        folder = Files.createTempDirectory("query-history");
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 0, 0);
+        long time = System.currentTimeMillis();
+        store.addExecutions(List.of(
+            createExecution("pg", "SELECT * FROM customers", time, null),
+            createExecution("pg", "select id from orders", time + 1, null)));
+        store.addExecutions(List.of(
+            createExecution("mysql", "UPDATE orders SET state = 1", time + 2, "Lock timeout")));
+
+        Assert.assertEquals(
+            List.of("UPDATE orders SET state = 1", "select id from orders"),
+            readQueries(store, createCriteria("ORDERS")));
+        // Partial words and text across tokens
+        Assert.assertEquals(List.of("SELECT * FROM customers"), readQueries(store, createCriteria("* from cust")));
+        Assert.assertEquals(List.of(), readQueries(store, createCriteria("orders from")));
+
+        QMEventCriteria containerCriteria = createCriteria(null);
+        containerCriteria.setContainerId("pg");
+        containerCriteria.setDesc(false);
+        Assert.assertEquals(
+            List.of("SELECT * FROM customers", "select id from orders"),
+            readQueries(store, containerCriteria));
+
+        QMEventCriteria statusCriteria = createCriteria("orders");
+        statusCriteria.setEventStatuses(Set.of(QMEventStatus.FAILED));
+        Assert.assertEquals(List.of("UPDATE orders SET state = 1"), readQueries(store, statusCriteria));
+    }
+
+    @Test
+    public void testSealedSegments() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 0, 0, 3);
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < 8; i++) {
+            store.addExecutions(List.of(createExecution("pg", "select " + i + " from table_" + (i % 2), time + i, null)));
+        }
+        Assert.assertEquals(List.of("select 7 from table_1", "select 5 from table_1"), readQueries(store, createCriteria("table_1"), 2));
+
+        QMHistoryStore reopenedStore = new QMHistoryStore(folder, 0, 0, 3);
+        reopenedStore.addExecutions(List.of(createExecution("pg", "select 8 from table_0", time + 8, null)));
+        Assert.assertEquals(9, reopenedStore.getRecordCount());
+        Assert.assertEquals(
+            List.of("select 8 from table_0", "select 6 from table_0", "select 4 from table_0", "select 2 from table_0", "select 0 from table_0"),
+            readQueries(reopenedStore, createCriteria("TABLE_0")));
+
+        QMEventCriteria pageCriteria = createCriteria("table_0");
+        pageCriteria.setLastEventId(5L);
+        Assert.assertEquals(List.of("select 2 from table_0", "select 0 from table_0"), readQueries(reopenedStore, pageCriteria));
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 0, 30, 2);
+        long time = System.currentTimeMillis();
+        long oldTime = time - TimeUnit.DAYS.toMillis(60);
+        store.addExecutions(List.of(
+            createExecution("pg", "select 'old 1'", oldTime, null),
+            createExecution("pg", "select 'old 2'", oldTime + 1, null)));
+        store.addExecutions(List.of(createExecution("pg", "select 'new 1'", time, null)));
+        store.addExecutions(List.of(createExecution("pg", "select 'new 2'", time + 1, null)));
+        Assert.assertEquals(List.of("select 'new 2'", "select 'new 1'"), readQueries(store, createCriteria(null)));
+
+        for (int i = 0; i < 10; i++) {
+            store.addExecutions(List.of(createExecution("pg", "select 'next " + i + "'", time + 2 + i, null)));
+        }
+        long sizeLimit = store.getDiskSize() / 2;
+        store.setRetention(sizeLimit, 30);
+        Assert.assertTrue(store.getDiskSize() <= sizeLimit);
+        List<String> queries = readQueries(store, createCriteria(null));
+        Assert.assertEquals("select 'next 9'", queries.get(0));
+        Assert.assertFalse(queries.contains("select 'new 1'"));
+    }
+
+    @Test
+    public void testMemoryEventsAreMerged() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 0, 0);
+        long time = System.currentTimeMillis();
+        QMMStatementExecuteInfo select1 = createExecution("pg", "select 1", time, null);
+        QMMStatementExecuteInfo select2 = createExecution("pg", "select 2", time + 20, null);
+        store.addExecutions(List.of(select1, select2));
+
+        QMMConnectionInfo connection = select1.getStatement().getConnection();
+        QMMTransactionInfo txn1 = new QMMTransactionInfo(connection, time + 5);
+        QMMTransactionInfo txn2 = new QMMTransactionInfo(connection, time + 30);
+        List<QMEventCriteria> memoryCriteria = new ArrayList<>();
+        store.setMemoryBrowser(cursorFilter -> {
+            memoryCriteria.add(cursorFilter.getCriteria());
+            return new QMUtils.ListCursorImpl(List.of(
+                new QMMetaEvent(txn2, QMEventAction.BEGIN, null),
+                new QMMetaEvent(txn1, QMEventAction.BEGIN, null)));
+        });
+
+        QMEventCriteria criteria = createCriteria(null);
+        criteria.setObjectTypes(new QMObjectType[]{QMObjectType.txn, QMObjectType.query});
+        Assert.assertEquals(List.of(time + 30, time + 20, time + 5, time), readOpenTimes(store, criteria));
+        Assert.assertEquals(1, memoryCriteria.size());
+        Assert.assertArrayEquals(new QMObjectType[]{QMObjectType.txn}, memoryCriteria.get(0).getObjectTypes());
+
+        // Transactions only: nothing to read from the history
+        QMEventCriteria txnCriteria = createCriteria(null);
+        txnCriteria.setObjectTypes(new QMObjectType[]{QMObjectType.txn});
+        Assert.assertEquals(List.of(time + 30, time + 5), readOpenTimes(store, txnCriteria));
+        Assert.assertSame(txnCriteria, memoryCriteria.get(1));
+    }
+
+    private static QMEventCriteria createCriteria(String searchString) {
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setSearchString(searchString);
+        return criteria;
+    }
+
+    private static List<String> readQueries(QMHistoryStore store, QMEventCriteria criteria) throws DBException {
+        return readQueries(store, criteria, Integer.MAX_VALUE);
+    }
+
+    private static List<String> readQueries(QMHistoryStore store, QMEventCriteria criteria, int maxCount) throws DBException {
+        VoidProgressMonitor monitor = new VoidProgressMonitor();
+        List<String> queries = new ArrayList<>();
+        try (QMEventCursor cursor = store.getQueryHistoryCursor(new QMCursorFilter(null, criteria, null))) {
+            while (queries.size() < maxCount && cursor.hasNextEvent(monitor)) {
+                queries.add(((QMMStatementExecuteInfo) cursor.nextEvent(monitor).getObject()).getQueryString());
+            }
+        }
+        return queries;
+    }
+
+    private static List<Long> readOpenTimes(QMHistoryStore store, QMEventCriteria criteria) throws DBException {
+        VoidProgressMonitor monitor = new VoidProgressMonitor();
+        List<Long> openTimes = new ArrayList<>();
+        try (QMEventCursor cursor = store.getQueryHistoryCursor(new QMCursorFilter(null, criteria, null))) {
+            while (cursor.hasNextEvent(monitor)) {
+                openTimes.add(cursor.nextEvent(monitor).getObject().getOpenTime());
+            }
+        }
+        return openTimes;
+    }
+
+    private static QMMStatementExecuteInfo createExecution(String containerId, String query, long time, String error) {
+        QMMConnectionInfo connection = QMMConnectionInfo.builder()
+            .setProjectInfo(QMMProjectInfo.builder().setId("General").setName("General").build())
+            .setContainerId(containerId)
+            .setContainerName(containerId)
+            .setDriverId("test:" + containerId)
+            .build();
+        QMMStatementInfo statement = new QMMStatementInfo(time, time, connection, DBCExecutionPurpose.USER);
+        return new QMMStatementExecuteInfo(time, time + 10, statement, query, 1, 0, error, 0, 0, false, null, null);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.task.DBTTask;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+public class DataTransferCheckpointsTest extends DBeaverUnitTest {
+
+    private Path metadataFolder;
+    private DBTTask task;
+
+    @Before
+    public void setUp() throws IOException {
+        metadataFolder = Files.createTempDirectory("dbeaver-checkpoints");
+        DBPProject project = mock(DBPProject.class);
+        when(project.getMetadataFolder(false)).thenReturn(metadataFolder);
+        task = mock(DBTTask.class);
+        when(task.getId()).thenReturn("transfer-task");
+        when(task.getProject()).thenReturn(project);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(metadataFolder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws DBException {
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, false);
+        checkpoints.getCheckpoint("orders").activate(List.of("id"));
+        checkpoints.getCheckpoint("orders").commit(List.of("100"), 100);
+        checkpoints.getCheckpoint("orders").commit(List.of("150"), 50);
+        checkpoints.getCheckpoint("logs").activate(null);
+        checkpoints.getCheckpoint("customers").activate(List.of("region", "id"));
+        checkpoints.getCheckpoint("customers").complete();
+        checkpoints.getCheckpoint("items");
+        Assert.assertFalse(checkpoints.isCompleted());
+
+        DataTransferCheckpoints loaded = DataTransferCheckpoints.load(task, true);
+        Assert.assertEquals(3, loaded.getStartedCheckpoints().size());
+
+        DataTransferCheckpoints.PipeCheckpoint orders = loaded.getCheckpoint("orders");
+        Assert.assertTrue(orders.isStarted());
+        Assert.assertFalse(orders.isCompleted());
+        Assert.assertFalse(orders.isActive());
+        Assert.assertEquals(List.of("id"), orders.getKeyAttributes());
+        Assert.assertEquals(List.of("150"), orders.getLastKey());
+        Assert.assertEquals(150, orders.getRowsCommitted());
+
+        DataTransferCheckpoints.PipeCheckpoint logs = loaded.getCheckpoint("logs");
+        Assert.assertTrue(logs.isStarted());
+        Assert.assertNull(logs.getKeyAttributes());
+        Assert.assertNull(logs.getLastKey());
+
+        DataTransferCheckpoints.PipeCheckpoint customers = loaded.getCheckpoint("customers");
+        Assert.assertTrue(customers.isCompleted());
+        Assert.assertEquals(List.of("region", "id"), customers.getKeyAttributes());
+
+        Assert.assertFalse(loaded.getCheckpoint("items").isStarted());
+    }
+
+    @Test
+    public void testResumeWithSameKey() throws DBException {
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, false);
+        checkpoints.getCheckpoint("orders").activate(List.of("id"));
+        checkpoints.getCheckpoint("orders").commit(List.of("100"), 100);
+
+        DataTransferCheckpoints.PipeCheckpoint orders = DataTransferCheckpoints.load(task, false).getCheckpoint("orders");
+        orders.activate(List.of("id"));
+        Assert.assertTrue(orders.isResumed());
+        Assert.assertFalse(orders.isRestarted());
+        Assert.assertEquals(List.of("100"), orders.getLastKey());
+        Assert.assertEquals(100, orders.getRowsCommitted());
+    }
+
+    @Test
+    public void testKeyChangeDiscardsProgress() throws DBException {
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, true);
+        checkpoints.getCheckpoint("orders").activate(List.of("id"));
+        checkpoints.getCheckpoint("orders").commit(List.of("100"), 100);
+
+        DataTransferCheckpoints.PipeCheckpoint orders = DataTransferCheckpoints.load(task, true).getCheckpoint("orders");
+        orders.activate(List.of("order_no"));
+        Assert.assertTrue(orders.isRestarted());
+        Assert.assertFalse(orders.isResumed());
+        Assert.assertEquals(List.of("order_no"), orders.getKeyAttributes());
+        Assert.assertNull(orders.getLastKey());
+        Assert.assertEquals(0, orders.getRowsCommitted());
+
+        // Saved progress is discarded as well
+        DataTransferCheckpoints.PipeCheckpoint reloaded = DataTransferCheckpoints.load(task, true).getCheckpoint("orders");
+        Assert.assertEquals(List.of("order_no"), reloaded.getKeyAttributes());
+        Assert.assertNull(reloaded.getLastKey());
+    }
+
+    @Test
+    public void testRestartRequiresTruncate() throws DBException {
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, false);
+        checkpoints.getCheckpoint("orders").activate(List.of("id"));
+        checkpoints.getCheckpoint("orders").commit(List.of("100"), 100);
+        checkpoints.getCheckpoint("logs").activate(null);
+
+        DataTransferCheckpoints resumed = DataTransferCheckpoints.load(task, false);
+        assertResumeRefused(resumed::checkResumable);
+        assertResumeRefused(() -> resumed.getCheckpoint("orders").activate(List.of("order_no")));
+        Assert.assertEquals(List.of("100"), resumed.getCheckpoint("orders").getLastKey());
+
+        DataTransferCheckpoints restarted = DataTransferCheckpoints.load(task, true);
+        restarted.checkResumable();
+        restarted.getCheckpoint("logs").activate(null);
+        Assert.assertTrue(restarted.getCheckpoint("logs").isRestarted());
+    }
+
+    @Test
+    public void testKeyIsNotFoundInCurrentRun() throws DBException {
+        // Pipe of the current run which loses its key is not a restart of the previous run
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, false);
+        DataTransferCheckpoints.PipeCheckpoint orders = checkpoints.getCheckpoint("orders");
+        orders.activate(List.of("id"));
+        orders.activate(null);
+        Assert.assertFalse(orders.isRestarted());
+        Assert.assertFalse(orders.isResumed());
+        Assert.assertNull(orders.getKeyAttributes());
+    }
+
+    @Test
+    public void testCompletedCheckpointsAreDeleted() throws DBException {
+        DataTransferCheckpoints checkpoints = DataTransferCheckpoints.load(task, false);
+        checkpoints.getCheckpoint("orders").activate(List.of("id"));
+        checkpoints.getCheckpoint("logs").activate(null);
+        checkpoints.getCheckpoint("orders").complete();
+        Assert.assertFalse(checkpoints.isCompleted());
+        checkpoints.getCheckpoint("logs").complete();
+        Assert.assertTrue(checkpoints.isCompleted());
+
+        checkpoints.delete();
+        Assert.assertTrue(DataTransferCheckpoints.load(task, false).getStartedCheckpoints().isEmpty());
+    }
+
+    @Test
+    public void testKeysetCondition() {
+        Assert.assertEquals("(id>10)", DataTransferCheckpoints.makeKeysetCondition(List.of("id"), List.of("10")));
+        Assert.assertEquals(
+            "(region>'EU') OR (region='EU' AND \"Id\">10)",
+            DataTransferCheckpoints.makeKeysetCondition(List.of("region", "\"Id\""), List.of("'EU'", "10")));
+        Assert.assertEquals(
+            "(a>1) OR (a=1 AND b>2) OR (a=1 AND b=2 AND c>3)",
+            DataTransferCheckpoints.makeKeysetCondition(List.of("a", "b", "c"), List.of("1", "2", "3")));
+        Assert.assertThrows(
+            IllegalArgumentException.class,
+            () -> DataTransferCheckpoints.makeKeysetCondition(List.of("a", "b"), List.of("1")));
+    }
+
+    private static void assertResumeRefused(@NotNull ThrowingRunnable runnable) {
+        DBException e = Assert.assertThrows(DBException.class, runnable);
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("can't be resumed"));
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceInfo;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class DataTransferPipeBufferTest extends DBeaverUnitTest {
+
+    private static final int COLUMN_COUNT = 2;
+
+    private final AtomicBoolean canceled = new AtomicBoolean();
+    private DBCSession session;
+    private DBPDataSourceInfo dataSourceInfo;
+    private DBCResultSet resultSet;
+    private int sourceRow;
+    private int failedValueRow = -1;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSourceInfo = mock(DBPDataSourceInfo.class);
+        DBPDataSource dataSource = mock(DBPDataSource.class);
+        when(dataSource.getInfo()).thenReturn(dataSourceInfo);
+        session = mock(DBCSession.class);
+        when(session.getDataSource()).thenReturn(dataSource);
+        when(session.getProgressMonitor()).thenReturn(new VoidProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                return canceled.get();
+            }
+        });
+
+        List<DBCAttributeMetaData> attributes = new ArrayList<>();
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            attributes.add(mock(DBCAttributeMetaData.class));
+        }
+        DBCResultSetMetaData meta = mock(DBCResultSetMetaData.class);
+        doReturn(attributes).when(meta).getAttributes();
+        resultSet = mock(DBCResultSet.class);
+        when(resultSet.getMeta()).thenReturn(meta);
+    }
+
+    @Test
+    public void testRowsAreBuffered() throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer();
+        DataTransferPipeBuffer buffer = createBuffer(consumer, 7, DBPDataKind.NUMERIC, DBPDataKind.STRING);
+        transfer(buffer, 1000);
+        buffer.checkError();
+        buffer.close();
+
+        Assert.assertFalse(buffer.isPassthrough());
+        Assert.assertEquals(1000, consumer.rows.size());
+        for (int i = 0; i < consumer.rows.size(); i++) {
+            Assert.assertArrayEquals(new Object[] { i, "value " + i }, consumer.rows.get(i));
+        }
+        Assert.assertNotSame(Thread.currentThread(), consumer.rowThread);
+        Assert.assertTrue(consumer.fetchEnded);
+        Assert.assertTrue(consumer.closed);
+    }
+
+    @Test
+    public void testLobResultSetIsPassedThrough() throws Exception {
+        checkPassthrough(DBPDataKind.NUMERIC, DBPDataKind.CONTENT);
+    }
+
+    @Test
+    public void testComplexResultSetIsPassedThrough() throws Exception {
+        checkPassthrough(DBPDataKind.NUMERIC, DBPDataKind.STRUCT);
+        checkPassthrough(DBPDataKind.ARRAY, DBPDataKind.STRING);
+    }
+
+    @Test
+    public void testDynamicMetadataIsPassedThrough() throws Exception {
+        when(dataSourceInfo.isDynamicMetadata()).thenReturn(true);
+        checkPassthrough(DBPDataKind.NUMERIC, DBPDataKind.STRING);
+    }
+
+    @Test
+    public void testConsumerErrorIsRethrown() throws Exception {
+        DBCException consumerError = new DBCException("Write error");
+        RecordingConsumer consumer = new RecordingConsumer() {
+            @Override
+            public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+                if (rows.size() == 25) {
+                    throw consumerError;
+                }
+                super.fetchRow(session, resultSet);
+            }
+        };
+        DataTransferPipeBuffer buffer = createBuffer(consumer, 10, DBPDataKind.NUMERIC, DBPDataKind.STRING);
+        try {
+            transfer(buffer, 1000);
+            buffer.checkError();
+            Assert.fail("Consumer error wasn't rethrown");
+        } catch (DBCException e) {
+            Assert.assertSame(consumerError, e);
+        } finally {
+            buffer.close();
+        }
+        Assert.assertEquals(25, consumer.rows.size());
+    }
+
+    @Test
+    public void testValueErrorIsRethrownInConsumer() throws Exception {
+        failedValueRow = 15;
+        RecordingConsumer consumer = new RecordingConsumer();
+        DataTransferPipeBuffer buffer = createBuffer(consumer, 10, DBPDataKind.NUMERIC, DBPDataKind.STRING);
+        try {
+            // Value errors do not stop fetch
+            transfer(buffer, 100);
+            buffer.checkError();
+            Assert.fail("Value read error wasn't rethrown");
+        } catch (DBCException e) {
+            Assert.assertEquals("Bad value", e.getMessage());
+        } finally {
+            buffer.close();
+        }
+        Assert.assertEquals(failedValueRow, consumer.rows.size());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer() {
+            @Override
+            public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new DBCException("Interrupted", e);
+                }
+                super.fetchRow(session, resultSet);
+            }
+        };
+        DataTransferPipeBuffer buffer = createBuffer(consumer, 10, DBPDataKind.NUMERIC, DBPDataKind.STRING);
+        buffer.fetchStart(session, resultSet, 0, 0);
+        for (sourceRow = 0; sourceRow < 50; sourceRow++) {
+            buffer.fetchRow(session, resultSet);
+        }
+        canceled.set(true);
+        long startTime = System.currentTimeMillis();
+        for (; sourceRow < 10000; sourceRow++) {
+            buffer.fetchRow(session, resultSet);
+        }
+        buffer.fetchEnd(session, resultSet);
+        buffer.close();
+        Assert.assertTrue("Canceled transfer waited for the consumer", System.currentTimeMillis() - startTime < 5000);
+
+        int consumedRows = consumer.rows.size();
+        // Only rows buffered before the cancel could be consumed
+        Assert.assertTrue(consumedRows < 100);
+        Thread.sleep(100);
+        Assert.assertEquals("Consumer still runs after cancel", consumedRows, consumer.rows.size());
+    }
+
+    private void checkPassthrough(@NotNull DBPDataKind... dataKinds) throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer();
+        DataTransferPipeBuffer buffer = createBuffer(consumer, 7, dataKinds);
+        transfer(buffer, 20);
+        buffer.checkError();
+        buffer.close();
+
+        Assert.assertTrue(buffer.isPassthrough());
+        Assert.assertEquals(20, consumer.rows.size());
+        Assert.assertSame(Thread.currentThread(), consumer.rowThread);
+        Assert.assertSame(resultSet, consumer.rowResultSet);
+    }
+
+    private void transfer(@NotNull DataTransferPipeBuffer buffer, int rowCount) throws DBCException {
+        buffer.fetchStart(session, resultSet, 0, 0);
+        for (sourceRow = 0; sourceRow < rowCount; sourceRow++) {
+            buffer.fetchRow(session, resultSet);
+        }
+        buffer.fetchEnd(session, resultSet);
+    }
+
+    @NotNull
+    private DataTransferPipeBuffer createBuffer(@NotNull DBDDataReceiver consumer, int batchSize, @NotNull DBPDataKind... dataKinds) throws DBCException {
+        DBDAttributeBinding[] bindings = new DBDAttributeBinding[dataKinds.length];
+        for (int i = 0; i < dataKinds.length; i++) {
+            int column = i;
+            DBDValueHandler valueHandler = mock(DBDValueHandler.class);
+            when(valueHandler.fetchValueObject(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+                if (sourceRow == failedValueRow && column == 1) {
+                    throw new DBCException("Bad value");
+                }
+                return column == 0 ? (Object) sourceRow : "value " + sourceRow;
+            });
+            bindings[i] = mock(DBDAttributeBinding.class);
+            when(bindings[i].getOrdinalPosition()).thenReturn(i);
+            when(bindings[i].getDataKind()).thenReturn(dataKinds[i]);
+            when(bindings[i].getValueHandler()).thenReturn(valueHandler);
+        }
+        // Passthrough consumer reads values from the source result set
+        when(resultSet.getAttributeValue(anyInt())).thenAnswer(invocation ->
+            bindings[invocation.<Integer>getArgument(0)].getValueHandler().fetchValueObject(session, resultSet, bindings[0], 0));
+        return new DataTransferPipeBuffer(consumer, mock(DBSDataContainer.class), batchSize, 2) {
+            @NotNull
+            @Override
+            protected DBDAttributeBinding[] getAttributeBindings(@NotNull DBCSession session, @NotNull DBCResultSetMetaData meta) {
+                return bindings;
+            }
+        };
+    }
+
+    private static class RecordingConsumer implements DBDDataReceiver {
+        final List<Object[]> rows = Collections.synchronizedList(new ArrayList<>());
+        volatile Thread rowThread;
+        volatile DBCResultSet rowResultSet;
+        volatile boolean fetchEnded;
+        volatile boolean closed;
+
+        @Override
+        public void fetchStart(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, long offset, long maxRows) {
+        }
+
+        @Override
+        public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+            rowThread = Thread.currentThread();
+            rowResultSet = resultSet;
+            Object[] row = new Object[COLUMN_COUNT];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getAttributeValue(i);
+            }
+            rows.add(row);
+        }
+
+        @Override
+        public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) {
+            fetchEnded = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @NotNull
+        @Override
+        public DBCStatistics getStatistics() {
+            return new DBCStatistics();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.model.DBPObjectStatistics;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+public class DataTransferPipeSchedulerTest extends DBeaverUnitTest {
+
+    @Test
+    public void testPredictMakespan() {
+        Assert.assertEquals(10, DataTransferPipeScheduler.predictMakespan(new long[]{5, 4, 3, 3, 3}, 2));
+        Assert.assertEquals(11, DataTransferPipeScheduler.predictMakespan(new long[]{3, 3, 3, 4, 5}, 2));
+        Assert.assertEquals(18, DataTransferPipeScheduler.predictMakespan(new long[]{5, 4, 3, 3, 3}, 1));
+        Assert.assertEquals(0, DataTransferPipeScheduler.predictMakespan(new long[0], 4));
+    }
+
+    @Test
+    public void testLongestFirst() {
+        DataTransferPipe small = makePipe(10);
+        DataTransferPipe huge = makePipe(1000);
+        DataTransferPipe unknown = makePipe(-1);
+        DataTransferPipe medium = makePipe(300);
+
+        DataTransferPipeScheduler scheduler = DataTransferPipeScheduler.create(
+            new VoidProgressMonitor(), List.of(small, huge, unknown, medium), 2, true);
+        Assert.assertTrue(scheduler.isSizeAware());
+        // Unknown pipe gets the average cost (436)
+        Assert.assertEquals(List.of(huge, unknown, medium, small), scheduler.getSchedule());
+        Assert.assertSame(huge, scheduler.nextPipe());
+        Assert.assertSame(unknown, scheduler.nextPipe());
+        Assert.assertSame(medium, scheduler.nextPipe());
+        Assert.assertSame(small, scheduler.nextPipe());
+        Assert.assertNull(scheduler.nextPipe());
+    }
+
+    @Test
+    public void testListOrder() {
+        DataTransferPipe small = makePipe(10);
+        DataTransferPipe huge = makePipe(1000);
+
+        // Single job
+        DataTransferPipeScheduler scheduler = DataTransferPipeScheduler.create(
+            new VoidProgressMonitor(), List.of(small, huge), 1, true);
+        Assert.assertFalse(scheduler.isSizeAware());
+        Assert.assertEquals(List.of(small, huge), scheduler.getSchedule());
+
+        // Scheduling disabled
+        scheduler = DataTransferPipeScheduler.create(
+            new VoidProgressMonitor(), List.of(small, huge), 4, false);
+        Assert.assertEquals(List.of(small, huge), scheduler.getSchedule());
+
+        // No statistics
+        scheduler = DataTransferPipeScheduler.create(
+            new VoidProgressMonitor(), List.of(makePipe(-1), makePipe(-1)), 4, true);
+        Assert.assertFalse(scheduler.isSizeAware());
+        Assert.assertNull(scheduler.getSummary());
+    }
+
+    private static DataTransferPipe makePipe(long size) {
+        DBSObject object;
+        if (size < 0) {
+            object = Mockito.mock(DBSObject.class);
+        } else {
+            object = Mockito.mock(DBSObject.class, Mockito.withSettings().extraInterfaces(DBPObjectStatistics.class));
+            Mockito.when(((DBPObjectStatistics) object).hasStatistics()).thenReturn(true);
+            Mockito.when(((DBPObjectStatistics) object).getStatObjectSize()).thenReturn(size);
+        }
+        IDataTransferProducer<?> producer = Mockito.mock(IDataTransferProducer.class);
+        Mockito.doReturn(object).when(producer).getDatabaseObject();
+        return new DataTransferPipe(producer, null);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.edit.DBEPersistAction;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class DatabaseTransferParallelWriterTest extends DBeaverUnitTest {
+
+    private static final int WRITER_COUNT = 3;
+
+    private final DBRProgressMonitor monitor = new VoidProgressMonitor();
+    private final DatabaseConsumerSettings settings = new DatabaseConsumerSettings();
+    private final List<Object> insertedRows = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Map<String, Object>, Set<Thread>> optionsThreads = new IdentityHashMap<>();
+    private final List<DBCTransactionManager> transactionManagers = new ArrayList<>();
+    private final AtomicInteger optionsCreated = new AtomicInteger();
+    private DBSDataManipulator targetObject;
+    private DBSInstance targetInstance;
+    private volatile int failedRow = -1;
+
+    @Before
+    public void setUp() throws Exception {
+        settings.setCommitAfterRows(10);
+        settings.setUseTransactions(true);
+
+        DBPPreferenceStore preferenceStore = mock(DBPPreferenceStore.class);
+        DBPDataSourceContainer container = mock(DBPDataSourceContainer.class);
+        when(container.getPreferenceStore()).thenReturn(preferenceStore);
+        DBPDataSource dataSource = mock(DBPDataSource.class);
+        when(dataSource.getContainer()).thenReturn(container);
+
+        targetInstance = mock(DBSInstance.class);
+        when(targetInstance.openIsolatedContext(any(), anyString(), any())).thenAnswer(invocation -> {
+            DBCSession session = mock(DBCSession.class);
+            when(session.getDataSource()).thenReturn(dataSource);
+            DBCExecutionContext context = mock(
+                DBCExecutionContext.class,
+                withSettings().extraInterfaces(DBCTransactionManager.class));
+            when(context.isConnected()).thenReturn(true);
+            when(context.openSession(any(), any(), anyString())).thenReturn(session);
+            DBCTransactionManager txnManager = (DBCTransactionManager) context;
+            when(txnManager.isSupportsTransactions()).thenReturn(true);
+            when(txnManager.isAutoCommit()).thenReturn(true);
+            synchronized (transactionManagers) {
+                transactionManagers.add(txnManager);
+            }
+            return context;
+        });
+
+        targetObject = mock(DBSDataManipulator.class);
+        when(targetObject.insertData(any(), any(), any(), any(), any())).thenAnswer(invocation -> new RecordingBatch());
+    }
+
+    @Test
+    public void testRowsAreWrittenOnce() throws Exception {
+        DatabaseTransferParallelWriter writer = createWriter();
+        try {
+            Assert.assertTrue(writer.start(monitor, targetInstance, WRITER_COUNT));
+            Assert.assertEquals(WRITER_COUNT, writer.getWriterCount());
+            for (int i = 0; i < 95; i++) {
+                writer.addRow(monitor, new Object[] {i});
+            }
+            DBCStatistics statistics = new DBCStatistics();
+            writer.finish(monitor, statistics);
+
+            Set<Object> uniqueRows = new HashSet<>(insertedRows);
+            Assert.assertEquals(95, insertedRows.size());
+            Assert.assertEquals(95, uniqueRows.size());
+            Assert.assertEquals(95L, statistics.getInfo().get("Rows committed"));
+            for (DBCTransactionManager txnManager : transactionManagers) {
+                verify(txnManager).setAutoCommit(any(), eq(false));
+                verify(txnManager, never()).rollback(any(), any());
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testExecuteOptionsAreNotShared() throws Exception {
+        DatabaseTransferParallelWriter writer = createWriter();
+        try {
+            Assert.assertTrue(writer.start(monitor, targetInstance, WRITER_COUNT));
+            for (int i = 0; i < 200; i++) {
+                writer.addRow(monitor, new Object[] {i});
+            }
+            writer.finish(monitor, new DBCStatistics());
+
+            Assert.assertEquals(WRITER_COUNT, optionsCreated.get());
+            Assert.assertFalse(optionsThreads.isEmpty());
+            for (Set<Thread> threads : optionsThreads.values()) {
+                Assert.assertEquals("Execute options are shared between writers", 1, threads.size());
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsReported() throws Exception {
+        failedRow = 25;
+        DatabaseTransferParallelWriter writer = createWriter();
+        try {
+            Assert.assertTrue(writer.start(monitor, targetInstance, WRITER_COUNT));
+            try {
+                for (int i = 0; i < 95; i++) {
+                    writer.addRow(monitor, new Object[] {i});
+                }
+                writer.finish(monitor, new DBCStatistics());
+                Assert.fail("Failed batch is not reported");
+            } catch (DBCException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Error inserting rows 21-30"));
+            }
+            Assert.assertFalse(insertedRows.contains(25));
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testSingleConnectionIsNotParallel() throws Exception {
+        DBCExecutionContext context = mock(DBCExecutionContext.class);
+        when(targetInstance.openIsolatedContext(any(), anyString(), any()))
+            .thenReturn(context)
+            .thenThrow(new DBCException("Too many connections"));
+        DatabaseTransferParallelWriter writer = createWriter();
+        try {
+            Assert.assertFalse(writer.start(monitor, targetInstance, WRITER_COUNT));
+            Assert.assertEquals(0, writer.getWriterCount());
+            verify(context).close();
+        } finally {
+            writer.close();
+        }
+    }
+
+    @NotNull
+    private DatabaseTransferParallelWriter createWriter() {
+        return new DatabaseTransferParallelWriter(
+            settings,
+            targetObject,
+            new DBSAttributeBase[] {mock(DBSAttributeBase.class)},
+            mock(DBCExecutionSource.class),
+            Map.of(),
+            () -> {
+                optionsCreated.incrementAndGet();
+                return new HashMap<>();
+            });
+    }
+
+    private class RecordingBatch implements DBSDataManipulator.ExecuteBatch {
+        private final List<Object> rows = new ArrayList<>();
+
+        @Override
+        public void add(@NotNull Object[] attributeValues) {
+            rows.add(attributeValues[0]);
+        }
+
+        @NotNull
+        @Override
+        public DBCStatistics execute(@NotNull DBCSession session, Map<String, Object> options) throws DBCException {
+            synchronized (optionsThreads) {
+                optionsThreads.computeIfAbsent(options, o -> new HashSet<>()).add(Thread.currentThread());
+            }
+            try {
+                if (rows.contains(failedRow)) {
+                    throw new DBCException("Duplicate key");
+                }
+                insertedRows.addAll(rows);
+                DBCStatistics statistics = new DBCStatistics();
+                statistics.addRowsUpdated(rows.size());
+                return statistics;
+            } finally {
+                rows.clear();
+            }
+        }
+
+        @Override
+        public void generatePersistActions(@NotNull DBCSession session, @NotNull List<DBEPersistAction> actions, Map<String, Object> options) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class ResultSetRowDeliveryTest extends DBeaverUnitTest {
+
+    private final BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+    private final RecordingTarget target = new RecordingTarget();
+    private final DBRProgressMonitor monitor = new VoidProgressMonitor();
+    private long time;
+
+    @Test
+    public void testFirstScreenAndBatches() throws Exception {
+        ResultSetRowDelivery delivery = createDelivery(false, false, 0);
+        addRows(delivery, ResultSetRowDelivery.FIRST_ROWS - 1);
+        Assert.assertEquals(List.of(), target.events);
+
+        // First screen is set in the fetch thread and shown in the UI thread
+        addRows(delivery, 1);
+        Assert.assertEquals(List.of("set 100"), target.events);
+        runUI();
+        Assert.assertEquals(List.of("set 100", "show"), target.events);
+
+        // Not more often than once per frame
+        addRows(delivery, 10);
+        Assert.assertEquals(2, target.events.size());
+        time += ResultSetRowDelivery.FRAME_TIME;
+        addRows(delivery, 1);
+        Assert.assertEquals(2, target.events.size());
+
+        // Batch is appended in the UI thread only
+        runUI();
+        Assert.assertEquals(List.of("set 100", "show", "append 11"), target.events);
+
+        // Next batch waits until the UI thread has appended the previous one
+        time += ResultSetRowDelivery.FRAME_TIME;
+        addRows(delivery, 1);
+        time += ResultSetRowDelivery.FRAME_TIME;
+        addRows(delivery, 5);
+        Assert.assertEquals(3, target.events.size());
+        runUI();
+        Assert.assertEquals(List.of("set 100", "show", "append 11", "append 1"), target.events);
+
+        finish(delivery);
+        Assert.assertEquals(List.of("set 100", "show", "append 11", "append 1", "append 5 last"), target.events);
+        Assert.assertEquals(117, delivery.getDeliveredRows());
+        Assert.assertEquals(117, target.rowCount);
+        Assert.assertTrue(target.appendThreads.stream().allMatch(thread -> thread.getName().equals("UI")));
+    }
+
+    @Test
+    public void testSmallResult() throws Exception {
+        ResultSetRowDelivery delivery = createDelivery(false, false, 0);
+        addRows(delivery, 10);
+        finish(delivery);
+        Assert.assertEquals(List.of("set 10", "show"), target.events);
+        Assert.assertEquals(10, delivery.getDeliveredRows());
+    }
+
+    @Test
+    public void testFocusRow() {
+        ResultSetRowDelivery delivery = createDelivery(false, false, 250);
+        addRows(delivery, 250);
+        Assert.assertEquals(List.of(), target.events);
+        addRows(delivery, 1);
+        Assert.assertEquals(List.of("set 251"), target.events);
+    }
+
+    @Test
+    public void testResetOldRows() throws Exception {
+        ResultSetRowDelivery delivery = createDelivery(true, true, 0);
+        // Next segment is appended to shown rows: no first screen
+        addRows(delivery, 10);
+        Assert.assertEquals(List.of(), target.events);
+        time += ResultSetRowDelivery.FRAME_TIME;
+        addRows(delivery, 1);
+        runUI();
+        time += ResultSetRowDelivery.FRAME_TIME;
+        addRows(delivery, 1);
+        runUI();
+        finish(delivery);
+        // Old rows are removed by the first batch only
+        Assert.assertEquals(List.of("append 11 reset", "append 1", "append 0 last"), target.events);
+
+        target.events.clear();
+        delivery = createDelivery(true, false, 0);
+        time += ResultSetRowDelivery.FRAME_TIME;
+        addRows(delivery, 1);
+        finish(delivery);
+        Assert.assertEquals(List.of("append 1", "append 0 last"), target.events);
+
+        // Small next segment is appended in one batch
+        target.events.clear();
+        delivery = createDelivery(true, true, 0);
+        addRows(delivery, 5);
+        finish(delivery);
+        Assert.assertEquals(List.of("append 5 reset last"), target.events);
+    }
+
+    @Test
+    public void testPendingRowsLimit() throws Exception {
+        ResultSetRowDelivery delivery = createDelivery(false, false, 0);
+        addRows(delivery, ResultSetRowDelivery.FIRST_ROWS);
+        // UI thread is busy: rows are accumulated until the limit
+        addRows(delivery, ResultSetRowDelivery.MAX_PENDING_ROWS - 1);
+        Assert.assertEquals(1, target.events.size());
+
+        Future<?> fetch = ForkJoinPool.commonPool().submit(() -> addRows(delivery, 1));
+        Assert.assertThrows(TimeoutException.class, () -> fetch.get(300, TimeUnit.MILLISECONDS));
+        runUI();
+        fetch.get(10, TimeUnit.SECONDS);
+        runUI();
+        Assert.assertEquals(List.of("set 100", "show", "append " + ResultSetRowDelivery.MAX_PENDING_ROWS), target.events);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        DBRProgressMonitor canceledMonitor = Mockito.mock(DBRProgressMonitor.class);
+        Mockito.when(canceledMonitor.isCanceled()).thenReturn(true);
+        ResultSetRowDelivery delivery = createDelivery(false, false, 0);
+        addRows(delivery, ResultSetRowDelivery.FIRST_ROWS);
+        // UI thread doesn't run: canceled fetch doesn't wait for it
+        delivery.finish(canceledMonitor);
+        Assert.assertEquals(List.of("set 100"), target.events);
+
+        // Disposed viewer isn't updated
+        target.disposed = true;
+        runUI();
+        Assert.assertEquals(List.of("set 100"), target.events);
+    }
+
+    private ResultSetRowDelivery createDelivery(boolean nextSegmentRead, boolean resetOldRows, int focusRow) {
+        return new ResultSetRowDelivery(target, uiQueue::add, () -> time, nextSegmentRead, resetOldRows, focusRow);
+    }
+
+    private void addRows(ResultSetRowDelivery delivery, int count) {
+        for (int i = 0; i < count; i++) {
+            delivery.addRow(monitor, new Object[]{i});
+        }
+    }
+
+    private void finish(ResultSetRowDelivery delivery) throws Exception {
+        // Fetch thread waits for the UI thread
+        Future<?> fetch = ForkJoinPool.commonPool().submit(() -> delivery.finish(monitor));
+        while (!fetch.isDone()) {
+            Runnable runnable = uiQueue.poll(10, TimeUnit.MILLISECONDS);
+            if (runnable != null) {
+                runInUIThread(runnable);
+            }
+        }
+        fetch.get();
+        runUI();
+    }
+
+    private void runUI() throws InterruptedException {
+        for (Runnable runnable = uiQueue.poll(); runnable != null; runnable = uiQueue.poll()) {
+            runInUIThread(runnable);
+        }
+    }
+
+    private static void runInUIThread(Runnable runnable) throws InterruptedException {
+        Thread thread = new Thread(runnable, "UI");
+        thread.start();
+        thread.join();
+    }
+
+    private static class RecordingTarget implements ResultSetRowDelivery.Target {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final List<Thread> appendThreads = Collections.synchronizedList(new ArrayList<>());
+        private volatile int rowCount;
+        private volatile boolean disposed;
+
+        @Override
+        public void setRows(@NotNull List<Object[]> rows) {
+            events.add("set " + rows.size());
+            rowCount = rows.size();
+        }
+
+        @Override
+        public void showRows() {
+            events.add("show");
+        }
+
+        @Override
+        public void appendRows(@NotNull List<Object[]> rows, boolean resetOldRows, boolean lastBatch) {
+            events.add("append " + rows.size() + (resetOldRows ? " reset" : "") + (lastBatch ? " last" : ""));
+            appendThreads.add(Thread.currentThread());
+            rowCount = (resetOldRows ? 0 : rowCount) + rows.size();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.junit.DBeaverUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class ResultSetRowStoreTest extends DBeaverUnitTest {
+
+    private static final int ROW_COUNT = ResultSetRowStore.PAGE_SIZE * 5;
+
+    private Path spillFolder;
+    private ResultSetRowStore store;
+    private final List<ResultSetRow> rows = new ArrayList<>();
+
+    @Before
+    public void createStore() throws Exception {
+        spillFolder = Files.createTempDirectory("rows-store-test");
+        // Minimal budget: everything except the last and the used page is written to disk
+        store = new ResultSetRowStore(() -> 1, spillFolder, null);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            ResultSetRow row = new ResultSetRow(i, new Object[]{i, "row " + i});
+            rows.add(row);
+            store.add(row);
+        }
+    }
+
+    @After
+    public void disposeStore() throws Exception {
+        store.dispose(ResultSetRow::release);
+        try (var files = Files.list(spillFolder)) {
+            Assert.assertEquals(0, files.count());
+        }
+        Files.delete(spillFolder);
+    }
+
+    @Test
+    public void testSpilledRowsAreRestored() {
+        Assert.assertTrue(store.getSpilledPageCount() > 0);
+        Assert.assertNull(rows.get(0).getHeapValues());
+
+        for (int i = 0; i < ROW_COUNT; i++) {
+            ResultSetRow row = store.get(i);
+            Assert.assertSame(rows.get(i), row);
+            Assert.assertArrayEquals(new Object[]{i, "row " + i}, row.getValues());
+        }
+        Assert.assertSame(rows.get(0), store.toArray()[0]);
+    }
+
+    @Test
+    public void testEditOfSpilledRowIsKept() {
+        ResultSetRow row = rows.get(10);
+        Assert.assertNull(row.getHeapValues());
+
+        Object[] values = row.getValues();
+        row.addChange(null, values[1]);
+        values[1] = "edited";
+
+        // Read all other rows, unmodified pages are written again
+        for (int i = ResultSetRowStore.PAGE_SIZE; i < ROW_COUNT; i++) {
+            store.get(i).getValues();
+        }
+        Assert.assertNotNull(row.getHeapValues());
+        Assert.assertSame(row, store.get(10));
+        Assert.assertEquals("edited", row.getValues()[1]);
+        Assert.assertEquals("row 11", rows.get(11).getValues()[1]);
+    }
+
+    @Test
+    public void testRemoveAndReRead() {
+        Assert.assertNull(rows.get(10).getHeapValues());
+        int spilledPages = store.getSpilledPageCount();
+
+        Assert.assertSame(rows.get(10), store.remove(10));
+        // Region of the modified page is released
+        Assert.assertEquals(spilledPages - 1, store.getSpilledPageCount());
+        Assert.assertSame(rows.get(ResultSetRowStore.PAGE_SIZE * 2 + 5), store.remove(ResultSetRowStore.PAGE_SIZE * 2 + 4));
+        Assert.assertEquals(ROW_COUNT - 2, store.size());
+
+        for (int i = 0; i < store.size(); i++) {
+            int rowNumber = i < 10 ? i : (i < ResultSetRowStore.PAGE_SIZE * 2 + 4 ? i + 1 : i + 2);
+            ResultSetRow row = store.get(i);
+            Assert.assertEquals(rowNumber, row.getRowNumber());
+            Assert.assertArrayEquals(new Object[]{rowNumber, "row " + rowNumber}, row.getValues());
+        }
+    }
+
+    @Test
+    public void testReplaceAndReRead() {
+        ResultSetRow newRow = new ResultSetRow(5, new Object[]{-5, "new row"});
+        Assert.assertSame(rows.get(5), store.set(5, newRow));
+        Assert.assertSame(newRow, store.get(5));
+
+        // Write and read all pages again
+        for (int i = ResultSetRowStore.PAGE_SIZE; i < ROW_COUNT; i++) {
+            store.get(i).getValues();
+        }
+        Assert.assertNull(newRow.getHeapValues());
+        Assert.assertSame(newRow, store.get(5));
+        Assert.assertArrayEquals(new Object[]{-5, "new row"}, newRow.getValues());
+        Assert.assertArrayEquals(new Object[]{6, "row 6"}, store.get(6).getValues());
+    }
+
+    @Test
+    public void testRemovedRowsReleaseFile() {
+        Assert.assertTrue(store.getSpillFileSize() > 0);
+        while (!store.isEmpty()) {
+            store.remove(store.size() / 2);
+        }
+        Assert.assertEquals(0, store.getSpilledPageCount());
+        Assert.assertEquals(0, store.getSpillFileSize());
+    }
+
+    @Test
+    public void testRowsAreRecreated() {
+        List<List<ResultSetRow>> recreatedRows = new ArrayList<>();
+        ResultSetRowStore rowStore = new ResultSetRowStore(() -> 1, spillFolder, recreatedRows::add);
+        try {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                ResultSetRow row = new ResultSetRow(i, new Object[]{i, "row " + i});
+                row.setVisualNumber(ROW_COUNT - i);
+                rowStore.add(row);
+            }
+            // Row objects of written pages are not referenced anymore and may be collected
+            System.gc();
+            for (int i = 0; i < ROW_COUNT; i++) {
+                ResultSetRow row = rowStore.get(i);
+                Assert.assertEquals(i, row.getRowNumber());
+                Assert.assertEquals(ROW_COUNT - i, row.getVisualNumber());
+                Assert.assertArrayEquals(new Object[]{i, "row " + i}, row.getValues());
+            }
+            for (List<ResultSetRow> pageRows : recreatedRows) {
+                Assert.assertEquals(ResultSetRowStore.PAGE_SIZE, pageRows.size());
+            }
+        } finally {
+            rowStore.dispose(ResultSetRow::release);
+        }
+    }
+
+    @Test
+    public void testSortKeepsRows() {
+        store.sort(Comparator.comparingInt(row -> -(Integer) row.getValues()[0]));
+
+        Assert.assertEquals(ROW_COUNT, store.size());
+        Assert.assertSame(rows.get(ROW_COUNT - 1), store.get(0));
+        Assert.assertSame(rows.get(0), store.get(ROW_COUNT - 1));
+        Assert.assertTrue(store.getSpilledPageCount() > 0);
+        Assert.assertEquals("row 0", store.get(ROW_COUNT - 1).getValues()[1]);
+    }
+}